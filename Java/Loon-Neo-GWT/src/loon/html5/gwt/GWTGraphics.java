@@ -36,6 +36,7 @@ import loon.geom.Dimension;
 import loon.html5.gwt.GWTGame.GWTSetting;
 import loon.html5.gwt.Loon.OrientationChangedHandler;
 import loon.opengl.GL20;
+import loon.opengl.GLStateFilter;
 import loon.utils.GLUtils;
 import loon.utils.Scale;
 
@@ -118,7 +119,7 @@ public class GWTGraphics extends Graphics {
 			throw new RuntimeException("Unable to create GL context");
 		}
 
-		((GWTGL20) gl).init(glc);
+		((GWTGL20) GLStateFilter.unwrap(gl)).init(glc);
 
 		if (config.scaling()) {
 			glc.viewport(0, 0, config.width_zoom, config.height_zoom);
@@ -241,7 +242,7 @@ public class GWTGraphics extends Graphics {
 
 	void updateTexture(int tex, ImageElement img) {
 		GLUtils.bindTexture(gl, tex);
-		((GWTGL20) gl).glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGBA,
+		((GWTGL20) GLStateFilter.unwrap(gl)).glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGBA,
 				GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE, img);
 	}
 
@@ -484,7 +484,10 @@ public class JavaSEAssets extends Assets {
 
 	protected Sound getSound(String path, boolean music) {
 		if (_audio == null) {
-			_audio = new JavaSEAudio();
+			int voices = (game.setting instanceof JavaSEGame.JavaSetting)
+					? ((JavaSEGame.JavaSetting) game.setting).audioVoices : 0;
+			_audio = voices > 0 ? new JavaSEAudio(new JavaSEAudioMixer(voices, new JavaSELineSink()))
+					: new JavaSEAudio();
 		}
 		Exception err = null;
 		String ext = LSystem.getExtension(path);
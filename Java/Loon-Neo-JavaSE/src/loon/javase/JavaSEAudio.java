@@ -20,6 +20,7 @@
  */
 package loon.javase;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -34,6 +35,34 @@ import loon.event.Updateable;
 
 public class JavaSEAudio {
 
+	private JavaSEAudioMixer mixer;
+
+	public JavaSEAudio() {
+		this(null);
+	}
+
+	/**
+	 * 使用软件混音器播放全部声音(不再为每个声音单独打开Clip),mixer为null时仍使用Clip
+	 * 
+	 * @param mixer
+	 */
+	public JavaSEAudio(JavaSEAudioMixer mixer) {
+		if (mixer != null) {
+			try {
+				mixer.start();
+			} catch (Exception e) {
+				LSystem.error("Audio mixer unavailable, using clips", e);
+				mixer.close();
+				mixer = null;
+			}
+		}
+		this.mixer = mixer;
+	}
+
+	public JavaSEAudioMixer getMixer() {
+		return mixer;
+	}
+
 	protected static <I> void dispatchLoaded(final SoundImpl<I> sound,
 			final I impl) {
 		Updateable update = new Updateable() {
@@ -60,7 +89,25 @@ public class JavaSEAudio {
 			final boolean music) {
 		final JavaSESound sound = new JavaSESound();
 		String ext = LSystem.getExtension(path);
-		if ("ogg".equalsIgnoreCase(ext)) {
+		if (mixer != null) {
+			sound.loadMixer(mixer, music ? 1 : 0);
+			final boolean ogg = "ogg".equalsIgnoreCase(ext);
+			LSystem.load(new Updateable() {
+				public void action(Object o) {
+					try {
+						JavaSEAudioStream stream;
+						if (ogg) {
+							stream = new JavaSEOggStream(readBytes(in));
+						} else {
+							stream = JavaSEPcmStream.decode(in);
+						}
+						dispatchLoaded(sound, stream);
+					} catch (Exception e) {
+						dispatchLoadError(sound, e);
+					}
+				}
+			});
+		} else if ("ogg".equalsIgnoreCase(ext)) {
 			LSystem.load(new Updateable() {
 				public void action(Object o) {
 					try {
@@ -103,16 +150,32 @@ public class JavaSEAudio {
 		return sound;
 	}
 
-	public void onPause() {
+	private static byte[] readBytes(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 4096));
+		byte[] buffer = new byte[4096];
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			out.write(buffer, 0, len);
+		}
+		return out.toByteArray();
+	}
 
+	public void onPause() {
+		if (mixer != null) {
+			mixer.pause();
+		}
 	}
 
 	public void onResume() {
-
+		if (mixer != null) {
+			mixer.resume();
+		}
 	}
 
 	public void onDestroy() {
-
+		if (mixer != null) {
+			mixer.close();
+		}
 	}
 
 }
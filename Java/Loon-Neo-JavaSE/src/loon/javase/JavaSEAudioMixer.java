@@ -0,0 +1,696 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+/**
+ * 单线路的软件混音器:所有声音混合后写入同一个JavaSEAudioSink,声部数量有硬上限,超出时按优先级(同级取最早开始者)抢占.
+ * 
+ * 混音使用16.16定点数(音量,声像与重采样步进),每个声部只缓存少量解码后的帧,ogg由JavaSEOggStream按需解码.
+ * 解码在锁外写入各声部的暂存区,只有整理缓存,合并暂存数据与混音在同步块中进行,因此解码不会阻塞play,stop等调用.
+ * 
+ * 调用start后由独立线程驱动,也可不启动线程直接调用render(例如配合JavaSENullSink在无头环境下运行).
+ */
+public class JavaSEAudioMixer implements Runnable {
+
+	public final static int RATE = 44100;
+
+	public final static int CHANNELS = 2;
+
+	private final static int FIXED_SHIFT = 16;
+
+	private final static int FIXED_ONE = 1 << FIXED_SHIFT;
+
+	private final static int FIXED_MASK = FIXED_ONE - 1;
+
+	// 每个声部缓存的源数据帧数
+	private final static int VOICE_FRAMES = 1024;
+
+	private static class Voice {
+
+		final short[] buffer = new short[VOICE_FRAMES * 2];
+
+		// 锁外解码的暂存区
+		final short[] stage = new short[VOICE_FRAMES * 2];
+
+		JavaSEAudioStream stream;
+
+		// 正在锁外解码的声源,解码期间被释放时不立即关闭,由fillClose标记留待合并时关闭
+		JavaSEAudioStream fillStream;
+
+		boolean fillClose;
+
+		boolean fillLoop;
+
+		boolean fillEnded;
+
+		int fillSpace;
+
+		int fillCount;
+
+		Object owner;
+
+		int id;
+
+		long serial;
+
+		int priority;
+
+		boolean loop;
+
+		boolean ended;
+
+		int channels;
+
+		// 已缓存的帧数,当前位置(16.16定点,相对buffer开头)与步进
+		int count;
+
+		int pos;
+
+		int step;
+
+		float volume;
+
+		float pan;
+
+		int gainLeft;
+
+		int gainRight;
+
+		boolean active() {
+			return stream != null;
+		}
+	}
+
+	private final Voice[] voices;
+
+	// 本块需要补充数据的声部,只由渲染线程使用
+	private final Voice[] fills;
+
+	private final JavaSEAudioSink sink;
+
+	private final int blockFrames;
+
+	private final int[] mixBuffer;
+
+	private final byte[] outBuffer;
+
+	private float masterVolume = 1f;
+
+	private int idCounter;
+
+	private long serialCounter;
+
+	private int activeCount;
+
+	private int stolenCount;
+
+	private int rejectedCount;
+
+	private boolean opened;
+
+	private boolean paused;
+
+	private volatile boolean running;
+
+	private Thread thread;
+
+	public JavaSEAudioMixer(int maxVoices, JavaSEAudioSink sink) {
+		this(maxVoices, sink, 512);
+	}
+
+	public JavaSEAudioMixer(int maxVoices, JavaSEAudioSink sink, int blockFrames) {
+		if (maxVoices < 1) {
+			throw new IllegalArgumentException("maxVoices must be greater than 0");
+		}
+		if (sink == null) {
+			throw new IllegalArgumentException("sink cannot be null");
+		}
+		this.voices = new Voice[maxVoices];
+		this.fills = new Voice[maxVoices];
+		for (int i = 0; i < maxVoices; i++) {
+			voices[i] = new Voice();
+		}
+		this.sink = sink;
+		this.blockFrames = blockFrames < 64 ? 64 : blockFrames;
+		this.mixBuffer = new int[this.blockFrames * CHANNELS];
+		this.outBuffer = new byte[this.blockFrames * CHANNELS * 2];
+	}
+
+	/**
+	 * 打开输出端(不启动混音线程)
+	 * 
+	 * @throws Exception
+	 */
+	public synchronized void open() throws Exception {
+		if (!opened) {
+			sink.open(RATE, CHANNELS);
+			opened = true;
+		}
+	}
+
+	/**
+	 * 打开输出端并启动混音线程
+	 * 
+	 * @throws Exception
+	 */
+	public synchronized void start() throws Exception {
+		open();
+		if (thread == null) {
+			running = true;
+			thread = new Thread(this, "JavaSEAudioMixer");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MAX_PRIORITY);
+			thread.start();
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			if (isIdle()) {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					break;
+				}
+				continue;
+			}
+			render(blockFrames);
+		}
+	}
+
+	private synchronized boolean isIdle() {
+		return paused || activeCount == 0;
+	}
+
+	/**
+	 * 混合指定帧数并写入输出端
+	 * 
+	 * @param frames
+	 * @return
+	 */
+	public int render(int frames) {
+		int done = 0;
+		while (done < frames) {
+			int len = Math.min(blockFrames, frames - done);
+			final int count = prepareFills(len);
+			for (int i = 0; i < count; i++) {
+				decode(fills[i]);
+			}
+			synchronized (this) {
+				commitFills(count);
+				mix(len);
+				final int[] mix = mixBuffer;
+				final byte[] out = outBuffer;
+				for (int i = 0, j = 0, size = len * CHANNELS; i < size; i++, j += 2) {
+					int val = mix[i];
+					if (val > 32767) {
+						val = 32767;
+					} else if (val < -32768) {
+						val = -32768;
+					}
+					out[j] = (byte) val;
+					out[j + 1] = (byte) (val >> 8);
+				}
+			}
+			sink.write(outBuffer, 0, len * CHANNELS * 2);
+			done += len;
+		}
+		return done;
+	}
+
+	/**
+	 * 找出本块中会耗尽缓存的声部,整理其缓存并记录待解码的声源
+	 */
+	private synchronized int prepareFills(int frames) {
+		if (paused) {
+			return 0;
+		}
+		int count = 0;
+		for (int i = 0; i < voices.length; i++) {
+			Voice v = voices[i];
+			if (!v.active() || v.ended) {
+				continue;
+			}
+			long end = ((long) v.pos + (long) v.step * frames) >>> FIXED_SHIFT;
+			if (end + 1 < v.count) {
+				continue;
+			}
+			compact(v);
+			v.fillStream = v.stream;
+			v.fillClose = false;
+			v.fillLoop = v.loop;
+			v.fillSpace = VOICE_FRAMES - v.count;
+			fills[count++] = v;
+		}
+		return count;
+	}
+
+	/**
+	 * 在锁外把声源数据解码到暂存区
+	 */
+	private void decode(Voice v) {
+		final JavaSEAudioStream stream = v.fillStream;
+		final int space = v.fillSpace;
+		int count = 0;
+		boolean ended = false;
+		boolean rewound = false;
+		while (count < space && !ended) {
+			int len = stream.read(v.stage, count, space - count);
+			if (len > 0) {
+				count += len;
+				rewound = false;
+			} else if (v.fillLoop && !rewound) {
+				try {
+					stream.rewind();
+					rewound = true;
+				} catch (Exception e) {
+					ended = true;
+				}
+			} else {
+				ended = true;
+			}
+		}
+		v.fillCount = count;
+		v.fillEnded = ended;
+	}
+
+	/**
+	 * 把暂存区数据并入仍在播放同一声源的声部,解码期间已被释放的声源在此关闭
+	 */
+	private void commitFills(int count) {
+		for (int i = 0; i < count; i++) {
+			Voice v = fills[i];
+			fills[i] = null;
+			JavaSEAudioStream stream = v.fillStream;
+			v.fillStream = null;
+			if (v.fillClose) {
+				v.fillClose = false;
+				stream.close();
+				continue;
+			}
+			if (v.stream != stream) {
+				continue;
+			}
+			final int ch = v.channels;
+			System.arraycopy(v.stage, 0, v.buffer, v.count * ch, v.fillCount * ch);
+			v.count += v.fillCount;
+			if (v.fillEnded) {
+				v.ended = true;
+			}
+		}
+	}
+
+	private void mix(int frames) {
+		final int[] mix = mixBuffer;
+		for (int i = 0, size = frames * CHANNELS; i < size; i++) {
+			mix[i] = 0;
+		}
+		if (paused) {
+			return;
+		}
+		for (int i = 0; i < voices.length; i++) {
+			Voice v = voices[i];
+			if (v.active()) {
+				mixVoice(v, frames);
+			}
+		}
+	}
+
+	private void mixVoice(Voice v, int frames) {
+		final int[] mix = mixBuffer;
+		final short[] buf = v.buffer;
+		final int ch = v.channels;
+		final int step = v.step;
+		final int gl = v.gainLeft;
+		final int gr = v.gainRight;
+		int count = v.count;
+		int pos = v.pos;
+		for (int i = 0, o = 0; i < frames; i++, o += 2) {
+			int idx = pos >>> FIXED_SHIFT;
+			if (idx + 1 >= count) {
+				// 通常已由prepareFills在锁外补足,只有单块所需源数据超过缓存容量时才在此同步解码
+				v.pos = pos;
+				fill(v);
+				pos = v.pos;
+				count = v.count;
+				idx = pos >>> FIXED_SHIFT;
+				if (idx + 1 >= count) {
+					release(v);
+					return;
+				}
+			}
+			// 线性插值,小数部分取15位以免乘法溢出
+			int frac = (pos & FIXED_MASK) >>> 1;
+			int a = idx * ch;
+			int left = buf[a];
+			left += ((buf[a + ch] - left) * frac) >> 15;
+			int right;
+			if (ch == 1) {
+				right = left;
+			} else {
+				right = buf[a + 1];
+				right += ((buf[a + ch + 1] - right) * frac) >> 15;
+			}
+			mix[o] += (left * gl) >> FIXED_SHIFT;
+			mix[o + 1] += (right * gr) >> FIXED_SHIFT;
+			pos += step;
+		}
+		v.pos = pos;
+	}
+
+	/**
+	 * 保留尚未播放的帧并从声源补充数据
+	 */
+	private void fill(Voice v) {
+		final short[] buf = v.buffer;
+		compact(v);
+		boolean rewound = false;
+		while (v.count < VOICE_FRAMES && !v.ended) {
+			int len = v.stream.read(buf, v.count, VOICE_FRAMES - v.count);
+			if (len > 0) {
+				v.count += len;
+				rewound = false;
+			} else if (v.loop && !rewound) {
+				try {
+					v.stream.rewind();
+					rewound = true;
+				} catch (Exception e) {
+					v.ended = true;
+				}
+			} else {
+				v.ended = true;
+			}
+		}
+	}
+
+	/**
+	 * 丢弃已播放的帧,把尚未播放的帧移到缓存开头
+	 */
+	private void compact(Voice v) {
+		final short[] buf = v.buffer;
+		final int ch = v.channels;
+		int idx = v.pos >>> FIXED_SHIFT;
+		int keep = v.count - idx;
+		if (keep < 0) {
+			keep = 0;
+			idx = v.count;
+		}
+		if (keep > 0 && idx > 0) {
+			System.arraycopy(buf, idx * ch, buf, 0, keep * ch);
+		}
+		v.count = keep;
+		v.pos -= idx << FIXED_SHIFT;
+	}
+
+	/**
+	 * 播放声音
+	 * 
+	 * @param owner
+	 *            声部所属对象(可按此批量控制),可为null
+	 * @param stream
+	 *            声源,此后由混音器持有并在结束时关闭
+	 * @param volume
+	 *            0-1
+	 * @param pan
+	 *            -1(左)至1(右)
+	 * @param priority
+	 *            声部已满时,只能抢占优先级不高于此值的声部
+	 * @param loop
+	 * @return 声部id,被拒绝时返回-1
+	 */
+	public synchronized int play(Object owner, JavaSEAudioStream stream, float volume, float pan, int priority,
+			boolean loop) {
+		if (stream == null) {
+			return -1;
+		}
+		int channels = stream.getChannels();
+		if (channels < 1 || channels > 2 || stream.getRate() <= 0) {
+			stream.close();
+			return -1;
+		}
+		Voice target = null;
+		Voice victim = null;
+		for (int i = 0; i < voices.length; i++) {
+			Voice v = voices[i];
+			if (!v.active()) {
+				target = v;
+				break;
+			}
+			if (victim == null || v.priority < victim.priority
+					|| (v.priority == victim.priority && v.serial < victim.serial)) {
+				victim = v;
+			}
+		}
+		if (target == null) {
+			if (victim.priority > priority) {
+				rejectedCount++;
+				stream.close();
+				return -1;
+			}
+			release(victim);
+			stolenCount++;
+			target = victim;
+		}
+		if (++idCounter <= 0) {
+			idCounter = 1;
+		}
+		target.id = idCounter;
+		target.serial = ++serialCounter;
+		target.stream = stream;
+		target.owner = owner;
+		target.priority = priority;
+		target.loop = loop;
+		target.ended = false;
+		target.channels = channels;
+		target.count = 0;
+		target.pos = 0;
+		target.step = (int) (((long) stream.getRate() << FIXED_SHIFT) / RATE);
+		target.volume = volume;
+		target.pan = pan;
+		updateGain(target);
+		activeCount++;
+		return target.id;
+	}
+
+	private void release(Voice v) {
+		if (v.stream != null) {
+			if (v.stream == v.fillStream) {
+				v.fillClose = true;
+			} else {
+				v.stream.close();
+			}
+			v.stream = null;
+			v.owner = null;
+			v.id = 0;
+			activeCount--;
+		}
+	}
+
+	private void updateGain(Voice v) {
+		float vol = v.volume * masterVolume;
+		if (vol < 0) {
+			vol = 0;
+		} else if (vol > 1) {
+			vol = 1;
+		}
+		float pan = v.pan;
+		if (pan < -1) {
+			pan = -1;
+		} else if (pan > 1) {
+			pan = 1;
+		}
+		v.gainLeft = (int) (vol * (pan > 0 ? 1 - pan : 1) * FIXED_ONE);
+		v.gainRight = (int) (vol * (pan < 0 ? 1 + pan : 1) * FIXED_ONE);
+	}
+
+	private Voice find(int id) {
+		if (id <= 0) {
+			return null;
+		}
+		for (int i = 0; i < voices.length; i++) {
+			if (voices[i].id == id) {
+				return voices[i];
+			}
+		}
+		return null;
+	}
+
+	public synchronized boolean isPlaying(int id) {
+		return find(id) != null;
+	}
+
+	public synchronized boolean isPlaying(Object owner) {
+		for (int i = 0; i < voices.length; i++) {
+			if (voices[i].active() && voices[i].owner == owner) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public synchronized void stop(int id) {
+		Voice v = find(id);
+		if (v != null) {
+			release(v);
+		}
+	}
+
+	public synchronized void stop(Object owner) {
+		for (int i = 0; i < voices.length; i++) {
+			if (voices[i].active() && voices[i].owner == owner) {
+				release(voices[i]);
+			}
+		}
+	}
+
+	public synchronized void stopAll() {
+		for (int i = 0; i < voices.length; i++) {
+			release(voices[i]);
+		}
+	}
+
+	public synchronized void setVolume(int id, float volume) {
+		Voice v = find(id);
+		if (v != null) {
+			v.volume = volume;
+			updateGain(v);
+		}
+	}
+
+	public synchronized void setVolume(Object owner, float volume) {
+		for (int i = 0; i < voices.length; i++) {
+			Voice v = voices[i];
+			if (v.active() && v.owner == owner) {
+				v.volume = volume;
+				updateGain(v);
+			}
+		}
+	}
+
+	public synchronized void setPan(int id, float pan) {
+		Voice v = find(id);
+		if (v != null) {
+			v.pan = pan;
+			updateGain(v);
+		}
+	}
+
+	public synchronized void setPan(Object owner, float pan) {
+		for (int i = 0; i < voices.length; i++) {
+			Voice v = voices[i];
+			if (v.active() && v.owner == owner) {
+				v.pan = pan;
+				updateGain(v);
+			}
+		}
+	}
+
+	public synchronized void setLooping(Object owner, boolean loop) {
+		for (int i = 0; i < voices.length; i++) {
+			Voice v = voices[i];
+			if (v.active() && v.owner == owner) {
+				v.loop = loop;
+			}
+		}
+	}
+
+	public synchronized void setMasterVolume(float volume) {
+		this.masterVolume = volume;
+		for (int i = 0; i < voices.length; i++) {
+			if (voices[i].active()) {
+				updateGain(voices[i]);
+			}
+		}
+	}
+
+	public synchronized float getMasterVolume() {
+		return masterVolume;
+	}
+
+	public synchronized void pause() {
+		paused = true;
+	}
+
+	public synchronized void resume() {
+		paused = false;
+	}
+
+	public synchronized boolean isPaused() {
+		return paused;
+	}
+
+	public int getMaxVoices() {
+		return voices.length;
+	}
+
+	public synchronized int getActiveVoices() {
+		return activeCount;
+	}
+
+	/**
+	 * 因声部已满而被抢占的次数
+	 * 
+	 * @return
+	 */
+	public synchronized int getStolenCount() {
+		return stolenCount;
+	}
+
+	/**
+	 * 因声部已满且优先级不足而被拒绝播放的次数
+	 * 
+	 * @return
+	 */
+	public synchronized int getRejectedCount() {
+		return rejectedCount;
+	}
+
+	public JavaSEAudioSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * 停止混音线程,释放全部声部并关闭输出端
+	 */
+	public void close() {
+		Thread t;
+		synchronized (this) {
+			running = false;
+			t = thread;
+			thread = null;
+		}
+		if (t != null && t != Thread.currentThread()) {
+			try {
+				t.join(1000);
+			} catch (InterruptedException e) {
+			}
+		}
+		synchronized (this) {
+			stopAll();
+			if (opened) {
+				sink.close();
+				opened = false;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.io.IOException;
+
+/**
+ * 软件混音器的声源,按帧输出交错的16位PCM(最多两个声道),每个播放中的声部持有独立的实例
+ */
+public abstract class JavaSEAudioStream {
+
+	protected int rate;
+
+	protected int channels;
+
+	public int getRate() {
+		return rate;
+	}
+
+	public int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * 读取PCM数据到dst
+	 * 
+	 * @param dst
+	 * @param offset
+	 *            起始帧
+	 * @param frames
+	 *            最多读取的帧数
+	 * @return 实际读取的帧数,结尾时返回0
+	 */
+	public abstract int read(short[] dst, int offset, int frames);
+
+	/**
+	 * 回到开头(循环播放时调用)
+	 * 
+	 * @throws IOException
+	 */
+	public abstract void rewind() throws IOException;
+
+	/**
+	 * 创建一个共享源数据,但播放位置独立的新实例
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	public abstract JavaSEAudioStream copy() throws IOException;
+
+	public void close() {
+	}
+
+}
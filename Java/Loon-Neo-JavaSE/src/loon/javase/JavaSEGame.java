@@ -29,15 +29,19 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import javax.imageio.ImageIO;
+
 import org.lwjgl.opengl.Display;
 
 import loon.*;
 import loon.canvas.Image;
 import loon.canvas.Pixmap;
+import loon.canvas.PixmapFilter;
 import loon.event.KeyMake;
-import loon.geom.Dimension;
+import loon.event.UpdatePhases;
 import loon.jni.NativeSupport;
-import loon.utils.Scale;
+import loon.utils.MathUtils;
+import loon.utils.cache.ConcurrentPool;
 import loon.utils.reply.Port;
 
 public class JavaSEGame extends LGame {
@@ -45,6 +49,10 @@ public class JavaSEGame extends LGame {
 	public static class JavaSetting extends LSetting {
 		public boolean vSyncEnabled = true;
 		public String[] iconPaths = null;
+		// 大于0时使用单线路软件混音器播放声音,数值为同时发声的声部上限
+		public int audioVoices = 0;
+		// 大于1时创建共用的工作线程组(数值为含主线程在内的线程总数),并行执行Screen中注入的UpdatePhase与Pixmap滤镜及缩放
+		public int workerThreads = 0;
 	}
 
 	final static private Runtime systemRuntime = Runtime.getRuntime();
@@ -141,6 +149,7 @@ public class JavaSEGame extends LGame {
 	private boolean active = true;
 	private final long start = System.nanoTime();
 	private final ExecutorService pool = Executors.newFixedThreadPool(4);
+	private JavaSEWorkerPool workers;
 
 	private final JavaSELog log = new JavaSELog();
 	private final Asyn asyn = new JavaSEAsyn(pool, log, frame);
@@ -151,7 +160,22 @@ public class JavaSEGame extends LGame {
 	private final JavaSEInputMake input;
 	private final JavaSEAssets assets = new JavaSEAssets(this);
 
+	/**
+	 * 无窗口运行的JavaSEGame,使用软件渲染并以虚拟时钟逐帧推进,帧间隔固定为1000/fps毫秒,
+	 * 因此同一输入下的每次运行结果完全一致,可用于CI中的截图比对与性能回归测试.
+	 */
 	public static class Headless extends JavaSEGame {
+
+		static {
+			System.setProperty(NativeSupport.HEADLESS, "true");
+		}
+
+		private int frames;
+
+		public Headless(LSetting config) {
+			this(null, config);
+		}
+
 		public Headless(Loon game, LSetting config) {
 			super(game, config);
 		}
@@ -166,34 +190,124 @@ public class JavaSEGame extends LGame {
 
 		@Override
 		protected JavaSEGraphics createGraphics() {
-			return new JavaSEGraphics(this, null, Scale.ONE) {
-				{
-					setSize(game.setting.width, game.setting.height, game.setting.fullscreen);
-				}
+			return new JavaSEHeadlessGraphics(this);
+		}
 
-				@Override
-				public void setSize(int width, int height, boolean fullscreen) {
-					updateViewport(Scale.ONE, width, height);
-				}
+		@Override
+		protected JavaSEInputMake createInput() {
+			return new JavaSEInputMake(this);
+		}
 
-				@Override
-				public Dimension screenSize() {
-					return new Dimension(game.setting.width, game.setting.height);
-				}
+		@Override
+		public double time() {
+			return tick();
+		}
 
-				@Override
-				protected void init() {
-				}
+		@Override
+		public int tick() {
+			return (int) (frames * 1000L / MathUtils.max(1, setting.fps));
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		public int getFrames() {
+			return frames;
+		}
 
-				@Override
-				protected void upload(BufferedImage img, LTexture tex) {
+		public JavaSESoftGL20 getSoftGL() {
+			return ((JavaSEHeadlessGraphics) graphics()).getSoftGL();
+		}
+
+		/**
+		 * 推进一帧
+		 */
+		public Headless step() {
+			return step(1);
+		}
+
+		/**
+		 * 推进指定帧数
+		 * 
+		 * @param count
+		 * @return
+		 */
+		public Headless step(int count) {
+			for (int i = 0; i < count; i++) {
+				frames++;
+				processFrame();
+			}
+			return this;
+		}
+
+		/**
+		 * 先运行warmup帧预热,再返回之后每帧的耗时(纳秒)
+		 * 
+		 * @param warmup
+		 * @param count
+		 * @return
+		 */
+		public long[] benchmark(int warmup, int count) {
+			step(warmup);
+			getSoftGL().resetCounters();
+			long[] times = new long[count];
+			for (int i = 0; i < count; i++) {
+				long start = System.nanoTime();
+				step(1);
+				times[i] = System.nanoTime() - start;
+			}
+			return times;
+		}
+
+		/**
+		 * 返回当前画面
+		 * 
+		 * @return
+		 */
+		public Pixmap screenshot() {
+			return getSoftGL().getPixmap();
+		}
+
+		public void saveScreenshot(String path) throws IOException {
+			ImageIO.write(toImage(screenshot()), "png", new File(path));
+		}
+
+		/**
+		 * 比较当前画面与指定png图像,返回任一通道差值超过tolerance的像素数,尺寸不同时返回-1
+		 * 
+		 * @param path
+		 * @param tolerance
+		 * @return
+		 * @throws IOException
+		 */
+		public int compareScreenshot(String path, int tolerance) throws IOException {
+			BufferedImage golden = ImageIO.read(new File(path));
+			Pixmap pixmap = screenshot();
+			if (golden == null || golden.getWidth() != pixmap.getWidth() || golden.getHeight() != pixmap.getHeight()) {
+				return -1;
+			}
+			int[] pixels = pixmap.getData();
+			int width = pixmap.getWidth();
+			int diff = 0;
+			for (int i = 0; i < pixels.length; i++) {
+				int a = pixels[i];
+				int b = golden.getRGB(i % width, i / width);
+				for (int shift = 0; shift < 32; shift += 8) {
+					if (MathUtils.abs(((a >>> shift) & 0xFF) - ((b >>> shift) & 0xFF)) > tolerance) {
+						diff++;
+						break;
+					}
 				}
-			};
+			}
+			return diff;
 		}
 
-		@Override
-		protected JavaSEInputMake createInput() {
-			return new JavaSEInputMake(this);
+		private static BufferedImage toImage(Pixmap pixmap) {
+			BufferedImage image = new BufferedImage(pixmap.getWidth(), pixmap.getHeight(),
+					BufferedImage.TYPE_INT_ARGB);
+			image.setRGB(0, 0, pixmap.getWidth(), pixmap.getHeight(), pixmap.getData(), 0, pixmap.getWidth());
+			return image;
 		}
 
 	}
@@ -216,11 +330,16 @@ public class JavaSEGame extends LGame {
 				}
 			});
 		}
-		Display.setInitialBackground(0, 0, 0);
 		this.setTitle(config.appName);
+		ConcurrentPool.setDefaultStripeSelector(new JavaSEPoolStripes());
 		this.initProcess();
 		if (setting instanceof JavaSetting) {
 			setIcon(((JavaSetting) setting).iconPaths);
+			if (((JavaSetting) setting).workerThreads > 1) {
+				workers = new JavaSEWorkerPool(((JavaSetting) setting).workerThreads);
+				UpdatePhases.setDefaultExecutor(workers);
+				PixmapFilter.setDefaultExecutor(workers);
+			}
 		}
 		this.graphics.init();
 		this.input.init();
@@ -362,6 +481,7 @@ public class JavaSEGame extends LGame {
 		} catch (Throwable exc) {
 			exc.printStackTrace();
 		}
+		Display.setInitialBackground(0, 0, 0);
 	}
 
 	protected JavaSEGraphics createGraphics() {
@@ -376,6 +496,9 @@ public class JavaSEGame extends LGame {
 		status.emit(Status.EXIT);
 		try {
 			pool.shutdown();
+			if (workers != null) {
+				workers.shutdown();
+			}
 			pool.awaitTermination(1, TimeUnit.SECONDS);
 		} catch (InterruptedException ie) {
 		}
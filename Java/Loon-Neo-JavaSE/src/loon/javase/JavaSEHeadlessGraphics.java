@@ -0,0 +1,93 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+
+import loon.LTexture;
+import loon.geom.Dimension;
+import loon.opengl.GL20;
+import loon.utils.Scale;
+
+/**
+ * 无窗口环境使用的Graphics,以JavaSESoftGL20在内存中完成全部渲染,文字与画布依旧交由Java2D处理
+ */
+public class JavaSEHeadlessGraphics extends JavaSEGraphics {
+
+	private final JavaSESoftGL20 softGL;
+
+	public JavaSEHeadlessGraphics(JavaSEGame game) {
+		this(game, new JavaSESoftGL20(game.setting.width, game.setting.height));
+	}
+
+	private JavaSEHeadlessGraphics(JavaSEGame game, JavaSESoftGL20 gl) {
+		super(game, gl, Scale.ONE);
+		this.softGL = gl;
+	}
+
+	public JavaSESoftGL20 getSoftGL() {
+		return softGL;
+	}
+
+	@Override
+	public void setSize(int width, int height, boolean fullscreen) {
+		softGL.resize(width, height);
+		updateViewport(Scale.ONE, width, height);
+	}
+
+	@Override
+	public Dimension screenSize() {
+		return new Dimension(softGL.getWidth(), softGL.getHeight());
+	}
+
+	@Override
+	protected void init() {
+		setSize(game.setting.width, game.setting.height, false);
+	}
+
+	@Override
+	protected void upload(BufferedImage img, LTexture tex) {
+		if (img == null) {
+			return;
+		}
+		BufferedImage bitmap = img;
+		if (img.getType() != BufferedImage.TYPE_INT_ARGB_PRE) {
+			bitmap = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+			Graphics2D g = bitmap.createGraphics();
+			g.drawImage(img, 0, 0, null);
+			g.dispose();
+		}
+		int[] pixels = ((DataBufferInt) bitmap.getRaster().getDataBuffer()).getData();
+		int size = pixels.length * 4;
+		ByteBuffer bbuf = checkGetImageBuffer(size);
+		bbuf.asIntBuffer().put(pixels);
+		bbuf.position(bbuf.position() + size);
+		bbuf.flip();
+		gl.glBindTexture(GL20.GL_TEXTURE_2D, tex.getID());
+		gl.glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGBA, bitmap.getWidth(), bitmap.getHeight(), 0,
+				GL20.GL_BGRA, JavaSESoftGL20.GL_UNSIGNED_INT_8_8_8_8_REV, bbuf);
+		gl.checkError("updateTexture");
+	}
+
+}
@@ -39,7 +39,8 @@ public class JavaSEInputMake extends InputMake {
 	private final Deque<KeyMake.Event> kevQueue = new ConcurrentLinkedDeque<>();
 
 	private boolean mouseDown;
-	private Vector2f pivot;
+	private final Vector2f pivot = new Vector2f();
+	private boolean usePivot;
 	private float x, y;
 	private int currentId;
 
@@ -65,7 +66,8 @@ public class JavaSEInputMake extends InputMake {
 				if (event instanceof KeyMake.KeyEvent) {
 					KeyMake.KeyEvent kevent = (KeyMake.KeyEvent) event;
 					if (kevent.down) {
-						pivot = new Vector2f(x, y);
+						pivot.set(x, y);
+						usePivot = true;
 					}
 				}
 			}
@@ -79,7 +81,7 @@ public class JavaSEInputMake extends InputMake {
 						currentId += 2;
 						dispatchTouch(event, TouchMake.Event.Kind.START);
 					} else {
-						pivot = null;
+						usePivot = false;
 						dispatchTouch(event, TouchMake.Event.Kind.END);
 					}
 				}
@@ -115,22 +117,19 @@ public class JavaSEInputMake extends InputMake {
 		while ((kev = kevQueue.poll()) != null) {
 			keyboardEvents.emit(kev);
 		}
+		dispatchEvents();
 	}
 
 	private void dispatchTouch(MouseMake.Event event, TouchMake.Event.Kind kind) {
-		float ex = event.x, ey = event.y;
-		TouchMake.Event main = toTouch(event.time, ex, ey, kind, 0);
-		TouchMake.Event[] evs = (pivot == null) ? new TouchMake.Event[] { main }
-				: new TouchMake.Event[] {
-						main,
-						toTouch(event.time, 2 * pivot.x - ex, 2 * pivot.y - ey,
-								kind, 1) };
-		touchEvents.emit(evs);
-	}
-
-	private TouchMake.Event toTouch(double time, float x, float y,
-			TouchMake.Event.Kind kind, int idoff) {
-		return new TouchMake.Event(0, time, x, y, kind, currentId + idoff);
+		// 模拟触摸在触发它的鼠标事件派发过程中直接发出,若再入队则会排到本帧全部鼠标事件之后
+		final float ex = event.x, ey = event.y;
+		final TouchMake.Event main = new TouchMake.Event(0, event.time, ex, ey, kind, currentId);
+		if (usePivot) {
+			touchEvents.emit(new TouchMake.Event[] { main, new TouchMake.Event(0, event.time, 2 * pivot.x - ex,
+					2 * pivot.y - ey, kind, currentId + 1) });
+		} else {
+			touchEvents.emit(new TouchMake.Event[] { main });
+		}
 	}
 
 	@Override
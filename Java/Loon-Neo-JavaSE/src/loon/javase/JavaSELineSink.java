@@ -0,0 +1,79 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * 以单条SourceDataLine输出混音结果(写入时阻塞,混音线程以此控制节奏)
+ */
+public class JavaSELineSink implements JavaSEAudioSink {
+
+	private final int bufferFrames;
+
+	private SourceDataLine line;
+
+	public JavaSELineSink() {
+		this(2048);
+	}
+
+	public JavaSELineSink(int bufferFrames) {
+		this.bufferFrames = bufferFrames;
+	}
+
+	@Override
+	public synchronized void open(int rate, int channels) throws Exception {
+		if (line != null) {
+			return;
+		}
+		AudioFormat format = new AudioFormat(rate, 16, channels, true, false);
+		DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+		if (!AudioSystem.isLineSupported(info)) {
+			throw new Exception("Line " + info + " not supported.");
+		}
+		SourceDataLine result = (SourceDataLine) AudioSystem.getLine(info);
+		result.open(format, bufferFrames * format.getFrameSize());
+		result.start();
+		line = result;
+	}
+
+	@Override
+	public void write(byte[] buffer, int offset, int length) {
+		SourceDataLine result = line;
+		if (result != null) {
+			result.write(buffer, offset, length);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (line != null) {
+			line.stop();
+			line.flush();
+			line.close();
+			line = null;
+		}
+	}
+
+}
@@ -22,7 +22,6 @@ package loon.javase;
 
 import loon.event.SysKey;
 import loon.event.SysTouch;
-import loon.geom.Vector2f;
 
 import org.lwjgl.LWJGLException;
 import org.lwjgl.input.Keyboard;
@@ -85,13 +84,14 @@ public class JavaSELwjglInputMake extends JavaSEInputMake {
 		}
 		while (Mouse.next()) {
 			double time = (double) (Mouse.getEventNanoseconds() / 1000000);
-			Vector2f m = new Vector2f(Mouse.getEventX(), Display.getHeight()
-					- Mouse.getEventY() - 1);
+			float x = Mouse.getEventX();
+			float y = Display.getHeight() - Mouse.getEventY() - 1;
 			int btnIdx = Mouse.getEventButton();
 			int id = getButton(btnIdx);
-			emitMouseButton(time, m.x, m.y, id, Mouse.getEventButtonState(),
+			emitMouseButton(time, x, y, id, Mouse.getEventButtonState(),
 					flags);
 		}
+		dispatchEvents();
 	}
 
 	private static int getButton(int lwjglButton) {
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 不连接任何音频设备的输出端,仅统计写入量(可选保存写入的数据),用于无头环境下直接调用JavaSEAudioMixer.render驱动混音
+ */
+public class JavaSENullSink implements JavaSEAudioSink {
+
+	private final ByteArrayOutputStream capture;
+
+	private int channels = 2;
+
+	private long written;
+
+	public JavaSENullSink() {
+		this(false);
+	}
+
+	public JavaSENullSink(boolean capture) {
+		this.capture = capture ? new ByteArrayOutputStream() : null;
+	}
+
+	@Override
+	public void open(int rate, int channels) {
+		this.channels = channels;
+	}
+
+	@Override
+	public synchronized void write(byte[] buffer, int offset, int length) {
+		written += length;
+		if (capture != null) {
+			capture.write(buffer, offset, length);
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * 已写入的帧数
+	 * 
+	 * @return
+	 */
+	public synchronized long getFrames() {
+		return written / (channels * 2);
+	}
+
+	/**
+	 * 已保存的PCM数据,未开启保存时返回null
+	 * 
+	 * @return
+	 */
+	public synchronized byte[] getBytes() {
+		return capture == null ? null : capture.toByteArray();
+	}
+
+	public synchronized void reset() {
+		written = 0;
+		if (capture != null) {
+			capture.reset();
+		}
+	}
+
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.io.IOException;
+
+import com.jcraft.jogg.Packet;
+import com.jcraft.jogg.Page;
+import com.jcraft.jogg.StreamState;
+import com.jcraft.jogg.SyncState;
+import com.jcraft.jorbis.Block;
+import com.jcraft.jorbis.Comment;
+import com.jcraft.jorbis.DspState;
+import com.jcraft.jorbis.Info;
+
+/**
+ * 以jorbis按需增量解码的ogg声源,只保存压缩数据,每次read仅解码所需的数据包
+ */
+public class JavaSEOggStream extends JavaSEAudioStream {
+
+	private final static int CHUNK = 4096;
+
+	private final byte[] data;
+
+	private int dataPos;
+
+	private SyncState oy;
+
+	private StreamState os;
+
+	private Page og;
+
+	private Packet op;
+
+	private Info vi;
+
+	private Comment vc;
+
+	private DspState vd;
+
+	private Block vb;
+
+	private final float[][][] pcmf = new float[1][][];
+
+	private int[] index;
+
+	private boolean lastPage;
+
+	private boolean eos;
+
+	public JavaSEOggStream(byte[] data) throws IOException {
+		this.data = data;
+		open();
+	}
+
+	private void open() throws IOException {
+		oy = new SyncState();
+		os = new StreamState();
+		og = new Page();
+		op = new Packet();
+		vi = new Info();
+		vc = new Comment();
+		vd = new DspState();
+		vb = new Block(vd);
+		oy.init();
+		dataPos = 0;
+		lastPage = false;
+		eos = false;
+
+		feed();
+		if (oy.pageout(og) != 1) {
+			throw new IOException("Input does not appear to be an Ogg bitstream.");
+		}
+		os.init(og.serialno());
+		os.reset();
+		vi.init();
+		vc.init();
+		if (os.pagein(og) < 0) {
+			throw new IOException("Error reading first page of Ogg bitstream data.");
+		}
+		if (os.packetout(op) != 1) {
+			throw new IOException("Error reading initial header packet.");
+		}
+		if (vi.synthesis_headerin(vc, op) < 0) {
+			throw new IOException("This Ogg bitstream does not contain Vorbis audio data.");
+		}
+		int i = 0;
+		while (i < 2) {
+			int result = oy.pageout(og);
+			if (result == 0) {
+				if (!feed()) {
+					throw new IOException("End of file before finding all Vorbis headers!");
+				}
+				continue;
+			}
+			if (result == 1) {
+				os.pagein(og);
+				while (i < 2) {
+					result = os.packetout(op);
+					if (result == 0) {
+						break;
+					}
+					if (result == -1) {
+						throw new IOException("Corrupt secondary header.");
+					}
+					vi.synthesis_headerin(vc, op);
+					i++;
+				}
+			}
+		}
+		vd.synthesis_init(vi);
+		vb.init(vd);
+		index = new int[vi.channels];
+		rate = vi.rate;
+		channels = vi.channels > 2 ? 2 : vi.channels;
+	}
+
+	private boolean feed() {
+		if (dataPos >= data.length) {
+			return false;
+		}
+		int len = Math.min(CHUNK, data.length - dataPos);
+		int idx = oy.buffer(len);
+		System.arraycopy(data, dataPos, oy.data, idx, len);
+		oy.wrote(len);
+		dataPos += len;
+		return true;
+	}
+
+	/**
+	 * 解码下一个数据包
+	 * 
+	 * @return 没有更多数据时返回false
+	 */
+	private boolean nextPacket() {
+		for (; !eos;) {
+			int result = os.packetout(op);
+			if (result == 1) {
+				if (vb.synthesis(op) == 0) {
+					vd.synthesis_blockin(vb);
+				}
+				return true;
+			}
+			if (result == -1) {
+				continue;
+			}
+			if (lastPage) {
+				eos = true;
+				break;
+			}
+			for (;;) {
+				result = oy.pageout(og);
+				if (result == 1) {
+					os.pagein(og);
+					if (og.eos() != 0) {
+						lastPage = true;
+					}
+					break;
+				}
+				if (result == 0 && !feed()) {
+					eos = true;
+					break;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int read(short[] dst, int offset, int frames) {
+		if (index == null) {
+			return 0;
+		}
+		final int dstChannels = channels;
+		int done = 0;
+		while (done < frames) {
+			int samples = vd.synthesis_pcmout(pcmf, index);
+			if (samples <= 0) {
+				if (nextPacket()) {
+					continue;
+				}
+				break;
+			}
+			int len = Math.min(samples, frames - done);
+			float[][] pcm = pcmf[0];
+			for (int c = 0; c < dstChannels; c++) {
+				float[] src = pcm[c];
+				int pos = index[c];
+				int ptr = (offset + done) * dstChannels + c;
+				for (int j = 0; j < len; j++) {
+					int val = (int) (src[pos + j] * 32767f);
+					if (val > 32767) {
+						val = 32767;
+					} else if (val < -32768) {
+						val = -32768;
+					}
+					dst[ptr] = (short) val;
+					ptr += dstChannels;
+				}
+			}
+			vd.synthesis_read(len);
+			done += len;
+		}
+		return done;
+	}
+
+	@Override
+	public void rewind() throws IOException {
+		close();
+		open();
+	}
+
+	@Override
+	public JavaSEAudioStream copy() throws IOException {
+		return new JavaSEOggStream(data);
+	}
+
+	@Override
+	public void close() {
+		if (index != null) {
+			os.clear();
+			vb.clear();
+			vd.clear();
+			vi.clear();
+			oy.clear();
+			index = null;
+		}
+	}
+
+}
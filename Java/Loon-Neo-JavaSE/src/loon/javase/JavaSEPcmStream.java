@@ -0,0 +1,133 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * 已解码的PCM声源(用于wav等短音效),多个实例共享同一份采样数据
+ */
+public class JavaSEPcmStream extends JavaSEAudioStream {
+
+	/**
+	 * 通过javax.sound解码音频数据,超过两个声道时只保留前两个
+	 * 
+	 * @param in
+	 * @return
+	 * @throws Exception
+	 */
+	public static JavaSEPcmStream decode(InputStream in) throws Exception {
+		AudioInputStream ais = AudioSystem.getAudioInputStream(in);
+		AudioFormat baseFormat = ais.getFormat();
+		int srcChannels = baseFormat.getChannels();
+		AudioFormat decodedFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, baseFormat.getSampleRate(), 16,
+				srcChannels, srcChannels * 2, baseFormat.getSampleRate(), false);
+		if (!decodedFormat.matches(baseFormat)) {
+			ais = AudioSystem.getAudioInputStream(decodedFormat, ais);
+		}
+		try {
+			int channels = srcChannels > 2 ? 2 : srcChannels;
+			int frameSize = srcChannels * 2;
+			byte[] buffer = new byte[frameSize * 1024];
+			short[] pcm = new short[channels * 4096];
+			int count = 0, pending = 0;
+			for (;;) {
+				int len = ais.read(buffer, pending, buffer.length - pending);
+				if (len <= 0) {
+					break;
+				}
+				len += pending;
+				int frames = len / frameSize;
+				if (count + frames * channels > pcm.length) {
+					short[] tmp = new short[Math.max(pcm.length * 2, count + frames * channels)];
+					System.arraycopy(pcm, 0, tmp, 0, count);
+					pcm = tmp;
+				}
+				for (int i = 0; i < frames; i++) {
+					int idx = i * frameSize;
+					for (int c = 0; c < channels; c++) {
+						int p = idx + c * 2;
+						pcm[count++] = (short) ((buffer[p] & 0xff) | (buffer[p + 1] << 8));
+					}
+				}
+				pending = len - frames * frameSize;
+				if (pending > 0) {
+					System.arraycopy(buffer, frames * frameSize, buffer, 0, pending);
+				}
+			}
+			if (count != pcm.length) {
+				short[] tmp = new short[count];
+				System.arraycopy(pcm, 0, tmp, 0, count);
+				pcm = tmp;
+			}
+			return new JavaSEPcmStream(pcm, (int) baseFormat.getSampleRate(), channels);
+		} finally {
+			ais.close();
+		}
+	}
+
+	private final short[] pcm;
+
+	private final int frames;
+
+	private int position;
+
+	public JavaSEPcmStream(short[] pcm, int rate, int channels) {
+		if (channels < 1 || channels > 2) {
+			throw new IllegalArgumentException("Unsupported channels: " + channels);
+		}
+		this.pcm = pcm;
+		this.rate = rate;
+		this.channels = channels;
+		this.frames = pcm.length / channels;
+	}
+
+	@Override
+	public int read(short[] dst, int offset, int count) {
+		int len = Math.min(count, frames - position);
+		if (len <= 0) {
+			return 0;
+		}
+		System.arraycopy(pcm, position * channels, dst, offset * channels, len * channels);
+		position += len;
+		return len;
+	}
+
+	@Override
+	public void rewind() throws IOException {
+		position = 0;
+	}
+
+	@Override
+	public JavaSEAudioStream copy() {
+		return new JavaSEPcmStream(pcm, rate, channels);
+	}
+
+	public int getFrames() {
+		return frames;
+	}
+
+}
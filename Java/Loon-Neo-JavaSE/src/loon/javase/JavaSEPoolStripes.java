@@ -0,0 +1,51 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import loon.utils.cache.ConcurrentPool;
+
+/**
+ * 按线程id为ConcurrentPool分条,分条数为处理器数量的两倍(向上取2的幂),使多数线程各自独占一条本地缓存
+ */
+public class JavaSEPoolStripes implements ConcurrentPool.StripeSelector {
+
+	private final int stripes;
+
+	public JavaSEPoolStripes() {
+		this(Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	public JavaSEPoolStripes(int stripes) {
+		this.stripes = Math.max(1, stripes);
+	}
+
+	@Override
+	public int stripes() {
+		return stripes;
+	}
+
+	@Override
+	public int select() {
+		final long id = Thread.currentThread().getId();
+		return (int) (id ^ (id >>> 32));
+	}
+
+}
@@ -0,0 +1,3034 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import loon.canvas.Pixmap;
+import loon.utils.IntMap;
+import loon.utils.MathUtils;
+
+/**
+ * 纯软件实现的GL20,以内存中的像素数组模拟OpenGL ES 2.0的绘制过程,用于无GPU环境(CI,服务器)下运行完整的游戏帧循环.
+ * 
+ * 由于无法执行任意GLSL,着色器在链接时依据其声明推断用途:名称含position,color,texcoord的attribute分别作为坐标,顶点色与纹理坐标,
+ * 顶点着色器中的首个mat4 uniform作为投影矩阵,片段着色器调用texture2D时以首个sampler2D采样并与颜色相乘.这与Loon默认的批处理着色器一致,
+ * 自定义特效着色器则按此简化模型绘制.
+ * 
+ * 支持三角形/线段/点图元,顶点色,纹理(NEAREST/LINEAR,REPEAT/CLAMP/MIRRORED),混合,颜色遮罩,剪裁与帧缓冲(纹理及渲染缓冲附件),
+ * 不支持深度与模板测试及多级纹理.
+ */
+public final class JavaSESoftGL20 extends loon.opengl.GL20 {
+
+	public static final int GL_UNSIGNED_INT_8_8_8_8 = 0x8035;
+
+	public static final int GL_UNSIGNED_INT_8_8_8_8_REV = 0x8367;
+
+	private static final int GL_MIN = 0x8007;
+
+	private static final int GL_MAX = 0x8008;
+
+	private static final int MAX_ATTRIBS = 16;
+
+	private static final int MAX_TEXTURE_UNITS = 16;
+
+	private static final int MAX_TEXTURE_SIZE = 8192;
+
+	// 变换后顶点数据布局:窗口x,窗口y,z,1/w,r,g,b,a,s,t
+	private static final int VS = 10;
+
+	private static final class SoftTexture {
+		int width, height;
+		int[] pixels = new int[0];
+		int minFilter = GL_NEAREST_MIPMAP_LINEAR;
+		int magFilter = GL_LINEAR;
+		int wrapS = GL_REPEAT;
+		int wrapT = GL_REPEAT;
+	}
+
+	private static final class SoftBuffer {
+		ByteBuffer data = ByteBuffer.allocate(0).order(ByteOrder.nativeOrder());
+		int usage = GL_STATIC_DRAW;
+	}
+
+	private static final class SoftShader {
+		final int type;
+		String source = "";
+		boolean compiled;
+		boolean deleted;
+
+		SoftShader(int type) {
+			this.type = type;
+		}
+	}
+
+	private static final class SoftRenderbuffer {
+		int width, height, format;
+		int[] pixels = new int[0];
+	}
+
+	private static final class SoftFramebuffer {
+		int texture;
+		int renderbuffer;
+	}
+
+	private static final class SoftAttrib {
+		boolean enabled;
+		int size = 4;
+		int type = GL_FLOAT;
+		boolean normalized;
+		int stride;
+		int offset;
+		int buffer;
+		Buffer client;
+		final float[] value = { 0f, 0f, 0f, 1f };
+	}
+
+	private static final class SoftProgram {
+		final int[] shaders = new int[2];
+		final IntMap<String> bindings = new IntMap<String>();
+		boolean linked;
+		boolean deleted;
+		String log = "";
+		String[] attribNames = new String[0];
+		int[] attribTypes = new int[0];
+		int[] attribLocations = new int[0];
+		String[] uniformNames = new String[0];
+		int[] uniformTypes = new int[0];
+		int[] uniformSizes = new int[0];
+		float[][] uniformValues = new float[0][];
+		int positionAttrib = -1;
+		int colorAttrib = -1;
+		int texCoordAttrib = -1;
+		int matrixUniform = -1;
+		int samplerUniform = -1;
+		int colorUniform = -1;
+		boolean textured;
+		float alphaScale = 1f;
+	}
+
+	private final IntMap<SoftTexture> _textures = new IntMap<SoftTexture>();
+	private final IntMap<SoftBuffer> _buffers = new IntMap<SoftBuffer>();
+	private final IntMap<SoftShader> _shaders = new IntMap<SoftShader>();
+	private final IntMap<SoftProgram> _programs = new IntMap<SoftProgram>();
+	private final IntMap<SoftRenderbuffer> _renderbuffers = new IntMap<SoftRenderbuffer>();
+	private final IntMap<SoftFramebuffer> _framebuffers = new IntMap<SoftFramebuffer>();
+	private final SoftAttrib[] _attribs = new SoftAttrib[MAX_ATTRIBS];
+	private final int[] _boundTextures = new int[MAX_TEXTURE_UNITS];
+
+	private int _nextId = 1;
+	private int _error = GL_NO_ERROR;
+
+	private int _activeTexture;
+	private int _arrayBuffer;
+	private int _elementBuffer;
+	private int _framebuffer;
+	private int _renderbuffer;
+	private int _program;
+
+	private int _screenWidth, _screenHeight;
+	private int[] _screen = new int[0];
+
+	private int _viewX, _viewY, _viewWidth, _viewHeight;
+	private int _scissorX, _scissorY, _scissorWidth, _scissorHeight;
+	private boolean _scissorTest;
+	private boolean _blend;
+	private boolean _cullFace;
+	private int _cullMode = GL_BACK;
+	private int _frontFace = GL_CCW;
+	private int _srcRGB = GL_ONE, _dstRGB = GL_ZERO, _srcAlpha = GL_ONE, _dstAlpha = GL_ZERO;
+	private int _equationRGB = GL_FUNC_ADD, _equationAlpha = GL_FUNC_ADD;
+	private float _blendR, _blendG, _blendB, _blendA;
+	private int _colorMask = 0xFFFFFFFF;
+	private int _clearColor;
+	private float _lineWidth = 1f;
+	private int _unpackAlignment = 4, _packAlignment = 4;
+
+	// 当前绘制目标
+	private int[] _target;
+	private int _targetWidth, _targetHeight;
+	private int _clipX0, _clipY0, _clipX1, _clipY1;
+
+	// 当前图元所用的程序与纹理
+	private SoftProgram _drawProgram;
+	private SoftTexture _drawTexture;
+	private boolean _drawLinear;
+
+	private float[] _verts = new float[VS * 256];
+	private int[] _indices = new int[256];
+	private final float[] _quad = new float[VS * 4];
+	private final float[] _fetch = new float[4];
+
+	private long _drawCalls, _triangles, _fragments;
+
+	public JavaSESoftGL20(int width, int height) {
+		super(new Buffers() {
+			public ByteBuffer createByteBuffer(int size) {
+				return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+			}
+		}, Boolean.getBoolean("loon.glerrors"));
+		for (int i = 0; i < MAX_ATTRIBS; i++) {
+			_attribs[i] = new SoftAttrib();
+		}
+		resize(width, height);
+		_scissorWidth = _viewWidth;
+		_scissorHeight = _viewHeight;
+	}
+
+	/**
+	 * 改变默认帧缓冲大小(内容清空)
+	 * 
+	 * @param width
+	 * @param height
+	 */
+	void resize(int width, int height) {
+		_screenWidth = MathUtils.max(1, width);
+		_screenHeight = MathUtils.max(1, height);
+		_screen = new int[_screenWidth * _screenHeight];
+		_viewWidth = _screenWidth;
+		_viewHeight = _screenHeight;
+	}
+
+	public int getWidth() {
+		return _screenWidth;
+	}
+
+	public int getHeight() {
+		return _screenHeight;
+	}
+
+	/**
+	 * 默认帧缓冲的像素(ARGB,按GL约定首行为画面底部)
+	 * 
+	 * @return
+	 */
+	public int[] getColorBuffer() {
+		return _screen;
+	}
+
+	/**
+	 * 以自上而下的行序复制默认帧缓冲为Pixmap
+	 * 
+	 * @return
+	 */
+	public Pixmap getPixmap() {
+		final int w = _screenWidth;
+		final int h = _screenHeight;
+		int[] pixels = new int[w * h];
+		for (int y = 0; y < h; y++) {
+			System.arraycopy(_screen, (h - 1 - y) * w, pixels, y * w, w);
+		}
+		return new Pixmap(pixels, w, h, true);
+	}
+
+	public long getDrawCalls() {
+		return _drawCalls;
+	}
+
+	public long getTriangles() {
+		return _triangles;
+	}
+
+	public long getFragments() {
+		return _fragments;
+	}
+
+	public void resetCounters() {
+		_drawCalls = 0;
+		_triangles = 0;
+		_fragments = 0;
+	}
+
+	private void setError(int error) {
+		if (_error == GL_NO_ERROR) {
+			_error = error;
+		}
+	}
+
+	private int nextId() {
+		return _nextId++;
+	}
+
+	private static int toColor(float r, float g, float b, float a) {
+		return (toByte(a) << 24) | (toByte(r) << 16) | (toByte(g) << 8) | toByte(b);
+	}
+
+	private static int toByte(float v) {
+		if (v <= 0f) {
+			return 0;
+		}
+		if (v >= 1f) {
+			return 255;
+		}
+		return (int) (v * 255f + 0.5f);
+	}
+
+	private static void writeBytes(ByteBuffer dst, int offset, Buffer src, int bytes) {
+		if (src == null || bytes <= 0) {
+			return;
+		}
+		ByteBuffer out = dst.duplicate().order(dst.order());
+		out.position(offset);
+		if (src instanceof ByteBuffer) {
+			ByteBuffer in = ((ByteBuffer) src).duplicate();
+			in.limit(MathUtils.min(in.limit(), in.position() + bytes));
+			out.put(in);
+		} else if (src instanceof FloatBuffer) {
+			FloatBuffer in = ((FloatBuffer) src).duplicate();
+			in.limit(MathUtils.min(in.limit(), in.position() + bytes / 4));
+			out.asFloatBuffer().put(in);
+		} else if (src instanceof ShortBuffer) {
+			ShortBuffer in = ((ShortBuffer) src).duplicate();
+			in.limit(MathUtils.min(in.limit(), in.position() + bytes / 2));
+			out.asShortBuffer().put(in);
+		} else if (src instanceof IntBuffer) {
+			IntBuffer in = ((IntBuffer) src).duplicate();
+			in.limit(MathUtils.min(in.limit(), in.position() + bytes / 4));
+			out.asIntBuffer().put(in);
+		}
+	}
+
+	private static int bufferBase(Buffer ptr) {
+		if (ptr instanceof ByteBuffer) {
+			return ptr.position();
+		} else if (ptr instanceof ShortBuffer) {
+			return ptr.position() * 2;
+		}
+		return ptr.position() * 4;
+	}
+
+	private static float readFloat(Buffer src, int byteIndex) {
+		if (src instanceof ByteBuffer) {
+			return ((ByteBuffer) src).getFloat(byteIndex);
+		} else if (src instanceof FloatBuffer) {
+			return ((FloatBuffer) src).get(byteIndex >> 2);
+		} else if (src instanceof IntBuffer) {
+			return Float.intBitsToFloat(((IntBuffer) src).get(byteIndex >> 2));
+		}
+		return 0f;
+	}
+
+	private static int readByte(Buffer src, int byteIndex) {
+		if (src instanceof ByteBuffer) {
+			return ((ByteBuffer) src).get(byteIndex);
+		} else if (src instanceof FloatBuffer) {
+			int bits = Float.floatToRawIntBits(((FloatBuffer) src).get(byteIndex >> 2));
+			return (byte) (bits >> (nativeShift(byteIndex & 3, 4)));
+		} else if (src instanceof IntBuffer) {
+			int bits = ((IntBuffer) src).get(byteIndex >> 2);
+			return (byte) (bits >> (nativeShift(byteIndex & 3, 4)));
+		} else if (src instanceof ShortBuffer) {
+			int bits = ((ShortBuffer) src).get(byteIndex >> 1);
+			return (byte) (bits >> (nativeShift(byteIndex & 1, 2)));
+		}
+		return 0;
+	}
+
+	private static int readShort(Buffer src, int byteIndex) {
+		if (src instanceof ByteBuffer) {
+			return ((ByteBuffer) src).getShort(byteIndex);
+		} else if (src instanceof ShortBuffer) {
+			return ((ShortBuffer) src).get(byteIndex >> 1);
+		}
+		return (short) ((readByte(src, byteIndex) & 0xFF) | (readByte(src, byteIndex + 1) << 8));
+	}
+
+	private static int readInt(Buffer src, int byteIndex) {
+		if (src instanceof ByteBuffer) {
+			return ((ByteBuffer) src).getInt(byteIndex);
+		} else if (src instanceof IntBuffer) {
+			return ((IntBuffer) src).get(byteIndex >> 2);
+		}
+		return Float.floatToRawIntBits(readFloat(src, byteIndex));
+	}
+
+	private static int nativeShift(int index, int size) {
+		return (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? index : size - 1 - index) * 8;
+	}
+
+	private static float readComponent(Buffer src, int byteIndex, int type, boolean normalized) {
+		switch (type) {
+		case GL_FLOAT:
+			return readFloat(src, byteIndex);
+		case GL_UNSIGNED_BYTE: {
+			int v = readByte(src, byteIndex) & 0xFF;
+			return normalized ? v / 255f : v;
+		}
+		case GL_BYTE: {
+			int v = readByte(src, byteIndex);
+			return normalized ? MathUtils.max(-1f, v / 127f) : v;
+		}
+		case GL_UNSIGNED_SHORT: {
+			int v = readShort(src, byteIndex) & 0xFFFF;
+			return normalized ? v / 65535f : v;
+		}
+		case GL_SHORT: {
+			int v = readShort(src, byteIndex);
+			return normalized ? MathUtils.max(-1f, v / 32767f) : v;
+		}
+		case GL_FIXED:
+			return readInt(src, byteIndex) / 65536f;
+		default:
+			return 0f;
+		}
+	}
+
+	private static int typeSize(int type) {
+		switch (type) {
+		case GL_BYTE:
+		case GL_UNSIGNED_BYTE:
+			return 1;
+		case GL_SHORT:
+		case GL_UNSIGNED_SHORT:
+			return 2;
+		default:
+			return 4;
+		}
+	}
+
+	/**
+	 * 将上传的像素数据转为ARGB数组(行序不变)
+	 */
+	private int[] unpack(int width, int height, int format, int type, Buffer pixels) {
+		int[] result = new int[width * height];
+		if (pixels == null) {
+			return result;
+		}
+		if (type == GL_UNSIGNED_INT_8_8_8_8_REV || type == GL_UNSIGNED_INT_8_8_8_8) {
+			Buffer src = pixels;
+			int base = bufferBase(pixels);
+			if (pixels instanceof ByteBuffer) {
+				src = ((ByteBuffer) pixels).duplicate().order(((ByteBuffer) pixels).order());
+			}
+			for (int i = 0; i < result.length; i++) {
+				int v = readInt(src, base + i * 4);
+				if (type == GL_UNSIGNED_INT_8_8_8_8) {
+					// R,G,B,A由高到低
+					v = (v >>> 8) | (v << 24);
+				}
+				if ((format == GL_RGBA) == (type == GL_UNSIGNED_INT_8_8_8_8_REV)) {
+					// 通道顺序为ABGR
+					v = (v & 0xFF00FF00) | ((v >> 16) & 0xFF) | ((v & 0xFF) << 16);
+				}
+				result[i] = v;
+			}
+			return result;
+		}
+		int bpp;
+		switch (type) {
+		case GL_UNSIGNED_SHORT_5_6_5:
+		case GL_UNSIGNED_SHORT_4_4_4_4:
+		case GL_UNSIGNED_SHORT_5_5_5_1:
+			bpp = 2;
+			break;
+		case GL_UNSIGNED_BYTE:
+			switch (format) {
+			case GL_RGBA:
+			case GL_BGRA:
+				bpp = 4;
+				break;
+			case GL_RGB:
+				bpp = 3;
+				break;
+			case GL_LUMINANCE_ALPHA:
+				bpp = 2;
+				break;
+			case GL_ALPHA:
+			case GL_LUMINANCE:
+				bpp = 1;
+				break;
+			default:
+				setError(GL_INVALID_ENUM);
+				return result;
+			}
+			break;
+		default:
+			setError(GL_INVALID_ENUM);
+			return result;
+		}
+		int rowBytes = width * bpp;
+		rowBytes = (rowBytes + _unpackAlignment - 1) / _unpackAlignment * _unpackAlignment;
+		int base = bufferBase(pixels);
+		Buffer src = pixels;
+		if (pixels instanceof ByteBuffer) {
+			src = ((ByteBuffer) pixels).duplicate().order(((ByteBuffer) pixels).order());
+		}
+		for (int y = 0; y < height; y++) {
+			int p = base + y * rowBytes;
+			for (int x = 0, i = y * width; x < width; x++, i++, p += bpp) {
+				int r, g, b, a;
+				if (bpp == 2 && type != GL_UNSIGNED_BYTE) {
+					int v = readShort(src, p) & 0xFFFF;
+					if (type == GL_UNSIGNED_SHORT_5_6_5) {
+						r = ((v >> 11) & 0x1F) * 255 / 31;
+						g = ((v >> 5) & 0x3F) * 255 / 63;
+						b = (v & 0x1F) * 255 / 31;
+						a = 255;
+					} else if (type == GL_UNSIGNED_SHORT_4_4_4_4) {
+						r = ((v >> 12) & 0xF) * 17;
+						g = ((v >> 8) & 0xF) * 17;
+						b = ((v >> 4) & 0xF) * 17;
+						a = (v & 0xF) * 17;
+					} else {
+						r = ((v >> 11) & 0x1F) * 255 / 31;
+						g = ((v >> 6) & 0x1F) * 255 / 31;
+						b = ((v >> 1) & 0x1F) * 255 / 31;
+						a = (v & 1) * 255;
+					}
+				} else {
+					switch (format) {
+					case GL_RGBA:
+						r = readByte(src, p) & 0xFF;
+						g = readByte(src, p + 1) & 0xFF;
+						b = readByte(src, p + 2) & 0xFF;
+						a = readByte(src, p + 3) & 0xFF;
+						break;
+					case GL_BGRA:
+						b = readByte(src, p) & 0xFF;
+						g = readByte(src, p + 1) & 0xFF;
+						r = readByte(src, p + 2) & 0xFF;
+						a = readByte(src, p + 3) & 0xFF;
+						break;
+					case GL_RGB:
+						r = readByte(src, p) & 0xFF;
+						g = readByte(src, p + 1) & 0xFF;
+						b = readByte(src, p + 2) & 0xFF;
+						a = 255;
+						break;
+					case GL_LUMINANCE_ALPHA:
+						r = g = b = readByte(src, p) & 0xFF;
+						a = readByte(src, p + 1) & 0xFF;
+						break;
+					case GL_ALPHA:
+						r = g = b = 0;
+						a = readByte(src, p) & 0xFF;
+						break;
+					default:
+						r = g = b = readByte(src, p) & 0xFF;
+						a = 255;
+						break;
+					}
+				}
+				result[i] = (a << 24) | (r << 16) | (g << 8) | b;
+			}
+		}
+		return result;
+	}
+
+	private SoftTexture boundTexture() {
+		return _textures.get(_boundTextures[_activeTexture]);
+	}
+
+	/**
+	 * 取得当前绑定的颜色缓冲,无可用附件时返回false
+	 */
+	private boolean bindTarget() {
+		if (_framebuffer == 0) {
+			_target = _screen;
+			_targetWidth = _screenWidth;
+			_targetHeight = _screenHeight;
+			return true;
+		}
+		SoftFramebuffer fb = _framebuffers.get(_framebuffer);
+		if (fb != null) {
+			if (fb.texture != 0) {
+				SoftTexture tex = _textures.get(fb.texture);
+				if (tex != null && tex.width > 0) {
+					_target = tex.pixels;
+					_targetWidth = tex.width;
+					_targetHeight = tex.height;
+					return true;
+				}
+			} else if (fb.renderbuffer != 0) {
+				SoftRenderbuffer rb = _renderbuffers.get(fb.renderbuffer);
+				if (rb != null && rb.width > 0) {
+					_target = rb.pixels;
+					_targetWidth = rb.width;
+					_targetHeight = rb.height;
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void updateClip() {
+		_clipX0 = 0;
+		_clipY0 = 0;
+		_clipX1 = _targetWidth;
+		_clipY1 = _targetHeight;
+		if (_scissorTest) {
+			_clipX0 = MathUtils.max(_clipX0, _scissorX);
+			_clipY0 = MathUtils.max(_clipY0, _scissorY);
+			_clipX1 = MathUtils.min(_clipX1, _scissorX + _scissorWidth);
+			_clipY1 = MathUtils.min(_clipY1, _scissorY + _scissorHeight);
+		}
+	}
+
+	private static final String[] GLSL_TYPES = { "float", "vec2", "vec3", "vec4", "int", "ivec2", "ivec3", "ivec4",
+			"bool", "bvec2", "bvec3", "bvec4", "mat2", "mat3", "mat4", "sampler2D", "samplerCube" };
+
+	private static final int[] GLSL_CODES = { GL_FLOAT, GL_FLOAT_VEC2, GL_FLOAT_VEC3, GL_FLOAT_VEC4, GL_INT,
+			GL_INT_VEC2, GL_INT_VEC3, GL_INT_VEC4, GL_BOOL, GL_BOOL_VEC2, GL_BOOL_VEC3, GL_BOOL_VEC4, GL_FLOAT_MAT2,
+			GL_FLOAT_MAT3, GL_FLOAT_MAT4, GL_SAMPLER_2D, GL_SAMPLER_CUBE };
+
+	private static final int[] GLSL_COMPONENTS = { 1, 2, 3, 4, 1, 2, 3, 4, 1, 2, 3, 4, 4, 9, 16, 1, 1 };
+
+	private static int glslType(String name) {
+		for (int i = 0; i < GLSL_TYPES.length; i++) {
+			if (GLSL_TYPES[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int components(int code) {
+		for (int i = 0; i < GLSL_CODES.length; i++) {
+			if (GLSL_CODES[i] == code) {
+				return GLSL_COMPONENTS[i];
+			}
+		}
+		return 4;
+	}
+
+	private static String stripComments(String source) {
+		StringBuilder sbr = new StringBuilder(source.length());
+		final int size = source.length();
+		for (int i = 0; i < size; i++) {
+			char ch = source.charAt(i);
+			if (ch == '/' && i + 1 < size && source.charAt(i + 1) == '/') {
+				while (i < size && source.charAt(i) != '\n') {
+					i++;
+				}
+				sbr.append('\n');
+			} else if (ch == '/' && i + 1 < size && source.charAt(i + 1) == '*') {
+				int end = source.indexOf("*/", i + 2);
+				i = end == -1 ? size : end + 1;
+				sbr.append(' ');
+			} else {
+				sbr.append(ch);
+			}
+		}
+		return sbr.toString();
+	}
+
+	/**
+	 * 解析着色器中以keyword(attribute或uniform)开头的全局声明,结果依次为名称,类型代码,数组长度
+	 */
+	private static void declarations(String source, String keyword, java.util.List<String> names,
+			java.util.List<int[]> types) {
+		String[] statements = stripComments(source).split("[;{}]");
+		for (String statement : statements) {
+			StringBuilder sbr = new StringBuilder();
+			for (String line : statement.split("\n")) {
+				if (!line.trim().startsWith("#")) {
+					sbr.append(line).append(' ');
+				}
+			}
+			String[] tokens = sbr.toString().replace("[", " [").trim().split("[\\s,]+");
+			if (tokens.length < 3 || !keyword.equals(tokens[0])) {
+				continue;
+			}
+			int type = -1;
+			int idx = 1;
+			for (; idx < tokens.length; idx++) {
+				if ((type = glslType(tokens[idx])) != -1) {
+					break;
+				}
+			}
+			if (type == -1) {
+				continue;
+			}
+			for (int i = idx + 1; i < tokens.length; i++) {
+				String name = tokens[i];
+				if (name.length() == 0 || name.startsWith("[")) {
+					continue;
+				}
+				int size = 1;
+				if (i + 1 < tokens.length && tokens[i + 1].startsWith("[")) {
+					try {
+						size = Integer.parseInt(tokens[i + 1].replace("[", "").replace("]", "").trim());
+					} catch (NumberFormatException ex) {
+						size = 1;
+					}
+				}
+				if (!names.contains(name)) {
+					names.add(name);
+					types.add(new int[] { GLSL_CODES[type], size });
+				}
+			}
+		}
+	}
+
+	private void link(SoftProgram program) {
+		SoftShader vertex = null, fragment = null;
+		for (int id : program.shaders) {
+			SoftShader shader = _shaders.get(id);
+			if (shader != null && shader.type == GL_VERTEX_SHADER) {
+				vertex = shader;
+			} else if (shader != null && shader.type == GL_FRAGMENT_SHADER) {
+				fragment = shader;
+			}
+		}
+		if (vertex == null || fragment == null || !vertex.compiled || !fragment.compiled) {
+			program.linked = false;
+			program.log = "program needs a compiled vertex and fragment shader";
+			return;
+		}
+		java.util.List<String> names = new java.util.ArrayList<String>();
+		java.util.List<int[]> types = new java.util.ArrayList<int[]>();
+		declarations(vertex.source, "attribute", names, types);
+		final int attribCount = names.size();
+		program.attribNames = names.toArray(new String[attribCount]);
+		program.attribTypes = new int[attribCount];
+		program.attribLocations = new int[attribCount];
+		boolean[] used = new boolean[MAX_ATTRIBS];
+		for (int i = 0; i < attribCount; i++) {
+			program.attribTypes[i] = types.get(i)[0];
+			program.attribLocations[i] = -1;
+			for (int loc : program.bindings.keys()) {
+				if (program.attribNames[i].equals(program.bindings.get(loc)) && loc < MAX_ATTRIBS) {
+					program.attribLocations[i] = loc;
+					used[loc] = true;
+				}
+			}
+		}
+		for (int i = 0; i < attribCount; i++) {
+			if (program.attribLocations[i] == -1) {
+				for (int loc = 0; loc < MAX_ATTRIBS; loc++) {
+					if (!used[loc]) {
+						used[loc] = true;
+						program.attribLocations[i] = loc;
+						break;
+					}
+				}
+			}
+		}
+		names.clear();
+		types.clear();
+		declarations(vertex.source, "uniform", names, types);
+		final int vertexUniforms = names.size();
+		declarations(fragment.source, "uniform", names, types);
+		final int uniformCount = names.size();
+		program.uniformNames = names.toArray(new String[uniformCount]);
+		program.uniformTypes = new int[uniformCount];
+		program.uniformSizes = new int[uniformCount];
+		program.uniformValues = new float[uniformCount][];
+		for (int i = 0; i < uniformCount; i++) {
+			int[] type = types.get(i);
+			program.uniformTypes[i] = type[0];
+			program.uniformSizes[i] = type[1];
+			program.uniformValues[i] = new float[components(type[0]) * type[1]];
+		}
+		// 依据名称与类型推断各参数用途
+		program.positionAttrib = program.colorAttrib = program.texCoordAttrib = -1;
+		for (int i = 0; i < attribCount; i++) {
+			String name = program.attribNames[i].toLowerCase();
+			if (program.positionAttrib == -1 && name.indexOf("position") != -1) {
+				program.positionAttrib = program.attribLocations[i];
+			} else if (program.colorAttrib == -1 && name.indexOf("color") != -1) {
+				program.colorAttrib = program.attribLocations[i];
+			} else if (program.texCoordAttrib == -1 && name.indexOf("texcoord") != -1) {
+				program.texCoordAttrib = program.attribLocations[i];
+			}
+		}
+		if (program.positionAttrib == -1 && attribCount > 0) {
+			program.positionAttrib = program.attribLocations[0];
+		}
+		program.matrixUniform = program.samplerUniform = program.colorUniform = -1;
+		for (int i = 0; i < uniformCount; i++) {
+			int type = program.uniformTypes[i];
+			if (program.matrixUniform == -1 && i < vertexUniforms && type == GL_FLOAT_MAT4) {
+				program.matrixUniform = i;
+			} else if (program.samplerUniform == -1 && type == GL_SAMPLER_2D) {
+				program.samplerUniform = i;
+			} else if (program.colorUniform == -1 && type == GL_FLOAT_VEC4
+					&& program.uniformNames[i].toLowerCase().indexOf("color") != -1) {
+				program.colorUniform = i;
+			}
+		}
+		String fragSource = stripComments(fragment.source);
+		program.textured = program.samplerUniform != -1
+				&& (fragSource.indexOf("texture2D") != -1 || fragSource.indexOf("texture(") != -1);
+		program.alphaScale = stripComments(vertex.source).replaceAll("\\s", "").indexOf("255.0/254.0") != -1
+				? 255f / 254f
+				: 1f;
+		program.linked = true;
+		program.log = "";
+	}
+
+	private int uniformIndex(int location) {
+		return location & 0xFFFF;
+	}
+
+	private void setUniform(int location, float[] values, int offset, int count) {
+		SoftProgram program = _programs.get(_program);
+		if (program == null || location < 0) {
+			return;
+		}
+		int idx = uniformIndex(location);
+		if (idx >= program.uniformValues.length) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		float[] dst = program.uniformValues[idx];
+		int start = (location >>> 16) * components(program.uniformTypes[idx]);
+		int size = MathUtils.min(count, dst.length - start);
+		if (size > 0) {
+			System.arraycopy(values, offset, dst, start, size);
+		}
+	}
+
+	private final float[] _uniformTemp = new float[16];
+
+	private void setUniform(int location, float x, float y, float z, float w, int count) {
+		_uniformTemp[0] = x;
+		_uniformTemp[1] = y;
+		_uniformTemp[2] = z;
+		_uniformTemp[3] = w;
+		setUniform(location, _uniformTemp, 0, count);
+	}
+
+	private void setUniform(int location, FloatBuffer v, int count) {
+		float[] values = new float[count];
+		v.duplicate().get(values, 0, MathUtils.min(count, v.remaining()));
+		setUniform(location, values, 0, count);
+	}
+
+	private void setUniform(int location, IntBuffer v, int count) {
+		float[] values = new float[count];
+		IntBuffer in = v.duplicate();
+		for (int i = 0, size = MathUtils.min(count, in.remaining()); i < size; i++) {
+			values[i] = in.get();
+		}
+		setUniform(location, values, 0, count);
+	}
+
+	private boolean _drawMissingTexture;
+
+	private boolean prepareDraw() {
+		SoftProgram program = _programs.get(_program);
+		if (program == null || !program.linked) {
+			setError(GL_INVALID_OPERATION);
+			return false;
+		}
+		if (!bindTarget()) {
+			return false;
+		}
+		updateClip();
+		if (_clipX0 >= _clipX1 || _clipY0 >= _clipY1) {
+			return false;
+		}
+		_drawProgram = program;
+		_drawTexture = null;
+		_drawMissingTexture = false;
+		if (program.textured) {
+			int unit = (int) program.uniformValues[program.samplerUniform][0];
+			if (unit >= 0 && unit < MAX_TEXTURE_UNITS) {
+				SoftTexture tex = _textures.get(_boundTextures[unit]);
+				if (tex != null && tex.width > 0 && tex.height > 0) {
+					_drawTexture = tex;
+				}
+			}
+			// 未绑定完整纹理时,与GL一致采样结果为(0,0,0,1)
+			_drawMissingTexture = _drawTexture == null;
+		}
+		_drawCalls++;
+		return true;
+	}
+
+	private void fetch(int location, int vertex) {
+		final float[] out = _fetch;
+		out[0] = 0f;
+		out[1] = 0f;
+		out[2] = 0f;
+		out[3] = 1f;
+		if (location < 0 || location >= MAX_ATTRIBS) {
+			return;
+		}
+		SoftAttrib attr = _attribs[location];
+		if (!attr.enabled) {
+			System.arraycopy(attr.value, 0, out, 0, 4);
+			return;
+		}
+		Buffer src;
+		if (attr.buffer != 0) {
+			SoftBuffer buffer = _buffers.get(attr.buffer);
+			src = buffer == null ? null : buffer.data;
+		} else {
+			src = attr.client;
+		}
+		if (src == null) {
+			return;
+		}
+		final int size = typeSize(attr.type);
+		final int stride = attr.stride != 0 ? attr.stride : attr.size * size;
+		final int limit = src.capacity() * (src instanceof ByteBuffer ? 1 : (src instanceof ShortBuffer ? 2 : 4));
+		int pos = attr.offset + vertex * stride;
+		for (int i = 0; i < attr.size && i < 4; i++, pos += size) {
+			if (pos < 0 || pos + size > limit) {
+				break;
+			}
+			out[i] = readComponent(src, pos, attr.type, attr.normalized);
+		}
+	}
+
+	private void transform(int vertex, float[] out, int o) {
+		final SoftProgram program = _drawProgram;
+		fetch(program.positionAttrib, vertex);
+		float x = _fetch[0], y = _fetch[1], z = _fetch[2], w = _fetch[3];
+		if (program.matrixUniform != -1) {
+			final float[] m = program.uniformValues[program.matrixUniform];
+			float cx = m[0] * x + m[4] * y + m[8] * z + m[12] * w;
+			float cy = m[1] * x + m[5] * y + m[9] * z + m[13] * w;
+			float cz = m[2] * x + m[6] * y + m[10] * z + m[14] * w;
+			float cw = m[3] * x + m[7] * y + m[11] * z + m[15] * w;
+			x = cx;
+			y = cy;
+			z = cz;
+			w = cw;
+		}
+		float invW = w > 0f ? 1f / w : 0f;
+		out[o] = _viewX + (x * invW + 1f) * 0.5f * _viewWidth;
+		out[o + 1] = _viewY + (y * invW + 1f) * 0.5f * _viewHeight;
+		out[o + 2] = z * invW;
+		out[o + 3] = invW;
+		if (program.colorAttrib != -1) {
+			fetch(program.colorAttrib, vertex);
+			out[o + 4] = _fetch[0];
+			out[o + 5] = _fetch[1];
+			out[o + 6] = _fetch[2];
+			out[o + 7] = _fetch[3] * program.alphaScale;
+		} else if (program.colorUniform != -1) {
+			final float[] c = program.uniformValues[program.colorUniform];
+			out[o + 4] = c[0];
+			out[o + 5] = c[1];
+			out[o + 6] = c[2];
+			out[o + 7] = c[3];
+		} else {
+			out[o + 4] = out[o + 5] = out[o + 6] = out[o + 7] = 1f;
+		}
+		if (program.texCoordAttrib != -1) {
+			fetch(program.texCoordAttrib, vertex);
+			out[o + 8] = _fetch[0];
+			out[o + 9] = _fetch[1];
+		} else {
+			out[o + 8] = out[o + 9] = 0f;
+		}
+	}
+
+	private int readIndex(Buffer src, int type, int byteIndex) {
+		switch (type) {
+		case GL_UNSIGNED_BYTE:
+			return readByte(src, byteIndex) & 0xFF;
+		case GL_UNSIGNED_INT:
+			return readInt(src, byteIndex);
+		default:
+			return readShort(src, byteIndex) & 0xFFFF;
+		}
+	}
+
+	private void drawElements(int mode, int count, int type, Buffer src, int base) {
+		if (count <= 0 || src == null || !prepareDraw()) {
+			return;
+		}
+		if (_indices.length < count) {
+			_indices = new int[MathUtils.nextPowerOfTwo(count)];
+		}
+		final int size = typeSize(type);
+		final int limit = src.capacity() * (src instanceof ByteBuffer ? 1 : (src instanceof ShortBuffer ? 2 : 4));
+		int min = Integer.MAX_VALUE, max = -1;
+		for (int i = 0; i < count; i++) {
+			int pos = base + i * size;
+			if (pos + size > limit) {
+				count = i;
+				break;
+			}
+			int idx = readIndex(src, type, pos);
+			_indices[i] = idx;
+			min = MathUtils.min(min, idx);
+			max = MathUtils.max(max, idx);
+		}
+		if (count == 0) {
+			return;
+		}
+		transformRange(min, max - min + 1);
+		for (int i = 0; i < count; i++) {
+			_indices[i] = (_indices[i] - min) * VS;
+		}
+		assemble(mode, count, _indices);
+	}
+
+	private void drawArrays(int mode, int first, int count) {
+		if (count <= 0 || !prepareDraw()) {
+			return;
+		}
+		if (_indices.length < count) {
+			_indices = new int[MathUtils.nextPowerOfTwo(count)];
+		}
+		transformRange(first, count);
+		for (int i = 0; i < count; i++) {
+			_indices[i] = i * VS;
+		}
+		assemble(mode, count, _indices);
+	}
+
+	private void transformRange(int first, int count) {
+		if (_verts.length < count * VS) {
+			_verts = new float[MathUtils.nextPowerOfTwo(count) * VS];
+		}
+		for (int i = 0; i < count; i++) {
+			transform(first + i, _verts, i * VS);
+		}
+	}
+
+	private void assemble(int mode, int count, int[] idx) {
+		final float[] v = _verts;
+		switch (mode) {
+		case GL_TRIANGLES:
+			for (int i = 0; i + 2 < count; i += 3) {
+				triangle(v, idx[i], idx[i + 1], idx[i + 2], true);
+			}
+			break;
+		case GL_TRIANGLE_STRIP:
+			for (int i = 0; i + 2 < count; i++) {
+				if ((i & 1) == 0) {
+					triangle(v, idx[i], idx[i + 1], idx[i + 2], true);
+				} else {
+					triangle(v, idx[i + 1], idx[i], idx[i + 2], true);
+				}
+			}
+			break;
+		case GL_TRIANGLE_FAN:
+			for (int i = 1; i + 1 < count; i++) {
+				triangle(v, idx[0], idx[i], idx[i + 1], true);
+			}
+			break;
+		case GL_LINES:
+			for (int i = 0; i + 1 < count; i += 2) {
+				line(v, idx[i], idx[i + 1]);
+			}
+			break;
+		case GL_LINE_STRIP:
+		case GL_LINE_LOOP:
+			for (int i = 0; i + 1 < count; i++) {
+				line(v, idx[i], idx[i + 1]);
+			}
+			if (mode == GL_LINE_LOOP && count > 2) {
+				line(v, idx[count - 1], idx[0]);
+			}
+			break;
+		case GL_POINTS:
+			for (int i = 0; i < count; i++) {
+				point(v, idx[i]);
+			}
+			break;
+		default:
+			setError(GL_INVALID_ENUM);
+			break;
+		}
+	}
+
+	private void quadVertex(float[] v, int src, int dst, float x, float y) {
+		System.arraycopy(v, src, _quad, dst, VS);
+		_quad[dst] = x;
+		_quad[dst + 1] = y;
+	}
+
+	private void line(float[] v, int a, int b) {
+		float dx = v[b] - v[a];
+		float dy = v[b + 1] - v[a + 1];
+		float len = MathUtils.sqrt(dx * dx + dy * dy);
+		if (len == 0f) {
+			point(v, a);
+			return;
+		}
+		float half = MathUtils.max(1f, _lineWidth) * 0.5f;
+		float nx = -dy / len * half;
+		float ny = dx / len * half;
+		quadVertex(v, a, 0, v[a] + nx, v[a + 1] + ny);
+		quadVertex(v, a, VS, v[a] - nx, v[a + 1] - ny);
+		quadVertex(v, b, VS * 2, v[b] - nx, v[b + 1] - ny);
+		quadVertex(v, b, VS * 3, v[b] + nx, v[b + 1] + ny);
+		triangle(_quad, 0, VS, VS * 2, false);
+		triangle(_quad, 0, VS * 2, VS * 3, false);
+	}
+
+	private void point(float[] v, int a) {
+		float x = v[a], y = v[a + 1];
+		quadVertex(v, a, 0, x - 0.5f, y - 0.5f);
+		quadVertex(v, a, VS, x + 0.5f, y - 0.5f);
+		quadVertex(v, a, VS * 2, x + 0.5f, y + 0.5f);
+		quadVertex(v, a, VS * 3, x - 0.5f, y + 0.5f);
+		triangle(_quad, 0, VS, VS * 2, false);
+		triangle(_quad, 0, VS * 2, VS * 3, false);
+	}
+
+	private static boolean topLeft(float dx, float dy) {
+		return dy < 0f || (dy == 0f && dx < 0f);
+	}
+
+	private void triangle(float[] v, int a, int b, int c, boolean cull) {
+		if (v[a + 3] <= 0f || v[b + 3] <= 0f || v[c + 3] <= 0f) {
+			return;
+		}
+		float area = (v[b] - v[a]) * (v[c + 1] - v[a + 1]) - (v[b + 1] - v[a + 1]) * (v[c] - v[a]);
+		if (!(area != 0f) || Float.isNaN(area) || Float.isInfinite(area)) {
+			return;
+		}
+		if (cull && _cullFace) {
+			boolean front = (area > 0f) == (_frontFace == GL_CCW);
+			if (_cullMode == GL_FRONT_AND_BACK || (_cullMode == GL_BACK && !front)
+					|| (_cullMode == GL_FRONT && front)) {
+				return;
+			}
+		}
+		if (area < 0f) {
+			int tmp = b;
+			b = c;
+			c = tmp;
+			area = -area;
+		}
+		final float ax = v[a], ay = v[a + 1], bx = v[b], by = v[b + 1], cx = v[c], cy = v[c + 1];
+		int minX = MathUtils.max(_clipX0, (int) Math.floor(MathUtils.min(ax, MathUtils.min(bx, cx))));
+		int maxX = MathUtils.min(_clipX1 - 1, (int) Math.ceil(MathUtils.max(ax, MathUtils.max(bx, cx))));
+		int minY = MathUtils.max(_clipY0, (int) Math.floor(MathUtils.min(ay, MathUtils.min(by, cy))));
+		int maxY = MathUtils.min(_clipY1 - 1, (int) Math.ceil(MathUtils.max(ay, MathUtils.max(by, cy))));
+		_triangles++;
+		if (minX > maxX || minY > maxY) {
+			return;
+		}
+		final SoftTexture tex = _drawTexture;
+		boolean linear = false;
+		if (tex != null) {
+			float texArea = MathUtils.abs((v[b + 8] - v[a + 8]) * (v[c + 9] - v[a + 9])
+					- (v[c + 8] - v[a + 8]) * (v[b + 9] - v[a + 9])) * tex.width * tex.height;
+			int filter = texArea > area ? tex.minFilter : tex.magFilter;
+			linear = filter == GL_LINEAR || filter == GL_LINEAR_MIPMAP_NEAREST || filter == GL_LINEAR_MIPMAP_LINEAR;
+		}
+		final float invArea = 1f / area;
+		// 各顶点属性预乘1/w,以便透视校正插值
+		final float wa = v[a + 3], wb = v[b + 3], wc = v[c + 3];
+		final boolean affine = wa == wb && wb == wc;
+		final float ra = v[a + 4] * wa, ga = v[a + 5] * wa, ba = v[a + 6] * wa, aa = v[a + 7] * wa;
+		final float rb = v[b + 4] * wb, gb = v[b + 5] * wb, bb = v[b + 6] * wb, ab = v[b + 7] * wb;
+		final float rc = v[c + 4] * wc, gc = v[c + 5] * wc, bc = v[c + 6] * wc, ac = v[c + 7] * wc;
+		final float sa = v[a + 8] * wa, ta = v[a + 9] * wa;
+		final float sb = v[b + 8] * wb, tb = v[b + 9] * wb;
+		final float sc = v[c + 8] * wc, tc = v[c + 9] * wc;
+		// 边函数:e0对应边bc(顶点a的权重),e1对应边ca,e2对应边ab
+		final float e0dx = -(cy - by), e1dx = -(ay - cy), e2dx = -(by - ay);
+		final boolean t0 = topLeft(cx - bx, cy - by), t1 = topLeft(ax - cx, ay - cy), t2 = topLeft(bx - ax, by - ay);
+		final boolean flat = ra == rb && rb == rc && ga == gb && gb == gc && ba == bb && bb == bc && aa == ab
+				&& ab == ac && affine;
+		final int width = _targetWidth;
+		final int[] target = _target;
+		for (int y = minY; y <= maxY; y++) {
+			final float py = y + 0.5f;
+			final float px = minX + 0.5f;
+			float w0 = (cx - bx) * (py - by) - (cy - by) * (px - bx);
+			float w1 = (ax - cx) * (py - cy) - (ay - cy) * (px - cx);
+			float w2 = (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+			int idx = y * width + minX;
+			for (int x = minX; x <= maxX; x++, idx++, w0 += e0dx, w1 += e1dx, w2 += e2dx) {
+				if ((w0 > 0f || (w0 == 0f && t0)) && (w1 > 0f || (w1 == 0f && t1))
+						&& (w2 > 0f || (w2 == 0f && t2))) {
+					float l0 = w0 * invArea, l1 = w1 * invArea, l2 = w2 * invArea;
+					float inv = 1f;
+					if (!affine) {
+						float iw = l0 * wa + l1 * wb + l2 * wc;
+						inv = iw > 0f ? 1f / iw : 0f;
+					} else {
+						inv = 1f / wa;
+					}
+					float r, g, bl, al;
+					if (flat) {
+						r = v[a + 4];
+						g = v[a + 5];
+						bl = v[a + 6];
+						al = v[a + 7];
+					} else {
+						r = (l0 * ra + l1 * rb + l2 * rc) * inv;
+						g = (l0 * ga + l1 * gb + l2 * gc) * inv;
+						bl = (l0 * ba + l1 * bb + l2 * bc) * inv;
+						al = (l0 * aa + l1 * ab + l2 * ac) * inv;
+					}
+					if (tex != null) {
+						int texel = sample(tex, (l0 * sa + l1 * sb + l2 * sc) * inv,
+								(l0 * ta + l1 * tb + l2 * tc) * inv, linear);
+						r *= ((texel >> 16) & 0xFF) / 255f;
+						g *= ((texel >> 8) & 0xFF) / 255f;
+						bl *= (texel & 0xFF) / 255f;
+						al *= (texel >>> 24) / 255f;
+					} else if (_drawMissingTexture) {
+						r = g = bl = 0f;
+					}
+					target[idx] = shade(target[idx], r, g, bl, al);
+				}
+			}
+		}
+	}
+
+	private static int wrap(int i, int size, int mode) {
+		if (mode == GL_REPEAT) {
+			i %= size;
+			return i < 0 ? i + size : i;
+		} else if (mode == GL_MIRRORED_REPEAT) {
+			int period = size * 2;
+			i %= period;
+			if (i < 0) {
+				i += period;
+			}
+			return i < size ? i : period - 1 - i;
+		}
+		return i < 0 ? 0 : (i >= size ? size - 1 : i);
+	}
+
+	private static int sample(SoftTexture tex, float s, float t, boolean linear) {
+		final int w = tex.width, h = tex.height;
+		final int[] pixels = tex.pixels;
+		if (!linear) {
+			int x = wrap((int) Math.floor(s * w), w, tex.wrapS);
+			int y = wrap((int) Math.floor(t * h), h, tex.wrapT);
+			return pixels[y * w + x];
+		}
+		float u = s * w - 0.5f, v = t * h - 0.5f;
+		int x0 = (int) Math.floor(u), y0 = (int) Math.floor(v);
+		int fx = (int) ((u - x0) * 256f), fy = (int) ((v - y0) * 256f);
+		int x1 = wrap(x0 + 1, w, tex.wrapS), y1 = wrap(y0 + 1, h, tex.wrapT);
+		x0 = wrap(x0, w, tex.wrapS);
+		y0 = wrap(y0, h, tex.wrapT);
+		int c00 = pixels[y0 * w + x0], c10 = pixels[y0 * w + x1];
+		int c01 = pixels[y1 * w + x0], c11 = pixels[y1 * w + x1];
+		int w00 = (256 - fx) * (256 - fy), w10 = fx * (256 - fy), w01 = (256 - fx) * fy, w11 = fx * fy;
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 8) {
+			int ch = ((c00 >>> shift) & 0xFF) * w00 + ((c10 >>> shift) & 0xFF) * w10
+					+ ((c01 >>> shift) & 0xFF) * w01 + ((c11 >>> shift) & 0xFF) * w11;
+			result |= (((ch + 32768) >> 16) & 0xFF) << shift;
+		}
+		return result;
+	}
+
+	private float factor(int f, int ch, float sr, float sg, float sb, float sa, float dr, float dg, float db,
+			float da) {
+		switch (f) {
+		case GL_ZERO:
+			return 0f;
+		case GL_ONE:
+			return 1f;
+		case GL_SRC_COLOR:
+			return ch == 0 ? sr : (ch == 1 ? sg : (ch == 2 ? sb : sa));
+		case GL_ONE_MINUS_SRC_COLOR:
+			return 1f - (ch == 0 ? sr : (ch == 1 ? sg : (ch == 2 ? sb : sa)));
+		case GL_DST_COLOR:
+			return ch == 0 ? dr : (ch == 1 ? dg : (ch == 2 ? db : da));
+		case GL_ONE_MINUS_DST_COLOR:
+			return 1f - (ch == 0 ? dr : (ch == 1 ? dg : (ch == 2 ? db : da)));
+		case GL_SRC_ALPHA:
+			return sa;
+		case GL_ONE_MINUS_SRC_ALPHA:
+			return 1f - sa;
+		case GL_DST_ALPHA:
+			return da;
+		case GL_ONE_MINUS_DST_ALPHA:
+			return 1f - da;
+		case GL_CONSTANT_COLOR:
+			return ch == 0 ? _blendR : (ch == 1 ? _blendG : (ch == 2 ? _blendB : _blendA));
+		case GL_ONE_MINUS_CONSTANT_COLOR:
+			return 1f - (ch == 0 ? _blendR : (ch == 1 ? _blendG : (ch == 2 ? _blendB : _blendA)));
+		case GL_CONSTANT_ALPHA:
+			return _blendA;
+		case GL_ONE_MINUS_CONSTANT_ALPHA:
+			return 1f - _blendA;
+		case GL_SRC_ALPHA_SATURATE:
+			return ch == 3 ? 1f : MathUtils.min(sa, 1f - da);
+		default:
+			return 0f;
+		}
+	}
+
+	private static float equation(int mode, float s, float sf, float d, float df) {
+		switch (mode) {
+		case GL_FUNC_SUBTRACT:
+			return s * sf - d * df;
+		case GL_FUNC_REVERSE_SUBTRACT:
+			return d * df - s * sf;
+		case GL_MIN:
+			return MathUtils.min(s, d);
+		case GL_MAX:
+			return MathUtils.max(s, d);
+		default:
+			return s * sf + d * df;
+		}
+	}
+
+	private int shade(int dst, float r, float g, float b, float a) {
+		_fragments++;
+		r = MathUtils.clamp(r, 0f, 1f);
+		g = MathUtils.clamp(g, 0f, 1f);
+		b = MathUtils.clamp(b, 0f, 1f);
+		a = MathUtils.clamp(a, 0f, 1f);
+		int color;
+		if (_blend) {
+			float dr = ((dst >> 16) & 0xFF) / 255f, dg = ((dst >> 8) & 0xFF) / 255f, db = (dst & 0xFF) / 255f,
+					da = (dst >>> 24) / 255f;
+			float or = equation(_equationRGB, r, factor(_srcRGB, 0, r, g, b, a, dr, dg, db, da), dr,
+					factor(_dstRGB, 0, r, g, b, a, dr, dg, db, da));
+			float og = equation(_equationRGB, g, factor(_srcRGB, 1, r, g, b, a, dr, dg, db, da), dg,
+					factor(_dstRGB, 1, r, g, b, a, dr, dg, db, da));
+			float ob = equation(_equationRGB, b, factor(_srcRGB, 2, r, g, b, a, dr, dg, db, da), db,
+					factor(_dstRGB, 2, r, g, b, a, dr, dg, db, da));
+			float oa = equation(_equationAlpha, a, factor(_srcAlpha, 3, r, g, b, a, dr, dg, db, da), da,
+					factor(_dstAlpha, 3, r, g, b, a, dr, dg, db, da));
+			color = toColor(or, og, ob, oa);
+		} else {
+			color = toColor(r, g, b, a);
+		}
+		return (color & _colorMask) | (dst & ~_colorMask);
+	}
+
+	@Override
+	public String getPlatformGLExtensions() {
+		return "";
+	}
+
+	@Override
+	public boolean hasGLSL() {
+		return true;
+	}
+
+	@Override
+	public boolean isExtensionAvailable(String extension) {
+		return false;
+	}
+
+	@Override
+	public boolean isFunctionAvailable(String function) {
+		return false;
+	}
+
+	@Override
+	public int getSwapInterval() {
+		return 0;
+	}
+
+	@Override
+	public void glActiveTexture(int texture) {
+		int unit = texture - GL_TEXTURE0;
+		if (unit < 0 || unit >= MAX_TEXTURE_UNITS) {
+			setError(GL_INVALID_ENUM);
+			return;
+		}
+		_activeTexture = unit;
+	}
+
+	@Override
+	public void glAttachShader(int program, int shader) {
+		SoftProgram p = _programs.get(program);
+		SoftShader s = _shaders.get(shader);
+		if (p == null || s == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		p.shaders[s.type == GL_VERTEX_SHADER ? 0 : 1] = shader;
+	}
+
+	@Override
+	public void glBindAttribLocation(int program, int index, String name) {
+		SoftProgram p = _programs.get(program);
+		if (p == null || index < 0 || index >= MAX_ATTRIBS) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		p.bindings.put(index, name);
+	}
+
+	@Override
+	public void glBindBuffer(int target, int buffer) {
+		if (buffer != 0 && !_buffers.containsKey(buffer)) {
+			_buffers.put(buffer, new SoftBuffer());
+		}
+		if (target == GL_ARRAY_BUFFER) {
+			_arrayBuffer = buffer;
+		} else if (target == GL_ELEMENT_ARRAY_BUFFER) {
+			_elementBuffer = buffer;
+		} else {
+			setError(GL_INVALID_ENUM);
+		}
+	}
+
+	@Override
+	public void glBindFramebuffer(int target, int framebuffer) {
+		if (framebuffer != 0 && !_framebuffers.containsKey(framebuffer)) {
+			_framebuffers.put(framebuffer, new SoftFramebuffer());
+		}
+		_framebuffer = framebuffer;
+	}
+
+	@Override
+	public void glBindRenderbuffer(int target, int renderbuffer) {
+		if (renderbuffer != 0 && !_renderbuffers.containsKey(renderbuffer)) {
+			_renderbuffers.put(renderbuffer, new SoftRenderbuffer());
+		}
+		_renderbuffer = renderbuffer;
+	}
+
+	@Override
+	public void glBindTexture(int target, int texture) {
+		if (texture != 0 && !_textures.containsKey(texture)) {
+			_textures.put(texture, new SoftTexture());
+		}
+		_boundTextures[_activeTexture] = texture;
+	}
+
+	@Override
+	public void glBlendColor(float red, float green, float blue, float alpha) {
+		_blendR = MathUtils.clamp(red, 0f, 1f);
+		_blendG = MathUtils.clamp(green, 0f, 1f);
+		_blendB = MathUtils.clamp(blue, 0f, 1f);
+		_blendA = MathUtils.clamp(alpha, 0f, 1f);
+	}
+
+	@Override
+	public void glBlendEquation(int mode) {
+		glBlendEquationSeparate(mode, mode);
+	}
+
+	@Override
+	public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+		_equationRGB = modeRGB;
+		_equationAlpha = modeAlpha;
+	}
+
+	@Override
+	public void glBlendFunc(int sfactor, int dfactor) {
+		glBlendFuncSeparate(sfactor, dfactor, sfactor, dfactor);
+	}
+
+	@Override
+	public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		_srcRGB = srcRGB;
+		_dstRGB = dstRGB;
+		_srcAlpha = srcAlpha;
+		_dstAlpha = dstAlpha;
+	}
+
+	private SoftBuffer boundBuffer(int target) {
+		int id = target == GL_ELEMENT_ARRAY_BUFFER ? _elementBuffer : _arrayBuffer;
+		SoftBuffer buffer = id == 0 ? null : _buffers.get(id);
+		if (buffer == null) {
+			setError(GL_INVALID_OPERATION);
+		}
+		return buffer;
+	}
+
+	@Override
+	public void glBufferData(int target, int size, Buffer data, int usage) {
+		SoftBuffer buffer = boundBuffer(target);
+		if (buffer == null) {
+			return;
+		}
+		if (buffer.data.capacity() != size) {
+			buffer.data = ByteBuffer.allocate(MathUtils.max(0, size)).order(ByteOrder.nativeOrder());
+		}
+		buffer.usage = usage;
+		writeBytes(buffer.data, 0, data, size);
+	}
+
+	@Override
+	public void glBufferSubData(int target, int offset, int size, Buffer data) {
+		SoftBuffer buffer = boundBuffer(target);
+		if (buffer == null) {
+			return;
+		}
+		if (offset < 0 || offset + size > buffer.data.capacity()) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		writeBytes(buffer.data, offset, data, size);
+	}
+
+	@Override
+	public int glCheckFramebufferStatus(int target) {
+		if (_framebuffer == 0) {
+			return GL_FRAMEBUFFER_COMPLETE;
+		}
+		SoftFramebuffer fb = _framebuffers.get(_framebuffer);
+		if (fb == null || (fb.texture == 0 && fb.renderbuffer == 0)) {
+			return GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT;
+		}
+		return bindTarget() ? GL_FRAMEBUFFER_COMPLETE : GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT;
+	}
+
+	@Override
+	public void glClear(int mask) {
+		if ((mask & GL_COLOR_BUFFER_BIT) == 0 || !bindTarget()) {
+			return;
+		}
+		updateClip();
+		final int color = _clearColor;
+		final int[] target = _target;
+		final int width = _targetWidth;
+		if (_colorMask == 0xFFFFFFFF && _clipX0 == 0 && _clipY0 == 0 && _clipX1 == width
+				&& _clipY1 == _targetHeight) {
+			java.util.Arrays.fill(target, 0, width * _targetHeight, color);
+			return;
+		}
+		for (int y = _clipY0; y < _clipY1; y++) {
+			for (int x = _clipX0, idx = y * width + _clipX0; x < _clipX1; x++, idx++) {
+				target[idx] = (color & _colorMask) | (target[idx] & ~_colorMask);
+			}
+		}
+	}
+
+	@Override
+	public void glClearColor(float red, float green, float blue, float alpha) {
+		_clearColor = toColor(red, green, blue, alpha);
+	}
+
+	@Override
+	public void glClearDepth(double depth) {
+	}
+
+	@Override
+	public void glClearDepthf(float depth) {
+	}
+
+	@Override
+	public void glClearStencil(int s) {
+	}
+
+	@Override
+	public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		_colorMask = (alpha ? 0xFF000000 : 0) | (red ? 0x00FF0000 : 0) | (green ? 0x0000FF00 : 0)
+				| (blue ? 0x000000FF : 0);
+	}
+
+	@Override
+	public void glCompileShader(int shader) {
+		SoftShader s = _shaders.get(shader);
+		if (s == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		s.compiled = true;
+	}
+
+	@Override
+	public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+			int imageSize, Buffer data) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, Buffer arg8) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height,
+			int format, int imageSize, Buffer data) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8, int arg9, Buffer arg10) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCompressedTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8, int arg9, int arg10) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height,
+			int border) {
+		SoftTexture tex = boundTexture();
+		if (tex == null || level != 0) {
+			return;
+		}
+		tex.width = width;
+		tex.height = height;
+		tex.pixels = new int[width * height];
+		glCopyTexSubImage2D(target, level, 0, 0, x, y, width, height);
+	}
+
+	@Override
+	public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width,
+			int height) {
+		SoftTexture tex = boundTexture();
+		if (tex == null || level != 0 || !bindTarget()) {
+			return;
+		}
+		for (int j = 0; j < height; j++) {
+			int sy = y + j, dy = yoffset + j;
+			if (sy < 0 || sy >= _targetHeight || dy < 0 || dy >= tex.height) {
+				continue;
+			}
+			for (int i = 0; i < width; i++) {
+				int sx = x + i, dx = xoffset + i;
+				if (sx >= 0 && sx < _targetWidth && dx >= 0 && dx < tex.width) {
+					tex.pixels[dy * tex.width + dx] = _target[sy * _targetWidth + sx];
+				}
+			}
+		}
+	}
+
+	@Override
+	public void glCopyTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public int glCreateProgram() {
+		int id = nextId();
+		_programs.put(id, new SoftProgram());
+		return id;
+	}
+
+	@Override
+	public int glCreateShader(int type) {
+		if (type != GL_VERTEX_SHADER && type != GL_FRAGMENT_SHADER) {
+			setError(GL_INVALID_ENUM);
+			return 0;
+		}
+		int id = nextId();
+		_shaders.put(id, new SoftShader(type));
+		return id;
+	}
+
+	@Override
+	public void glCullFace(int mode) {
+		_cullMode = mode;
+	}
+
+	@Override
+	public void glDeleteBuffers(int n, IntBuffer buffers) {
+		for (int i = 0; i < n; i++) {
+			int id = buffers.get(buffers.position() + i);
+			_buffers.remove(id);
+			if (_arrayBuffer == id) {
+				_arrayBuffer = 0;
+			}
+			if (_elementBuffer == id) {
+				_elementBuffer = 0;
+			}
+		}
+	}
+
+	@Override
+	public void glDeleteFramebuffers(int n, IntBuffer framebuffers) {
+		for (int i = 0; i < n; i++) {
+			int id = framebuffers.get(framebuffers.position() + i);
+			_framebuffers.remove(id);
+			if (_framebuffer == id) {
+				_framebuffer = 0;
+			}
+		}
+	}
+
+	@Override
+	public void glDeleteProgram(int program) {
+		SoftProgram p = _programs.get(program);
+		if (p == null) {
+			return;
+		}
+		if (_program == program) {
+			p.deleted = true;
+		} else {
+			_programs.remove(program);
+		}
+	}
+
+	@Override
+	public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers) {
+		for (int i = 0; i < n; i++) {
+			int id = renderbuffers.get(renderbuffers.position() + i);
+			_renderbuffers.remove(id);
+			if (_renderbuffer == id) {
+				_renderbuffer = 0;
+			}
+		}
+	}
+
+	@Override
+	public void glDeleteShader(int shader) {
+		SoftShader s = _shaders.get(shader);
+		if (s != null) {
+			s.deleted = true;
+			_shaders.remove(shader);
+		}
+	}
+
+	@Override
+	public void glDeleteTextures(int n, IntBuffer textures) {
+		for (int i = 0; i < n; i++) {
+			int id = textures.get(textures.position() + i);
+			_textures.remove(id);
+			for (int j = 0; j < MAX_TEXTURE_UNITS; j++) {
+				if (_boundTextures[j] == id) {
+					_boundTextures[j] = 0;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void glDepthFunc(int func) {
+	}
+
+	@Override
+	public void glDepthMask(boolean flag) {
+	}
+
+	@Override
+	public void glDepthRange(double zNear, double zFar) {
+	}
+
+	@Override
+	public void glDepthRangef(float zNear, float zFar) {
+	}
+
+	@Override
+	public void glDetachShader(int program, int shader) {
+		SoftProgram p = _programs.get(program);
+		if (p == null) {
+			return;
+		}
+		for (int i = 0; i < p.shaders.length; i++) {
+			if (p.shaders[i] == shader) {
+				p.shaders[i] = 0;
+			}
+		}
+	}
+
+	private void setCap(int cap, boolean enabled) {
+		switch (cap) {
+		case GL_BLEND:
+			_blend = enabled;
+			break;
+		case GL_SCISSOR_TEST:
+			_scissorTest = enabled;
+			break;
+		case GL_CULL_FACE:
+			_cullFace = enabled;
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Override
+	public void glDisable(int cap) {
+		setCap(cap, false);
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int index) {
+		if (index >= 0 && index < MAX_ATTRIBS) {
+			_attribs[index].enabled = false;
+		}
+	}
+
+	@Override
+	public void glDrawArrays(int mode, int first, int count) {
+		drawArrays(mode, first, count);
+	}
+
+	@Override
+	public void glDrawElements(int mode, int count, int type, Buffer indices) {
+		if (_elementBuffer != 0 && indices == null) {
+			glDrawElements(mode, count, type, 0);
+			return;
+		}
+		drawElements(mode, count, type, indices, indices == null ? 0 : bufferBase(indices));
+	}
+
+	@Override
+	public void glDrawElements(int mode, int count, int type, int offset) {
+		SoftBuffer buffer = _elementBuffer == 0 ? null : _buffers.get(_elementBuffer);
+		if (buffer == null) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		drawElements(mode, count, type, buffer.data, offset);
+	}
+
+	@Override
+	public void glEnable(int cap) {
+		setCap(cap, true);
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int index) {
+		if (index >= 0 && index < MAX_ATTRIBS) {
+			_attribs[index].enabled = true;
+		}
+	}
+
+	@Override
+	public void glFinish() {
+	}
+
+	@Override
+	public void glFlush() {
+	}
+
+	@Override
+	public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+		SoftFramebuffer fb = _framebuffers.get(_framebuffer);
+		if (fb == null) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		if (attachment == GL_COLOR_ATTACHMENT0) {
+			fb.renderbuffer = renderbuffer;
+			if (renderbuffer != 0) {
+				fb.texture = 0;
+			}
+		}
+	}
+
+	@Override
+	public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+		SoftFramebuffer fb = _framebuffers.get(_framebuffer);
+		if (fb == null) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		if (attachment == GL_COLOR_ATTACHMENT0) {
+			fb.texture = texture;
+			if (texture != 0) {
+				fb.renderbuffer = 0;
+			}
+		}
+	}
+
+	@Override
+	public void glFramebufferTexture3D(int target, int attachment, int textarget, int texture, int level,
+			int zoffset) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glFrontFace(int mode) {
+		_frontFace = mode;
+	}
+
+	private void gen(int n, IntBuffer ids) {
+		for (int i = 0; i < n; i++) {
+			ids.put(ids.position() + i, nextId());
+		}
+	}
+
+	@Override
+	public void glGenBuffers(int n, IntBuffer buffers) {
+		gen(n, buffers);
+	}
+
+	@Override
+	public void glGenerateMipmap(int target) {
+	}
+
+	@Override
+	public void glGenFramebuffers(int n, IntBuffer framebuffers) {
+		gen(n, framebuffers);
+	}
+
+	@Override
+	public void glGenRenderbuffers(int n, IntBuffer renderbuffers) {
+		gen(n, renderbuffers);
+	}
+
+	@Override
+	public void glGenTextures(int n, IntBuffer textures) {
+		gen(n, textures);
+	}
+
+	private void activeInfo(String[] names, int[] types, int index, int bufsize, int[] length, int lengthOffset,
+			int[] size, int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset, int[] sizes) {
+		if (index < 0 || index >= names.length) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		byte[] bytes = names[index].getBytes();
+		int count = MathUtils.min(bytes.length, MathUtils.min(name.length - nameOffset, bufsize));
+		System.arraycopy(bytes, 0, name, nameOffset, count);
+		if (length != null) {
+			length[lengthOffset] = count;
+		}
+		if (size != null) {
+			size[sizeOffset] = sizes == null ? 1 : sizes[index];
+		}
+		if (type != null) {
+			type[typeOffset] = types[index];
+		}
+	}
+
+	@Override
+	public void glGetActiveAttrib(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size,
+			int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+		SoftProgram p = _programs.get(program);
+		if (p == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		activeInfo(p.attribNames, p.attribTypes, index, bufsize, length, lengthOffset, size, sizeOffset, type,
+				typeOffset, name, nameOffset, null);
+	}
+
+	@Override
+	public void glGetActiveUniform(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size,
+			int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+		SoftProgram p = _programs.get(program);
+		if (p == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		activeInfo(p.uniformNames, p.uniformTypes, index, bufsize, length, lengthOffset, size, sizeOffset, type,
+				typeOffset, name, nameOffset, p.uniformSizes);
+	}
+
+	@Override
+	public void glGetAttachedShaders(int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+		SoftProgram p = _programs.get(program);
+		int n = 0;
+		if (p != null) {
+			for (int id : p.shaders) {
+				if (id != 0 && n < maxcount) {
+					shaders.put(shaders.position() + n++, id);
+				}
+			}
+		}
+		if (count != null) {
+			count.put(count.position(), n);
+		}
+	}
+
+	@Override
+	public int glGetAttribLocation(int program, String name) {
+		SoftProgram p = _programs.get(program);
+		if (p == null || !p.linked) {
+			setError(GL_INVALID_OPERATION);
+			return -1;
+		}
+		for (int i = 0; i < p.attribNames.length; i++) {
+			if (p.attribNames[i].equals(name)) {
+				return p.attribLocations[i];
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean glGetBoolean(int pname) {
+		return glGetInteger(pname) != 0;
+	}
+
+	@Override
+	public void glGetBooleanv(int pname, ByteBuffer params) {
+		params.put(params.position(), (byte) (glGetBoolean(pname) ? 1 : 0));
+	}
+
+	@Override
+	public int glGetBoundBuffer(int target) {
+		return target == GL_ELEMENT_ARRAY_BUFFER ? _elementBuffer : _arrayBuffer;
+	}
+
+	@Override
+	public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+		SoftBuffer buffer = boundBuffer(target);
+		if (buffer == null) {
+			return;
+		}
+		if (pname == GL_BUFFER_SIZE) {
+			params.put(params.position(), buffer.data.capacity());
+		} else if (pname == GL_BUFFER_USAGE) {
+			params.put(params.position(), buffer.usage);
+		}
+	}
+
+	@Override
+	public int glGetError() {
+		int error = _error;
+		_error = GL_NO_ERROR;
+		return error;
+	}
+
+	@Override
+	public float glGetFloat(int pname) {
+		if (pname == GL_LINE_WIDTH) {
+			return _lineWidth;
+		}
+		return glGetInteger(pname);
+	}
+
+	@Override
+	public void glGetFloatv(int pname, FloatBuffer params) {
+		if (pname == GL_COLOR_CLEAR_VALUE) {
+			int pos = params.position();
+			params.put(pos, ((_clearColor >> 16) & 0xFF) / 255f);
+			params.put(pos + 1, ((_clearColor >> 8) & 0xFF) / 255f);
+			params.put(pos + 2, (_clearColor & 0xFF) / 255f);
+			params.put(pos + 3, (_clearColor >>> 24) / 255f);
+			return;
+		}
+		params.put(params.position(), glGetFloat(pname));
+	}
+
+	@Override
+	public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+		SoftFramebuffer fb = _framebuffers.get(_framebuffer);
+		int value = 0;
+		if (fb != null && attachment == GL_COLOR_ATTACHMENT0) {
+			if (pname == GL_FRAMEBUFFER_ATTACHMENT_OBJECT_TYPE) {
+				value = fb.texture != 0 ? GL_TEXTURE : (fb.renderbuffer != 0 ? GL_RENDERBUFFER : GL_NONE);
+			} else if (pname == GL_FRAMEBUFFER_ATTACHMENT_OBJECT_NAME) {
+				value = fb.texture != 0 ? fb.texture : fb.renderbuffer;
+			}
+		}
+		params.put(params.position(), value);
+	}
+
+	@Override
+	public int glGetInteger(int pname) {
+		switch (pname) {
+		case GL_MAX_TEXTURE_SIZE:
+		case GL_MAX_RENDERBUFFER_SIZE:
+			return MAX_TEXTURE_SIZE;
+		case GL_MAX_VERTEX_ATTRIBS:
+			return MAX_ATTRIBS;
+		case GL_MAX_TEXTURE_IMAGE_UNITS:
+		case GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS:
+			return MAX_TEXTURE_UNITS;
+		case GL_FRAMEBUFFER_BINDING:
+			return _framebuffer;
+		case GL_RENDERBUFFER_BINDING:
+			return _renderbuffer;
+		case GL_CURRENT_PROGRAM:
+			return _program;
+		case GL_TEXTURE_BINDING_2D:
+			return _boundTextures[_activeTexture];
+		case GL_ACTIVE_TEXTURE:
+			return GL_TEXTURE0 + _activeTexture;
+		case GL_ARRAY_BUFFER_BINDING:
+			return _arrayBuffer;
+		case GL_ELEMENT_ARRAY_BUFFER_BINDING:
+			return _elementBuffer;
+		case GL_BLEND:
+			return _blend ? 1 : 0;
+		case GL_SCISSOR_TEST:
+			return _scissorTest ? 1 : 0;
+		case GL_CULL_FACE:
+			return _cullFace ? 1 : 0;
+		case GL_CULL_FACE_MODE:
+			return _cullMode;
+		case GL_FRONT_FACE:
+			return _frontFace;
+		case GL_BLEND_SRC_RGB:
+			return _srcRGB;
+		case GL_BLEND_DST_RGB:
+			return _dstRGB;
+		case GL_BLEND_SRC_ALPHA:
+			return _srcAlpha;
+		case GL_BLEND_DST_ALPHA:
+			return _dstAlpha;
+		case GL_UNPACK_ALIGNMENT:
+			return _unpackAlignment;
+		case GL_PACK_ALIGNMENT:
+			return _packAlignment;
+		case GL_RED_BITS:
+		case GL_GREEN_BITS:
+		case GL_BLUE_BITS:
+		case GL_ALPHA_BITS:
+			return 8;
+		default:
+			return 0;
+		}
+	}
+
+	@Override
+	public void glGetIntegerv(int pname, IntBuffer params) {
+		int pos = params.position();
+		if (pname == GL_VIEWPORT) {
+			params.put(pos, _viewX);
+			params.put(pos + 1, _viewY);
+			params.put(pos + 2, _viewWidth);
+			params.put(pos + 3, _viewHeight);
+		} else if (pname == GL_SCISSOR_BOX) {
+			params.put(pos, _scissorX);
+			params.put(pos + 1, _scissorY);
+			params.put(pos + 2, _scissorWidth);
+			params.put(pos + 3, _scissorHeight);
+		} else if (pname == GL_MAX_VIEWPORT_DIMS) {
+			params.put(pos, MAX_TEXTURE_SIZE);
+			params.put(pos + 1, MAX_TEXTURE_SIZE);
+		} else {
+			params.put(pos, glGetInteger(pname));
+		}
+	}
+
+	@Override
+	public void glGetProgramBinary(int arg0, int arg1, IntBuffer arg2, IntBuffer arg3, Buffer arg4) {
+		setError(GL_INVALID_OPERATION);
+	}
+
+	@Override
+	public void glGetProgramInfoLog(int program, int bufsize, IntBuffer length, ByteBuffer infolog) {
+		byte[] bytes = glGetProgramInfoLog(program).getBytes();
+		int count = MathUtils.min(bytes.length, MathUtils.min(bufsize, infolog.remaining()));
+		infolog.duplicate().put(bytes, 0, count);
+		if (length != null) {
+			length.put(length.position(), count);
+		}
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int program) {
+		SoftProgram p = _programs.get(program);
+		return p == null ? "" : p.log;
+	}
+
+	private static int maxLength(String[] names) {
+		int max = 0;
+		for (String name : names) {
+			max = MathUtils.max(max, name.length() + 1);
+		}
+		return max;
+	}
+
+	@Override
+	public void glGetProgramiv(int program, int pname, IntBuffer params) {
+		SoftProgram p = _programs.get(program);
+		if (p == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		int value = 0;
+		switch (pname) {
+		case GL_LINK_STATUS:
+		case GL_VALIDATE_STATUS:
+			value = p.linked ? GL_TRUE : GL_FALSE;
+			break;
+		case GL_DELETE_STATUS:
+			value = p.deleted ? GL_TRUE : GL_FALSE;
+			break;
+		case GL_ACTIVE_ATTRIBUTES:
+			value = p.attribNames.length;
+			break;
+		case GL_ACTIVE_UNIFORMS:
+			value = p.uniformNames.length;
+			break;
+		case GL_ACTIVE_ATTRIBUTE_MAX_LENGTH:
+			value = maxLength(p.attribNames);
+			break;
+		case GL_ACTIVE_UNIFORM_MAX_LENGTH:
+			value = maxLength(p.uniformNames);
+			break;
+		case GL_ATTACHED_SHADERS:
+			value = (p.shaders[0] != 0 ? 1 : 0) + (p.shaders[1] != 0 ? 1 : 0);
+			break;
+		case GL_INFO_LOG_LENGTH:
+			value = p.log.length() == 0 ? 0 : p.log.length() + 1;
+			break;
+		default:
+			setError(GL_INVALID_ENUM);
+			break;
+		}
+		params.put(params.position(), value);
+	}
+
+	@Override
+	public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+		SoftRenderbuffer rb = _renderbuffers.get(_renderbuffer);
+		int value = 0;
+		if (rb != null) {
+			if (pname == GL_RENDERBUFFER_WIDTH) {
+				value = rb.width;
+			} else if (pname == GL_RENDERBUFFER_HEIGHT) {
+				value = rb.height;
+			} else if (pname == GL_RENDERBUFFER_INTERNAL_FORMAT) {
+				value = rb.format;
+			}
+		}
+		params.put(params.position(), value);
+	}
+
+	@Override
+	public void glGetShaderInfoLog(int shader, int bufsize, IntBuffer length, ByteBuffer infolog) {
+		if (length != null) {
+			length.put(length.position(), 0);
+		}
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int shader) {
+		return "";
+	}
+
+	@Override
+	public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+		SoftShader s = _shaders.get(shader);
+		if (s == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		int value = 0;
+		switch (pname) {
+		case GL_SHADER_TYPE:
+			value = s.type;
+			break;
+		case GL_COMPILE_STATUS:
+			value = s.compiled ? GL_TRUE : GL_FALSE;
+			break;
+		case GL_DELETE_STATUS:
+			value = s.deleted ? GL_TRUE : GL_FALSE;
+			break;
+		case GL_SHADER_SOURCE_LENGTH:
+			value = s.source.length() + 1;
+			break;
+		default:
+			break;
+		}
+		params.put(params.position(), value);
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, int[] range, int rangeOffset,
+			int[] precision, int precisionOffset) {
+		range[rangeOffset] = 127;
+		range[rangeOffset + 1] = 127;
+		precision[precisionOffset] = 23;
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+		range.put(range.position(), 127);
+		range.put(range.position() + 1, 127);
+		precision.put(precision.position(), 23);
+	}
+
+	@Override
+	public void glGetShaderSource(int shader, int bufsize, int[] length, int lengthOffset, byte[] source,
+			int sourceOffset) {
+		SoftShader s = _shaders.get(shader);
+		byte[] bytes = s == null ? new byte[0] : s.source.getBytes();
+		int count = MathUtils.min(bytes.length, MathUtils.min(bufsize, source.length - sourceOffset));
+		System.arraycopy(bytes, 0, source, sourceOffset, count);
+		if (length != null) {
+			length[lengthOffset] = count;
+		}
+	}
+
+	@Override
+	public void glGetShaderSource(int shader, int bufsize, IntBuffer length, ByteBuffer source) {
+		SoftShader s = _shaders.get(shader);
+		byte[] bytes = s == null ? new byte[0] : s.source.getBytes();
+		int count = MathUtils.min(bytes.length, MathUtils.min(bufsize, source.remaining()));
+		source.duplicate().put(bytes, 0, count);
+		if (length != null) {
+			length.put(length.position(), count);
+		}
+	}
+
+	@Override
+	public String glGetString(int name) {
+		switch (name) {
+		case GL_VENDOR:
+			return "Loon";
+		case GL_RENDERER:
+			return "Loon Software Rasterizer";
+		case GL_VERSION:
+			return "OpenGL ES 2.0 Software";
+		case GL_SHADING_LANGUAGE_VERSION:
+			return "OpenGL ES GLSL ES 1.00";
+		case GL_EXTENSIONS:
+			return "";
+		default:
+			setError(GL_INVALID_ENUM);
+			return null;
+		}
+	}
+
+	private int texParameter(SoftTexture tex, int pname) {
+		switch (pname) {
+		case GL_TEXTURE_MIN_FILTER:
+			return tex.minFilter;
+		case GL_TEXTURE_MAG_FILTER:
+			return tex.magFilter;
+		case GL_TEXTURE_WRAP_S:
+			return tex.wrapS;
+		case GL_TEXTURE_WRAP_T:
+			return tex.wrapT;
+		default:
+			return 0;
+		}
+	}
+
+	@Override
+	public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+		SoftTexture tex = boundTexture();
+		params.put(params.position(), tex == null ? 0 : texParameter(tex, pname));
+	}
+
+	@Override
+	public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+		SoftTexture tex = boundTexture();
+		params.put(params.position(), tex == null ? 0 : texParameter(tex, pname));
+	}
+
+	@Override
+	public void glGetUniformfv(int program, int location, FloatBuffer params) {
+		SoftProgram p = _programs.get(program);
+		if (p == null || location < 0 || uniformIndex(location) >= p.uniformValues.length) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		float[] values = p.uniformValues[uniformIndex(location)];
+		int start = (location >>> 16) * components(p.uniformTypes[uniformIndex(location)]);
+		int size = MathUtils.min(components(p.uniformTypes[uniformIndex(location)]), params.remaining());
+		for (int i = 0; i < size && start + i < values.length; i++) {
+			params.put(params.position() + i, values[start + i]);
+		}
+	}
+
+	@Override
+	public void glGetUniformiv(int program, int location, IntBuffer params) {
+		SoftProgram p = _programs.get(program);
+		if (p == null || location < 0 || uniformIndex(location) >= p.uniformValues.length) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		float[] values = p.uniformValues[uniformIndex(location)];
+		int start = (location >>> 16) * components(p.uniformTypes[uniformIndex(location)]);
+		int size = MathUtils.min(components(p.uniformTypes[uniformIndex(location)]), params.remaining());
+		for (int i = 0; i < size && start + i < values.length; i++) {
+			params.put(params.position() + i, (int) values[start + i]);
+		}
+	}
+
+	@Override
+	public int glGetUniformLocation(int program, String name) {
+		SoftProgram p = _programs.get(program);
+		if (p == null || !p.linked || name == null) {
+			setError(GL_INVALID_OPERATION);
+			return -1;
+		}
+		int element = 0;
+		int bracket = name.indexOf('[');
+		if (bracket != -1) {
+			try {
+				element = Integer.parseInt(name.substring(bracket + 1, name.indexOf(']', bracket)).trim());
+			} catch (Exception ex) {
+				return -1;
+			}
+			name = name.substring(0, bracket);
+		}
+		for (int i = 0; i < p.uniformNames.length; i++) {
+			if (p.uniformNames[i].equals(name)) {
+				return element < p.uniformSizes[i] ? (element << 16) | i : -1;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void glGetVertexAttribfv(int index, int pname, FloatBuffer params) {
+		if (index < 0 || index >= MAX_ATTRIBS) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		if (pname == GL_CURRENT_VERTEX_ATTRIB) {
+			for (int i = 0; i < 4; i++) {
+				params.put(params.position() + i, _attribs[index].value[i]);
+			}
+			return;
+		}
+		params.put(params.position(), vertexAttrib(index, pname));
+	}
+
+	@Override
+	public void glGetVertexAttribiv(int index, int pname, IntBuffer params) {
+		if (index < 0 || index >= MAX_ATTRIBS) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		params.put(params.position(), vertexAttrib(index, pname));
+	}
+
+	private int vertexAttrib(int index, int pname) {
+		SoftAttrib attr = _attribs[index];
+		switch (pname) {
+		case GL_VERTEX_ATTRIB_ARRAY_ENABLED:
+			return attr.enabled ? 1 : 0;
+		case GL_VERTEX_ATTRIB_ARRAY_SIZE:
+			return attr.size;
+		case GL_VERTEX_ATTRIB_ARRAY_STRIDE:
+			return attr.stride;
+		case GL_VERTEX_ATTRIB_ARRAY_TYPE:
+			return attr.type;
+		case GL_VERTEX_ATTRIB_ARRAY_NORMALIZED:
+			return attr.normalized ? 1 : 0;
+		case GL_VERTEX_ATTRIB_ARRAY_BUFFER_BINDING:
+			return attr.buffer;
+		default:
+			return 0;
+		}
+	}
+
+	@Override
+	public void glHint(int target, int mode) {
+	}
+
+	@Override
+	public boolean glIsBuffer(int buffer) {
+		return _buffers.containsKey(buffer);
+	}
+
+	@Override
+	public boolean glIsEnabled(int cap) {
+		switch (cap) {
+		case GL_BLEND:
+			return _blend;
+		case GL_SCISSOR_TEST:
+			return _scissorTest;
+		case GL_CULL_FACE:
+			return _cullFace;
+		default:
+			return false;
+		}
+	}
+
+	@Override
+	public boolean glIsFramebuffer(int framebuffer) {
+		return _framebuffers.containsKey(framebuffer);
+	}
+
+	@Override
+	public boolean glIsProgram(int program) {
+		return _programs.containsKey(program);
+	}
+
+	@Override
+	public boolean glIsRenderbuffer(int renderbuffer) {
+		return _renderbuffers.containsKey(renderbuffer);
+	}
+
+	@Override
+	public boolean glIsShader(int shader) {
+		return _shaders.containsKey(shader);
+	}
+
+	@Override
+	public boolean glIsTexture(int texture) {
+		return _textures.containsKey(texture);
+	}
+
+	@Override
+	public boolean glIsVBOArrayEnabled() {
+		return _arrayBuffer != 0;
+	}
+
+	@Override
+	public boolean glIsVBOElementEnabled() {
+		return _elementBuffer != 0;
+	}
+
+	@Override
+	public void glLineWidth(float width) {
+		_lineWidth = width;
+	}
+
+	@Override
+	public void glLinkProgram(int program) {
+		SoftProgram p = _programs.get(program);
+		if (p == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		link(p);
+	}
+
+	@Override
+	public ByteBuffer glMapBuffer(int target, int access) {
+		SoftBuffer buffer = boundBuffer(target);
+		return buffer == null ? null : buffer.data;
+	}
+
+	@Override
+	public void glPixelStorei(int pname, int param) {
+		if (pname == GL_UNPACK_ALIGNMENT) {
+			_unpackAlignment = MathUtils.max(1, param);
+		} else if (pname == GL_PACK_ALIGNMENT) {
+			_packAlignment = MathUtils.max(1, param);
+		}
+	}
+
+	@Override
+	public void glPolygonOffset(float factor, float units) {
+	}
+
+	@Override
+	public void glProgramBinary(int arg0, int arg1, Buffer arg2, int arg3) {
+		setError(GL_INVALID_OPERATION);
+	}
+
+	@Override
+	public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+		if (!bindTarget() || pixels == null) {
+			return;
+		}
+		final boolean packed = type == GL_UNSIGNED_INT_8_8_8_8_REV && format == GL_BGRA;
+		final int bpp = format == GL_RGB ? 3 : (format == GL_ALPHA ? 1 : 4);
+		if (!packed && (type != GL_UNSIGNED_BYTE
+				|| (format != GL_RGBA && format != GL_RGB && format != GL_ALPHA && format != GL_BGRA))) {
+			setError(GL_INVALID_ENUM);
+			return;
+		}
+		final int rowBytes = (width * bpp + _packAlignment - 1) / _packAlignment * _packAlignment;
+		final int base = bufferBase(pixels);
+		ByteBuffer bytes = pixels instanceof ByteBuffer
+				? ((ByteBuffer) pixels).duplicate().order(((ByteBuffer) pixels).order())
+				: null;
+		IntBuffer ints = pixels instanceof IntBuffer ? (IntBuffer) pixels : null;
+		for (int j = 0; j < height; j++) {
+			int sy = y + j;
+			for (int i = 0; i < width; i++) {
+				int sx = x + i;
+				int c = (sx >= 0 && sy >= 0 && sx < _targetWidth && sy < _targetHeight)
+						? _target[sy * _targetWidth + sx]
+						: 0;
+				int p = base + j * rowBytes + i * bpp;
+				if (packed) {
+					if (ints != null) {
+						ints.put(p >> 2, c);
+					} else if (bytes != null) {
+						bytes.putInt(p, c);
+					}
+					continue;
+				}
+				if (bytes == null) {
+					continue;
+				}
+				switch (format) {
+				case GL_RGB:
+					bytes.put(p, (byte) (c >> 16));
+					bytes.put(p + 1, (byte) (c >> 8));
+					bytes.put(p + 2, (byte) c);
+					break;
+				case GL_ALPHA:
+					bytes.put(p, (byte) (c >>> 24));
+					break;
+				case GL_BGRA:
+					bytes.put(p, (byte) c);
+					bytes.put(p + 1, (byte) (c >> 8));
+					bytes.put(p + 2, (byte) (c >> 16));
+					bytes.put(p + 3, (byte) (c >>> 24));
+					break;
+				default:
+					bytes.put(p, (byte) (c >> 16));
+					bytes.put(p + 1, (byte) (c >> 8));
+					bytes.put(p + 2, (byte) c);
+					bytes.put(p + 3, (byte) (c >>> 24));
+					break;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void glReadPixels(int x, int y, int width, int height, int format, int type, int pixelsBufferOffset) {
+		setError(GL_INVALID_OPERATION);
+	}
+
+	@Override
+	public void glReleaseShaderCompiler() {
+	}
+
+	@Override
+	public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+		SoftRenderbuffer rb = _renderbuffers.get(_renderbuffer);
+		if (rb == null) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		rb.width = width;
+		rb.height = height;
+		rb.format = internalformat;
+		// 深度与模板缓冲不参与绘制,无需分配
+		boolean color = internalformat != GL_DEPTH_COMPONENT16 && internalformat != GL_STENCIL_INDEX8;
+		rb.pixels = new int[color ? width * height : 0];
+		if (!color) {
+			rb.width = rb.height = 0;
+		}
+	}
+
+	@Override
+	public void glSampleCoverage(float value, boolean invert) {
+	}
+
+	@Override
+	public void glScissor(int x, int y, int width, int height) {
+		_scissorX = x;
+		_scissorY = y;
+		_scissorWidth = MathUtils.max(0, width);
+		_scissorHeight = MathUtils.max(0, height);
+	}
+
+	@Override
+	public void glShaderBinary(int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glShaderSource(int shader, int count, String[] strings, int[] length, int lengthOffset) {
+		StringBuilder sbr = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sbr.append(strings[i]);
+		}
+		glShaderSource(shader, sbr.toString());
+	}
+
+	@Override
+	public void glShaderSource(int shader, int count, String[] strings, IntBuffer length) {
+		glShaderSource(shader, count, strings, null, 0);
+	}
+
+	@Override
+	public void glShaderSource(int shader, String string) {
+		SoftShader s = _shaders.get(shader);
+		if (s == null) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		s.source = string == null ? "" : string;
+		s.compiled = false;
+	}
+
+	@Override
+	public void glStencilFunc(int func, int ref, int mask) {
+	}
+
+	@Override
+	public void glStencilFuncSeparate(int face, int func, int ref, int mask) {
+	}
+
+	@Override
+	public void glStencilMask(int mask) {
+	}
+
+	@Override
+	public void glStencilMaskSeparate(int face, int mask) {
+	}
+
+	@Override
+	public void glStencilOp(int fail, int zfail, int zpass) {
+	}
+
+	@Override
+	public void glStencilOpSeparate(int face, int fail, int zfail, int zpass) {
+	}
+
+	@Override
+	public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+			int format, int type, Buffer pixels) {
+		SoftTexture tex = boundTexture();
+		if (tex == null) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		// 只保留基础级别,多级纹理以其代替
+		if (level != 0) {
+			return;
+		}
+		if (width < 0 || height < 0 || width > MAX_TEXTURE_SIZE || height > MAX_TEXTURE_SIZE) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		tex.width = width;
+		tex.height = height;
+		tex.pixels = unpack(width, height, format, type, pixels);
+	}
+
+	@Override
+	public void glTexImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8) {
+		setError(GL_INVALID_OPERATION);
+	}
+
+	@Override
+	public void glTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8, Buffer arg9) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8, int arg9) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glTexParameterf(int target, int pname, float param) {
+		glTexParameteri(target, pname, (int) param);
+	}
+
+	@Override
+	public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+		glTexParameteri(target, pname, (int) params.get(params.position()));
+	}
+
+	@Override
+	public void glTexParameteri(int target, int pname, int param) {
+		SoftTexture tex = boundTexture();
+		if (tex == null) {
+			setError(GL_INVALID_OPERATION);
+			return;
+		}
+		switch (pname) {
+		case GL_TEXTURE_MIN_FILTER:
+			tex.minFilter = param;
+			break;
+		case GL_TEXTURE_MAG_FILTER:
+			tex.magFilter = param;
+			break;
+		case GL_TEXTURE_WRAP_S:
+			tex.wrapS = param;
+			break;
+		case GL_TEXTURE_WRAP_T:
+			tex.wrapT = param;
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Override
+	public void glTexParameteriv(int target, int pname, IntBuffer params) {
+		glTexParameteri(target, pname, params.get(params.position()));
+	}
+
+	@Override
+	public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format,
+			int type, Buffer pixels) {
+		SoftTexture tex = boundTexture();
+		if (tex == null || level != 0) {
+			return;
+		}
+		if (xoffset < 0 || yoffset < 0 || xoffset + width > tex.width || yoffset + height > tex.height) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		int[] src = unpack(width, height, format, type, pixels);
+		for (int y = 0; y < height; y++) {
+			System.arraycopy(src, y * width, tex.pixels, (yoffset + y) * tex.width + xoffset, width);
+		}
+	}
+
+	@Override
+	public void glTexSubImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8) {
+		setError(GL_INVALID_OPERATION);
+	}
+
+	@Override
+	public void glTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8, int arg9, Buffer arg10) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8, int arg9, int arg10) {
+		setError(GL_INVALID_ENUM);
+	}
+
+	@Override
+	public void glUniform1f(int location, float x) {
+		setUniform(location, x, 0f, 0f, 0f, 1);
+	}
+
+	@Override
+	public void glUniform1fv(int location, int count, FloatBuffer v) {
+		setUniform(location, v, count);
+	}
+
+	@Override
+	public void glUniform1i(int location, int x) {
+		setUniform(location, x, 0f, 0f, 0f, 1);
+	}
+
+	@Override
+	public void glUniform1iv(int location, int count, IntBuffer v) {
+		setUniform(location, v, count);
+	}
+
+	@Override
+	public void glUniform2f(int location, float x, float y) {
+		setUniform(location, x, y, 0f, 0f, 2);
+	}
+
+	@Override
+	public void glUniform2fv(int location, int count, FloatBuffer v) {
+		setUniform(location, v, count * 2);
+	}
+
+	@Override
+	public void glUniform2i(int location, int x, int y) {
+		setUniform(location, x, y, 0f, 0f, 2);
+	}
+
+	@Override
+	public void glUniform2iv(int location, int count, IntBuffer v) {
+		setUniform(location, v, count * 2);
+	}
+
+	@Override
+	public void glUniform3f(int location, float x, float y, float z) {
+		setUniform(location, x, y, z, 0f, 3);
+	}
+
+	@Override
+	public void glUniform3fv(int location, int count, FloatBuffer v) {
+		setUniform(location, v, count * 3);
+	}
+
+	@Override
+	public void glUniform3i(int location, int x, int y, int z) {
+		setUniform(location, x, y, z, 0f, 3);
+	}
+
+	@Override
+	public void glUniform3iv(int location, int count, IntBuffer v) {
+		setUniform(location, v, count * 3);
+	}
+
+	@Override
+	public void glUniform4f(int location, float x, float y, float z, float w) {
+		setUniform(location, x, y, z, w, 4);
+	}
+
+	@Override
+	public void glUniform4fv(int location, int count, FloatBuffer v) {
+		setUniform(location, v, count * 4);
+	}
+
+	@Override
+	public void glUniform4i(int location, int x, int y, int z, int w) {
+		setUniform(location, x, y, z, w, 4);
+	}
+
+	@Override
+	public void glUniform4iv(int location, int count, IntBuffer v) {
+		setUniform(location, v, count * 4);
+	}
+
+	private void setUniformMatrix(int location, int count, int size, boolean transpose, FloatBuffer value) {
+		final int n = size * size;
+		float[] values = new float[count * n];
+		value.duplicate().get(values, 0, MathUtils.min(values.length, value.remaining()));
+		if (transpose) {
+			float[] tmp = new float[n];
+			for (int k = 0; k < count; k++) {
+				for (int i = 0; i < size; i++) {
+					for (int j = 0; j < size; j++) {
+						tmp[j * size + i] = values[k * n + i * size + j];
+					}
+				}
+				System.arraycopy(tmp, 0, values, k * n, n);
+			}
+		}
+		setUniform(location, values, 0, values.length);
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+		setUniformMatrix(location, count, 2, transpose, value);
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+		setUniformMatrix(location, count, 3, transpose, value);
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+		setUniformMatrix(location, count, 4, transpose, value);
+	}
+
+	@Override
+	public boolean glUnmapBuffer(int target) {
+		return true;
+	}
+
+	@Override
+	public void glUseProgram(int program) {
+		SoftProgram old = _programs.get(_program);
+		if (old != null && old.deleted && program != _program) {
+			_programs.remove(_program);
+		}
+		if (program != 0 && !_programs.containsKey(program)) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		_program = program;
+	}
+
+	@Override
+	public void glValidateProgram(int program) {
+	}
+
+	private void setAttrib(int indx, float x, float y, float z, float w) {
+		if (indx < 0 || indx >= MAX_ATTRIBS) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		float[] value = _attribs[indx].value;
+		value[0] = x;
+		value[1] = y;
+		value[2] = z;
+		value[3] = w;
+	}
+
+	@Override
+	public void glVertexAttrib1f(int indx, float x) {
+		setAttrib(indx, x, 0f, 0f, 1f);
+	}
+
+	@Override
+	public void glVertexAttrib1fv(int indx, FloatBuffer values) {
+		setAttrib(indx, values.get(values.position()), 0f, 0f, 1f);
+	}
+
+	@Override
+	public void glVertexAttrib2f(int indx, float x, float y) {
+		setAttrib(indx, x, y, 0f, 1f);
+	}
+
+	@Override
+	public void glVertexAttrib2fv(int indx, FloatBuffer values) {
+		int p = values.position();
+		setAttrib(indx, values.get(p), values.get(p + 1), 0f, 1f);
+	}
+
+	@Override
+	public void glVertexAttrib3f(int indx, float x, float y, float z) {
+		setAttrib(indx, x, y, z, 1f);
+	}
+
+	@Override
+	public void glVertexAttrib3fv(int indx, FloatBuffer values) {
+		int p = values.position();
+		setAttrib(indx, values.get(p), values.get(p + 1), values.get(p + 2), 1f);
+	}
+
+	@Override
+	public void glVertexAttrib4f(int indx, float x, float y, float z, float w) {
+		setAttrib(indx, x, y, z, w);
+	}
+
+	@Override
+	public void glVertexAttrib4fv(int indx, FloatBuffer values) {
+		int p = values.position();
+		setAttrib(indx, values.get(p), values.get(p + 1), values.get(p + 2), values.get(p + 3));
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+		if (indx < 0 || indx >= MAX_ATTRIBS) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		SoftAttrib attr = _attribs[indx];
+		attr.size = size;
+		attr.type = type;
+		attr.normalized = normalized;
+		attr.stride = stride;
+		attr.buffer = 0;
+		attr.client = ptr;
+		attr.offset = ptr == null ? 0 : bufferBase(ptr);
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+		if (indx < 0 || indx >= MAX_ATTRIBS) {
+			setError(GL_INVALID_VALUE);
+			return;
+		}
+		SoftAttrib attr = _attribs[indx];
+		attr.size = size;
+		attr.type = type;
+		attr.normalized = normalized;
+		attr.stride = stride;
+		attr.buffer = _arrayBuffer;
+		attr.client = null;
+		attr.offset = ptr;
+	}
+
+	@Override
+	public void glViewport(int x, int y, int width, int height) {
+		_viewX = x;
+		_viewY = y;
+		_viewWidth = MathUtils.max(0, width);
+		_viewHeight = MathUtils.max(0, height);
+	}
+
+	@Override
+	public int getGlslVersion() {
+		return 100;
+	}
+
+}
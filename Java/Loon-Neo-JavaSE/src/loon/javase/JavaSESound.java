@@ -36,10 +36,51 @@ class JavaSESound extends SoundImpl<Object> {
 
 	OggClip ogg_clip;
 
+	private JavaSEAudioMixer mixer;
+
+	private int priority;
+
+	private float pan;
+
 	public JavaSESound() {
 
 	}
 
+	synchronized void loadMixer(JavaSEAudioMixer mixer, int priority) {
+		this.mixer = mixer;
+		this.priority = priority;
+		mode = 2;
+	}
+
+	/**
+	 * 软件混音模式下,声部已满时优先级高的声音可抢占优先级不高于它的声音
+	 * 
+	 * @param priority
+	 */
+	public synchronized void setPriority(int priority) {
+		this.priority = priority;
+	}
+
+	public synchronized int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * 软件混音模式下的声像,-1(左)至1(右)
+	 * 
+	 * @param pan
+	 */
+	public synchronized void setPan(float pan) {
+		this.pan = pan;
+		if (mode == 2) {
+			mixer.setPan(this, pan);
+		}
+	}
+
+	public synchronized float getPan() {
+		return pan;
+	}
+
 	synchronized void loadOgg(InputStream ins) throws IOException {
 		ogg_clip = new OggClip(ins);
 		mode = 1;
@@ -52,6 +93,8 @@ class JavaSESound extends SoundImpl<Object> {
 			return (((Clip) impl)).isActive();
 		case 1:
 			return !ogg_clip.stopped();
+		case 2:
+			return mixer.isPlaying(this);
 		}
 		return false;
 	}
@@ -77,6 +120,16 @@ class JavaSESound extends SoundImpl<Object> {
 				}
 			}
 			break;
+		case 2:
+			// 循环的声音(通常为音乐)只保留一个声部,音效则允许叠加播放
+			if (looping) {
+				mixer.stop(this);
+			}
+			try {
+				return mixer.play(this, ((JavaSEAudioStream) impl).copy(), volume, pan, priority, looping) != -1;
+			} catch (IOException e) {
+				return false;
+			}
 		}
 		return true;
 	}
@@ -90,6 +143,9 @@ class JavaSESound extends SoundImpl<Object> {
 			break;
 		case 1:
 
+			break;
+		case 2:
+			mixer.stop(this);
 			break;
 		}
 	}
@@ -97,6 +153,9 @@ class JavaSESound extends SoundImpl<Object> {
 	@Override
 	protected synchronized void setLoopingImpl(boolean looping) {
 		this.looping = looping;
+		if (mode == 2) {
+			mixer.setLooping(this, looping);
+		}
 	}
 
 	@Override
@@ -114,6 +173,9 @@ class JavaSESound extends SoundImpl<Object> {
 			this.volume = volume;
 			ogg_clip.setGain(volume);
 			break;
+		case 2:
+			mixer.setVolume(this, volume);
+			break;
 		}
 	}
 
@@ -126,6 +188,10 @@ class JavaSESound extends SoundImpl<Object> {
 		case 1:
 			ogg_clip.close();
 			break;
+		case 2:
+			mixer.stop(this);
+			((JavaSEAudioStream) impl).close();
+			break;
 		}
 	}
 
@@ -0,0 +1,212 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.javase;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import loon.LSysException;
+import loon.canvas.PixmapFilter;
+import loon.event.UpdatePhases;
+
+/**
+ * JavaSE环境下共用的常驻工作线程组,同时承担Screen的UpdatePhase与PixmapFilter(及PixmapScaler)的分块任务,调用线程同样参与处理,全部任务完成后才返回.
+ * 
+ * 线程在两次执行之间等待唤醒,每次执行不产生新对象.线程组正被占用时(例如任务内部再次提交,或其它线程同时提交),新的提交直接在调用线程中顺序执行.
+ */
+public class JavaSEWorkerPool implements UpdatePhases.Executor, PixmapFilter.TileExecutor {
+
+	private final Object lock = new Object();
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	private final Thread[] workers;
+
+	private UpdatePhases.Task task;
+
+	private PixmapFilter.TileTask tileTask;
+
+	private int count;
+
+	private long generation;
+
+	private int active;
+
+	private boolean busy;
+
+	private volatile Throwable error;
+
+	private volatile boolean running = true;
+
+	public JavaSEWorkerPool() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads
+	 *            参与处理的线程总数(含调用线程)
+	 */
+	public JavaSEWorkerPool(int threads) {
+		this.workers = new Thread[Math.max(1, threads) - 1];
+		for (int i = 0; i < workers.length; i++) {
+			Thread thread = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					work();
+				}
+			}, "LoonWorker-" + (i + 1));
+			thread.setDaemon(true);
+			thread.start();
+			workers[i] = thread;
+		}
+	}
+
+	private void work() {
+		long seen = 0;
+		for (;;) {
+			synchronized (lock) {
+				while (running && generation == seen) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (!running) {
+					return;
+				}
+				seen = generation;
+			}
+			runTasks();
+			synchronized (lock) {
+				if (--active == 0) {
+					lock.notifyAll();
+				}
+			}
+		}
+	}
+
+	private void runTasks() {
+		final UpdatePhases.Task t = task;
+		final PixmapFilter.TileTask tile = tileTask;
+		final int size = count;
+		try {
+			for (int i; (i = next.getAndIncrement()) < size && error == null;) {
+				if (t != null) {
+					t.run(i);
+				} else {
+					tile.run(i);
+				}
+			}
+		} catch (Throwable e) {
+			synchronized (lock) {
+				if (error == null) {
+					error = e;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void execute(int count, UpdatePhases.Task task) {
+		if (!begin(count, task, null)) {
+			for (int i = 0; i < count; i++) {
+				task.run(i);
+			}
+			return;
+		}
+		runTasks();
+		final Throwable e = end();
+		if (e != null) {
+			throw new LSysException("UpdatePhase execution failed", e);
+		}
+	}
+
+	@Override
+	public void execute(int count, PixmapFilter.TileTask task) {
+		if (!begin(count, null, task)) {
+			for (int i = 0; i < count; i++) {
+				task.run(i);
+			}
+			return;
+		}
+		runTasks();
+		final Throwable e = end();
+		if (e != null) {
+			throw new LSysException("Pixmap tile execution failed", e);
+		}
+	}
+
+	private boolean begin(int count, UpdatePhases.Task task, PixmapFilter.TileTask tileTask) {
+		if (workers.length == 0 || count < 2) {
+			return false;
+		}
+		synchronized (lock) {
+			if (busy || !running) {
+				return false;
+			}
+			this.busy = true;
+			this.task = task;
+			this.tileTask = tileTask;
+			this.count = count;
+			this.error = null;
+			this.next.set(0);
+			this.active = workers.length;
+			this.generation++;
+			lock.notifyAll();
+			return true;
+		}
+	}
+
+	private Throwable end() {
+		synchronized (lock) {
+			boolean interrupted = false;
+			while (active > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			final Throwable e = error;
+			this.task = null;
+			this.tileTask = null;
+			this.error = null;
+			this.busy = false;
+			return e;
+		}
+	}
+
+	public int getThreads() {
+		return workers.length + 1;
+	}
+
+	public void shutdown() {
+		synchronized (lock) {
+			running = false;
+			lock.notifyAll();
+		}
+	}
+
+}
@@ -642,38 +642,37 @@ public final class NativeSupport {
 			updateArray(maxPixel, pixelStart, pixelEnd, src, dst, colors, c1,
 					c2);
 		} else {
-			final int length = src.length;
+			final int start, end, key;
 			if (pixelStart < pixelEnd) {
-				final int start = pixelStart + 1;
-				final int end = pixelEnd + 1;
+				start = pixelStart + 1;
+				end = pixelEnd + 1;
+				key = c1;
 				if (end > maxPixel) {
 					return;
 				}
-				for (int i = 0; i < length; i++) {
-					if (dst[i] != 0xffffff) {
-						for (int pixIndex = start; pixIndex < end; pixIndex++) {
-							if (colors[pixIndex] == src[i]) {
-								dst[i] = 0xffffff;
-							} else if (src[i] == c1) {
-								dst[i] = 0xffffff;
-							}
-						}
-					}
-				}
 			} else {
-				final int start = pixelEnd - 1;
-				final int end = pixelStart;
+				start = pixelEnd - 1;
+				end = pixelStart;
+				key = c2;
 				if (start < 0) {
 					return;
 				}
-				for (int i = 0; i < length; i++) {
-					if (dst[i] != 0xffffff) {
-						for (int pixIndex = start; pixIndex < end; pixIndex++) {
-							if (colors[pixIndex] == src[i]) {
-								dst[i] = 0xffffff;
-							} else if (src[i] == c2) {
-								dst[i] = 0xffffff;
-							}
+			}
+			if (start >= end) {
+				return;
+			}
+			final int length = src.length;
+			for (int i = 0; i < length; i++) {
+				if (dst[i] != 0xffffff) {
+					final int pixel = src[i];
+					if (pixel == key) {
+						dst[i] = 0xffffff;
+						continue;
+					}
+					for (int pixIndex = start; pixIndex < end; pixIndex++) {
+						if (colors[pixIndex] == pixel) {
+							dst[i] = 0xffffff;
+							break;
 						}
 					}
 				}
@@ -729,40 +728,30 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			jnimul(mata, matb);
 		} else {
-			float[] tmp = new float[16];
-			tmp[M00] = mata[M00] * matb[M00] + mata[M01] * matb[M10]
-					+ mata[M02] * matb[M20] + mata[M03] * matb[M30];
-			tmp[M01] = mata[M00] * matb[M01] + mata[M01] * matb[M11]
-					+ mata[M02] * matb[M21] + mata[M03] * matb[M31];
-			tmp[M02] = mata[M00] * matb[M02] + mata[M01] * matb[M12]
-					+ mata[M02] * matb[M22] + mata[M03] * matb[M32];
-			tmp[M03] = mata[M00] * matb[M03] + mata[M01] * matb[M13]
-					+ mata[M02] * matb[M23] + mata[M03] * matb[M33];
-			tmp[M10] = mata[M10] * matb[M00] + mata[M11] * matb[M10]
-					+ mata[M12] * matb[M20] + mata[M13] * matb[M30];
-			tmp[M11] = mata[M10] * matb[M01] + mata[M11] * matb[M11]
-					+ mata[M12] * matb[M21] + mata[M13] * matb[M31];
-			tmp[M12] = mata[M10] * matb[M02] + mata[M11] * matb[M12]
-					+ mata[M12] * matb[M22] + mata[M13] * matb[M32];
-			tmp[M13] = mata[M10] * matb[M03] + mata[M11] * matb[M13]
-					+ mata[M12] * matb[M23] + mata[M13] * matb[M33];
-			tmp[M20] = mata[M20] * matb[M00] + mata[M21] * matb[M10]
-					+ mata[M22] * matb[M20] + mata[M23] * matb[M30];
-			tmp[M21] = mata[M20] * matb[M01] + mata[M21] * matb[M11]
-					+ mata[M22] * matb[M21] + mata[M23] * matb[M31];
-			tmp[M22] = mata[M20] * matb[M02] + mata[M21] * matb[M12]
-					+ mata[M22] * matb[M22] + mata[M23] * matb[M32];
-			tmp[M23] = mata[M20] * matb[M03] + mata[M21] * matb[M13]
-					+ mata[M22] * matb[M23] + mata[M23] * matb[M33];
-			tmp[M30] = mata[M30] * matb[M00] + mata[M31] * matb[M10]
-					+ mata[M32] * matb[M20] + mata[M33] * matb[M30];
-			tmp[M31] = mata[M30] * matb[M01] + mata[M31] * matb[M11]
-					+ mata[M32] * matb[M21] + mata[M33] * matb[M31];
-			tmp[M32] = mata[M30] * matb[M02] + mata[M31] * matb[M12]
-					+ mata[M32] * matb[M22] + mata[M33] * matb[M32];
-			tmp[M33] = mata[M30] * matb[M03] + mata[M31] * matb[M13]
-					+ mata[M32] * matb[M23] + mata[M33] * matb[M33];
-			System.arraycopy(tmp, 0, mata, 0, 16);
+			final float a00 = mata[M00], a01 = mata[M01], a02 = mata[M02], a03 = mata[M03];
+			final float a10 = mata[M10], a11 = mata[M11], a12 = mata[M12], a13 = mata[M13];
+			final float a20 = mata[M20], a21 = mata[M21], a22 = mata[M22], a23 = mata[M23];
+			final float a30 = mata[M30], a31 = mata[M31], a32 = mata[M32], a33 = mata[M33];
+			final float b00 = matb[M00], b01 = matb[M01], b02 = matb[M02], b03 = matb[M03];
+			final float b10 = matb[M10], b11 = matb[M11], b12 = matb[M12], b13 = matb[M13];
+			final float b20 = matb[M20], b21 = matb[M21], b22 = matb[M22], b23 = matb[M23];
+			final float b30 = matb[M30], b31 = matb[M31], b32 = matb[M32], b33 = matb[M33];
+			mata[M00] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+			mata[M01] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+			mata[M02] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+			mata[M03] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+			mata[M10] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+			mata[M11] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+			mata[M12] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+			mata[M13] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+			mata[M20] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+			mata[M21] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+			mata[M22] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+			mata[M23] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+			mata[M30] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+			mata[M31] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+			mata[M32] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+			mata[M33] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
 		}
 	}
 
@@ -788,10 +777,14 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			jnimulVec(mat, vecs, offset, numVecs, stride);
 		} else {
-			for (int i = 0; i < numVecs; i++) {
-				float[] vecPtr = new float[stride];
-				System.arraycopy(vecs, offset, vecPtr, 0, stride);
-				mulVec(mat, vecPtr);
+			final float m00 = mat[M00], m01 = mat[M01], m02 = mat[M02], m03 = mat[M03];
+			final float m10 = mat[M10], m11 = mat[M11], m12 = mat[M12], m13 = mat[M13];
+			final float m20 = mat[M20], m21 = mat[M21], m22 = mat[M22], m23 = mat[M23];
+			for (int i = 0, idx = offset; i < numVecs; i++, idx += stride) {
+				final float x = vecs[idx], y = vecs[idx + 1], z = vecs[idx + 2];
+				vecs[idx] = x * m00 + y * m01 + z * m02 + m03;
+				vecs[idx + 1] = x * m10 + y * m11 + z * m12 + m13;
+				vecs[idx + 2] = x * m20 + y * m21 + z * m22 + m23;
 			}
 		}
 	}
@@ -822,10 +815,16 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			jniprj(mat, vecs, offset, numVecs, stride);
 		} else {
-			for (int i = 0; i < numVecs; i++) {
-				float[] vecPtr = new float[stride];
-				System.arraycopy(vecs, offset, vecPtr, 0, stride);
-				prj(mat, vecPtr);
+			final float m00 = mat[M00], m01 = mat[M01], m02 = mat[M02], m03 = mat[M03];
+			final float m10 = mat[M10], m11 = mat[M11], m12 = mat[M12], m13 = mat[M13];
+			final float m20 = mat[M20], m21 = mat[M21], m22 = mat[M22], m23 = mat[M23];
+			final float m30 = mat[M30], m31 = mat[M31], m32 = mat[M32], m33 = mat[M33];
+			for (int i = 0, idx = offset; i < numVecs; i++, idx += stride) {
+				final float x = vecs[idx], y = vecs[idx + 1], z = vecs[idx + 2];
+				final float inv_w = 1.0f / (x * m30 + y * m31 + z * m32 + m33);
+				vecs[idx] = (x * m00 + y * m01 + z * m02 + m03) * inv_w;
+				vecs[idx + 1] = (x * m10 + y * m11 + z * m12 + m13) * inv_w;
+				vecs[idx + 2] = (x * m20 + y * m21 + z * m22 + m23) * inv_w;
 			}
 		}
 	}
@@ -848,10 +847,14 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			jnirot(mat, vecs, offset, numVecs, stride);
 		} else {
-			for (int i = 0; i < numVecs; i++) {
-				float[] vecPtr = new float[stride];
-				System.arraycopy(vecs, offset, vecPtr, 0, stride);
-				rot(mat, vecPtr);
+			final float m00 = mat[M00], m01 = mat[M01], m02 = mat[M02];
+			final float m10 = mat[M10], m11 = mat[M11], m12 = mat[M12];
+			final float m20 = mat[M20], m21 = mat[M21], m22 = mat[M22];
+			for (int i = 0, idx = offset; i < numVecs; i++, idx += stride) {
+				final float x = vecs[idx], y = vecs[idx + 1], z = vecs[idx + 2];
+				vecs[idx] = x * m00 + y * m01 + z * m02;
+				vecs[idx + 1] = x * m10 + y * m11 + z * m12;
+				vecs[idx + 2] = x * m20 + y * m21 + z * m22;
 			}
 		}
 	}
@@ -860,108 +863,107 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			return jniinv(values);
 		} else {
-			float[] tmp = new float[16];
 			float l_det = det(values);
 			if (l_det == 0)
 				return false;
-			tmp[M00] = values[M12] * values[M23] * values[M31] - values[M13]
+			final float t00 = values[M12] * values[M23] * values[M31] - values[M13]
 					* values[M22] * values[M31] + values[M13] * values[M21]
 					* values[M32] - values[M11] * values[M23] * values[M32]
 					- values[M12] * values[M21] * values[M33] + values[M11]
 					* values[M22] * values[M33];
-			tmp[M01] = values[M03] * values[M22] * values[M31] - values[M02]
+			final float t01 = values[M03] * values[M22] * values[M31] - values[M02]
 					* values[M23] * values[M31] - values[M03] * values[M21]
 					* values[M32] + values[M01] * values[M23] * values[M32]
 					+ values[M02] * values[M21] * values[M33] - values[M01]
 					* values[M22] * values[M33];
-			tmp[M02] = values[M02] * values[M13] * values[M31] - values[M03]
+			final float t02 = values[M02] * values[M13] * values[M31] - values[M03]
 					* values[M12] * values[M31] + values[M03] * values[M11]
 					* values[M32] - values[M01] * values[M13] * values[M32]
 					- values[M02] * values[M11] * values[M33] + values[M01]
 					* values[M12] * values[M33];
-			tmp[M03] = values[M03] * values[M12] * values[M21] - values[M02]
+			final float t03 = values[M03] * values[M12] * values[M21] - values[M02]
 					* values[M13] * values[M21] - values[M03] * values[M11]
 					* values[M22] + values[M01] * values[M13] * values[M22]
 					+ values[M02] * values[M11] * values[M23] - values[M01]
 					* values[M12] * values[M23];
-			tmp[M10] = values[M13] * values[M22] * values[M30] - values[M12]
+			final float t10 = values[M13] * values[M22] * values[M30] - values[M12]
 					* values[M23] * values[M30] - values[M13] * values[M20]
 					* values[M32] + values[M10] * values[M23] * values[M32]
 					+ values[M12] * values[M20] * values[M33] - values[M10]
 					* values[M22] * values[M33];
-			tmp[M11] = values[M02] * values[M23] * values[M30] - values[M03]
+			final float t11 = values[M02] * values[M23] * values[M30] - values[M03]
 					* values[M22] * values[M30] + values[M03] * values[M20]
 					* values[M32] - values[M00] * values[M23] * values[M32]
 					- values[M02] * values[M20] * values[M33] + values[M00]
 					* values[M22] * values[M33];
-			tmp[M12] = values[M03] * values[M12] * values[M30] - values[M02]
+			final float t12 = values[M03] * values[M12] * values[M30] - values[M02]
 					* values[M13] * values[M30] - values[M03] * values[M10]
 					* values[M32] + values[M00] * values[M13] * values[M32]
 					+ values[M02] * values[M10] * values[M33] - values[M00]
 					* values[M12] * values[M33];
-			tmp[M13] = values[M02] * values[M13] * values[M20] - values[M03]
+			final float t13 = values[M02] * values[M13] * values[M20] - values[M03]
 					* values[M12] * values[M20] + values[M03] * values[M10]
 					* values[M22] - values[M00] * values[M13] * values[M22]
 					- values[M02] * values[M10] * values[M23] + values[M00]
 					* values[M12] * values[M23];
-			tmp[M20] = values[M11] * values[M23] * values[M30] - values[M13]
+			final float t20 = values[M11] * values[M23] * values[M30] - values[M13]
 					* values[M21] * values[M30] + values[M13] * values[M20]
 					* values[M31] - values[M10] * values[M23] * values[M31]
 					- values[M11] * values[M20] * values[M33] + values[M10]
 					* values[M21] * values[M33];
-			tmp[M21] = values[M03] * values[M21] * values[M30] - values[M01]
+			final float t21 = values[M03] * values[M21] * values[M30] - values[M01]
 					* values[M23] * values[M30] - values[M03] * values[M20]
 					* values[M31] + values[M00] * values[M23] * values[M31]
 					+ values[M01] * values[M20] * values[M33] - values[M00]
 					* values[M21] * values[M33];
-			tmp[M22] = values[M01] * values[M13] * values[M30] - values[M03]
+			final float t22 = values[M01] * values[M13] * values[M30] - values[M03]
 					* values[M11] * values[M30] + values[M03] * values[M10]
 					* values[M31] - values[M00] * values[M13] * values[M31]
 					- values[M01] * values[M10] * values[M33] + values[M00]
 					* values[M11] * values[M33];
-			tmp[M23] = values[M03] * values[M11] * values[M20] - values[M01]
+			final float t23 = values[M03] * values[M11] * values[M20] - values[M01]
 					* values[M13] * values[M20] - values[M03] * values[M10]
 					* values[M21] + values[M00] * values[M13] * values[M21]
 					+ values[M01] * values[M10] * values[M23] - values[M00]
 					* values[M11] * values[M23];
-			tmp[M30] = values[M12] * values[M21] * values[M30] - values[M11]
+			final float t30 = values[M12] * values[M21] * values[M30] - values[M11]
 					* values[M22] * values[M30] - values[M12] * values[M20]
 					* values[M31] + values[M10] * values[M22] * values[M31]
 					+ values[M11] * values[M20] * values[M32] - values[M10]
 					* values[M21] * values[M32];
-			tmp[M31] = values[M01] * values[M22] * values[M30] - values[M02]
+			final float t31 = values[M01] * values[M22] * values[M30] - values[M02]
 					* values[M21] * values[M30] + values[M02] * values[M20]
 					* values[M31] - values[M00] * values[M22] * values[M31]
 					- values[M01] * values[M20] * values[M32] + values[M00]
 					* values[M21] * values[M32];
-			tmp[M32] = values[M02] * values[M11] * values[M30] - values[M01]
+			final float t32 = values[M02] * values[M11] * values[M30] - values[M01]
 					* values[M12] * values[M30] - values[M02] * values[M10]
 					* values[M31] + values[M00] * values[M12] * values[M31]
 					+ values[M01] * values[M10] * values[M32] - values[M00]
 					* values[M11] * values[M32];
-			tmp[M33] = values[M01] * values[M12] * values[M20] - values[M02]
+			final float t33 = values[M01] * values[M12] * values[M20] - values[M02]
 					* values[M11] * values[M20] + values[M02] * values[M10]
 					* values[M21] - values[M00] * values[M12] * values[M21]
 					- values[M01] * values[M10] * values[M22] + values[M00]
 					* values[M11] * values[M22];
 
 			float inv_det = 1.0f / l_det;
-			values[M00] = tmp[M00] * inv_det;
-			values[M01] = tmp[M01] * inv_det;
-			values[M02] = tmp[M02] * inv_det;
-			values[M03] = tmp[M03] * inv_det;
-			values[M10] = tmp[M10] * inv_det;
-			values[M11] = tmp[M11] * inv_det;
-			values[M12] = tmp[M12] * inv_det;
-			values[M13] = tmp[M13] * inv_det;
-			values[M20] = tmp[M20] * inv_det;
-			values[M21] = tmp[M21] * inv_det;
-			values[M22] = tmp[M22] * inv_det;
-			values[M23] = tmp[M23] * inv_det;
-			values[M30] = tmp[M30] * inv_det;
-			values[M31] = tmp[M31] * inv_det;
-			values[M32] = tmp[M32] * inv_det;
-			values[M33] = tmp[M33] * inv_det;
+			values[M00] = t00 * inv_det;
+			values[M01] = t01 * inv_det;
+			values[M02] = t02 * inv_det;
+			values[M03] = t03 * inv_det;
+			values[M10] = t10 * inv_det;
+			values[M11] = t11 * inv_det;
+			values[M12] = t12 * inv_det;
+			values[M13] = t13 * inv_det;
+			values[M20] = t20 * inv_det;
+			values[M21] = t21 * inv_det;
+			values[M22] = t22 * inv_det;
+			values[M23] = t23 * inv_det;
+			values[M30] = t30 * inv_det;
+			values[M31] = t31 * inv_det;
+			values[M32] = t32 * inv_det;
+			values[M33] = t33 * inv_det;
 			return true;
 		}
 	}
@@ -1001,12 +1003,10 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			return setColorKey(buffer, colorKey);
 		} else {
-			int size = buffer.length;
+			final int size = buffer.length;
 			for (int i = 0; i < size; i++) {
-				int pixel = buffer[i];
-				if (pixel == colorKey) {
-					buffer[i] = 0x00FFFFFF;
-				}
+				final int pixel = buffer[i];
+				buffer[i] = (pixel == colorKey) ? 0x00FFFFFF : pixel;
 			}
 		}
 		return buffer;
@@ -1016,15 +1016,9 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			return setColorKeys(buffer, colors);
 		} else {
-			int length = colors.length;
-			int size = buffer.length;
+			final int length = colors.length;
 			for (int n = 0; n < length; n++) {
-				for (int i = 0; i < size; i++) {
-					int pixel = buffer[i];
-					if (pixel == colors[n]) {
-						buffer[i] = 0x00FFFFFF;
-					}
-				}
+				toColorKey(buffer, colors[n]);
 			}
 		}
 		return buffer;
@@ -1034,22 +1028,22 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			return setColorKeyLimit(buffer, start, end);
 		} else {
-			int sred = LColor.getRed(start);
-			int sgreen = LColor.getGreen(start);
-			int sblue = LColor.getBlue(start);
-			int ered = LColor.getRed(end);
-			int egreen = LColor.getGreen(end);
-			int eblue = LColor.getBlue(end);
-			int size = buffer.length;
+			final int sred = LColor.getRed(start);
+			final int sgreen = LColor.getGreen(start);
+			final int sblue = LColor.getBlue(start);
+			final int ered = LColor.getRed(end);
+			final int egreen = LColor.getGreen(end);
+			final int eblue = LColor.getBlue(end);
+			final int size = buffer.length;
 			for (int i = 0; i < size; i++) {
-				int pixel = buffer[i];
-				int r = LColor.getRed(pixel);
-				int g = LColor.getGreen(pixel);
-				int b = LColor.getBlue(pixel);
-				if ((r >= sred && g >= sgreen && b >= sblue)
-						&& (r <= ered && g <= egreen && b <= eblue)) {
-					buffer[i] = 0x00FFFFFF;
-				}
+				final int pixel = buffer[i];
+				final int r = (pixel >> 16) & 0xFF;
+				final int g = (pixel >> 8) & 0xFF;
+				final int b = pixel & 0xFF;
+				// 各分量都处于范围内时差值全部非负,以此代替分支判断
+				final int inRange = (r - sred) | (ered - r) | (g - sgreen)
+						| (egreen - g) | (b - sblue) | (eblue - b);
+				buffer[i] = (inRange >= 0) ? 0x00FFFFFF : pixel;
 			}
 		}
 		return buffer;
@@ -1059,22 +1053,17 @@ public final class NativeSupport {
 		if (useLoonNative) {
 			return getGray(buffer, w, h);
 		} else {
-			int size = w * h;
-			int[] newResult = new int[size];
-			System.arraycopy(buffer, 0, newResult, 0, size);
-			int alpha = 0xFF << 24;
-			for (int i = 0; i < h; i++) {
-				for (int j = 0; j < w; j++) {
-					int idx = w * i + j;
-					int color = newResult[idx];
-					if (color != 0x00FFFFFF) {
-						int red = ((color & 0x00FF0000) >> 16);
-						int green = ((color & 0x0000FF00) >> 8);
-						int blue = color & 0x000000FF;
-						color = (red + green + blue) / 3;
-						color = alpha | (color << 16) | (color << 8) | color;
-						newResult[idx] = color;
-					}
+			final int size = w * h;
+			final int[] newResult = new int[size];
+			for (int i = 0; i < size; i++) {
+				final int color = buffer[i];
+				if (color == 0x00FFFFFF) {
+					newResult[i] = color;
+				} else {
+					final int gray = (((color >> 16) & 0xFF)
+							+ ((color >> 8) & 0xFF) + (color & 0xFF)) / 3;
+					newResult[i] = 0xFF000000 | (gray << 16) | (gray << 8)
+							| gray;
 				}
 			}
 			return newResult;
@@ -526,6 +526,9 @@ public class Lwjgl3Game extends LGame {
 			}
 			if (newActive) {
 				processFrame();
+			} else {
+				// 非活动状态下不会派发输入,丢弃已入队的事件以免队列无限增长
+				input.getEventQueue().clear();
 			}
 			glfwPollEvents();
 			sync.sync(setting.fps);
@@ -10,6 +10,7 @@ import loon.live2d.io.*;
 import loon.live2d.model.*;
 import loon.opengl.GLEx;
 import loon.utils.ArrayByte;
+import loon.utils.ObjectMap;
 
 public abstract class ALive2DModel {
 
@@ -17,6 +18,7 @@ public abstract class ALive2DModel {
 	protected ModelImpl modelImpl;
 	protected ModelContext modeContext;
 	protected int flagError;
+	private final ObjectMap<String, ParamID> paramIDs = new ObjectMap<String, ParamID>();
 
 	static {
 		ALive2DModel.idNo = 0;
@@ -57,17 +59,17 @@ public abstract class ALive2DModel {
 
 	public float getParamFloat(final String paramID) {
 		return this.modeContext
-				.getParamFloat(this.modeContext.getParamIndex(ParamID.getID(paramID)));
+				.getParamFloat(this.modeContext.getParamIndex(this.toParamID(paramID)));
 	}
 
 	public void setParamFloat(final String paramID, final float value) {
-		this.modeContext.setParamFloat(this.modeContext.getParamIndex(ParamID.getID(paramID)),
+		this.modeContext.setParamFloat(this.modeContext.getParamIndex(this.toParamID(paramID)),
 				value);
 	}
 
 	public void setParamFloat(final String paramID, final float value,
 			final float weight) {
-		this.setParamFloat(this.modeContext.getParamIndex(ParamID.getID(paramID)), value,
+		this.setParamFloat(this.modeContext.getParamIndex(this.toParamID(paramID)), value,
 				weight);
 	}
 
@@ -77,7 +79,7 @@ public abstract class ALive2DModel {
 
 	public void addToParamFloat(final String paramID, final float value,
 			final float weight) {
-		this.addToParamFloat(this.modeContext.getParamIndex(ParamID.getID(paramID)),
+		this.addToParamFloat(this.modeContext.getParamIndex(this.toParamID(paramID)),
 				value, weight);
 	}
 
@@ -87,7 +89,7 @@ public abstract class ALive2DModel {
 
 	public void multParamFloat(final String paramID, final float mult,
 			final float weight) {
-		this.multParamFloat(this.modeContext.getParamIndex(ParamID.getID(paramID)), mult,
+		this.multParamFloat(this.modeContext.getParamIndex(this.toParamID(paramID)), mult,
 				weight);
 	}
 
@@ -158,8 +160,20 @@ public abstract class ALive2DModel {
 		}
 	}
 
+	/**
+	 * 按模型缓存字符串参数对应的ParamID,每帧的参数读写不再进入ParamID的全局同步注册表
+	 */
+	protected ParamID toParamID(final String paramID) {
+		ParamID id = this.paramIDs.get(paramID);
+		if (id == null) {
+			id = ParamID.getID(paramID);
+			this.paramIDs.put(paramID, id);
+		}
+		return id;
+	}
+
 	public int getParamIndex(final String paramID) {
-		return this.modeContext.getParamIndex(ParamID.getID(paramID));
+		return this.modeContext.getParamIndex(this.toParamID(paramID));
 	}
 
 	public float getParamFloat(final int paramIndex) {
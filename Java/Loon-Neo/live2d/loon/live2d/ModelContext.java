@@ -11,6 +11,7 @@ import loon.live2d.model.PartsData.PartsDataContext;
 import loon.live2d.param.*;
 import loon.opengl.GLEx;
 import loon.utils.ListMap;
+import loon.utils.ObjectMap;
 import loon.utils.TArray;
 
 public class ModelContext {
@@ -40,6 +41,11 @@ public class ModelContext {
 	short[] B;
 	short[] C;
 	float[] D;
+	// ID到索引的散列表,于init时建立,避免每帧线性查找
+	ObjectMap<ParamID, Integer> paramIndexs;
+	ObjectMap<BaseDataID, Integer> baseDataIndexs;
+	ObjectMap<DrawDataID, Integer> drawDataIndexs;
+	ObjectMap<PartsDataID, Integer> partsDataIndexs;
 	static final boolean E = false;
 
 	static {
@@ -65,10 +71,18 @@ public class ModelContext {
 		this.y = new TArray();
 		this.C = new short[65];
 		this.D = new float[10];
+		this.paramIndexs = new ObjectMap<ParamID, Integer>(64);
+		this.baseDataIndexs = new ObjectMap<BaseDataID, Integer>();
+		this.drawDataIndexs = new ObjectMap<DrawDataID, Integer>();
+		this.partsDataIndexs = new ObjectMap<PartsDataID, Integer>();
 		this.i = model;
 	}
 
 	public int getDrawDataIndex(final DrawDataID id) {
+		if (id != null) {
+			final Integer index = this.drawDataIndexs.get(id);
+			return index == null ? -1 : index.intValue();
+		}
 		for (int i = this.t.size - 1; i >= 0; --i) {
 			if (this.t.get(i) != null
 					&& ((IDrawData) this.t.get(i)).getDrawDataID() == id) {
@@ -109,6 +123,9 @@ public class ModelContext {
 		this.w.clear();
 		this.x.clear();
 		this.y.clear();
+		this.baseDataIndexs.clear();
+		this.drawDataIndexs.clear();
+		this.partsDataIndexs.clear();
 	}
 
 	public void init() {
@@ -124,6 +141,9 @@ public class ModelContext {
 		for (int i = 0; i < size; ++i) {
 			final PartsData partsData = (PartsData) partsDataList.get(i);
 			this.v.add(partsData);
+			if (partsData.getPartsDataID() != null) {
+				this.partsDataIndexs.put(partsData.getPartsDataID(), i);
+			}
 			this.y.add(partsData.init(this));
 			final TArray baseData = partsData.getBaseData();
 			final int size2 = baseData.size;
@@ -140,6 +160,10 @@ public class ModelContext {
 				final IDrawData drawData2 = (IDrawData) drawData.get(l);
 				final IDrawContext a2 = drawData2.a(this);
 				a2.f = i;
+				if (drawData2.getDrawDataID() != null) {
+					this.drawDataIndexs.put(drawData2.getDrawDataID(),
+							this.t.size);
+				}
 				this.t.add(drawData2);
 				this.x.add(a2);
 			}
@@ -155,6 +179,9 @@ public class ModelContext {
 					final BaseDataID d = baseData2.d();
 					if (d == null || d == dst_BASE_ID
 							|| this.getBaseDataIndex(d) >= 0) {
+						if (baseData2.e() != null) {
+							this.baseDataIndexs.put(baseData2.e(), this.s.size);
+						}
 						this.s.add(baseData2);
 						this.w.add(list2.get(n));
 						list.set(n, null);
@@ -297,9 +324,15 @@ public class ModelContext {
 	}
 
 	public int getParamIndex(final ParamID paramID) {
-		for (int i = this.l.length - 1; i >= 0; --i) {
-			if (this.l[i] == paramID) {
-				return i;
+		final Integer index = this.paramIndexs.get(paramID);
+		if (index != null) {
+			return index.intValue();
+		}
+		if (paramID == null) {
+			for (int i = this.k - 1; i >= 0; --i) {
+				if (this.l[i] == null) {
+					return i;
+				}
 			}
 		}
 		return this.addFloatParam(paramID, 0.0f, -1000000.0f, 1000000.0f);
@@ -310,6 +343,10 @@ public class ModelContext {
 	}
 
 	public int getBaseDataIndex(final BaseDataID baseID) {
+		if (baseID != null) {
+			final Integer index = this.baseDataIndexs.get(baseID);
+			return index == null ? -1 : index.intValue();
+		}
 		for (int i = this.s.size - 1; i >= 0; --i) {
 			if (this.s.get(i) != null
 					&& ((IBaseData) this.s.get(i)).e() == baseID) {
@@ -341,6 +378,9 @@ public class ModelContext {
 			this.r = r;
 		}
 		this.l[this.k] = id;
+		if (id != null) {
+			this.paramIndexs.put(id, this.k);
+		}
 		this.m[this.k] = value;
 		this.n[this.k] = value;
 		this.o[this.k] = min;
@@ -350,7 +390,17 @@ public class ModelContext {
 	}
 
 	public void setBaseData(final int baseDataIndex, final IBaseData baseData) {
+		final IBaseData old = (IBaseData) this.s.get(baseDataIndex);
+		if (old != null && old.e() != null) {
+			final Integer index = this.baseDataIndexs.get(old.e());
+			if (index != null && index.intValue() == baseDataIndex) {
+				this.baseDataIndexs.remove(old.e());
+			}
+		}
 		this.s.set(baseDataIndex, baseData);
+		if (baseData != null && baseData.e() != null) {
+			this.baseDataIndexs.put(baseData.e(), baseDataIndex);
+		}
 	}
 
 	public void setParamFloat(final int paramIndex, float value) {
@@ -427,6 +477,10 @@ public class ModelContext {
 	}
 
 	public int getPartsDataIndex(final PartsDataID partsID) {
+		if (partsID != null) {
+			final Integer index = this.partsDataIndexs.get(partsID);
+			return index == null ? -1 : index.intValue();
+		}
 		for (int i = this.v.size - 1; i >= 0; --i) {
 			if (this.v.get(i) != null
 					&& ((PartsData) this.v.get(i)).getPartsDataID() == partsID) {
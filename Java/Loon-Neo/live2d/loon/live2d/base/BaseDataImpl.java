@@ -16,11 +16,7 @@ public class BaseDataImpl extends IBaseData
     int b;
     loon.live2d.param.ParamIOList c;
     TArray<Object> list;
-    static boolean[] e;
-    
-    static {
-        e = new boolean[1];
-    }
+    final boolean[] e = new boolean[1];
     
     public BaseDataImpl() {
         this.a = 0;
@@ -71,7 +67,7 @@ public class BaseDataImpl extends IBaseData
             return;
         }
         final int c = this.c();
-        final boolean[] e = loon.live2d.base.BaseDataImpl.e;
+        final boolean[] e = this.e;
         e[0] = false;
         loon.live2d.util.ModelContextUtil.loadModel(modelContext, this.c, e, c, this.list, a.b, 0, 2);
         baseContext.b(e[0]);
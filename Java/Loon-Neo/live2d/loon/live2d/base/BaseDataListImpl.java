@@ -15,24 +15,18 @@ public class BaseDataListImpl extends IBaseData
 	private static final long serialVersionUID = 1L;
 	loon.live2d.param.ParamIOList a;
     TArray<Object> list;
-    static float[] c;
-    static float[] d;
-    static float[] e;
-    static float[] f;
-    static float[] g;
-    static float[] h;
-    static boolean[] i;
+    // 临时数组归属各实例而非静态共享,以便不同模型可并行更新
+    final float[] c = new float[2];
+    final float[] d = new float[2];
+    final float[] e = new float[2];
+    final float[] f = new float[2];
+    final float[] g = new float[2];
+    final float[] h = new float[2];
+    final boolean[] i = new boolean[1];
     static final boolean _flag;
     
     static {
     	_flag = true;
-        c = new float[2];
-        d = new float[2];
-        e = new float[2];
-        f = new float[2];
-        g = new float[2];
-        h = new float[2];
-        i = new boolean[1];
     }
     
     public BaseDataListImpl() {
@@ -78,7 +72,7 @@ public class BaseDataListImpl extends IBaseData
         if (!this.a.a(modelContext)) {
             return;
         }
-        final boolean[] i = loon.live2d.base.BaseDataListImpl.i;
+        final boolean[] i = this.i;
         i[0] = false;
         final int a2 = this.a.loadParam(modelContext, i);
         baseContext.b(i[0]);
@@ -274,10 +268,10 @@ public class BaseDataListImpl extends IBaseData
                 final IBaseData baseData = modelContext.getBaseData(a.a);
                 if (baseData != null) {
                     final IBaseContext baseContext2 = modelContext.getBaseContext(a.a);
-                    final float[] c = loon.live2d.base.BaseDataListImpl.c;
+                    final float[] c = this.c;
                     c[0] = a.b.a;
                     c[1] = a.b.b;
-                    final float[] d2 = loon.live2d.base.BaseDataListImpl.d;
+                    final float[] d2 = this.d;
                     d2[0] = 0.0f;
                     d2[1] = -0.1f;
                     if (baseContext2.b().b() == 1) {
@@ -286,7 +280,7 @@ public class BaseDataListImpl extends IBaseData
                     else {
                         d2[1] = -0.1f;
                     }
-                    final float[] e = loon.live2d.base.BaseDataListImpl.e;
+                    final float[] e = this.e;
                     this.a(modelContext, baseData, baseContext2, c, d2, e);
                     final float n = UtMath.getAngleNotAbs(d2, e);
                     baseData.a(modelContext, baseContext2, c, c, 1, 0, 2);
@@ -338,12 +332,12 @@ public class BaseDataListImpl extends IBaseData
         if (!loon.live2d.base.BaseDataListImpl._flag && baseData != baseContext.b()) {
             throw new AssertionError();
         }
-        final float[] f = loon.live2d.base.BaseDataListImpl.f;
-        loon.live2d.base.BaseDataListImpl.f[0] = array[0];
-        loon.live2d.base.BaseDataListImpl.f[1] = array[1];
+        final float[] f = this.f;
+        this.f[0] = array[0];
+        this.f[1] = array[1];
         baseData.a(modelContext, baseContext, f, f, 1, 0, 2);
-        final float[] g = loon.live2d.base.BaseDataListImpl.g;
-        final float[] h = loon.live2d.base.BaseDataListImpl.h;
+        final float[] g = this.g;
+        final float[] h = this.h;
         final int n = 10;
         float n2 = 1.0f;
         for (int i = 0; i < n; ++i) {
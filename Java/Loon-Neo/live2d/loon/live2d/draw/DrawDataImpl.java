@@ -31,13 +31,12 @@ public class DrawDataImpl extends IDrawData {
 	float[] m;
 	int n;
 	boolean o;
-	static boolean[] p;
+	final boolean[] p = new boolean[1];
 	static final/* synthetic */boolean q;
 
 	static {
 		q = !DrawDataImpl.class.desiredAssertionStatus();
 		loon.live2d.draw.DrawDataImpl.a = 0;
-		loon.live2d.draw.DrawDataImpl.p = new boolean[1];
 	}
 
 	public DrawDataImpl() {
@@ -193,7 +192,7 @@ public class DrawDataImpl extends IDrawData {
 		if (a.i[0]) {
 			return;
 		}
-		final boolean[] p2 = loon.live2d.draw.DrawDataImpl.p;
+		final boolean[] p2 = this.p;
 		p2[0] = false;
 		loon.live2d.util.ModelContextUtil.loadModel(modelContext, this.y, p2, this.g,
 				this.l, a.b, 0, 2);
@@ -58,9 +58,39 @@ public class LAppModel extends L2DBaseModel {
 				LAppDefine.PRIORITY_IDLE);
 	}
 
-	static Object lock = new Object();
+	private final Object lock = new Object();
+
+	private boolean deferMotion;
+
+	private String pendingName;
+
+	private int pendingNo, pendingPriority;
+
+	/**
+	 * 由LAppModelGroup在工作线程更新期间开启,此时startMotion只记录请求,动作文件读取与声音播放留待调用线程执行
+	 */
+	void setDeferMotion(boolean defer) {
+		this.deferMotion = defer;
+	}
+
+	/**
+	 * 在调用线程中执行工作线程更新期间记录的startMotion请求
+	 */
+	void flushMotion() {
+		final String name = pendingName;
+		if (name != null) {
+			pendingName = null;
+			startMotion(name, pendingNo, pendingPriority);
+		}
+	}
 
 	public void startMotion(String name, int no, int priority) {
+		if (deferMotion) {
+			pendingName = name;
+			pendingNo = no;
+			pendingPriority = priority;
+			return;
+		}
 		String motionName = modelSetting.getMotionFile(name, no);
 
 		if (motionName == null || motionName.equals("")) {
@@ -0,0 +1,136 @@
+package loon.live2d.framework;
+
+import loon.LRelease;
+import loon.event.UpdatePhases;
+import loon.opengl.GLEx;
+import loon.utils.TArray;
+
+/**
+ * 多个LAppModel的集中管理,各模型互不依赖,因此update可选择交给平台提供的UpdatePhases.Executor并行执行(未指定时使用UpdatePhases的默认执行者,
+ * JavaSE下即共用的工作线程组),draw则始终在GL线程中顺序进行.
+ * 并行更新期间模型发起的动作(含动作文件读取与声音播放)会延后到全部任务结束后于调用线程执行
+ */
+public class LAppModelGroup implements LRelease {
+
+	private final TArray<LAppModel> models = new TArray<LAppModel>();
+
+	private final UpdatePhases.Task task = new UpdatePhases.Task() {
+
+		@Override
+		public void run(int index) {
+			models.get(index).update();
+		}
+	};
+
+	private UpdatePhases.Executor executor;
+
+	private boolean parallel;
+
+	private long lastUpdateNanos;
+
+	public LAppModelGroup() {
+		this(false);
+	}
+
+	public LAppModelGroup(boolean parallel) {
+		this(parallel, null);
+	}
+
+	public LAppModelGroup(boolean parallel, UpdatePhases.Executor executor) {
+		this.parallel = parallel;
+		this.executor = executor;
+	}
+
+	public LAppModel add(LAppModel model) {
+		models.add(model);
+		return model;
+	}
+
+	public boolean remove(LAppModel model) {
+		int idx = models.indexOf(model, true);
+		if (idx == -1) {
+			return false;
+		}
+		models.removeIndex(idx);
+		return true;
+	}
+
+	public LAppModel get(int idx) {
+		return models.get(idx);
+	}
+
+	public int size() {
+		return models.size;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public UpdatePhases.Executor getExecutor() {
+		return executor == null ? UpdatePhases.getDefaultExecutor() : executor;
+	}
+
+	public void setExecutor(UpdatePhases.Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * 更新全部模型,并行模式下等待全部任务完成后才返回
+	 */
+	public void update() {
+		final long start = System.nanoTime();
+		final int size = models.size;
+		if (!parallel || size < 2) {
+			for (int i = 0; i < size; i++) {
+				models.get(i).update();
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				models.get(i).setDeferMotion(true);
+			}
+			try {
+				getExecutor().execute(size, task);
+			} finally {
+				// 工作线程中触发的动作加载(文件读取)与声音播放,统一回到调用线程执行
+				for (int i = 0; i < size; i++) {
+					LAppModel model = models.get(i);
+					model.setDeferMotion(false);
+					model.flushMotion();
+				}
+			}
+		}
+		lastUpdateNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * 绘制全部模型,必须于GL线程调用
+	 */
+	public void draw(GLEx gl) {
+		for (int i = 0; i < models.size; i++) {
+			models.get(i).draw(gl);
+		}
+	}
+
+	/**
+	 * 最近一次update的耗时(纳秒)
+	 */
+	public long getLastUpdateNanos() {
+		return lastUpdateNanos;
+	}
+
+	public void release() {
+		for (int i = 0; i < models.size; i++) {
+			models.get(i).release();
+		}
+	}
+
+	@Override
+	public void close() {
+		models.clear();
+	}
+}
@@ -1,13 +1,13 @@
 package loon.live2d.id;
 
-import loon.utils.ListMap;
+import loon.utils.ObjectMap;
 
 public class ParamID extends ID
 {
-    static ListMap<String,ParamID> ids;
+    static ObjectMap<String,ParamID> ids;
     
     static {
-        ParamID.ids = new ListMap<String,ParamID>();
+        ParamID.ids = new ObjectMap<String,ParamID>();
     }
     
     private ParamID() {
@@ -22,15 +22,19 @@ public class ParamID extends ID
     }
     
     static void clear() {
-        ParamID.ids.clear();
+        synchronized (ParamID.ids) {
+            ParamID.ids.clear();
+        }
     }
     
     public static ParamID getID(final String tmp_idstr) {
-        ParamID paramID = ParamID.ids.get(tmp_idstr);
-        if (paramID == null) {
-            paramID = new ParamID(tmp_idstr);
-            ParamID.ids.put(tmp_idstr, paramID);
+        synchronized (ParamID.ids) {
+            ParamID paramID = ParamID.ids.get(tmp_idstr);
+            if (paramID == null) {
+                paramID = new ParamID(tmp_idstr);
+                ParamID.ids.put(tmp_idstr, paramID);
+            }
+            return paramID;
         }
-        return paramID;
     }
 }
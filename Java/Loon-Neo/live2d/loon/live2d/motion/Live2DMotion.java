@@ -1,6 +1,7 @@
 package loon.live2d.motion;
 
 import loon.live2d.*;
+import loon.live2d.id.ParamID;
 import loon.live2d.util.*;
 import loon.utils.ArrayByte;
 import loon.utils.ListMap;
@@ -19,12 +20,11 @@ public class Live2DMotion extends AMotion
     int m;
     float n;
     static int o;
-    static transient a p;
     static final int q = 1;
+    transient ParamIndexs paramIndexs;
     
     static {
         Live2DMotion.o = 0;
-        Live2DMotion.p = new a();
     }
     
     public Live2DMotion() {
@@ -46,6 +46,7 @@ public class Live2DMotion extends AMotion
         final ListMap<String, Integer> hashMap = new ListMap<String, Integer>();
         final ListMap<String, Integer> hashMap2 = new ListMap<String, Integer>();
         final int[] array = { 0 };
+        final a p = new a();
         final int length = str.length;
         live2DMotion.i = 0;
         for (int i = 0; i < length; ++i) {
@@ -189,7 +190,7 @@ public class Live2DMotion extends AMotion
                             }
                             live2DMotion.list.add(motion);
                             int k = 0;
-                            Live2DMotion.p.a();
+                            p.a();
                             for (i = n6 + 1; i < length; ++i) {
                                 final char c5 = (char)(str[i] & 0xFF);
                                 if (c5 == '\r') {
@@ -202,7 +203,7 @@ public class Live2DMotion extends AMotion
                                     if (c5 != '\t') {
                                         final float n7 = (float)loon.live2d.util.StringUtil.indexOf(str, length, i, array);
                                         if (array[0] > 0) {
-                                            Live2DMotion.p.a(n7);
+                                            p.a(n7);
                                             ++k;
                                             final int n8 = array[0];
                                             if (n8 < i) {
@@ -213,7 +214,7 @@ public class Live2DMotion extends AMotion
                                     }
                                 }
                             }
-                            motion.l = Live2DMotion.p.b();
+                            motion.l = p.b();
                             if (k > live2DMotion.i) {
                                 live2DMotion.i = k;
                             }
@@ -250,16 +251,16 @@ public class Live2DMotion extends AMotion
         final float n3 = n - n2;
         final int n4 = (int)((this.a == 0) ? 1.0f : UtMath.fixed((timeMSec - motionQueueEnt.e) / this.a));
         final int n5 = (int)((this.b == 0 || motionQueueEnt.f < 0L) ? 1.0f : UtMath.fixed((motionQueueEnt.f - timeMSec) / this.b));
+        final ModelContext modelContext = model.getModelContext();
+        final int[] indexs = this.getParamIndexs(modelContext);
         for (int i = 0; i < this.list.size; ++i) {
             final Motion motion = (Motion) this.list.get(i);
             final int length = motion.l.length;
-            final String k = motion.k;
             if (motion.m == 1) {
-                model.setParamFloat(k, motion.l[(n2 >= length) ? (length - 1) : n2]);
+                modelContext.setParamFloat(indexs[i], motion.l[(n2 >= length) ? (length - 1) : n2]);
             }
             else if (100 > motion.m || motion.m > 105) {
-                final int paramIndex = model.getParamIndex(k);
-                final ModelContext modelContext = model.getModelContext();
+                final int paramIndex = indexs[i];
                 final float n6 = 0.4f * (modelContext.getParamMax(paramIndex) - modelContext.getParamMin(paramIndex));
                 final float paramFloat = modelContext.getParamFloat(paramIndex);
                 final float n7 = motion.l[(n2 >= length) ? (length - 1) : n2];
@@ -292,7 +293,7 @@ public class Live2DMotion extends AMotion
                     }
                     value = paramFloat + (n9 - paramFloat) * (this.c * n10 * n11);
                 }
-                model.setParamFloat(k, value);
+                modelContext.setParamFloat(paramIndex, value);
             }
         }
         if (n2 >= this.i) {
@@ -307,6 +308,27 @@ public class Live2DMotion extends AMotion
         this.n = this.c;
     }
     
+    /**
+     * 返回预先解析的参数索引(每个Motion对应一项,布局类动作为-1),仅在模型或其初始化版本变化时重建
+     */
+    int[] getParamIndexs(final ModelContext modelContext) {
+        ParamIndexs cache = this.paramIndexs;
+        if (cache == null || cache.context != modelContext || cache.version != modelContext.getInitVersion()) {
+            final int size = this.list.size;
+            final int[] indexs = new int[size];
+            for (int i = 0; i < size; ++i) {
+                final Motion motion = (Motion) this.list.get(i);
+                if (motion.m == 1 || 100 > motion.m || motion.m > 105) {
+                    indexs[i] = modelContext.getParamIndex(ParamID.getID(motion.k));
+                } else {
+                    indexs[i] = -1;
+                }
+            }
+            this.paramIndexs = cache = new ParamIndexs(modelContext, modelContext.getInitVersion(), indexs);
+        }
+        return cache.indexs;
+    }
+    
     public boolean isLoop() {
         return this.l;
     }
@@ -393,6 +415,19 @@ public class Live2DMotion extends AMotion
         }
     }
     
+    static class ParamIndexs
+    {
+        final ModelContext context;
+        final int version;
+        final int[] indexs;
+        
+        ParamIndexs(final ModelContext context, final int version, final int[] indexs) {
+            this.context = context;
+            this.version = version;
+            this.indexs = indexs;
+        }
+    }
+    
     static class Motion
     {
         public static final int a = 0;
@@ -10,6 +10,9 @@ public class MotionQueueManager
 {
     TArray<MotionQueueEnt> list;
     
+    // 编号仅在本队列内比较,因此按队列计数(各模型的队列互不共享,并行更新时无需同步)
+    private int nextNo;
+    
     public MotionQueueManager() {
         this.list = new TArray<MotionQueueEnt>();
     }
@@ -29,7 +32,7 @@ public class MotionQueueManager
         if (motion == null) {
             return -1;
         }
-        final MotionQueueEnt motionQueueEnt2 = new MotionQueueEnt();
+        final MotionQueueEnt motionQueueEnt2 = new MotionQueueEnt(this.nextNo++);
         motionQueueEnt2.a = motion;
         this.list.add(motionQueueEnt2);
         final int h = motionQueueEnt2.h;
@@ -126,21 +129,16 @@ public class MotionQueueManager
         long timeMSecStart;
         long e;
         long f;
-        static int g;
         int h;
         
-        static {
-            MotionQueueEnt.g = 0;
-        }
-        
-        MotionQueueEnt() {
+        MotionQueueEnt(final int no) {
             this.a = null;
             this.b = true;
             this.finished = false;
             this.timeMSecStart = -1L;
             this.e = -1L;
             this.f = -1L;
-            this.h = MotionQueueEnt.g++;
+            this.h = no;
         }
         
         boolean isFinished() {
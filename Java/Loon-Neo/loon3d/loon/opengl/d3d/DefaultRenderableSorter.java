@@ -3,33 +3,173 @@ package loon.opengl.d3d;
 import java.util.Comparator;
 
 import loon.action.camera.BaseCamera;
-import loon.geom.Vector3f;
+import loon.geom.Matrix4;
 import loon.opengl.d3d.materials.BlendingAttribute;
+import loon.opengl.d3d.materials.Material;
+import loon.opengl.d3d.materials.TextureAttribute;
+import loon.utils.ObjectMap;
 import loon.utils.TArray;
 
+/**
+ * 默认的渲染排序器,不透明对象按shader,material,texture分组以减少状态切换,透明对象则按视深由远及近排列.
+ * 
+ * 排序键为64位整数(状态或深度位于高位,提交序号位于低24位),以基数排序完成,相同状态保持提交顺序.
+ */
 public class DefaultRenderableSorter implements RenderableSorter, Comparator<Renderable> {
-	
+
+	private final static int INDEX_BITS = 24;
+
+	private final static long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	private final static long BLENDED_BIT = 1L << 62;
+
 	private BaseCamera camera;
-	private final Vector3f tmpV1 = new Vector3f();
-	private final Vector3f tmpV2 = new Vector3f();
-	
+
+	private final ObjectMap<Object, Integer> shaderIds = new ObjectMap<Object, Integer>();
+
+	private final ObjectMap<Object, Integer> materialIds = new ObjectMap<Object, Integer>();
+
+	private final ObjectMap<Object, Integer> textureIds = new ObjectMap<Object, Integer>();
+
+	private long[] keys = new long[64];
+
+	private long[] swap = new long[64];
+
+	private Renderable[] items = new Renderable[64];
+
+	private final int[] counts = new int[256];
+
 	@Override
-	public void sort (final BaseCamera camera, final TArray<Renderable> renderables) {
+	public void sort(final BaseCamera camera, final TArray<Renderable> renderables) {
 		this.camera = camera;
-	//	renderables.sort(this);
+		final int size = renderables.size;
+		if (size < 2) {
+			return;
+		}
+		if (size > INDEX_MASK) {
+			renderables.sort(this);
+			return;
+		}
+		if (keys.length < size) {
+			int newSize = keys.length;
+			while (newSize < size) {
+				newSize <<= 1;
+			}
+			keys = new long[newSize];
+			swap = new long[newSize];
+			items = new Renderable[newSize];
+		}
+		shaderIds.clear();
+		materialIds.clear();
+		textureIds.clear();
+		final Matrix4 view = camera == null ? null : camera.getView();
+		for (int i = 0; i < size; i++) {
+			final Renderable renderable = renderables.get(i);
+			items[i] = renderable;
+			keys[i] = sortKey(renderable, view) | i;
+		}
+		radixSort(size);
+		for (int i = 0; i < size; i++) {
+			renderables.set(i, items[(int) (keys[i] & INDEX_MASK)]);
+		}
+		for (int i = 0; i < size; i++) {
+			items[i] = null;
+		}
 	}
-	
+
+	protected long sortKey(final Renderable renderable, final Matrix4 view) {
+		final Material material = renderable.material;
+		if (material != null && material.has(BlendingAttribute.Type)) {
+			final float depth = view == null ? 0f : getDepth(renderable, view);
+			final int bits = Float.floatToIntBits(depth < 0f ? 0f : depth);
+			return BLENDED_BIT | ((long) (0x7FFFFFFF - bits) << INDEX_BITS);
+		}
+		final long shader = idOf(shaderIds, renderable.shader) & 0xFFF;
+		final long mat = idOf(materialIds, material) & 0x3FFF;
+		Object texture = null;
+		if (material != null) {
+			final TextureAttribute attribute = (TextureAttribute) material.get(TextureAttribute.Diffuse);
+			if (attribute != null && attribute.textureDescription != null) {
+				texture = attribute.textureDescription.texture;
+			}
+		}
+		final long tex = idOf(textureIds, texture) & 0xFFF;
+		return (shader << 50) | (mat << 36) | (tex << INDEX_BITS);
+	}
+
+	private static int idOf(final ObjectMap<Object, Integer> ids, final Object o) {
+		if (o == null) {
+			return 0;
+		}
+		Integer id = ids.get(o);
+		if (id == null) {
+			id = ids.size + 1;
+			ids.put(o, id);
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * 返回渲染对象在视空间中距离摄像机的深度(越大越远)
+	 */
+	protected float getDepth(final Renderable renderable, final Matrix4 view) {
+		final float[] w = renderable.worldTransform.val;
+		float x = w[Matrix4.M03], y = w[Matrix4.M13], z = w[Matrix4.M23];
+		if (renderable.radius >= 0f) {
+			final float cx = renderable.center.x, cy = renderable.center.y, cz = renderable.center.z;
+			x = w[Matrix4.M00] * cx + w[Matrix4.M01] * cy + w[Matrix4.M02] * cz + w[Matrix4.M03];
+			y = w[Matrix4.M10] * cx + w[Matrix4.M11] * cy + w[Matrix4.M12] * cz + w[Matrix4.M13];
+			z = w[Matrix4.M20] * cx + w[Matrix4.M21] * cy + w[Matrix4.M22] * cz + w[Matrix4.M23];
+		}
+		final float[] v = view.val;
+		return -(v[Matrix4.M20] * x + v[Matrix4.M21] * y + v[Matrix4.M22] * z + v[Matrix4.M23]);
+	}
+
+	private void radixSort(final int size) {
+		long[] src = keys;
+		long[] dst = swap;
+		final int[] count = counts;
+		for (int shift = 0; shift < 64; shift += 8) {
+			for (int i = 0; i < 256; i++) {
+				count[i] = 0;
+			}
+			for (int i = 0; i < size; i++) {
+				count[(int) ((src[i] >>> shift) & 0xFF)]++;
+			}
+			if (count[(int) ((src[0] >>> shift) & 0xFF)] == size) {
+				continue;
+			}
+			int sum = 0;
+			for (int i = 0; i < 256; i++) {
+				final int c = count[i];
+				count[i] = sum;
+				sum += c;
+			}
+			for (int i = 0; i < size; i++) {
+				final long key = src[i];
+				dst[count[(int) ((key >>> shift) & 0xFF)]++] = key;
+			}
+			final long[] t = src;
+			src = dst;
+			dst = t;
+		}
+		if (src != keys) {
+			System.arraycopy(src, 0, keys, 0, size);
+		}
+	}
+
 	@Override
-	public int compare (final Renderable o1, final Renderable o2) {
-		final boolean b1 = o1.material.has(BlendingAttribute.Type);
-		final boolean b2 = o2.material.has(BlendingAttribute.Type);
+	public int compare(final Renderable o1, final Renderable o2) {
+		final boolean b1 = o1.material != null && o1.material.has(BlendingAttribute.Type);
+		final boolean b2 = o2.material != null && o2.material.has(BlendingAttribute.Type);
 		if (b1 != b2) {
 			return b1 ? 1 : -1;
 		}
-		o1.worldTransform.getTranslation(tmpV1);
-		o2.worldTransform.getTranslation(tmpV2);
-	//final float dst = camera.position.dst2(tmpV1) - camera.position.dst2(tmpV2);
-		//return dst < 0f ? -1 : (dst > 0f ? 1 : 0);
-		return 0;
+		if (!b1 || camera == null) {
+			return 0;
+		}
+		final Matrix4 view = camera.getView();
+		final float dst = getDepth(o2, view) - getDepth(o1, view);
+		return dst < 0f ? -1 : (dst > 0f ? 1 : 0);
 	}
 }
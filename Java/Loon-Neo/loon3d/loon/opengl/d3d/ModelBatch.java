@@ -2,8 +2,11 @@ package loon.opengl.d3d;
 
 import loon.LRelease;
 import loon.action.camera.BaseCamera;
+import loon.geom.Frustum;
+import loon.geom.Matrix4;
 import loon.opengl.light.Lights;
 import loon.utils.Array;
+import loon.utils.MathUtils;
 import loon.utils.TArray;
 import loon.utils.cache.Pool;
 
@@ -22,6 +25,7 @@ public class ModelBatch implements LRelease{
 			renderable.material = null;
 			renderable.mesh = null;
 			renderable.shader = null;
+			renderable.radius = -1f;
 			return renderable;
 		}
 	};
@@ -35,6 +39,22 @@ public class ModelBatch implements LRelease{
 	protected final ShaderProvider shaderProvider;
 
 	protected final RenderableSorter sorter;
+
+	protected final Frustum frustum = new Frustum();
+
+	private final Matrix4 combined = new Matrix4();
+
+	protected boolean culling = true;
+
+	private int culledCount;
+
+	private int renderedCount;
+
+	private int shaderSwitchCount;
+
+	private int textureBindCount;
+
+	private int textureReuseCount;
 	
 	public ModelBatch(RenderContext context, ShaderProvider shaderProvider, RenderableSorter sorter) {
 		this.context = context;
@@ -63,7 +83,13 @@ public class ModelBatch implements LRelease{
 	}
 
 	public void end () {
+		culledCount = 0;
+		shaderSwitchCount = 0;
+		if (culling && camera != null) {
+			cull();
+		}
 		sorter.sort(camera, renderables);
+		context.textureBinder.resetCounts();
 		context.begin();
 		Shader currentShader = null;
 		for (int i = 0; i < renderables.size; i++) {
@@ -73,18 +99,88 @@ public class ModelBatch implements LRelease{
 					currentShader.end();
 				currentShader = renderable.shader;
 				currentShader.begin(camera, context);
+				shaderSwitchCount++;
 			}
 			currentShader.render(renderable);
 		}
 		if (currentShader != null)
 			currentShader.end();
 		context.end();
+		renderedCount = renderables.size;
+		textureBindCount = context.textureBinder.getBindCount();
+		textureReuseCount = context.textureBinder.getReuseCount();
 		renderablesPool.freeAll(reuseableRenderables);
 		reuseableRenderables.clear();
 		renderables.clear();
 		camera = null;
 	}
 
+	/**
+	 * 剔除包围球完全处于摄像机视锥之外的渲染对象(未知包围球的对象始终保留)
+	 */
+	protected void cull() {
+		frustum.update(combined.set(camera.getProjection()).mul(camera.getView()));
+		int count = 0;
+		for (int i = 0; i < renderables.size; i++) {
+			final Renderable renderable = renderables.get(i);
+			if (renderable.radius >= 0f && !isVisible(renderable)) {
+				culledCount++;
+				continue;
+			}
+			renderables.set(count++, renderable);
+		}
+		renderables.truncate(count);
+	}
+
+	protected boolean isVisible(final Renderable renderable) {
+		final float[] m = renderable.worldTransform.val;
+		final float cx = renderable.center.x, cy = renderable.center.y, cz = renderable.center.z;
+		final float x = m[Matrix4.M00] * cx + m[Matrix4.M01] * cy + m[Matrix4.M02] * cz + m[Matrix4.M03];
+		final float y = m[Matrix4.M10] * cx + m[Matrix4.M11] * cy + m[Matrix4.M12] * cz + m[Matrix4.M13];
+		final float z = m[Matrix4.M20] * cx + m[Matrix4.M21] * cy + m[Matrix4.M22] * cz + m[Matrix4.M23];
+		final float sx = m[Matrix4.M00] * m[Matrix4.M00] + m[Matrix4.M10] * m[Matrix4.M10] + m[Matrix4.M20] * m[Matrix4.M20];
+		final float sy = m[Matrix4.M01] * m[Matrix4.M01] + m[Matrix4.M11] * m[Matrix4.M11] + m[Matrix4.M21] * m[Matrix4.M21];
+		final float sz = m[Matrix4.M02] * m[Matrix4.M02] + m[Matrix4.M12] * m[Matrix4.M12] + m[Matrix4.M22] * m[Matrix4.M22];
+		float scale = sx > sy ? sx : sy;
+		scale = scale > sz ? scale : sz;
+		return frustum.sphereInFrustum(x, y, z, renderable.radius * MathUtils.sqrt(scale));
+	}
+
+	public boolean isCulling() {
+		return culling;
+	}
+
+	public void setCulling(boolean culling) {
+		this.culling = culling;
+	}
+
+	public Frustum getFrustum() {
+		return frustum;
+	}
+
+	/**
+	 * 上一次end()中因视锥剔除而未渲染的对象数量
+	 */
+	public int getCulledCount() {
+		return culledCount;
+	}
+
+	public int getRenderedCount() {
+		return renderedCount;
+	}
+
+	public int getShaderSwitchCount() {
+		return shaderSwitchCount;
+	}
+
+	public int getTextureBindCount() {
+		return textureBindCount;
+	}
+
+	public int getTextureReuseCount() {
+		return textureReuseCount;
+	}
+
 	public void render(final Renderable renderable) {
 		renderable.shader = shaderProvider.getShader(renderable);
 		renderable.mesh.setAutoBind(false);
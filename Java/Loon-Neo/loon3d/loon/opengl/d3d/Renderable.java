@@ -1,6 +1,7 @@
 package loon.opengl.d3d;
 
 import loon.geom.Matrix4;
+import loon.geom.Vector3f;
 import loon.opengl.Mesh;
 import loon.opengl.d3d.materials.Material;
 import loon.opengl.light.Lights;
@@ -26,4 +27,9 @@ public class Renderable {
 	public Lights lights;
 
 	public Object userData;
+
+	// 局部坐标下的包围球(radius小于0时不参与视锥剔除)
+	public final Vector3f center = new Vector3f();
+
+	public float radius = -1f;
 }
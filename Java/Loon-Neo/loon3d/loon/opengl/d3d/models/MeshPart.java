@@ -1,9 +1,13 @@
 package loon.opengl.d3d.models;
 
+import loon.geom.BoundingBox;
+import loon.geom.Vector3f;
 import loon.opengl.Mesh;
 
 public class MeshPart {
 
+	private final static BoundingBox tmpBounds = new BoundingBox();
+
 	public String id;
 
 	public Mesh mesh;
@@ -14,4 +18,56 @@ public class MeshPart {
 
 	public int numVertices;
 
+	// 局部坐标下的包围球,半径小于0时表示尚未计算(或无法计算)
+	public final Vector3f center = new Vector3f();
+
+	public float radius = -1f;
+
+	private boolean boundsDirty = true;
+
+	/**
+	 * 返回缓存的局部包围球半径,首次调用时才进行计算
+	 */
+	public float getBoundingRadius() {
+		if (boundsDirty) {
+			updateBounds();
+		}
+		return radius;
+	}
+
+	public Vector3f getBoundingCenter() {
+		if (boundsDirty) {
+			updateBounds();
+		}
+		return center;
+	}
+
+	/**
+	 * 网格顶点数据改变后调用,令包围球在下次使用时重新计算
+	 */
+	public void invalidateBounds() {
+		boundsDirty = true;
+	}
+
+	public void updateBounds() {
+		boundsDirty = false;
+		radius = -1f;
+		if (mesh == null || numVertices < 1) {
+			return;
+		}
+		final BoundingBox bounds = tmpBounds;
+		if (mesh.getNumIndices() > 0) {
+			if (indexOffset < 0 || indexOffset + numVertices > mesh.getNumIndices()) {
+				return;
+			}
+			mesh.calculateBoundingBox(bounds, indexOffset, numVertices);
+		} else if (mesh.getNumVertices() > 0) {
+			mesh.calculateBoundingBox(bounds);
+		} else {
+			return;
+		}
+		bounds.getCenter(center);
+		radius = bounds.getDimensions().len() / 2f;
+	}
+
 }
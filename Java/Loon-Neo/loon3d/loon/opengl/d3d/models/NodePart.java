@@ -26,6 +26,12 @@ public class NodePart {
 		out.meshPartSize = meshPart.numVertices;
 		out.primitiveType = meshPart.primitiveType;
 		out.bones = bones;
+		if (bones == null) {
+			out.center.set(meshPart.getBoundingCenter());
+			out.radius = meshPart.getBoundingRadius();
+		} else {
+			out.radius = -1f;
+		}
 		return out;
 	}
 }
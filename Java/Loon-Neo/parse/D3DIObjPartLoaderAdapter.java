@@ -0,0 +1,29 @@
+/**
+ * 
+ * Copyright 2014
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.4.1
+ */
+package loon.opengl.parse;
+
+/**
+ * 支持分段的OBJ加载适配器,当模型顶点数超出16位索引上限时,加载器会将其拆分为多个子网格,并在每段开始前调用beginPart
+ */
+public interface D3DIObjPartLoaderAdapter extends D3DIObjLoaderAdapter {
+	void beginPart(int index);
+}
@@ -0,0 +1,242 @@
+/**
+ * 
+ * Copyright 2014
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.opengl.parse;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+
+import loon.LSysException;
+import loon.opengl.Mesh;
+import loon.opengl.VertexAttribute;
+
+/**
+ * D3DMesh的二进制缓存格式,首次由OBJ解析后写出,此后可直接读取(或由调用者内存映射后传入ByteBuffer)而无需再次解析文本.
+ * 
+ * <pre>
+ * 文件头(20字节,小端): magic("LOBJ"),version,floatsPerVertex,indexBytes,partCount
+ * 其后为partCount项子网格表(每项12字节): flags,vertexCount,indexCount
+ * 其后依次为各子网格数据: vertexCount*floatsPerVertex个float顶点,indexCount个indexBytes宽度的索引,再补齐到4字节
+ * </pre>
+ * 
+ * 索引固定为16位(与Mesh的GL_UNSIGNED_SHORT绘制一致),超出上限的模型以多个子网格保存.
+ */
+public class D3DMeshCache {
+
+	public final static int MAGIC = 0x4C4F424A;
+
+	public final static int VERSION = 2;
+
+	public final static int HEADER_SIZE = 20;
+
+	public final static int PART_SIZE = 12;
+
+	public final static int INDEX_BYTES = 2;
+
+	/**
+	 * 单个子网格可被16位索引访问的最大顶点数
+	 */
+	public final static int MAX_VERTICES = 0x10000;
+
+	public final static int FLAG_NORMALS = 1;
+
+	public final static int FLAG_TEXCOORDS = 2;
+
+	public static boolean isCache(byte[] data) {
+		return data != null && isCache(ByteBuffer.wrap(data));
+	}
+
+	public static boolean isCache(ByteBuffer buffer) {
+		if (buffer == null || buffer.remaining() < HEADER_SIZE) {
+			return false;
+		}
+		final ByteBuffer header = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		return header.getInt() == MAGIC && header.getInt() == VERSION;
+	}
+
+	private static int padded(int size) {
+		return (size + 3) & ~3;
+	}
+
+	/**
+	 * 将网格数据(可为多个子网格)编码为缓存格式
+	 * 
+	 * @param meshes
+	 * @return
+	 */
+	public static byte[] encode(D3DMesh... meshes) {
+		if (meshes == null || meshes.length == 0) {
+			throw new LSysException("No mesh to encode !");
+		}
+		int size = HEADER_SIZE + meshes.length * PART_SIZE;
+		for (int i = 0; i < meshes.length; i++) {
+			final D3DMesh mesh = meshes[i];
+			final int vertexCount = mesh.mVertices.capacity() / D3DMesh.nbFloatPerVertex;
+			if (vertexCount > MAX_VERTICES) {
+				throw new LSysException("Mesh has " + vertexCount + " vertices, 16-bit indices allow "
+						+ MAX_VERTICES + " !");
+			}
+			size += mesh.mVertices.capacity() * 4 + padded(mesh.mIndices.capacity() * INDEX_BYTES);
+		}
+		final ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.putInt(D3DMesh.nbFloatPerVertex);
+		out.putInt(INDEX_BYTES);
+		out.putInt(meshes.length);
+		for (int i = 0; i < meshes.length; i++) {
+			final D3DMesh mesh = meshes[i];
+			int flags = 0;
+			if (mesh.mHasNormals) {
+				flags |= FLAG_NORMALS;
+			}
+			if (mesh.mHasTexCoords) {
+				flags |= FLAG_TEXCOORDS;
+			}
+			out.putInt(flags);
+			out.putInt(mesh.mVertices.capacity() / D3DMesh.nbFloatPerVertex);
+			out.putInt(mesh.mIndices.capacity());
+		}
+		int offset = out.position();
+		for (int i = 0; i < meshes.length; i++) {
+			final FloatBuffer vertices = meshes[i].mVertices.duplicate();
+			final CharBuffer indices = meshes[i].mIndices.duplicate();
+			vertices.clear();
+			indices.clear();
+			out.position(offset);
+			out.asFloatBuffer().put(vertices);
+			offset += vertices.capacity() * 4;
+			out.position(offset);
+			out.asCharBuffer().put(indices);
+			offset += padded(indices.capacity() * INDEX_BYTES);
+		}
+		return out.array();
+	}
+
+	public static D3DMesh[] decode(byte[] data) {
+		return decode(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * 解码缓存数据,返回的子网格直接以视图方式引用传入的缓冲区(不复制),因此也可传入内存映射的缓冲区
+	 * 
+	 * @param buffer
+	 * @return
+	 */
+	public static D3DMesh[] decode(ByteBuffer buffer) {
+		if (!isCache(buffer)) {
+			throw new LSysException("Not a mesh cache or unsupported version !");
+		}
+		final ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		final int start = data.position();
+		final int limit = data.limit();
+		data.getInt();
+		data.getInt();
+		final int floatsPerVertex = data.getInt();
+		final int indexBytes = data.getInt();
+		final int partCount = data.getInt();
+		if (floatsPerVertex != D3DMesh.nbFloatPerVertex) {
+			throw new LSysException("Mesh cache vertex size mismatch: " + floatsPerVertex);
+		}
+		if (indexBytes != INDEX_BYTES) {
+			throw new LSysException("Mesh cache index size unsupported: " + indexBytes);
+		}
+		if (partCount < 1 || data.remaining() < partCount * PART_SIZE) {
+			throw new LSysException("Mesh cache is truncated !");
+		}
+		final D3DMesh[] meshes = new D3DMesh[partCount];
+		int offset = start + HEADER_SIZE + partCount * PART_SIZE;
+		for (int i = 0; i < partCount; i++) {
+			data.limit(limit);
+			data.position(start + HEADER_SIZE + i * PART_SIZE);
+			final int flags = data.getInt();
+			final int vertexCount = data.getInt();
+			final int indexCount = data.getInt();
+			if (vertexCount < 0 || vertexCount > MAX_VERTICES || indexCount < 0) {
+				throw new LSysException("Mesh cache part " + i + " is invalid !");
+			}
+			final int floatBytes = vertexCount * floatsPerVertex * 4;
+			final int indexSize = indexCount * INDEX_BYTES;
+			if (limit - offset < floatBytes + indexSize) {
+				throw new LSysException("Mesh cache is truncated !");
+			}
+			final D3DMesh mesh = new D3DMesh();
+			data.position(offset);
+			data.limit(offset + floatBytes);
+			mesh.mVertices = data.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+			data.limit(offset + floatBytes + indexSize);
+			data.position(offset + floatBytes);
+			mesh.mIndices = data.slice().order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+			mesh.mHasNormals = (flags & FLAG_NORMALS) != 0;
+			mesh.mHasTexCoords = (flags & FLAG_TEXCOORDS) != 0;
+			meshes[i] = mesh;
+			offset += floatBytes + padded(indexSize);
+		}
+		return meshes;
+	}
+
+	/**
+	 * 将网格上传为可渲染的Mesh(位置,法线,纹理坐标)
+	 * 
+	 * @param mesh
+	 * @param isStatic
+	 * @return
+	 */
+	public static Mesh toMesh(D3DMesh mesh, boolean isStatic) {
+		final FloatBuffer vertices = mesh.mVertices.duplicate();
+		final CharBuffer indices = mesh.mIndices.duplicate();
+		vertices.clear();
+		indices.clear();
+		final int vertexCount = vertices.capacity() / D3DMesh.nbFloatPerVertex;
+		if (vertexCount > MAX_VERTICES) {
+			throw new LSysException("Mesh has " + vertexCount + " vertices, 16-bit indices allow "
+					+ MAX_VERTICES + " !");
+		}
+		final float[] verts = new float[vertices.capacity()];
+		vertices.get(verts);
+		final short[] idx = new short[indices.capacity()];
+		for (int i = 0; i < idx.length; i++) {
+			idx[i] = (short) indices.get(i);
+		}
+		final Mesh result = new Mesh(isStatic, vertexCount, idx.length, VertexAttribute.Position(),
+				VertexAttribute.Normal(), VertexAttribute.TexCoords(0));
+		result.setVertices(verts);
+		result.setIndices(idx);
+		return result;
+	}
+
+	/**
+	 * 将全部子网格上传为可渲染的Mesh
+	 * 
+	 * @param meshes
+	 * @param isStatic
+	 * @return
+	 */
+	public static Mesh[] toMeshes(D3DMesh[] meshes, boolean isStatic) {
+		final Mesh[] result = new Mesh[meshes.length];
+		for (int i = 0; i < meshes.length; i++) {
+			result[i] = toMesh(meshes[i], isStatic);
+		}
+		return result;
+	}
+}
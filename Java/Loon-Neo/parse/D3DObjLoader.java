@@ -22,212 +22,468 @@
 package loon.opengl.parse;
 
 import loon.BaseIO;
+import loon.LSysException;
 import loon.utils.ArrayByte;
-import loon.utils.ArrayByteReader;
-import loon.utils.StringUtils;
-import loon.utils.TArray;
+import loon.utils.CharArray;
+import loon.utils.FloatArray;
+import loon.utils.IntArray;
 
+/**
+ * OBJ模型加载器,直接于byte[]上逐字节解析(不切分字符串,不为每个数值创建String),单次扫描即完成数据收集.
+ * 
+ * 相同的(位置,纹理坐标,法线)组合只生成一个顶点,若顶点数超出16位索引上限则拆分为多个子网格,需使用D3DIObjPartLoaderAdapter接收.
+ */
 public class D3DObjLoader {
 
+	/**
+	 * 单个子网格允许的最大顶点数(16位索引)
+	 */
+	public final static int MAX_PART_VERTICES = 0xFFFF;
+
+	private final static int DEDUP_CAPACITY = 1 << 17;
+
+	private final static double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
 	D3DIObjLoaderAdapter mObjLoaderAdapter = new D3DObjLoaderAdapter();
-	TArray<float[]> vertices = new TArray<float[]>();
-	TArray<float[]> normals = new TArray<float[]>();
-	TArray<float[]> texcoords = new TArray<float[]>();
-	char vertCounter = 0;
+	FloatArray vertices = new FloatArray();
+	FloatArray normals = new FloatArray();
+	FloatArray texcoords = new FloatArray();
+	// 展开后的顶点流(位置,法线,纹理坐标)与三角形索引(索引相对所在子网格)
+	FloatArray vertexData = new FloatArray();
+	CharArray faceData = new CharArray();
+	// 各子网格的起始顶点与起始索引
+	IntArray partVertexStarts = new IntArray();
+	IntArray partFaceStarts = new IntArray();
+	int vertCounter = 0;
+
+	private final IntArray faceRefs = new IntArray(24);
+	private final IntArray faceLocals = new IntArray(8);
+	// 当前子网格内(v,t,n)到顶点序号的映射,以分段编号作为标记,换段时无需清空
+	private int[] dedupKeys;
+	private int[] dedupValues;
+	private int[] dedupStamps;
+	private int dedupStamp;
+	private byte[] buffer;
+	private int pos;
+	private int end;
 
 	public D3DObjLoader(D3DIObjLoaderAdapter objloader) {
 		mObjLoaderAdapter = objloader;
 	}
 
-	private void addVertexData(String vertexDesc) {
-		String tokens[] = vertexDesc.split("/");
-		int vIndice = Integer.parseInt(tokens[0]) - 1;
-		int tIndice = Integer.parseInt(tokens[1]) - 1;
-		int nIndice = Integer.parseInt(tokens[2]) - 1;
-
-		float vert[] = vertices.get(vIndice);
-		mObjLoaderAdapter.addVertex(vert[0], vert[1], vert[2]);
-		float norm[] = normals.get(nIndice);
-		mObjLoaderAdapter.addNormal(norm[0], norm[1], norm[2]);
-		float text[] = texcoords.get(tIndice);
-		mObjLoaderAdapter.addTexCoords(text[0], 1.0f - text[1]);
+	private void addVertexData(int vIndice, int tIndice, int nIndice) {
+		final float[] v = vertices.items;
+		final int vi = vIndice * 3;
+		vertexData.add(v[vi]);
+		vertexData.add(v[vi + 1]);
+		vertexData.add(v[vi + 2]);
+		if (nIndice >= 0 && nIndice * 3 + 2 < normals.length) {
+			final float[] n = normals.items;
+			final int ni = nIndice * 3;
+			vertexData.add(n[ni]);
+			vertexData.add(n[ni + 1]);
+			vertexData.add(n[ni + 2]);
+		} else {
+			vertexData.add(0f);
+			vertexData.add(0f);
+			vertexData.add(0f);
+		}
+		if (tIndice >= 0 && tIndice * 2 + 1 < texcoords.length) {
+			final float[] t = texcoords.items;
+			final int ti = tIndice * 2;
+			vertexData.add(t[ti]);
+			vertexData.add(1.0f - t[ti + 1]);
+		} else {
+			vertexData.add(0f);
+			vertexData.add(0f);
+		}
 		vertCounter++;
 	}
 
-	private void addfaceData(int vertCount) {
-		if (vertCount == 4) {
-			mObjLoaderAdapter.addFace((char) (vertCounter - 2),
-					(char) (vertCounter - 3), (char) (vertCounter - 4));
-			mObjLoaderAdapter.addFace((char) (vertCounter - 1),
-					(char) (vertCounter - 2), (char) (vertCounter - 4));
-		} else if (vertCount == 3) {
-			mObjLoaderAdapter.addFace((char) (vertCounter - 1),
-					(char) (vertCounter - 2), (char) (vertCounter - 3));
+	private void beginPart() {
+		partVertexStarts.add(vertexData.length / D3DMesh.nbFloatPerVertex);
+		partFaceStarts.add(faceData.length);
+		vertCounter = 0;
+		if (dedupKeys == null) {
+			dedupKeys = new int[DEDUP_CAPACITY * 3];
+			dedupValues = new int[DEDUP_CAPACITY];
+			dedupStamps = new int[DEDUP_CAPACITY];
+		}
+		dedupStamp++;
+	}
+
+	/**
+	 * 返回(v,t,n)在当前子网格中的顶点序号,不存在时追加新顶点
+	 */
+	private int vertexIndex(int v, int t, int n) {
+		int h = v * 0x9E3779B1 + t * 0x85EBCA77 + n * 0xC2B2AE3D;
+		h ^= h >>> 15;
+		final int mask = DEDUP_CAPACITY - 1;
+		final int stamp = dedupStamp;
+		int slot = h & mask;
+		for (;;) {
+			if (dedupStamps[slot] != stamp) {
+				final int k = slot * 3;
+				dedupKeys[k] = v;
+				dedupKeys[k + 1] = t;
+				dedupKeys[k + 2] = n;
+				dedupStamps[slot] = stamp;
+				dedupValues[slot] = vertCounter;
+				addVertexData(v, t, n);
+				return vertCounter - 1;
+			}
+			final int k = slot * 3;
+			if (dedupKeys[k] == v && dedupKeys[k + 1] == t && dedupKeys[k + 2] == n) {
+				return dedupValues[slot];
+			}
+			slot = (slot + 1) & mask;
 		}
 	}
 
+	private void addfaceData(IntArray locals) {
+		final int vertCount = locals.length;
+		final int first = locals.get(0);
+		for (int i = 1; i < vertCount - 1; i++) {
+			addFace((char) locals.get(i + 1), (char) locals.get(i), (char) first);
+		}
+	}
+
+	private void addFace(char a, char b, char c) {
+		faceData.add(a);
+		faceData.add(b);
+		faceData.add(c);
+	}
+
 	public void forwardCountFromStream(ArrayByte is) {
 		int faceCounter = 0;
 		int vertexCounter = 0;
-		try {
-			ArrayByteReader reader = new ArrayByteReader(is);
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				String tokens[] = line.split(" ");
-				if (tokens.length > 0) {
-					if (tokens[0].equals("f")) {
-						if (tokens.length == 5) {
-							vertexCounter += 4;
-							faceCounter += 2;
-						} else if (tokens.length == 4) {
-							vertexCounter += 3;
-							faceCounter += 1;
-						}
+		final byte[] data = is.getData();
+		final int length = is.length();
+		int i = 0;
+		while (i < length) {
+			while (i < length && (data[i] == ' ' || data[i] == '\t')) {
+				i++;
+			}
+			if (i + 1 < length && data[i] == 'f' && (data[i + 1] == ' ' || data[i + 1] == '\t')) {
+				int count = 0;
+				i++;
+				for (;;) {
+					while (i < length && (data[i] == ' ' || data[i] == '\t')) {
+						i++;
+					}
+					if (i >= length || data[i] == '\n' || data[i] == '\r') {
+						break;
 					}
+					count++;
+					while (i < length && data[i] > ' ') {
+						i++;
+					}
+				}
+				if (count >= 3) {
+					vertexCounter += count;
+					faceCounter += count - 2;
 				}
 			}
-			reader.close();
-		} catch (Exception e) {
-			e.printStackTrace();
+			while (i < length && data[i] != '\n') {
+				i++;
+			}
+			i++;
 		}
-
 		mObjLoaderAdapter.setVertexNumber(vertexCounter);
 		mObjLoaderAdapter.setFaceNumber(faceCounter);
 	}
 
 	public void loadFromFile(ArrayByte is) {
-		forwardCountFromStream(is);
-		is.setPosition(0);
-		try {
-			ArrayByteReader reader = new ArrayByteReader(is);
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				String tokens[] = StringUtils.split(line, " ");
-				if (tokens.length > 0) {
-					if ((tokens[0].length() > 0) && tokens[0].charAt(0) == 'v') {
-						float v[] = new float[3];
-						v[0] = Float.parseFloat(tokens[1]);
-						v[1] = Float.parseFloat(tokens[2]);
-						v[2] = Float.parseFloat(tokens[3]);
-						vertices.add(v);
-					}
-
-					if (tokens[0].equals("vn")) {
-						float v[] = new float[3];
-						v[0] = Float.parseFloat(tokens[1]);
-						v[1] = Float.parseFloat(tokens[2]);
-						v[2] = Float.parseFloat(tokens[3]);
-						normals.add(v);
-					}
+		loadFromBytes(is.getData(), 0, is.length());
+	}
 
-					if (tokens[0].equals("vt")) {
-						float v[] = new float[2];
-						v[0] = Float.parseFloat(tokens[1]);
-						v[1] = Float.parseFloat(tokens[2]);
-						texcoords.add(v);
-					}
+	public void loadFromFile(String file) {
+		final byte[] bytes = BaseIO.loadBytes(file);
+		if (bytes != null) {
+			loadFromBytes(bytes, 0, bytes.length);
+		}
+	}
 
-					if (tokens[0].equals("f")) {
-						if (tokens.length == 5) {
-							addVertexData(tokens[1]);
-							addVertexData(tokens[2]);
-							addVertexData(tokens[3]);
-							addVertexData(tokens[4]);
-							addfaceData(4);
-						} else if (tokens.length == 4) {
-							addVertexData(tokens[1]);
-							addVertexData(tokens[2]);
-							addVertexData(tokens[3]);
-							addfaceData(3);
-						}
+	/**
+	 * 单次扫描解析OBJ数据,而后一次性写入适配器
+	 * 
+	 * @param data
+	 * @param offset
+	 * @param length
+	 */
+	public void loadFromBytes(byte[] data, int offset, int length) {
+		this.buffer = data;
+		this.pos = offset;
+		this.end = offset + length;
+		vertices.clear();
+		normals.clear();
+		texcoords.clear();
+		vertexData.clear();
+		faceData.clear();
+		partVertexStarts.clear();
+		partFaceStarts.clear();
+		beginPart();
+		try {
+			while (pos < end) {
+				skipSpaces();
+				if (pos >= end) {
+					break;
+				}
+				final byte c = buffer[pos];
+				if (c == 'v' && pos + 1 < end) {
+					final byte n = buffer[pos + 1];
+					if (n == ' ' || n == '\t') {
+						pos++;
+						vertices.add(parseFloat());
+						vertices.add(parseFloat());
+						vertices.add(parseFloat());
+					} else if (n == 'n') {
+						pos += 2;
+						normals.add(parseFloat());
+						normals.add(parseFloat());
+						normals.add(parseFloat());
+					} else if (n == 't') {
+						pos += 2;
+						texcoords.add(parseFloat());
+						texcoords.add(parseFloat());
 					}
+				} else if (c == 'f' && pos + 1 < end && (buffer[pos + 1] == ' ' || buffer[pos + 1] == '\t')) {
+					pos++;
+					parseFace();
 				}
+				skipLine();
 			}
-			reader.close();
-
+		} catch (LSysException e) {
+			throw e;
 		} catch (Exception e) {
 			e.printStackTrace();
+		} finally {
+			this.buffer = null;
+		}
+		final int parts = partVertexStarts.length;
+		final boolean partAdapter = mObjLoaderAdapter instanceof D3DIObjPartLoaderAdapter;
+		if (parts > 1 && !partAdapter) {
+			throw new LSysException("OBJ model needs " + parts + " meshes of at most " + MAX_PART_VERTICES
+					+ " vertices, use a D3DIObjPartLoaderAdapter !");
+		}
+		final int totalVertices = vertexData.length / D3DMesh.nbFloatPerVertex;
+		final float[] v = vertexData.items;
+		final char[] f = faceData.items;
+		for (int p = 0; p < parts; p++) {
+			final int vertexStart = partVertexStarts.get(p);
+			final int vertexEnd = p + 1 < parts ? partVertexStarts.get(p + 1) : totalVertices;
+			final int faceStart = partFaceStarts.get(p);
+			final int faceEnd = p + 1 < parts ? partFaceStarts.get(p + 1) : faceData.length;
+			if (partAdapter) {
+				((D3DIObjPartLoaderAdapter) mObjLoaderAdapter).beginPart(p);
+			}
+			mObjLoaderAdapter.setVertexNumber(vertexEnd - vertexStart);
+			mObjLoaderAdapter.setFaceNumber((faceEnd - faceStart) / 3);
+			for (int i = vertexStart, idx = vertexStart * D3DMesh.nbFloatPerVertex; i < vertexEnd; i++) {
+				mObjLoaderAdapter.addVertex(v[idx], v[idx + 1], v[idx + 2]);
+				mObjLoaderAdapter.addNormal(v[idx + 3], v[idx + 4], v[idx + 5]);
+				mObjLoaderAdapter.addTexCoords(v[idx + 6], v[idx + 7]);
+				idx += D3DMesh.nbFloatPerVertex;
+			}
+			for (int i = faceStart; i < faceEnd; i += 3) {
+				mObjLoaderAdapter.addFace(f[i], f[i + 1], f[i + 2]);
+			}
 		}
 	}
 
-	private void forwardCount(String file) {
+	/**
+	 * 加载后的子网格数量
+	 * 
+	 * @return
+	 */
+	public int getPartCount() {
+		return partVertexStarts.length;
+	}
 
-		int faceCounter = 0;
-		int vertexCounter = 0;
-		try {
-			String[] lines = StringUtils.split(BaseIO.loadText(file), '\n');
-			for (String line : lines) {
-				String tokens[] = line.split(" ");
-				if (tokens.length > 0) {
-					if (tokens[0].equals("f")) {
-						if (tokens.length == 5) {
-							vertexCounter += 4;
-							faceCounter += 2;
-						} else if (tokens.length == 4) {
-							vertexCounter += 3;
-							faceCounter += 1;
-						}
-					}
+	private void parseFace() {
+		final IntArray refs = faceRefs;
+		refs.clear();
+		final int vertexSize = vertices.length / 3;
+		final int texSize = texcoords.length / 2;
+		final int normalSize = normals.length / 3;
+		for (;;) {
+			skipSpaces();
+			if (pos >= end || buffer[pos] == '\n' || buffer[pos] == '\r' || buffer[pos] == '#') {
+				break;
+			}
+			int v = parseIndex(vertexSize);
+			int t = -1;
+			int n = -1;
+			if (pos < end && buffer[pos] == '/') {
+				pos++;
+				if (pos < end && buffer[pos] != '/') {
+					t = parseIndex(texSize);
+				}
+				if (pos < end && buffer[pos] == '/') {
+					pos++;
+					n = parseIndex(normalSize);
 				}
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
+			while (pos < end && buffer[pos] > ' ') {
+				pos++;
+			}
+			refs.add(v);
+			refs.add(t);
+			refs.add(n);
 		}
-
-		mObjLoaderAdapter.setVertexNumber(vertexCounter);
-		mObjLoaderAdapter.setFaceNumber(faceCounter);
-
+		final int count = refs.length / 3;
+		if (count < 3) {
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			final int v = refs.get(i * 3);
+			if (v < 0 || v >= vertexSize) {
+				return;
+			}
+		}
+		if (count > MAX_PART_VERTICES) {
+			throw new LSysException("OBJ face has too many vertices: " + count);
+		}
+		// 最坏情况下整个面都是新顶点,放不下时开启新的子网格
+		if (vertCounter + count > MAX_PART_VERTICES) {
+			beginPart();
+		}
+		final IntArray locals = faceLocals;
+		locals.clear();
+		for (int i = 0; i < count; i++) {
+			locals.add(vertexIndex(refs.get(i * 3), refs.get(i * 3 + 1), refs.get(i * 3 + 2)));
+		}
+		addfaceData(locals);
 	}
 
-	public void loadFromFile(String file) {
-		forwardCount(file);
-		try {
-			String[] lines = StringUtils.split(BaseIO.loadText(file), '\n');
-			for (String line : lines) {
-				String tokens[] = StringUtils.split(line, " ");
-				if (tokens.length > 0) {
-					if (tokens[0].charAt(0) == 'v') {
-						float v[] = new float[3];
-						v[0] = Float.parseFloat(tokens[1]);
-						v[1] = Float.parseFloat(tokens[2]);
-						v[2] = Float.parseFloat(tokens[3]);
-						vertices.add(v);
-					}
-
-					if (tokens[0].equals("vn")) {
-						float v[] = new float[3];
-						v[0] = Float.parseFloat(tokens[1]);
-						v[1] = Float.parseFloat(tokens[2]);
-						v[2] = Float.parseFloat(tokens[3]);
-						vertices.add(v);
-					}
-
-					if (tokens[0].equals("vt")) {
-						float v[] = new float[3];
-						v[0] = Float.parseFloat(tokens[1]);
-						v[1] = Float.parseFloat(tokens[2]);
-						texcoords.add(v);
-					}
+	/**
+	 * 解析OBJ索引(从1开始,负数表示自末尾倒数),返回从0开始的索引
+	 */
+	private int parseIndex(int size) {
+		boolean negative = false;
+		if (pos < end && buffer[pos] == '-') {
+			negative = true;
+			pos++;
+		}
+		int value = 0;
+		boolean digits = false;
+		while (pos < end) {
+			final int d = buffer[pos] - '0';
+			if (d < 0 || d > 9) {
+				break;
+			}
+			value = value * 10 + d;
+			digits = true;
+			pos++;
+		}
+		if (!digits) {
+			return -1;
+		}
+		return negative ? size - value : value - 1;
+	}
 
-					if (tokens[0].equals("f")) {
-						if (tokens.length == 5) {
-							addVertexData(tokens[1]);
-							addVertexData(tokens[2]);
-							addVertexData(tokens[3]);
-							addVertexData(tokens[4]);
-							addfaceData(4);
-						} else if (tokens.length == 4) {
-							addVertexData(tokens[1]);
-							addVertexData(tokens[2]);
-							addVertexData(tokens[3]);
-							addfaceData(3);
-						}
+	private float parseFloat() {
+		skipSpaces();
+		final int start = pos;
+		boolean negative = false;
+		if (pos < end) {
+			if (buffer[pos] == '-') {
+				negative = true;
+				pos++;
+			} else if (buffer[pos] == '+') {
+				pos++;
+			}
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean any = false;
+		while (pos < end) {
+			final int d = buffer[pos] - '0';
+			if (d < 0 || d > 9) {
+				break;
+			}
+			if (digits < 18) {
+				mantissa = mantissa * 10 + d;
+				if (mantissa != 0) {
+					digits++;
+				}
+			} else {
+				exponent++;
+			}
+			any = true;
+			pos++;
+		}
+		if (pos < end && buffer[pos] == '.') {
+			pos++;
+			while (pos < end) {
+				final int d = buffer[pos] - '0';
+				if (d < 0 || d > 9) {
+					break;
+				}
+				if (digits < 18) {
+					mantissa = mantissa * 10 + d;
+					if (mantissa != 0) {
+						digits++;
 					}
+					exponent--;
+				}
+				any = true;
+				pos++;
+			}
+		}
+		if (pos < end && (buffer[pos] == 'e' || buffer[pos] == 'E')) {
+			pos++;
+			boolean expNegative = false;
+			if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+')) {
+				expNegative = buffer[pos] == '-';
+				pos++;
+			}
+			int exp = 0;
+			while (pos < end) {
+				final int d = buffer[pos] - '0';
+				if (d < 0 || d > 9) {
+					break;
+				}
+				if (exp < 10000) {
+					exp = exp * 10 + d;
 				}
+				pos++;
 			}
+			exponent += expNegative ? -exp : exp;
+		}
+		if (!any) {
+			// 非常规写法(如nan,inf)交由标准解析处理
+			while (pos < end && buffer[pos] > ' ') {
+				pos++;
+			}
+			if (pos == start) {
+				return 0f;
+			}
+			return Float.parseFloat(new String(buffer, start, pos - start));
+		}
+		double value = mantissa;
+		if (exponent != 0) {
+			if (exponent > 0) {
+				value = exponent < POW10.length ? value * POW10[exponent] : value * Math.pow(10, exponent);
+			} else {
+				value = -exponent < POW10.length ? value / POW10[-exponent] : value / Math.pow(10, -exponent);
+			}
+		}
+		return (float) (negative ? -value : value);
+	}
 
-		} catch (Exception e) {
-			e.printStackTrace();
+	private void skipSpaces() {
+		while (pos < end && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+			pos++;
+		}
+	}
+
+	private void skipLine() {
+		while (pos < end && buffer[pos] != '\n') {
+			pos++;
 		}
+		pos++;
 	}
 }
@@ -24,12 +24,26 @@ package loon.opengl.parse;
 import java.nio.CharBuffer;
 import java.nio.FloatBuffer;
 
-public class D3DObjLoaderAdapter implements D3DIObjLoaderAdapter {
+import loon.LSysException;
+import loon.utils.TArray;
+
+public class D3DObjLoaderAdapter implements D3DIObjPartLoaderAdapter {
+
+	final TArray<D3DMesh> meshes = new TArray<D3DMesh>();
 
 	D3DMesh mesh = new D3DMesh();
 	
 	float scale = 0.01f;
 
+	@Override
+	public void beginPart(int index) {
+		if (index == 0) {
+			meshes.clear();
+		}
+		mesh = new D3DMesh();
+		meshes.add(mesh);
+	}
+
 	@Override
 	public void setVertexNumber(int n) {
 		mesh.mVertices = FloatBuffer.allocate(n * D3DMesh.nbFloatPerVertex);
@@ -68,8 +82,25 @@ public class D3DObjLoaderAdapter implements D3DIObjLoaderAdapter {
 	}
 
 	public D3DMesh getMesh() {
+		if (meshes.size > 1) {
+			throw new LSysException("The model was split into " + meshes.size + " meshes, use getMeshes() !");
+		}
 		mesh.mVertices.position(0);
 		mesh.mIndices.position(0);
 		return mesh;
 	}
+
+	/**
+	 * 获得加载后的全部子网格(顶点数超过16位索引上限的模型会被拆分为多段)
+	 * 
+	 * @return
+	 */
+	public TArray<D3DMesh> getMeshes() {
+		for (int i = 0; i < meshes.size; i++) {
+			final D3DMesh m = meshes.get(i);
+			m.mVertices.position(0);
+			m.mIndices.position(0);
+		}
+		return meshes;
+	}
 }
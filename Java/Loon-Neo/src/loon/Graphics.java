@@ -28,6 +28,7 @@ import loon.geom.Affine2f;
 import loon.geom.Dimension;
 import loon.geom.Matrix4;
 import loon.opengl.GL20;
+import loon.opengl.GLStateFilter;
 import loon.opengl.RenderTarget;
 import loon.utils.Array;
 import loon.utils.GLUtils;
@@ -181,7 +182,9 @@ public abstract class Graphics {
 
 	protected Graphics(LGame game, GL20 gl, Scale scale) {
 		this.game = game;
-		this.gl = gl;
+		this.gl = (game != null && game.setting != null && game.setting.filterGLState && gl != null)
+				? new GLStateFilter(gl)
+				: gl;
 		this.scale = scale;
 	}
 
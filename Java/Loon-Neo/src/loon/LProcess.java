@@ -30,6 +30,7 @@ import loon.event.MouseMake;
 import loon.event.SysInputFactory;
 import loon.event.TouchMake;
 import loon.event.Updateable;
+import loon.font.GlyphAdvances;
 import loon.geom.Vector2f;
 import loon.opengl.GLEx;
 import loon.opengl.LSTRDictionary;
@@ -421,6 +422,7 @@ public class LProcess {
 					}
 					RealtimeProcessManager.get().dispose();
 					LSTRDictionary.get().dispose();
+					GlyphAdvances.clearAll();
 					LSystem.disposeTextureAll();
 					LSystem.stopRepaint();
 					if (_game != null) {
@@ -195,6 +195,11 @@ public class LSetting {
 	 */
 	public boolean lockAllTouchEvent = false;
 
+	/**
+	 * 过滤不改变GL状态的重复调用(绑定程序,纹理,混合,裁剪,视口,uniform数值等),为false时直接使用平台GL
+	 */
+	public boolean filterGLState = true;
+
 	/**
 	 * 当前游戏类型，默认为"未知"
 	 */
@@ -236,6 +241,7 @@ public class LSetting {
 		this.emulatorScale = setting.emulatorScale;
 		this.notAllowDragAndMove = setting.notAllowDragAndMove;
 		this.lockAllTouchEvent = setting.lockAllTouchEvent;
+		this.filterGLState = setting.filterGLState;
 		this.args = setting.args;
 	}
 
@@ -29,6 +29,7 @@ import loon.opengl.GL20;
 import loon.opengl.MeshDefault;
 import loon.opengl.ShaderProgram;
 import loon.opengl.ShaderSource;
+import loon.opengl.ShaderUniform;
 import loon.opengl.TrilateralBatch;
 import loon.utils.GLUtils;
 import loon.utils.MathUtils;
@@ -72,8 +73,18 @@ public class LTextureBatch implements LRelease {
 			count = batch.count;
 			vertexIdx = batch.vertexIdx;
 			float[] verts = batch.expandVertices.getVertices();
-			vertices = new float[verts.length];
-			System.arraycopy(verts, 0, vertices, 0, verts.length);
+			// 只保存已使用的顶点(提交时也只使用这部分)
+			vertices = new float[vertexIdx];
+			System.arraycopy(verts, 0, vertices, 0, vertexIdx);
+		}
+
+		/**
+		 * 缓存的顶点数据所占字节数
+		 * 
+		 * @return
+		 */
+		public int getByteSize() {
+			return vertices == null ? 0 : vertices.length * 4;
 		}
 
 		public boolean isClosed() {
@@ -104,6 +115,8 @@ public class LTextureBatch implements LRelease {
 	private ShaderProgram shader = null;
 	private ShaderProgram customShader = null;
 	private ShaderProgram globalShader = null;
+	private ShaderProgram uniformShader = null;
+	private ShaderUniform projTransUniform, textureUniform;
 
 	private final float whiteColor = LColor.white.toFloatBits();
 	protected float color = whiteColor;
@@ -229,6 +242,30 @@ public class LTextureBatch implements LRelease {
 		expandVertices.setVertice(vertexIdx++, y);
 	}
 
+	/**
+	 * 直接追加一组预先生成的顶点数据(每顶点依次为x,y,color,u,v),color与数据中已有颜色不同时一并替换
+	 *
+	 * @param vertices
+	 * @param offset
+	 * @param length
+	 * @param color
+	 */
+	public void glVertices(float[] vertices, int offset, int length, float color) {
+		if (length <= 0) {
+			return;
+		}
+		expandVertices.expand(vertexIdx, (length + 19) / 20);
+		final float[] dst = expandVertices.getVertices();
+		System.arraycopy(vertices, offset, dst, vertexIdx, length);
+		final int end = vertexIdx + length;
+		if (NumberUtils.floatToIntBits(vertices[offset + 2]) != NumberUtils.floatToIntBits(color)) {
+			for (int i = vertexIdx + 2; i < end; i += 5) {
+				dst[i] = color;
+			}
+		}
+		vertexIdx = end;
+	}
+
 	public BlendState getBlendState() {
 		return lastBlendState;
 	}
@@ -428,16 +465,24 @@ public class LTextureBatch implements LRelease {
 			combinedMatrix.set(view);
 		}
 		if (customShader != null) {
-			customShader.setUniformMatrix("u_projTrans", combinedMatrix);
-			customShader.setUniformi("u_texture", 0);
+			setupUniforms(customShader, combinedMatrix);
 			source.setupShader(customShader);
 		} else {
-			shader.setUniformMatrix("u_projTrans", combinedMatrix);
-			shader.setUniformi("u_texture", 0);
+			setupUniforms(shader, combinedMatrix);
 			source.setupShader(shader);
 		}
 	}
 
+	private void setupUniforms(ShaderProgram program, Matrix4 matrix) {
+		if (uniformShader != program) {
+			uniformShader = program;
+			projTransUniform = program.getUniformHandle("u_projTrans");
+			textureUniform = program.getUniformHandle("u_texture");
+		}
+		projTransUniform.setMatrix(matrix);
+		textureUniform.seti(0);
+	}
+
 	protected void switchTexture(LTexture texture) {
 		submit();
 		lastTexture = texture;
@@ -504,8 +549,7 @@ public class LTextureBatch implements LRelease {
 			combinedMatrix.set(view);
 		}
 		if (globalShader != null) {
-			globalShader.setUniformMatrix("u_projTrans", combinedMatrix);
-			globalShader.setUniformi("u_texture", 0);
+			setupUniforms(globalShader, combinedMatrix);
 		}
 		if (cache.vertexIdx > 0) {
 			GL20 gl = LSystem.base().graphics().gl;
@@ -61,6 +61,7 @@ import loon.component.skin.SkinManager;
 import loon.event.ActionKey;
 import loon.event.ClickListener;
 import loon.event.FrameLoopEvent;
+import loon.event.FrameLoopEvents;
 import loon.event.GameKey;
 import loon.event.GameTouch;
 import loon.event.LTouchArea;
@@ -70,6 +71,8 @@ import loon.event.SysInput;
 import loon.event.SysTouch;
 import loon.event.Touched;
 import loon.event.TouchedClick;
+import loon.event.UpdatePhase;
+import loon.event.UpdatePhases;
 import loon.event.Updateable;
 import loon.event.LTouchArea.Event;
 import loon.font.Font.Style;
@@ -3069,11 +3072,13 @@ public abstract class Screen extends PlayerUtils implements SysInput, LRelease,
 
 	private boolean initLoopEvents = false;
 
-	private TArray<FrameLoopEvent> loopEvents;
+	private FrameLoopEvents loopEvents;
+
+	private UpdatePhases updatePhases;
 
 	private void allocateLoopEvents() {
 		if (loopEvents == null) {
-			loopEvents = new TArray<FrameLoopEvent>();
+			loopEvents = new FrameLoopEvents();
 		}
 	}
 
@@ -3109,7 +3114,6 @@ public abstract class Screen extends PlayerUtils implements SysInput, LRelease,
 	public void removeFrameLoop(FrameLoopEvent event) {
 		allocateLoopEvents();
 		loopEvents.remove(event);
-		initLoopEvents = (loopEvents.size <= 0);
 	}
 
 	public void clearFrameLoop() {
@@ -3118,7 +3122,47 @@ public abstract class Screen extends PlayerUtils implements SysInput, LRelease,
 			return;
 		}
 		loopEvents.clear();
-		initLoopEvents = false;
+	}
+
+	/**
+	 * 返回Screen中的帧循环列表,增删在下一帧开始时生效
+	 * 
+	 * @return
+	 */
+	public FrameLoopEvents getFrameLoops() {
+		allocateLoopEvents();
+		return loopEvents;
+	}
+
+	/**
+	 * 注入一个独立的更新阶段,它将于精灵与组件更新之后执行,各阶段间可能并行(由平台的Executor决定),全部完成后才开始渲染
+	 * 
+	 * @param phase
+	 */
+	public Screen addUpdatePhase(UpdatePhase phase) {
+		getUpdatePhases().add(phase);
+		return this;
+	}
+
+	public Screen removeUpdatePhase(UpdatePhase phase) {
+		if (updatePhases != null) {
+			updatePhases.remove(phase);
+		}
+		return this;
+	}
+
+	public Screen clearUpdatePhases() {
+		if (updatePhases != null) {
+			updatePhases.clear();
+		}
+		return this;
+	}
+
+	public UpdatePhases getUpdatePhases() {
+		if (updatePhases == null) {
+			updatePhases = new UpdatePhases();
+		}
+		return updatePhases;
 	}
 
 	private final void process(final LTimerContext timer) {
@@ -3159,34 +3203,21 @@ public abstract class Screen extends PlayerUtils implements SysInput, LRelease,
 				if (lastPaintFlag) {
 					lastOrder.update(timer);
 				}
+				if (updatePhases != null) {
+					try {
+						updatePhases.update(elapsedTime);
+					} catch (Throwable cause) {
+						LSystem.error("UpdatePhase execution failure", cause);
+					}
+				}
 			}
 		}
 		// 处理直接加入screen中的循环
-		if (initLoopEvents) {
-			if (loopEvents != null && loopEvents.size > 0) {
-				final TArray<FrameLoopEvent> toUpdated;
-				synchronized (this.loopEvents) {
-					toUpdated = new TArray<FrameLoopEvent>(this.loopEvents);
-				}
-				final TArray<FrameLoopEvent> deadEvents = new TArray<FrameLoopEvent>();
-				try {
-					for (FrameLoopEvent eve : toUpdated) {
-						eve.call(elapsedTime, this);
-						if (eve.isDead()) {
-							deadEvents.add(eve);
-						}
-					}
-					if (deadEvents.size > 0) {
-						for (FrameLoopEvent dead : deadEvents) {
-							dead.completed();
-						}
-						synchronized (this.loopEvents) {
-							this.loopEvents.removeAll(deadEvents);
-						}
-					}
-				} catch (Throwable cause) {
-					LSystem.error("FrameLoopEvent dispatch failure", cause);
-				}
+		if (initLoopEvents && loopEvents != null) {
+			try {
+				loopEvents.update(elapsedTime, this);
+			} catch (Throwable cause) {
+				LSystem.error("FrameLoopEvent dispatch failure", cause);
 			}
 		}
 		this.touchDX = SysTouch.getX() - lastTouchX;
@@ -5113,6 +5144,8 @@ public abstract class Screen extends PlayerUtils implements SysInput, LRelease,
 				}
 				clearTouched();
 				clearFrameLoop();
+				loopEvents = null;
+				updatePhases = null;
 				if (_screenAction != null) {
 					removeAllActions(_screenAction);
 				}
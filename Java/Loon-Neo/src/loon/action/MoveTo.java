@@ -29,7 +29,6 @@ import loon.action.map.Field2D;
 import loon.geom.Vector2f;
 import loon.utils.IntMap;
 import loon.utils.TArray;
-import loon.utils.CollectionUtils;
 import loon.utils.MathUtils;
 import loon.utils.StringKeyValue;
 
@@ -245,7 +244,7 @@ public class MoveTo extends ActionEvent {
 		hashCode = LSystem.unite(hashCode, layerMap.getHeight());
 		hashCode = LSystem.unite(hashCode, layerMap.getTileWidth());
 		hashCode = LSystem.unite(hashCode, layerMap.getTileHeight());
-		hashCode = LSystem.unite(hashCode, CollectionUtils.hashCode(layerMap.getMap()));
+		hashCode = LSystem.unite(hashCode, layerMap.getMapHashCode());
 		return hashCode;
 	}
 
@@ -113,6 +113,9 @@ public class Command extends Conversion implements LRelease {
 	// 脚本数据列表
 	private String[] scriptList;
 
+	// 预编译的脚本数据(行标记,拆分后的参数,跳转表)
+	private CommandScript compiled;
+
 	// 脚本名
 	private String scriptName;
 
@@ -175,7 +178,7 @@ public class Command extends Conversion implements LRelease {
 	}
 
 	public Command formatCommand(String fileName) {
-		return formatCommand(fileName, Command.includeFile(fileName));
+		return formatCommand(fileName, CommandScript.getFile(fileName));
 	}
 
 	public Command formatCommand(CommandLink cmd) {
@@ -188,6 +191,21 @@ public class Command extends Conversion implements LRelease {
 		if (res == null || res.length == 0) {
 			return this;
 		}
+		return formatCommand(name, CommandScript.compile(name, res));
+	}
+
+	/**
+	 * 载入已编译的脚本
+	 * 
+	 * @param name
+	 * @param script
+	 * @return
+	 */
+	public Command formatCommand(String name, CommandScript script) {
+		if (script == null || script.size() == 0) {
+			return this;
+		}
+		String[] res = script.lines;
 		if (!"function".equalsIgnoreCase(name)) {
 			if (functions != null) {
 				functions.clear();
@@ -205,6 +223,7 @@ public class Command extends Conversion implements LRelease {
 			readBuffer.delete(0, readBuffer.length());
 		}
 		this.scriptName = name;
+		this.compiled = script;
 		this.scriptList = res;
 		this.scriptSize = res.length;
 		this.offsetPos = 0;
@@ -540,7 +559,13 @@ public class Command extends Conversion implements LRelease {
 	 * @return
 	 */
 	public boolean gotoIndex(final String gotoFlag) {
-		int idx = -1;
+		int idx = compiled == null ? -1 : compiled.indexOfLabel(gotoFlag);
+		// 变量值与标记相同时,变量名所在行也可作为跳转目标,此时仍需逐行查找
+		if (idx != -1 && !setEnvironmentList.containsValue(gotoFlag)) {
+			offsetPos = idx;
+			return false;
+		}
+		idx = -1;
 		for (int i = 0; i < scriptSize; i++) {
 			String line = scriptList[i];
 			Object varName = setEnvironmentList.get(line);
@@ -596,9 +621,18 @@ public class Command extends Conversion implements LRelease {
 		return resString.toString();
 	}
 
-	private void setupSET(String cmd) {
-		if (cmd.startsWith(SET_TAG)) {
-			TArray<String> temps = commandSplit(cmd);
+	private TArray<String> splitCommand(String cmd) {
+		String[] args = compiled == null ? null : compiled.args[offsetPos];
+		return args == null ? commandSplit(cmd) : new TArray<String>(args);
+	}
+
+	private boolean is(int flags, int flag) {
+		return (flags & flag) != 0;
+	}
+
+	private void setupSET(String cmd, int flags) {
+		if (is(flags, CommandScript.SET)) {
+			TArray<String> temps = splitCommand(cmd);
 			int len = temps.size;
 			String result = null;
 			if (len == 4) {
@@ -734,9 +768,10 @@ public class Command extends Conversion implements LRelease {
 
 			// 获得全行命令
 			String cmd = scriptList[offsetPos];
+			final int flags = compiled.flags[offsetPos];
 
 			// 清空脚本缓存
-			if (cmd.startsWith(RESET_CACHE_TAG)) {
+			if (is(flags, CommandScript.RESET)) {
 				resetCache();
 				return executeCommand;
 			}
@@ -753,35 +788,37 @@ public class Command extends Conversion implements LRelease {
 
 			// 注释中
 			if (flaging) {
-				flaging = !(cmd.startsWith(FLAG_LS_E_TAG) || cmd.endsWith(FLAG_LS_E_TAG));
+				flaging = !(is(flags, CommandScript.COMMENT_END_START) || is(flags, CommandScript.COMMENT_END));
 				return executeCommand;
 			}
 
 			if (!flaging) {
 				// 全局注释
-				if (cmd.startsWith(FLAG_LS_B_TAG) && !cmd.endsWith(FLAG_LS_E_TAG)) {
+				if (is(flags, CommandScript.COMMENT_BEGIN) && !is(flags, CommandScript.COMMENT_END)) {
 					flaging = true;
 					return executeCommand;
-				} else if (cmd.startsWith(FLAG_LS_B_TAG) && cmd.endsWith(FLAG_LS_E_TAG)) {
+				} else if (is(flags, CommandScript.COMMENT_BEGIN) && is(flags, CommandScript.COMMENT_END)) {
 					return executeCommand;
 				}
 			}
 
 			// 执行随机数标记
-			setupRandom(cmd);
+			if (is(flags, CommandScript.RAND)) {
+				setupRandom(cmd);
+			}
 
 			// 执行获取变量标记
-			setupSET(cmd);
+			setupSET(cmd, flags);
 
 			// 结束脚本中代码段标记
-			if (cmd.endsWith(END_TAG)) {
+			if (is(flags, CommandScript.END)) {
 				functioning = false;
 				return executeCommand;
 			}
 
 			// 标注脚本中代码段标记
-			if (cmd.startsWith(BEGIN_TAG)) {
-				temps = commandSplit(cmd);
+			if (is(flags, CommandScript.BEGIN)) {
+				temps = splitCommand(cmd);
 				if (temps.size == 2) {
 					functioning = true;
 					functions.put(temps.get(1), new String[0]);
@@ -801,8 +838,8 @@ public class Command extends Conversion implements LRelease {
 			}
 
 			// 执行代码段调用标记
-			if (((!esleflag && !ifing) || (esleflag && ifing)) && cmd.startsWith(CALL_TAG) && !isCall) {
-				temps = commandSplit(cmd);
+			if (((!esleflag && !ifing) || (esleflag && ifing)) && is(flags, CommandScript.CALL) && !isCall) {
+				temps = splitCommand(cmd);
 				if (temps.size == 2) {
 					String functionName = temps.get(1);
 					String[] funs = (String[]) functions.get(functionName);
@@ -818,8 +855,8 @@ public class Command extends Conversion implements LRelease {
 
 			if (!if_bool && !elseif_bool) {
 				// 获得循序结构条件
-				if_bool = cmd.startsWith(IF_TAG);
-				elseif_bool = cmd.startsWith(ELSE_TAG);
+				if_bool = is(flags, CommandScript.IF);
+				elseif_bool = is(flags, CommandScript.ELSE);
 
 			}
 
@@ -854,7 +891,7 @@ public class Command extends Conversion implements LRelease {
 			}
 
 			// 分支结束
-			if (cmd.startsWith(IF_END_TAG)) {
+			if (is(flags, CommandScript.IF_END)) {
 				conditionEnvironmentList.clear();
 				backIfBool = false;
 				addCommand = false;
@@ -866,18 +903,18 @@ public class Command extends Conversion implements LRelease {
 			}
 			if (backIfBool) {
 				// 加载内部脚本
-				if (cmd.startsWith(INCLUDE_TAG)) {
+				if (is(flags, CommandScript.INCLUDE)) {
 					if (includeCommand(cmd)) {
 						return null;
 					}
 				}
-			} else if (cmd.startsWith(INCLUDE_TAG) && !ifing && !backIfBool && !esleflag) {
+			} else if (is(flags, CommandScript.INCLUDE) && !ifing && !backIfBool && !esleflag) {
 				if (includeCommand(cmd)) {
 					return null;
 				}
 			}
 			// 选择项列表结束
-			if (cmd.startsWith(OUT_TAG)) {
+			if (is(flags, CommandScript.OUT)) {
 				isRead = false;
 				addCommand = false;
 				executeCommand = (SELECTS_TAG + " " + readBuffer.toString());
@@ -889,7 +926,7 @@ public class Command extends Conversion implements LRelease {
 				addCommand = false;
 			}
 			// 选择项列表
-			if (cmd.startsWith(IN_TAG)) {
+			if (is(flags, CommandScript.IN)) {
 				readBuffer.delete(0, readBuffer.length());
 				isRead = true;
 				return executeCommand;
@@ -905,15 +942,15 @@ public class Command extends Conversion implements LRelease {
 				executeCommand = cmd;
 			}
 
-			if (cmd.startsWith(FLAG_SAVE_TAG)) {
-				temps = commandSplit(cmd);
+			if (is(flags, CommandScript.SAVE)) {
+				temps = splitCommand(cmd);
 				if (temps != null && temps.size == 2) {
 					executeCommand = cmd;
 					saveCommand(null, null);
 					return executeCommand;
 				}
-			} else if (cmd.startsWith(FLAG_LOAD_TAG)) {
-				temps = commandSplit(cmd);
+			} else if (is(flags, CommandScript.LOAD)) {
+				temps = splitCommand(cmd);
 				if (temps != null && temps.size == 2) {
 					executeCommand = cmd;
 					loadCommand(null, -1);
@@ -947,8 +984,8 @@ public class Command extends Conversion implements LRelease {
 				}
 			}
 			// 跳转到指定脚本位置
-			if (cmd.startsWith(GOTO_TAG)) {
-				temps = commandSplit(cmd);
+			if (is(flags, CommandScript.GOTO)) {
+				temps = splitCommand(cmd);
 				if (temps != null && temps.size == 2) {
 					String gotoFlag = temps.get(1);
 					// 如果是数字，跳转到指定行数
@@ -1100,7 +1137,7 @@ public class Command extends Conversion implements LRelease {
 	 * @return
 	 */
 	private final boolean includeCommand(String cmd) {
-		temps = commandSplit(cmd);
+		temps = splitCommand(cmd);
 		StringBuilder sbr = new StringBuilder();
 		for (int i = 1; i < temps.size; i++) {
 			sbr.append(temps.get(i));
@@ -1206,6 +1243,7 @@ public class Command extends Conversion implements LRelease {
 			scriptLazy.clear();
 			scriptLazy = null;
 		}
+		CommandScript.clearFiles();
 
 	}
 
@@ -0,0 +1,368 @@
+/**
+ * Copyright 2008 - 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.avg.drama;
+
+import loon.BaseIO;
+import loon.LSysException;
+import loon.utils.ArrayByte;
+import loon.utils.MathUtils;
+import loon.utils.ObjectMap;
+import loon.utils.StringUtils;
+import loon.utils.TArray;
+
+/**
+ * Command脚本的预编译形式,脚本文本仍是编写源,此处一次性完成:
+ *
+ * 1.逐行标记命令类型(以位标记代替每次执行时的字符串匹配)
+ *
+ * 2.预先拆分带参数命令行的参数
+ *
+ * 3.建立goto标记到行号的跳转表
+ *
+ * 编译结果可通过encode/decode以二进制形式保存与读取(扩展名.lcmd),Command在读取此扩展名的文件时会直接载入.
+ */
+public final class CommandScript implements Expression {
+
+	public final static String EXT = ".lcmd";
+
+	private final static int MAGIC = ('L' << 24) | ('C' << 16) | ('M' << 8) | 'D';
+
+	private final static int VERSION = 1;
+
+	// 行标记
+	public final static int RESET = 1;
+	public final static int COMMENT_BEGIN = 1 << 1;
+	public final static int COMMENT_END = 1 << 2;
+	public final static int COMMENT_END_START = 1 << 3;
+	public final static int RAND = 1 << 4;
+	public final static int SET = 1 << 5;
+	public final static int END = 1 << 6;
+	public final static int BEGIN = 1 << 7;
+	public final static int CALL = 1 << 8;
+	public final static int IF = 1 << 9;
+	public final static int ELSE = 1 << 10;
+	public final static int IF_END = 1 << 11;
+	public final static int INCLUDE = 1 << 12;
+	public final static int OUT = 1 << 13;
+	public final static int IN = 1 << 14;
+	public final static int SAVE = 1 << 15;
+	public final static int LOAD = 1 << 16;
+	public final static int GOTO = 1 << 17;
+
+	// 需要预先拆分参数的命令
+	private final static int SPLIT_MASK = SET | BEGIN | CALL | INCLUDE | SAVE | LOAD | GOTO;
+
+	private final static ObjectMap<String, CommandScript> _files = new ObjectMap<String, CommandScript>();
+
+	/**
+	 * 编译(或从缓存中取得)指定脚本文件,扩展名为.lcmd时按预编译数据读取
+	 *
+	 * @param fileName
+	 * @return
+	 */
+	public static CommandScript getFile(String fileName) {
+		String key = fileName.trim().toLowerCase();
+		synchronized (_files) {
+			CommandScript script = _files.get(key);
+			if (script != null) {
+				return script;
+			}
+		}
+		CommandScript script;
+		if (key.endsWith(EXT)) {
+			script = decode(BaseIO.loadBytes(fileName));
+		} else {
+			script = compile(fileName, Command.includeFile(fileName));
+		}
+		synchronized (_files) {
+			_files.put(key, script);
+		}
+		return script;
+	}
+
+	public static void clearFiles() {
+		synchronized (_files) {
+			_files.clear();
+		}
+	}
+
+	/**
+	 * 编译脚本文本
+	 *
+	 * @param name
+	 * @param context
+	 * @return
+	 */
+	public static CommandScript compile(String name, String context) {
+		return compile(name, Command.includeString(name, context));
+	}
+
+	/**
+	 * 编译已过滤的脚本行
+	 *
+	 * @param name
+	 * @param lines
+	 * @return
+	 */
+	public static CommandScript compile(String name, String[] lines) {
+		final int size = lines.length;
+		final int[] flags = new int[size];
+		final String[][] args = new String[size][];
+		ObjectMap<String, Integer> labels = new ObjectMap<String, Integer>();
+		for (int i = 0; i < size; i++) {
+			String cmd = lines[i];
+			int flag = flagOf(cmd);
+			flags[i] = flag;
+			if ((flag & SPLIT_MASK) != 0) {
+				args[i] = Command.updateOperator(cmd).split(FLAG);
+				if ((flag & GOTO) != 0 && args[i].length == 2 && !MathUtils.isNan(args[i][1])) {
+					labels.put(args[i][1], -1);
+				}
+			}
+		}
+		if (labels.size > 0) {
+			int count = labels.size;
+			for (int i = 0; i < size && count > 0; i++) {
+				Integer idx = labels.get(lines[i]);
+				if (idx != null && idx.intValue() == -1) {
+					labels.put(lines[i], i);
+					count--;
+				}
+			}
+		}
+		return new CommandScript(name, lines, flags, args, labels);
+	}
+
+	private static int flagOf(String cmd) {
+		int flag = 0;
+		if (cmd.startsWith(RESET_CACHE_TAG)) {
+			flag |= RESET;
+		}
+		if (cmd.startsWith(FLAG_LS_B_TAG)) {
+			flag |= COMMENT_BEGIN;
+		}
+		if (cmd.endsWith(FLAG_LS_E_TAG)) {
+			flag |= COMMENT_END;
+		}
+		if (cmd.startsWith(FLAG_LS_E_TAG)) {
+			flag |= COMMENT_END_START;
+		}
+		if (cmd.indexOf(RAND_TAG) != -1) {
+			flag |= RAND;
+		}
+		if (cmd.startsWith(SET_TAG)) {
+			flag |= SET;
+		}
+		if (cmd.endsWith(END_TAG)) {
+			flag |= END;
+		}
+		if (cmd.startsWith(BEGIN_TAG)) {
+			flag |= BEGIN;
+		}
+		if (cmd.startsWith(CALL_TAG)) {
+			flag |= CALL;
+		}
+		if (cmd.startsWith(IF_TAG)) {
+			flag |= IF;
+		}
+		if (cmd.startsWith(ELSE_TAG)) {
+			flag |= ELSE;
+		}
+		if (cmd.startsWith(IF_END_TAG)) {
+			flag |= IF_END;
+		}
+		if (cmd.startsWith(INCLUDE_TAG)) {
+			flag |= INCLUDE;
+		}
+		if (cmd.startsWith(OUT_TAG)) {
+			flag |= OUT;
+		}
+		if (cmd.startsWith(IN_TAG)) {
+			flag |= IN;
+		}
+		if (cmd.startsWith(FLAG_SAVE_TAG)) {
+			flag |= SAVE;
+		}
+		if (cmd.startsWith(FLAG_LOAD_TAG)) {
+			flag |= LOAD;
+		}
+		if (cmd.startsWith(GOTO_TAG)) {
+			flag |= GOTO;
+		}
+		return flag;
+	}
+
+	private final String name;
+
+	final String[] lines;
+
+	final int[] flags;
+
+	final String[][] args;
+
+	private final ObjectMap<String, Integer> labels;
+
+	private CommandScript(String name, String[] lines, int[] flags, String[][] args,
+			ObjectMap<String, Integer> labels) {
+		this.name = name;
+		this.lines = lines;
+		this.flags = flags;
+		this.args = args;
+		this.labels = labels;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int size() {
+		return lines.length;
+	}
+
+	public String getLine(int idx) {
+		return lines[idx];
+	}
+
+	public int getFlags(int idx) {
+		return flags[idx];
+	}
+
+	/**
+	 * 返回预先拆分的命令参数,不需要拆分的行返回null
+	 *
+	 * @param idx
+	 * @return
+	 */
+	public String[] getArgs(int idx) {
+		return args[idx];
+	}
+
+	/**
+	 * 返回goto标记所在行,不存在时返回-1
+	 *
+	 * @param label
+	 * @return
+	 */
+	public int indexOfLabel(String label) {
+		if (label == null) {
+			return -1;
+		}
+		Integer idx = labels.get(label);
+		return idx == null ? -1 : idx.intValue();
+	}
+
+	/**
+	 * 转为二进制数据
+	 *
+	 * @return
+	 */
+	public byte[] encode() {
+		ArrayByte out = new ArrayByte(lines.length * 32 + 64);
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(name == null ? "" : name);
+			out.writeInt(lines.length);
+			for (int i = 0; i < lines.length; i++) {
+				out.writeUTF(lines[i]);
+				out.writeInt(flags[i]);
+				String[] arg = args[i];
+				if (arg == null) {
+					out.writeShort(-1);
+				} else {
+					out.writeShort(arg.length);
+					for (int j = 0; j < arg.length; j++) {
+						out.writeUTF(arg[j]);
+					}
+				}
+			}
+			TArray<String> keys = new TArray<String>();
+			for (String key : labels.keys()) {
+				if (labels.get(key).intValue() != -1) {
+					keys.add(key);
+				}
+			}
+			out.writeInt(keys.size);
+			for (int i = 0; i < keys.size; i++) {
+				String key = keys.get(i);
+				out.writeUTF(key);
+				out.writeInt(labels.get(key).intValue());
+			}
+		} catch (Exception ex) {
+			throw new LSysException("CommandScript encode error !", ex);
+		}
+		return out.getBytes();
+	}
+
+	public static boolean isCompiled(byte[] bytes) {
+		return bytes != null && bytes.length >= 8 && ((bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16
+				| (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff)) == MAGIC;
+	}
+
+	/**
+	 * 从二进制数据中还原
+	 *
+	 * @param bytes
+	 * @return
+	 */
+	public static CommandScript decode(byte[] bytes) {
+		if (!isCompiled(bytes)) {
+			throw new LSysException("It is not a compiled command script !");
+		}
+		ArrayByte in = new ArrayByte(bytes);
+		try {
+			in.readInt();
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new LSysException("Unsupported command script version: " + version);
+			}
+			String name = in.readUTF();
+			int size = in.readInt();
+			String[] lines = new String[size];
+			int[] flags = new int[size];
+			String[][] args = new String[size][];
+			for (int i = 0; i < size; i++) {
+				lines[i] = in.readUTF();
+				flags[i] = in.readInt();
+				int count = in.readShort();
+				if (count >= 0) {
+					String[] arg = new String[count];
+					for (int j = 0; j < count; j++) {
+						arg[j] = in.readUTF();
+					}
+					args[i] = arg;
+				}
+			}
+			ObjectMap<String, Integer> labels = new ObjectMap<String, Integer>();
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				labels.put(key, in.readInt());
+			}
+			return new CommandScript(StringUtils.isEmpty(name) ? null : name, lines, flags, args, labels);
+		} catch (LSysException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw new LSysException("CommandScript decode error !", ex);
+		}
+	}
+
+}
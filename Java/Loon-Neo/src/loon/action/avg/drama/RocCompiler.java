@@ -0,0 +1,862 @@
+/**
+ * Copyright 2008 - 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.avg.drama;
+
+import loon.LSystem;
+import loon.action.avg.drama.RocScript.ScriptException;
+import loon.utils.IntArray;
+import loon.utils.MathUtils;
+import loon.utils.ObjectMap;
+import loon.utils.StringUtils;
+import loon.utils.TArray;
+
+/**
+ * RocScript编译器,把(已过滤的)脚本文本一次性解析为RocProgram指令序列.
+ *
+ * 数值常量在编译期解析并折叠,变量名解析为槽位,if/for/while/function解析为跳转地址,
+ * 相同内容的脚本只会被编译一次(以脚本内容为键缓存).
+ */
+public final class RocCompiler {
+
+	private final static ObjectMap<String, RocProgram> _cache = new ObjectMap<String, RocProgram>();
+
+	/**
+	 * 编译脚本,若同样内容的脚本已编译过则直接返回缓存
+	 *
+	 * @param owner
+	 * @param context
+	 * @return
+	 * @throws ScriptException
+	 */
+	public static RocProgram compile(RocScript owner, String context) throws ScriptException {
+		synchronized (_cache) {
+			RocProgram program = _cache.get(context);
+			if (program != null) {
+				return program;
+			}
+		}
+		RocProgram program = new RocCompiler(owner, context).compile();
+		synchronized (_cache) {
+			_cache.put(context, program);
+		}
+		return program;
+	}
+
+	public static void clearCache() {
+		synchronized (_cache) {
+			_cache.clear();
+		}
+	}
+
+	public static int getCacheSize() {
+		synchronized (_cache) {
+			return _cache.size;
+		}
+	}
+
+	private final static String DELIMS = " \r\n\t,<>+-/*%^=();#";
+
+	private final static int T_EOP = 0;
+	private final static int T_EOL = 1;
+	private final static int T_NUM = 2;
+	private final static int T_STR = 3;
+	private final static int T_BOOL = 4;
+	private final static int T_WORD = 5;
+	private final static int T_OP = 6;
+	private final static int T_MACRO = 7;
+
+	private final RocScript owner;
+
+	private final String context;
+
+	// 词法单元
+	private final IntArray kinds = new IntArray(256);
+	private final IntArray lines = new IntArray(256);
+	private final TArray<String> texts = new TArray<String>(256);
+	private double[] values = new double[256];
+	private int pos;
+
+	// 输出
+	private IntArray code = new IntArray(512);
+
+	private double[] numbers = new double[32];
+	private int numberCount;
+
+	private final TArray<String> strings = new TArray<String>();
+	private final ObjectMap<String, Integer> stringIndex = new ObjectMap<String, Integer>();
+
+	private final TArray<String> names = new TArray<String>();
+	private final ObjectMap<String, Integer> nameIndex = new ObjectMap<String, Integer>();
+
+	private final ObjectMap<String, Integer> funcIndex = new ObjectMap<String, Integer>();
+	private final IntArray funcEntry = new IntArray();
+	private final TArray<int[]> funcParams = new TArray<int[]>();
+	private final IntArray funcName = new IntArray();
+
+	private final TArray<String[]> sysArgs = new TArray<String[]>();
+	private final TArray<int[]> sysSlots = new TArray<int[]>();
+
+	private RocCompiler(RocScript owner, String context) {
+		this.owner = owner;
+		this.context = context;
+	}
+
+	private RocProgram compile() throws ScriptException {
+		tokenize();
+		declareFunctions();
+		pos = 0;
+		parseStatements();
+		if (kind() != T_EOP) {
+			throw error(RocScript.SYNTAX);
+		}
+		int[][] params = new int[funcParams.size][];
+		for (int i = 0; i < params.length; i++) {
+			params[i] = funcParams.get(i);
+		}
+		String[][] args = new String[sysArgs.size][];
+		int[][] slots = new int[sysSlots.size][];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = sysArgs.get(i);
+			slots[i] = sysSlots.get(i);
+		}
+		double[] nums = new double[numberCount];
+		System.arraycopy(numbers, 0, nums, 0, numberCount);
+		return new RocProgram(code.toArray(), nums, strings.toArray(new String[strings.size]),
+				names.toArray(new String[names.size]), funcEntry.toArray(), params, funcName.toArray(), args, slots);
+	}
+
+	private ScriptException error(int error) {
+		int idx = pos < kinds.length ? pos : kinds.length - 1;
+		return owner.error(error, idx < 0 ? 0 : lines.get(idx), idx < 0 ? LSystem.EMPTY : texts.get(idx));
+	}
+
+	static double toNumber(String str) {
+		try {
+			return Double.parseDouble(str);
+		} catch (NumberFormatException ex) {
+			String s = str;
+			boolean negative = s.startsWith("-");
+			if (negative) {
+				s = s.substring(1);
+			}
+			if (s.startsWith("0x")) {
+				double v = Long.parseLong(s.substring(2), 16);
+				return negative ? -v : v;
+			}
+			throw ex;
+		}
+	}
+
+	private void addToken(int kind, String text, double value, int line) {
+		if (kinds.length == values.length) {
+			double[] tmp = new double[values.length * 2];
+			System.arraycopy(values, 0, tmp, 0, values.length);
+			values = tmp;
+		}
+		values[kinds.length] = value;
+		kinds.add(kind);
+		lines.add(line);
+		texts.add(text);
+	}
+
+	private void tokenize() throws ScriptException {
+		final char[] chars = context.toCharArray();
+		final int len = chars.length;
+		int idx = 0;
+		int line = 1;
+		while (idx < len) {
+			char ch = chars[idx];
+			if (ch == ' ' || ch == '\t' || ch == '\n') {
+				idx++;
+				continue;
+			}
+			if (ch == '\r') {
+				addToken(T_EOL, LSystem.EMPTY, 0, line++);
+				idx++;
+				continue;
+			}
+			if (ch == '#' || (ch == '/' && idx + 1 < len && chars[idx + 1] == '/')) {
+				while (idx < len && chars[idx] != '\r') {
+					idx++;
+				}
+				continue;
+			}
+			if (ch == '<' || ch == '>' || ch == '=') {
+				if (idx + 1 < len && chars[idx + 1] == '=') {
+					addToken(T_OP, ch + "=", 0, line);
+					idx += 2;
+				} else {
+					addToken(T_OP, String.valueOf(ch), 0, line);
+					idx++;
+				}
+				continue;
+			}
+			if (",+-/*%^();".indexOf(ch) != -1) {
+				addToken(T_OP, String.valueOf(ch), 0, line);
+				idx++;
+				continue;
+			}
+			if (ch == '"') {
+				int start = ++idx;
+				while (idx < len && chars[idx] != '"' && chars[idx] != '\r') {
+					idx++;
+				}
+				if (idx >= len || chars[idx] == '\r') {
+					throw owner.error(RocScript.MISSQUOTE, line, new String(chars, start, idx - start));
+				}
+				addToken(T_STR, new String(chars, start, idx - start), 0, line);
+				idx++;
+				continue;
+			}
+			int start = idx;
+			while (idx < len && DELIMS.indexOf(chars[idx]) == -1) {
+				idx++;
+			}
+			String word = new String(chars, start, idx - start);
+			if ("{".equals(word)) {
+				// 宏指令,原样保留到'}'为止交给Command执行
+				int begin = idx;
+				int macroLine = line;
+				while (idx < len && chars[idx] != '}') {
+					if (chars[idx] == '\r') {
+						line++;
+					}
+					idx++;
+				}
+				addToken(T_MACRO, new String(chars, begin, idx - begin), 0, macroLine);
+				if (idx < len) {
+					idx++;
+				}
+			} else if ("}".equals(word)) {
+				continue;
+			} else if (MathUtils.isNan(word)) {
+				double v;
+				try {
+					v = toNumber(word);
+				} catch (NumberFormatException ex) {
+					throw owner.error(RocScript.NOTANUMB, line, word);
+				}
+				addToken(T_NUM, word, v, line);
+			} else if (word.charAt(0) == '\'') {
+				// 单引号字符串与解释模式相同,按普通单词切分后去掉首尾引号(见RocScript.getVarVal)
+				addToken(T_STR, word.length() > 2 ? word.substring(1, word.length() - 1) : word, 0, line);
+			} else if (StringUtils.isBoolean(word)) {
+				addToken(T_BOOL, word, StringUtils.toBoolean(word) ? 1 : 0, line);
+			} else {
+				addToken(T_WORD, word, 0, line);
+			}
+		}
+		addToken(T_EOL, LSystem.EMPTY, 0, line);
+		addToken(T_EOP, LSystem.EMPTY, 0, line);
+	}
+
+	private void declareFunctions() throws ScriptException {
+		for (int i = 0; i + 1 < kinds.length; i++) {
+			if (kinds.get(i) == T_WORD && "function".equals(texts.get(i)) && kinds.get(i + 1) == T_WORD) {
+				String name = texts.get(i + 1);
+				if (funcIndex.containsKey(name)) {
+					pos = i + 1;
+					throw error(RocScript.DUPFUNCTION);
+				}
+				funcIndex.put(name, funcEntry.length);
+				funcEntry.add(-1);
+				funcParams.add(null);
+				funcName.add(stringOf(name));
+			}
+		}
+	}
+
+	private int kind() {
+		return kinds.get(pos);
+	}
+
+	private String text() {
+		return texts.get(pos);
+	}
+
+	private boolean isWord(String word) {
+		return kinds.get(pos) == T_WORD && word.equals(texts.get(pos));
+	}
+
+	private boolean isOp(String op) {
+		return kinds.get(pos) == T_OP && op.equals(texts.get(pos));
+	}
+
+	private boolean isLineEnd() {
+		int k = kinds.get(pos);
+		return k == T_EOL || k == T_EOP;
+	}
+
+	private void expectWord(String word, int error) throws ScriptException {
+		if (!isWord(word)) {
+			throw error(error);
+		}
+		pos++;
+	}
+
+	private void expectOp(String op, int error) throws ScriptException {
+		if (!isOp(op)) {
+			throw error(error);
+		}
+		pos++;
+	}
+
+	private void expectLineEnd() throws ScriptException {
+		if (!isLineEnd()) {
+			throw error(RocScript.UNEXPITEM);
+		}
+	}
+
+	private int slotOf(String name) {
+		Integer idx = nameIndex.get(name);
+		if (idx == null) {
+			idx = names.size;
+			names.add(name);
+			nameIndex.put(name, idx);
+		}
+		return idx.intValue();
+	}
+
+	private int stringOf(String str) {
+		Integer idx = stringIndex.get(str);
+		if (idx == null) {
+			idx = strings.size;
+			strings.add(str);
+			stringIndex.put(str, idx);
+		}
+		return idx.intValue();
+	}
+
+	private int numberOf(double v) {
+		for (int i = 0; i < numberCount; i++) {
+			if (numbers[i] == v) {
+				return i;
+			}
+		}
+		if (numberCount == numbers.length) {
+			double[] tmp = new double[numbers.length * 2];
+			System.arraycopy(numbers, 0, tmp, 0, numberCount);
+			numbers = tmp;
+		}
+		numbers[numberCount] = v;
+		return numberCount++;
+	}
+
+	private void emit(int op) {
+		code.add(op);
+	}
+
+	private void emit(int op, int arg) {
+		code.add(op);
+		code.add(arg);
+	}
+
+	private int emitJump(int op) {
+		code.add(op);
+		code.add(-1);
+		return code.length - 1;
+	}
+
+	private void patch(int at) {
+		code.set(at, code.length);
+	}
+
+	private boolean isBlockEnd() {
+		return isWord("end") || isWord("else");
+	}
+
+	private void parseStatements() throws ScriptException {
+		for (;;) {
+			int k = kind();
+			if (k == T_EOP) {
+				return;
+			}
+			if (k == T_EOL) {
+				pos++;
+				continue;
+			}
+			if (isBlockEnd()) {
+				return;
+			}
+			statement();
+			expectLineEnd();
+		}
+	}
+
+	private void statement() throws ScriptException {
+		emit(RocProgram.LINE, lines.get(pos));
+		int k = kind();
+		if (k == T_MACRO) {
+			emit(RocProgram.MACRO, stringOf(text()));
+			pos++;
+			return;
+		}
+		if (k != T_WORD) {
+			throw error(RocScript.UNEXPITEM);
+		}
+		String word = text();
+		if ("print".equals(word)) {
+			pos++;
+			print(RocProgram.PRINT);
+		} else if ("println".equals(word)) {
+			pos++;
+			print(RocProgram.PRINTLN);
+		} else if ("input".equals(word)) {
+			while (!isLineEnd()) {
+				pos++;
+			}
+		} else if ("if".equals(word)) {
+			pos++;
+			ifStatement();
+		} else if ("for".equals(word)) {
+			pos++;
+			forStatement();
+		} else if ("while".equals(word)) {
+			pos++;
+			whileStatement();
+		} else if ("function".equals(word)) {
+			pos++;
+			function();
+		} else if ("return".equals(word)) {
+			pos++;
+			if (isLineEnd()) {
+				emit(RocProgram.STR, stringOf(LSystem.UNKOWN));
+			} else {
+				expression();
+			}
+			emit(RocProgram.RET);
+		} else if ("wait".equals(word)) {
+			pos++;
+			String arg = LSystem.EMPTY;
+			if (kind() == T_NUM || kind() == T_WORD) {
+				arg = text();
+				pos++;
+			}
+			emit(RocProgram.WAIT, stringOf(arg));
+		} else if ("then".equals(word) || "begin".equals(word)) {
+			throw error(RocScript.SYNTAX);
+		} else {
+			pos++;
+			if (isOp("=")) {
+				pos++;
+				expression();
+				emit(RocProgram.STORE, slotOf(word));
+			} else if (isOp("(")) {
+				pos--;
+				call();
+				emit(RocProgram.POP);
+			} else {
+				throw error(RocScript.EQUALEXPECTED);
+			}
+		}
+	}
+
+	private void print(int op) throws ScriptException {
+		while (!isLineEnd()) {
+			expression();
+			emit(op);
+			if (isOp(",")) {
+				emit(RocProgram.SEP, stringOf(" "));
+				pos++;
+			} else if (isOp(";")) {
+				emit(RocProgram.SEP, stringOf("\t"));
+				pos++;
+			} else if (!isLineEnd()) {
+				throw error(RocScript.SYNTAX);
+			}
+		}
+	}
+
+	private void ifStatement() throws ScriptException {
+		IntArray ends = new IntArray();
+		emit(RocProgram.ENTER);
+		expression();
+		expectWord("then", RocScript.THENEXPECTED);
+		expectLineEnd();
+		int jf = emitJump(RocProgram.JF);
+		parseStatements();
+		boolean last = false;
+		for (; isWord("else");) {
+			if (last) {
+				throw error(RocScript.SYNTAX);
+			}
+			pos++;
+			ends.add(emitJump(RocProgram.JMP));
+			patch(jf);
+			jf = -1;
+			if (isWord("if")) {
+				pos++;
+				expression();
+				expectWord("then", RocScript.THENEXPECTED);
+				jf = emitJump(RocProgram.JF);
+			} else {
+				last = true;
+			}
+			expectLineEnd();
+			parseStatements();
+		}
+		expectWord("end", RocScript.ENDEXPECTED);
+		if (jf != -1) {
+			patch(jf);
+		}
+		for (int i = 0; i < ends.length; i++) {
+			patch(ends.get(i));
+		}
+		emit(RocProgram.EXIT);
+	}
+
+	private void forStatement() throws ScriptException {
+		if (kind() != T_WORD) {
+			throw error(RocScript.UNKOWN);
+		}
+		int slot = slotOf(text());
+		pos++;
+		expectOp("=", RocScript.EQUALEXPECTED);
+		expression();
+		emit(RocProgram.STORE, slot);
+		expectOp(",", RocScript.SYNTAX);
+		emit(RocProgram.ENTER);
+		int top = code.length;
+		expression();
+		int jf = emitJump(RocProgram.JF);
+		expectOp(",", RocScript.SYNTAX);
+		// 迭代表达式置于循环体之后
+		IntArray body = code;
+		code = new IntArray();
+		expression();
+		emit(RocProgram.STORE, slot);
+		IntArray step = code;
+		code = body;
+		expectWord("begin", RocScript.DOEXPECTED);
+		expectLineEnd();
+		parseStatements();
+		expectWord("end", RocScript.ENDEXPECTED);
+		code.addAll(step);
+		emit(RocProgram.JMP, top);
+		patch(jf);
+		emit(RocProgram.EXIT);
+	}
+
+	private void whileStatement() throws ScriptException {
+		emit(RocProgram.ENTER);
+		int top = code.length;
+		expression();
+		int jf = emitJump(RocProgram.JF);
+		expectWord("begin", RocScript.DOEXPECTED);
+		expectLineEnd();
+		parseStatements();
+		expectWord("end", RocScript.ENDEXPECTED);
+		emit(RocProgram.JMP, top);
+		patch(jf);
+		emit(RocProgram.EXIT);
+	}
+
+	private void function() throws ScriptException {
+		if (kind() != T_WORD) {
+			throw error(RocScript.UNKOWN);
+		}
+		int idx = funcIndex.get(text()).intValue();
+		pos++;
+		expectOp("(", RocScript.SYNTAX);
+		IntArray params = new IntArray();
+		if (!isOp(")")) {
+			for (;;) {
+				if (kind() != T_WORD) {
+					throw error(RocScript.UNKOWN);
+				}
+				params.add(slotOf(text()));
+				pos++;
+				if (isOp(",")) {
+					pos++;
+				} else {
+					break;
+				}
+			}
+		}
+		expectOp(")", RocScript.SYNTAX);
+		expectWord("begin", RocScript.SYNTAX);
+		expectLineEnd();
+		emit(RocProgram.DEFUN, idx);
+		int skip = emitJump(RocProgram.JMP);
+		funcEntry.set(idx, code.length);
+		funcParams.set(idx, params.toArray());
+		parseStatements();
+		expectWord("end", RocScript.ENDEXPECTED);
+		emit(RocProgram.STR, stringOf(LSystem.UNKOWN));
+		emit(RocProgram.RET);
+		patch(skip);
+	}
+
+	private void call() throws ScriptException {
+		String name = text();
+		pos++;
+		expectOp("(", RocScript.UNBALPARENS);
+		Integer idx = funcIndex.get(name);
+		if (idx != null) {
+			int argc = 0;
+			if (!isOp(")")) {
+				expression();
+				argc++;
+				while (isOp(",")) {
+					pos++;
+					expression();
+					argc++;
+				}
+			}
+			expectOp(")", RocScript.UNBALPARENS);
+			emit(RocProgram.CALL, idx.intValue());
+			code.add(argc);
+			return;
+		}
+		// 系统函数,参数按原始文本传递给RocFunctions
+		TArray<String> args = new TArray<String>();
+		IntArray slots = new IntArray();
+		StringBuilder sbr = new StringBuilder();
+		int depth = 0;
+		int count = 0;
+		int single = -1;
+		for (;;) {
+			if (isLineEnd()) {
+				throw error(RocScript.UNBALPARENS);
+			}
+			if (depth == 0 && (isOp(",") || isOp(")"))) {
+				if (sbr.length() > 0 || isOp(",")) {
+					args.add(sbr.toString());
+					slots.add(count == 1 && single != -1 ? single : -1);
+				}
+				sbr.setLength(0);
+				count = 0;
+				single = -1;
+				if (isOp(")")) {
+					pos++;
+					break;
+				}
+				pos++;
+				continue;
+			}
+			if (isOp("(")) {
+				depth++;
+			} else if (isOp(")")) {
+				depth--;
+			}
+			if (kind() == T_WORD) {
+				single = slotOf(text());
+			}
+			sbr.append(text());
+			count++;
+			pos++;
+		}
+		emit(RocProgram.SYSCALL, stringOf(name));
+		code.add(sysArgs.size);
+		sysArgs.add(args.toArray(new String[args.size]));
+		sysSlots.add(slots.toArray());
+	}
+
+	private void expression() throws ScriptException {
+		if (isLineEnd()) {
+			throw error(RocScript.EXPERR);
+		}
+		parseBool();
+	}
+
+	private void parseBool() throws ScriptException {
+		parseRel();
+		if (kind() == T_WORD) {
+			String word = text();
+			int op = 0;
+			if ("and".equals(word)) {
+				op = RocProgram.AND;
+			} else if ("or".equals(word)) {
+				op = RocProgram.OR;
+			} else if ("xor".equals(word)) {
+				op = RocProgram.XOR;
+			} else if ("xand".equals(word)) {
+				op = RocProgram.XAND;
+			}
+			if (op != 0) {
+				pos++;
+				parseBool();
+				emit(op);
+			}
+		}
+	}
+
+	private void parseRel() throws ScriptException {
+		parseAdd();
+		for (; kind() == T_OP;) {
+			String str = text();
+			int op;
+			if ("<".equals(str)) {
+				op = RocProgram.LT;
+			} else if ("<=".equals(str)) {
+				op = RocProgram.LE;
+			} else if (">".equals(str)) {
+				op = RocProgram.GT;
+			} else if (">=".equals(str)) {
+				op = RocProgram.GE;
+			} else if ("==".equals(str)) {
+				op = RocProgram.EQ;
+			} else {
+				return;
+			}
+			pos++;
+			parseAdd();
+			emit(op);
+		}
+	}
+
+	private void parseAdd() throws ScriptException {
+		int start = code.length;
+		parseMul();
+		for (; isOp("+") || isOp("-");) {
+			int op = isOp("+") ? RocProgram.ADD : RocProgram.SUB;
+			pos++;
+			int right = code.length;
+			parseMul();
+			fold(op, start, right);
+		}
+	}
+
+	private void parseMul() throws ScriptException {
+		int start = code.length;
+		parsePow();
+		for (; isOp("*") || isOp("/") || isOp("%");) {
+			int op = isOp("*") ? RocProgram.MUL : isOp("/") ? RocProgram.DIV : RocProgram.MOD;
+			pos++;
+			int right = code.length;
+			parsePow();
+			fold(op, start, right);
+		}
+	}
+
+	private void parsePow() throws ScriptException {
+		int start = code.length;
+		parseUnary();
+		if (isOp("^")) {
+			pos++;
+			int right = code.length;
+			parsePow();
+			fold(RocProgram.POW, start, right);
+		}
+	}
+
+	private void parseUnary() throws ScriptException {
+		if (isOp("-")) {
+			pos++;
+			int start = code.length;
+			parsePrimary();
+			if (code.length - start == 2 && code.get(start) == RocProgram.NUM) {
+				code.set(start + 1, numberOf(-numbers[code.get(start + 1)]));
+			} else {
+				emit(RocProgram.NEG);
+			}
+		} else if (isWord("not")) {
+			pos++;
+			parsePrimary();
+			emit(RocProgram.NOT);
+		} else {
+			parsePrimary();
+		}
+	}
+
+	private void parsePrimary() throws ScriptException {
+		switch (kind()) {
+		case T_OP:
+			if (isOp("(")) {
+				pos++;
+				parseBool();
+				expectOp(")", RocScript.UNBALPARENS);
+				return;
+			}
+			throw error(RocScript.INVALIDEXP);
+		case T_NUM:
+			emit(RocProgram.NUM, numberOf(values[pos]));
+			pos++;
+			return;
+		case T_STR:
+			emit(RocProgram.STR, stringOf(text()));
+			pos++;
+			return;
+		case T_BOOL:
+			emit(RocProgram.BOOL, (int) values[pos]);
+			pos++;
+			return;
+		case T_WORD:
+			if (kinds.get(pos + 1) == T_OP && "(".equals(texts.get(pos + 1))) {
+				call();
+				return;
+			}
+			emit(RocProgram.LOAD, slotOf(text()));
+			pos++;
+			return;
+		default:
+			throw error(RocScript.INVALIDEXP);
+		}
+	}
+
+	/**
+	 * 两侧均为数值常量时在编译期直接求值
+	 */
+	private void fold(int op, int left, int right) {
+		if (right - left == 2 && code.length - right == 2 && code.get(left) == RocProgram.NUM
+				&& code.get(right) == RocProgram.NUM) {
+			double a = numbers[code.get(left + 1)];
+			double b = numbers[code.get(right + 1)];
+			double v;
+			switch (op) {
+			case RocProgram.ADD:
+				v = a + b;
+				break;
+			case RocProgram.SUB:
+				v = a - b;
+				break;
+			case RocProgram.MUL:
+				v = a * b;
+				break;
+			case RocProgram.DIV:
+				if (b == 0) {
+					emit(op);
+					return;
+				}
+				v = a / b;
+				break;
+			case RocProgram.MOD:
+				if (b == 0) {
+					emit(op);
+					return;
+				}
+				v = a % b;
+				break;
+			case RocProgram.POW:
+				v = RocRunner.pow(a, b);
+				break;
+			default:
+				emit(op);
+				return;
+			}
+			code.length = left;
+			emit(RocProgram.NUM, numberOf(v));
+			return;
+		}
+		emit(op);
+	}
+
+}
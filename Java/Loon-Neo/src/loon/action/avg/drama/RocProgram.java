@@ -0,0 +1,148 @@
+/**
+ * Copyright 2008 - 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.avg.drama;
+
+import loon.utils.ObjectMap;
+
+/**
+ * RocScript编译后的指令序列(只读,可在多个RocScript实例间共享),由RocCompiler生成,RocRunner执行
+ */
+public final class RocProgram {
+
+	// 常量入栈
+	static final int NUM = 1;
+	static final int STR = 2;
+	static final int BOOL = 3;
+
+	// 变量读写(操作数为变量槽位)
+	static final int LOAD = 4;
+	static final int STORE = 5;
+	static final int POP = 6;
+
+	// 运算
+	static final int ADD = 7;
+	static final int SUB = 8;
+	static final int MUL = 9;
+	static final int DIV = 10;
+	static final int MOD = 11;
+	static final int POW = 12;
+	static final int NEG = 13;
+	static final int NOT = 14;
+	static final int LT = 15;
+	static final int LE = 16;
+	static final int GT = 17;
+	static final int GE = 18;
+	static final int EQ = 19;
+	static final int AND = 20;
+	static final int OR = 21;
+	static final int XOR = 22;
+	static final int XAND = 23;
+
+	// 跳转(操作数为绝对地址)
+	static final int JMP = 24;
+	static final int JF = 25;
+
+	// 作用域
+	static final int ENTER = 26;
+	static final int EXIT = 27;
+
+	// 输出
+	static final int PRINT = 28;
+	static final int PRINTLN = 29;
+	static final int SEP = 30;
+
+	// 函数
+	static final int DEFUN = 31;
+	static final int CALL = 32;
+	static final int SYSCALL = 33;
+	static final int RET = 34;
+
+	// 其它
+	static final int WAIT = 35;
+	static final int MACRO = 36;
+	static final int LINE = 37;
+
+	final int[] code;
+
+	final double[] numbers;
+
+	final String[] strings;
+
+	final String[] names;
+
+	final ObjectMap<String, Integer> slots;
+
+	// 脚本函数:入口地址,参数槽位
+	final int[] funcEntry;
+
+	final int[][] funcParams;
+
+	final int[] funcName;
+
+	// 系统函数调用:原始参数文本,以及单一变量参数所对应的槽位
+	final String[][] sysArgs;
+
+	final int[][] sysSlots;
+
+	RocProgram(int[] code, double[] numbers, String[] strings, String[] names, int[] funcEntry, int[][] funcParams,
+			int[] funcName, String[][] sysArgs, int[][] sysSlots) {
+		this.code = code;
+		this.numbers = numbers;
+		this.strings = strings;
+		this.names = names;
+		this.funcEntry = funcEntry;
+		this.funcParams = funcParams;
+		this.funcName = funcName;
+		this.sysArgs = sysArgs;
+		this.sysSlots = sysSlots;
+		this.slots = new ObjectMap<String, Integer>();
+		for (int i = 0; i < names.length; i++) {
+			slots.put(names[i], i);
+		}
+	}
+
+	/**
+	 * 返回指定变量名对应的槽位,不存在时返回-1
+	 *
+	 * @param name
+	 * @return
+	 */
+	public int slotOf(String name) {
+		if (name == null) {
+			return -1;
+		}
+		Integer idx = slots.get(name);
+		return idx == null ? -1 : idx.intValue();
+	}
+
+	public int getSlotCount() {
+		return names.length;
+	}
+
+	public int getFunctionCount() {
+		return funcEntry.length;
+	}
+
+	public int size() {
+		return code.length;
+	}
+
+}
@@ -0,0 +1,706 @@
+/**
+ * Copyright 2008 - 2015
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.avg.drama;
+
+import loon.Json;
+import loon.LSystem;
+import loon.action.avg.drama.RocScript.ScriptException;
+import loon.utils.Array;
+import loon.utils.ArrayMap;
+import loon.utils.MathUtils;
+import loon.utils.StringUtils;
+
+/**
+ * RocProgram的执行器,数值以double直接存放于变量槽与操作数栈中,只有字符串,布尔等值才使用对象.
+ *
+ * 执行状态(指令位置,调用栈,变量)全部保存在此对象中,因此wait与jump之后可以从中断处继续执行.
+ */
+final class RocRunner {
+
+	private final RocScript script;
+
+	private final RocProgram program;
+
+	private final int[] code;
+
+	// 变量槽,objs[i]为null时表示数值存放于nums[i]
+	private final double[] nums;
+	private final Object[] objs;
+	private final boolean[] defined;
+	private final int[] depths;
+
+	// 按定义顺序记录的槽位,离开作用域时依此撤销
+	private int[] defs = new int[32];
+	private int defTop;
+	private int depth;
+
+	// 操作数栈
+	private double[] stackNum = new double[32];
+	private Object[] stackObj = new Object[32];
+	private int sp;
+
+	// 调用栈,每帧4项:返回地址,作用域深度,参数保存位置,函数索引
+	private int[] frames = new int[32];
+	private int fp;
+
+	// 函数调用时被参数覆盖的变量
+	private double[] saveNum = new double[16];
+	private Object[] saveObj = new Object[16];
+	private boolean[] saveDef = new boolean[16];
+	private int saveTop;
+
+	private final boolean[] functions;
+
+	// 脚本中未出现的变量(外部注入或宏指令产生)
+	private final ArrayMap extras = new ArrayMap();
+
+	private int pc;
+
+	private int line;
+
+	RocRunner(RocScript script, RocProgram program) {
+		this.script = script;
+		this.program = program;
+		this.code = program.code;
+		int count = program.getSlotCount();
+		this.nums = new double[count];
+		this.objs = new Object[count];
+		this.defined = new boolean[count];
+		this.depths = new int[count];
+		this.functions = new boolean[program.getFunctionCount()];
+	}
+
+	void reset() {
+		for (int i = 0; i < defined.length; i++) {
+			defined[i] = false;
+			objs[i] = null;
+		}
+		for (int i = 0; i < functions.length; i++) {
+			functions[i] = false;
+		}
+		for (int i = 0; i < sp; i++) {
+			stackObj[i] = null;
+		}
+		for (int i = 0; i < saveTop; i++) {
+			saveObj[i] = null;
+		}
+		extras.clear();
+		defTop = depth = sp = fp = saveTop = 0;
+		pc = 0;
+		line = 0;
+	}
+
+	boolean isCompleted() {
+		return pc >= code.length;
+	}
+
+	int getLine() {
+		return line;
+	}
+
+	private ScriptException error(int error, String item) {
+		return script.error(error, line, item);
+	}
+
+	/**
+	 * 执行脚本,直到结束,wait,jump或stop为止
+	 *
+	 * @param single
+	 *            为true时只执行一条语句
+	 * @return
+	 * @throws ScriptException
+	 */
+	Object run(boolean single) throws ScriptException {
+		if (script._sleep != -1) {
+			return null;
+		}
+		final int[] code = this.code;
+		final int end = code.length;
+		int statements = 0;
+		for (; pc < end;) {
+			final int op = code[pc++];
+			switch (op) {
+			case RocProgram.LINE:
+				if (script._sleep != -1 || script.isStop() || (single && statements > 0)) {
+					pc--;
+					return null;
+				}
+				statements++;
+				line = code[pc++];
+				break;
+			case RocProgram.NUM:
+				pushNum(program.numbers[code[pc++]]);
+				break;
+			case RocProgram.STR:
+				pushObj(program.strings[code[pc++]]);
+				break;
+			case RocProgram.BOOL:
+				pushObj(code[pc++] != 0 ? Boolean.TRUE : Boolean.FALSE);
+				break;
+			case RocProgram.LOAD:
+				load(code[pc++]);
+				break;
+			case RocProgram.STORE:
+				store(code[pc++], stackNum[sp - 1], stackObj[sp - 1]);
+				stackObj[--sp] = null;
+				break;
+			case RocProgram.POP:
+				stackObj[--sp] = null;
+				break;
+			case RocProgram.ADD:
+				add();
+				break;
+			case RocProgram.SUB:
+			case RocProgram.MUL:
+			case RocProgram.DIV:
+			case RocProgram.MOD:
+			case RocProgram.POW:
+				arith(op);
+				break;
+			case RocProgram.NEG:
+				if (stackObj[sp - 1] != null) {
+					throw error(stackObj[sp - 1] instanceof Boolean ? RocScript.NOTANUMB : RocScript.INVALIDEXP,
+							String.valueOf(stackObj[sp - 1]));
+				}
+				stackNum[sp - 1] = -stackNum[sp - 1];
+				break;
+			case RocProgram.NOT:
+				if (!(stackObj[sp - 1] instanceof Boolean)) {
+					throw error(stackObj[sp - 1] == null ? RocScript.NOTABOOL : RocScript.INVALIDEXP, "not");
+				}
+				stackObj[sp - 1] = ((Boolean) stackObj[sp - 1]).booleanValue() ? Boolean.FALSE : Boolean.TRUE;
+				break;
+			case RocProgram.LT:
+			case RocProgram.LE:
+			case RocProgram.GT:
+			case RocProgram.GE:
+			case RocProgram.EQ:
+				compare(op);
+				break;
+			case RocProgram.AND:
+			case RocProgram.OR:
+			case RocProgram.XOR:
+			case RocProgram.XAND:
+				logic(op);
+				break;
+			case RocProgram.JMP:
+				pc = code[pc];
+				break;
+			case RocProgram.JF:
+				if (isTrue()) {
+					pc++;
+				} else {
+					pc = code[pc];
+				}
+				break;
+			case RocProgram.ENTER:
+				depth++;
+				break;
+			case RocProgram.EXIT:
+				exitScope();
+				break;
+			case RocProgram.PRINT:
+				script.getScriptLog().line(pop());
+				break;
+			case RocProgram.PRINTLN:
+				script.getScriptLog().info(pop());
+				break;
+			case RocProgram.SEP:
+				script.getScriptLog().line(program.strings[code[pc++]]);
+				break;
+			case RocProgram.DEFUN:
+				functions[code[pc++]] = true;
+				break;
+			case RocProgram.CALL:
+				call(code[pc], code[pc + 1]);
+				break;
+			case RocProgram.SYSCALL:
+				syscall(program.strings[code[pc]], code[pc + 1]);
+				pc += 2;
+				break;
+			case RocProgram.RET:
+				if (fp == 0) {
+					Object result = pop();
+					pc = end;
+					return result;
+				}
+				ret();
+				break;
+			case RocProgram.WAIT:
+				script._sleep = waitTime(program.strings[code[pc++]]);
+				return null;
+			case RocProgram.MACRO:
+				macros(program.strings[code[pc++]]);
+				break;
+			default:
+				throw error(RocScript.UNKNOWN, String.valueOf(op));
+			}
+		}
+		return null;
+	}
+
+	private void ensureStack() {
+		if (sp == stackNum.length) {
+			double[] nums = new double[sp * 2];
+			Object[] objs = new Object[sp * 2];
+			System.arraycopy(stackNum, 0, nums, 0, sp);
+			System.arraycopy(stackObj, 0, objs, 0, sp);
+			stackNum = nums;
+			stackObj = objs;
+		}
+	}
+
+	private void pushNum(double v) {
+		ensureStack();
+		stackNum[sp] = v;
+		stackObj[sp++] = null;
+	}
+
+	private void pushObj(Object o) {
+		if (o == null) {
+			o = LSystem.UNKOWN;
+		} else if (o instanceof Number) {
+			pushNum(((Number) o).doubleValue());
+			return;
+		}
+		ensureStack();
+		stackObj[sp++] = o;
+	}
+
+	private Object pop() {
+		sp--;
+		Object o = stackObj[sp];
+		if (o == null) {
+			return Double.valueOf(stackNum[sp]);
+		}
+		stackObj[sp] = null;
+		return o;
+	}
+
+	/**
+	 * 与解释模式一致,字符串形式的数值与布尔值在读取时自动转换
+	 */
+	private void pushValue(Object o) {
+		if (o instanceof String) {
+			String str = (String) o;
+			if (MathUtils.isNan(str)) {
+				try {
+					pushNum(RocCompiler.toNumber(str));
+					return;
+				} catch (NumberFormatException ex) {
+				}
+			} else if (StringUtils.isBoolean(str)) {
+				pushObj(StringUtils.toBoolean(str) ? Boolean.TRUE : Boolean.FALSE);
+				return;
+			}
+		}
+		pushObj(o);
+	}
+
+	private void load(int slot) {
+		if (defined[slot]) {
+			Object o = objs[slot];
+			if (o == null) {
+				pushNum(nums[slot]);
+			} else {
+				pushValue(o);
+			}
+			return;
+		}
+		pushValue(find(program.names[slot]));
+	}
+
+	private Object valueOf(int slot) {
+		Object o = objs[slot];
+		return o == null ? Double.valueOf(nums[slot]) : o;
+	}
+
+	private Object lookup(String name) {
+		int slot = program.slotOf(name);
+		if (slot != -1 && defined[slot]) {
+			return valueOf(slot);
+		}
+		return extras.get(name);
+	}
+
+	private Object find(String name) {
+		Object o = extras.get(name);
+		if (o != null) {
+			return o;
+		}
+		// json对象的子项查询,如a.b
+		for (String vname = name;;) {
+			int idx = vname.lastIndexOf('.');
+			if (idx == -1) {
+				return LSystem.UNKOWN;
+			}
+			String parent = vname.substring(0, idx);
+			o = lookup(parent);
+			if (o != null) {
+				if (o instanceof Json.Object) {
+					o = script.queryJson(o, name, vname.substring(idx + 1));
+				}
+				return o == null ? LSystem.UNKOWN : o;
+			}
+			vname = parent;
+		}
+	}
+
+	private void define(int slot) {
+		defined[slot] = true;
+		depths[slot] = depth;
+		if (defTop == defs.length) {
+			int[] tmp = new int[defTop * 2];
+			System.arraycopy(defs, 0, tmp, 0, defTop);
+			defs = tmp;
+		}
+		defs[defTop++] = slot;
+	}
+
+	private void store(int slot, double num, Object obj) {
+		if (!defined[slot]) {
+			define(slot);
+		}
+		nums[slot] = num;
+		objs[slot] = obj;
+	}
+
+	private void storeValue(int slot, Object o) {
+		if (o instanceof Number) {
+			store(slot, ((Number) o).doubleValue(), null);
+		} else {
+			store(slot, 0, o == null ? LSystem.UNKOWN : o);
+		}
+	}
+
+	private void exitScope() {
+		for (; defTop > 0 && depths[defs[defTop - 1]] >= depth;) {
+			int slot = defs[--defTop];
+			defined[slot] = false;
+			objs[slot] = null;
+		}
+		depth--;
+	}
+
+	private boolean isTrue() {
+		Object o = stackObj[--sp];
+		if (o == null) {
+			return stackNum[sp] > 0;
+		}
+		stackObj[sp] = null;
+		return (o instanceof Boolean) && ((Boolean) o).booleanValue();
+	}
+
+	private void add() throws ScriptException {
+		Object l = stackObj[sp - 2];
+		Object r = stackObj[sp - 1];
+		if (l == null) {
+			if (r != null) {
+				throw error(RocScript.NOTANUMB, String.valueOf(r));
+			}
+			stackNum[sp - 2] += stackNum[sp - 1];
+		} else if (l instanceof String) {
+			if (!(r instanceof String)) {
+				throw error(RocScript.NOTASTR, String.valueOf(r == null ? stackNum[sp - 1] : r));
+			}
+			stackObj[sp - 2] = (String) l + (String) r;
+		} else if (!(l instanceof Boolean)) {
+			throw error(RocScript.NOTASTR, String.valueOf(l));
+		}
+		stackObj[--sp] = null;
+	}
+
+	static double pow(double x, double p) {
+		if (p == 0.0) {
+			return 1.0;
+		}
+		double result = x;
+		for (double t = p - 1; t > 0; t--) {
+			result *= x;
+		}
+		return result;
+	}
+
+	private void arith(int op) throws ScriptException {
+		if (stackObj[sp - 2] != null || stackObj[sp - 1] != null) {
+			throw error(RocScript.NOTANUMB,
+					String.valueOf(stackObj[sp - 2] != null ? stackObj[sp - 2] : stackObj[sp - 1]));
+		}
+		final double l = stackNum[sp - 2];
+		final double r = stackNum[--sp];
+		double v;
+		switch (op) {
+		case RocProgram.SUB:
+			v = l - r;
+			break;
+		case RocProgram.MUL:
+			v = l * r;
+			break;
+		case RocProgram.DIV:
+			if (r == 0.0) {
+				throw error(RocScript.DIVBYZERO, "/");
+			}
+			v = l / r;
+			break;
+		case RocProgram.MOD:
+			if (r == 0.0) {
+				throw error(RocScript.DIVBYZERO, "%");
+			}
+			v = l % r;
+			break;
+		default:
+			v = pow(l, r);
+			break;
+		}
+		stackNum[sp - 1] = v;
+	}
+
+	private void compare(int op) throws ScriptException {
+		Object l = stackObj[sp - 2];
+		Object r = stackObj[sp - 1];
+		boolean result;
+		if (l == null && r == null) {
+			final double a = stackNum[sp - 2];
+			final double b = stackNum[sp - 1];
+			switch (op) {
+			case RocProgram.LT:
+				result = a < b;
+				break;
+			case RocProgram.LE:
+				result = a <= b;
+				break;
+			case RocProgram.GT:
+				result = a > b;
+				break;
+			case RocProgram.GE:
+				result = a >= b;
+				break;
+			default:
+				result = a == b;
+				break;
+			}
+		} else if (l instanceof Boolean && r instanceof Boolean && op == RocProgram.EQ) {
+			result = l.equals(r);
+		} else if (l != null && r != null) {
+			int test = l.toString().compareTo(r.toString());
+			switch (op) {
+			case RocProgram.LT:
+				result = test < 0;
+				break;
+			case RocProgram.LE:
+				result = test <= 0;
+				break;
+			case RocProgram.GT:
+				result = test > 0;
+				break;
+			case RocProgram.GE:
+				result = test >= 0;
+				break;
+			default:
+				result = test == 0;
+				break;
+			}
+		} else {
+			throw error(l == null ? RocScript.NOTANUMB : RocScript.NOTASTR,
+					String.valueOf(l == null ? r : l));
+		}
+		stackObj[--sp] = null;
+		stackObj[sp - 1] = result ? Boolean.TRUE : Boolean.FALSE;
+	}
+
+	private void logic(int op) throws ScriptException {
+		Object l = stackObj[sp - 2];
+		Object r = stackObj[sp - 1];
+		if (!(l instanceof Boolean) || !(r instanceof Boolean)) {
+			throw error(RocScript.NOTABOOL, String.valueOf(l instanceof Boolean ? r : l));
+		}
+		final boolean a = ((Boolean) l).booleanValue();
+		final boolean b = ((Boolean) r).booleanValue();
+		boolean result;
+		switch (op) {
+		case RocProgram.AND:
+			result = a && b;
+			break;
+		case RocProgram.OR:
+			result = a || b;
+			break;
+		case RocProgram.XOR:
+			result = a ^ b;
+			break;
+		default:
+			result = a == b;
+			break;
+		}
+		stackObj[--sp] = null;
+		stackObj[sp - 1] = result ? Boolean.TRUE : Boolean.FALSE;
+	}
+
+	private void call(int func, int argc) throws ScriptException {
+		if (!functions[func]) {
+			throw error(RocScript.UNKFUNCTION, program.strings[program.funcName[func]]);
+		}
+		final int[] params = program.funcParams[func];
+		if (argc > params.length) {
+			throw error(RocScript.TOOMANYPARAMS, program.strings[program.funcName[func]]);
+		}
+		if (fp + 4 > frames.length) {
+			int[] tmp = new int[frames.length * 2];
+			System.arraycopy(frames, 0, tmp, 0, fp);
+			frames = tmp;
+		}
+		if (saveTop + params.length > saveNum.length) {
+			int size = (saveTop + params.length) * 2;
+			double[] nums = new double[size];
+			Object[] objs = new Object[size];
+			boolean[] defs = new boolean[size];
+			System.arraycopy(saveNum, 0, nums, 0, saveTop);
+			System.arraycopy(saveObj, 0, objs, 0, saveTop);
+			System.arraycopy(saveDef, 0, defs, 0, saveTop);
+			saveNum = nums;
+			saveObj = objs;
+			saveDef = defs;
+		}
+		frames[fp++] = pc + 2;
+		frames[fp++] = depth;
+		frames[fp++] = saveTop;
+		frames[fp++] = func;
+		for (int i = 0; i < params.length; i++) {
+			int slot = params[i];
+			saveDef[saveTop] = defined[slot];
+			saveNum[saveTop] = nums[slot];
+			saveObj[saveTop++] = objs[slot];
+		}
+		depth++;
+		final int base = sp - argc;
+		for (int i = 0; i < argc; i++) {
+			store(params[i], stackNum[base + i], stackObj[base + i]);
+			stackObj[base + i] = null;
+		}
+		sp = base;
+		pc = program.funcEntry[func];
+	}
+
+	private void ret() {
+		final double num = stackNum[sp - 1];
+		final Object obj = stackObj[sp - 1];
+		final int func = frames[--fp];
+		final int save = frames[--fp];
+		final int frameDepth = frames[--fp];
+		pc = frames[--fp];
+		for (; depth > frameDepth;) {
+			exitScope();
+		}
+		final int[] params = program.funcParams[func];
+		for (int i = 0; i < params.length; i++) {
+			int slot = params[i];
+			if (saveDef[save + i]) {
+				defined[slot] = true;
+				nums[slot] = saveNum[save + i];
+				objs[slot] = saveObj[save + i];
+			}
+			saveObj[save + i] = null;
+		}
+		saveTop = save;
+		stackNum[sp - 1] = num;
+		stackObj[sp - 1] = obj;
+	}
+
+	private void syscall(String name, int index) throws ScriptException {
+		RocFunctions functs = script.getFunctions();
+		if (!functs._system_functs.contains(name)) {
+			throw error(RocScript.UNKFUNCTION, name);
+		}
+		final String[] args = program.sysArgs[index];
+		final int[] slots = program.sysSlots[index];
+		String value;
+		if (args.length == 0) {
+			value = LSystem.EMPTY;
+		} else {
+			StringBuilder sbr = new StringBuilder();
+			for (int i = 0; i < args.length; i++) {
+				if (i > 0) {
+					sbr.append(',');
+				}
+				int slot = slots[i];
+				Object o = null;
+				if (slot != -1) {
+					o = defined[slot] ? valueOf(slot) : extras.get(program.names[slot]);
+				}
+				sbr.append(o == null ? args[i] : o.toString());
+			}
+			value = sbr.toString();
+		}
+		pushObj(functs.getValue(script, name, value));
+	}
+
+	private long waitTime(String item) {
+		long sleep;
+		if (MathUtils.isNan(item)) {
+			sleep = (long) RocCompiler.toNumber(item);
+		} else {
+			sleep = script.getWaitTime(item);
+		}
+		return sleep <= 0 ? 1 : sleep;
+	}
+
+	private void macros(String context) {
+		ArrayMap maps = new ArrayMap();
+		maps.putAll(extras);
+		for (int i = 0; i < defined.length; i++) {
+			if (defined[i]) {
+				maps.put(program.names[i], valueOf(i));
+			}
+		}
+		Array<ArrayMap> scopes = new Array<ArrayMap>();
+		scopes.add(maps);
+		ArrayMap result = script.execMacros(context, line, scopes);
+		if (result == null) {
+			return;
+		}
+		for (int i = 0; i < result.size(); i++) {
+			Object key = result.getKey(i);
+			if (key == null) {
+				continue;
+			}
+			String name = key.toString();
+			int slot = program.slotOf(name);
+			if (slot != -1) {
+				storeValue(slot, result.get(i));
+			} else {
+				extras.put(name, result.get(i));
+			}
+		}
+	}
+
+	void addVar(String name, Object obj) {
+		int slot = program.slotOf(name);
+		if (slot != -1) {
+			storeValue(slot, obj);
+		} else {
+			extras.put(name, obj);
+		}
+	}
+
+	Object getVar(String name) {
+		return lookup(name);
+	}
+
+}
@@ -44,7 +44,7 @@ public class RocScript {
 
 	private ArrayMap waitTimes = new ArrayMap();
 
-	private void handleError(int error) throws ScriptException {
+	private static String errorText(int error) {
 		String[] errors = new String[UNKNOWN + 1];
 		errors[SYNTAX] = "Syntax Error";
 		errors[UNBALPARENS] = "(... or ...)";
@@ -67,7 +67,11 @@ public class RocScript {
 		errors[EXPERR] = "For if, while and for";
 		errors[FILEIOERROR] = "Can't load file";
 		errors[UNKNOWN] = "Unknown error";
-		String err = errors[error] + ": " + textIdx + "\nLine number: " + textLine + "\nItem: " + item + "\nItem Type: "
+		return errors[error];
+	}
+
+	private void handleError(int error) throws ScriptException {
+		String err = errorText(error) + ": " + textIdx + "\nLine number: " + textLine + "\nItem: " + item + "\nItem Type: "
 				+ itemType + "\ncommType: " + commType + "\npreviousitem: " + previousItem;
 		if (scriptLog != null) {
 			scriptLog.err(err);
@@ -75,8 +79,33 @@ public class RocScript {
 		throw new ScriptException(err);
 	}
 
+	/**
+	 * 编译模式下的错误(由RocCompiler与RocRunner调用)
+	 * 
+	 * @param error
+	 * @param line
+	 * @param item
+	 * @return
+	 */
+	ScriptException error(int error, int line, String item) {
+		String err = errorText(error) + "\nLine number: " + line + "\nItem: " + item;
+		if (scriptLog != null) {
+			scriptLog.err(err);
+		}
+		return new ScriptException(err);
+	}
+
 	private final static int MAX_TEXT_SIZE = 65535;
 
+	// 脚本过滤后统一使用的换行符(解析时以'\r'判定行尾,不能依赖平台的LSystem.LS)
+	private final static String LINE_END = "\r\n";
+
+	private boolean _compiled;
+
+	private RocProgram _program;
+
+	private RocRunner _runner;
+
 	private RocFunctions _rocFunctions = null;
 
 	// 参数类型
@@ -114,33 +143,33 @@ public class RocScript {
 	private final int PRINTLN = 13;
 
 	// 错误
-	private final int SYNTAX = 0;
-	private final int UNBALPARENS = 1;
-	private final int DIVBYZERO = 2;
-	private final int EQUALEXPECTED = 3;
-	private final int UNKOWN = 4;
-	private final int NOTABOOL = 5;
-	private final int NOTANUMB = 6;
-	private final int NOTASTR = 7;
-	private final int DUPFUNCTION = 8;
-	private final int ENDEXPECTED = 9;
-	private final int THENEXPECTED = 10;
-	private final int MISSQUOTE = 11;
-	private final int DOEXPECTED = 12;
-	private final int UNKFUNCTION = 13;
-	private final int INVALIDEXP = 14;
-	private final int UNEXPITEM = 15;
-	private final int TOOMANYPARAMS = 16;
-
-	private final int FILENOTFOUND = 17;
-	private final int INPUTIOERROR = 18;
-	private final int EXPERR = 19;
-	private final int FILEIOERROR = 20;
+	final static int SYNTAX = 0;
+	final static int UNBALPARENS = 1;
+	final static int DIVBYZERO = 2;
+	final static int EQUALEXPECTED = 3;
+	final static int UNKOWN = 4;
+	final static int NOTABOOL = 5;
+	final static int NOTANUMB = 6;
+	final static int NOTASTR = 7;
+	final static int DUPFUNCTION = 8;
+	final static int ENDEXPECTED = 9;
+	final static int THENEXPECTED = 10;
+	final static int MISSQUOTE = 11;
+	final static int DOEXPECTED = 12;
+	final static int UNKFUNCTION = 13;
+	final static int INVALIDEXP = 14;
+	final static int UNEXPITEM = 15;
+	final static int TOOMANYPARAMS = 16;
+
+	final static int FILENOTFOUND = 17;
+	final static int INPUTIOERROR = 18;
+	final static int EXPERR = 19;
+	final static int FILEIOERROR = 20;
 
 	// 宏
-	private final int MACROS = 21;
+	final static int MACROS = 21;
 	// 未知区域
-	private final int UNKNOWN = 22;
+	final static int UNKNOWN = 22;
 
 	// 宏指令设置
 
@@ -287,7 +316,7 @@ public class RocScript {
 			if (ch == flag) {
 				out.append(flag);
 				if (i + 1 < chars.length && chars[i + 1] != '\n') {
-					out.append(LSystem.LS);
+					out.append(LINE_END);
 				}
 			} else {
 				out.append(ch);
@@ -305,7 +334,7 @@ public class RocScript {
 				tflag = !tflag;
 			}
 			if (tflag) {
-				sbr.append(CharUtils.toLowerAscii(ch));
+				sbr.append((char) CharUtils.toLowerAscii(ch));
 			} else {
 				sbr.append(ch);
 			}
@@ -344,7 +373,7 @@ public class RocScript {
 			} else {
 				out.append(cmd);
 			}
-			out.append(LSystem.LS);
+			out.append(LINE_END);
 		}
 		return out.toString();
 	}
@@ -360,6 +389,19 @@ public class RocScript {
 		this(new DefScriptLog(), script, useFile);
 	}
 
+	/**
+	 * 构建脚本
+	 * 
+	 * @param script
+	 * @param useFile
+	 * @param compiled
+	 *            是否预先编译为指令序列执行
+	 * @throws ScriptException
+	 */
+	public RocScript(String script, boolean useFile, boolean compiled) throws ScriptException {
+		this(new DefScriptLog(), script, useFile, compiled);
+	}
+
 	/**
 	 * 构建脚本
 	 * 
@@ -369,6 +411,20 @@ public class RocScript {
 	 * @throws ScriptException
 	 */
 	public RocScript(IScriptLog log, String script, boolean useFile) throws ScriptException {
+		this(log, script, useFile, false);
+	}
+
+	/**
+	 * 构建脚本
+	 * 
+	 * @param log
+	 * @param script
+	 * @param useFile
+	 * @param compiled
+	 *            是否预先编译为指令序列执行
+	 * @throws ScriptException
+	 */
+	public RocScript(IScriptLog log, String script, boolean useFile, boolean compiled) throws ScriptException {
 		this._rocFunctions = new RocFunctions();
 		this.scriptLog = log;
 		debug("Loading file...");
@@ -398,6 +454,32 @@ public class RocScript {
 			_temp_contexts = new char[size];
 			System.arraycopy(charlist, 0, _temp_contexts, 0, size);
 		}
+		setCompiled(compiled);
+	}
+
+	/**
+	 * 设定是否使用编译模式,编译模式下脚本只解析一次,此后以指令序列执行.
+	 * 
+	 * 编译模式的变量作用域为词法作用域:嵌套块内对外层变量的赋值总会写回,函数参数不会覆盖调用者的同名变量.
+	 * 解释模式只把块内变量写回上一层作用域,因此两者仅在这两种情况下结果不同.
+	 * 
+	 * @param compiled
+	 * @throws ScriptException
+	 */
+	public void setCompiled(boolean compiled) throws ScriptException {
+		if (compiled && _program == null) {
+			_program = RocCompiler.compile(this, new String(_temp_contexts));
+		}
+		this._compiled = compiled;
+		this._runner = null;
+	}
+
+	public boolean isCompiled() {
+		return _compiled;
+	}
+
+	public RocProgram getProgram() {
+		return _program;
 	}
 
 	private void debug(String s) {
@@ -443,6 +525,13 @@ public class RocScript {
 		itemType = 0;
 		commType = 0;
 		macroType = -1;
+		if (_compiled) {
+			if (_runner == null) {
+				_runner = new RocRunner(this, _program);
+			} else {
+				_runner.reset();
+			}
+		}
 	}
 
 	/**
@@ -465,6 +554,14 @@ public class RocScript {
 		_stop = true;
 	}
 
+	boolean isStop() {
+		return _stop;
+	}
+
+	public IScriptLog getScriptLog() {
+		return scriptLog;
+	}
+
 	/**
 	 * 执行脚本命令
 	 * 
@@ -472,6 +569,9 @@ public class RocScript {
 	 * @throws ScriptException
 	 */
 	public Object next() throws ScriptException {
+		if (_runner != null) {
+			return _runner.run(false);
+		}
 		try {
 			debug("Starting script...");
 			if (_sleep != -1) {
@@ -564,6 +664,9 @@ public class RocScript {
 	}
 
 	public Object running() throws ScriptException {
+		if (_runner != null) {
+			return _runner.run(true);
+		}
 		try {
 			debug("Starting script...");
 
@@ -692,8 +795,23 @@ public class RocScript {
 	}
 
 	private void macrosCommand(String context, int id) {
+		ArrayMap result = execMacros(context, id, vars);
+		if (result != null) {
+			vars.add(result);
+		}
+	}
+
+	/**
+	 * 执行宏指令,返回执行后的Command变量集合
+	 * 
+	 * @param context
+	 * @param id
+	 * @param scopes
+	 * @return
+	 */
+	ArrayMap execMacros(String context, int id, Array<ArrayMap> scopes) {
 		if (!initNextMacros) {
-			return;
+			return null;
 		}
 		Command.resetCache();
 		String[] res = StringUtils.split(context, '\n');
@@ -702,8 +820,8 @@ public class RocScript {
 		} else {
 			macros_executer.formatCommand("script" + id, res);
 		}
-		for (int i = 0; i < vars.size(); i++) {
-			ArrayMap maps = vars.get(i);
+		for (int i = 0; i < scopes.size(); i++) {
+			ArrayMap maps = scopes.get(i);
 			macros_executer.setVariables(maps);
 		}
 		if (scriptLog != null) {
@@ -716,14 +834,14 @@ public class RocScript {
 			}
 			if (macros_listeners != null) {
 				for (IMacros macros_listener : macros_listeners) {
-					macros_listener.call(scriptLog, textLine, macros_executer, result);
+					macros_listener.call(scriptLog, id, macros_executer, result);
 				}
 			}
 		}
 		if (scriptLog != null) {
 			scriptLog.info("Synchro is completed.");
 		}
-		vars.add(macros_executer.getVariables());
+		return macros_executer.getVariables();
 	}
 
 	private void println() throws ScriptException {
@@ -1216,6 +1334,9 @@ public class RocScript {
 	 * @return
 	 */
 	public boolean isCompleted() {
+		if (_runner != null) {
+			return _runner.isCompleted();
+		}
 		return this.itemType == EOP;
 	}
 
@@ -1409,7 +1530,8 @@ public class RocScript {
 			waitTimes.put("hour", LSystem.HOUR);
 			waitTimes.put("day", LSystem.DAY);
 		}
-		return (long) waitTimes.get(item.toLowerCase());
+		Object time = waitTimes.get(item.toLowerCase());
+		return time == null ? 0 : (long) time;
 	}
 
 	public long waitSleep() {
@@ -1922,7 +2044,7 @@ public class RocScript {
 	 * @param method
 	 * @return
 	 */
-	private Object queryJson(Object value, String vname, String method) {
+	Object queryJson(Object value, String vname, String method) {
 		int start = 0;
 		int end = 0;
 		Object o = null;
@@ -2162,7 +2284,9 @@ public class RocScript {
 	 * @param obj
 	 */
 	public void addVar(String name, Object obj) {
-		if (vars != null) {
+		if (_runner != null) {
+			_runner.addVar(name, obj);
+		} else if (vars != null) {
 			vars.last().put(name, obj);
 		}
 	}
@@ -2174,6 +2298,9 @@ public class RocScript {
 	 * @return
 	 */
 	public Object getLastVar(String name) {
+		if (_runner != null) {
+			return _runner.getVar(name);
+		}
 		if (vars != null) {
 			return vars.last().get(name);
 		}
@@ -2187,6 +2314,9 @@ public class RocScript {
 	 * @return
 	 */
 	public Object getFirstVar(String name) {
+		if (_runner != null) {
+			return _runner.getVar(name);
+		}
 		if (vars != null) {
 			return vars.first().get(name);
 		}
@@ -2200,6 +2330,9 @@ public class RocScript {
 	 * @return
 	 */
 	public Object getVar(String name) {
+		if (_runner != null) {
+			return _runner.getVar(name);
+		}
 		if (vars != null) {
 			Object result = null;
 			for (; vars.hashNext();) {
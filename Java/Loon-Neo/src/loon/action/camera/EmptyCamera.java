@@ -29,6 +29,8 @@ public class EmptyCamera extends BaseCamera {
 
 	protected Matrix4 _viewMatrix4;
 
+	protected final Matrix4 _combMatrix4 = new Matrix4();
+
 	public EmptyCamera() {
 		this(LSystem.viewSize.getMatrix().cpy(), new Matrix4());
 	}
@@ -50,7 +52,8 @@ public class EmptyCamera extends BaseCamera {
 
 	@Override
 	public Matrix4 getCombine() {
-		return _projMatrix4.mul(_viewMatrix4);
+		// 组合矩阵写入独立缓存,不修改投影矩阵本身
+		return _combMatrix4.set(_projMatrix4).mul(_viewMatrix4);
 	}
 
 }
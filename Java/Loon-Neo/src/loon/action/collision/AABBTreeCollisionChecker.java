@@ -0,0 +1,955 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.collision;
+
+import loon.geom.RectBox;
+import loon.geom.Vector2f;
+import loon.utils.LIterator;
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+
+/**
+ * 以动态AABB树(参考Box2D的b2DynamicTree)实现的CollisionChecker.
+ * 
+ * 每个对象对应树中一个叶子,叶子保存外扩(fat)后的包围盒,对象移动后只要仍处于外扩盒内便无需修改树,超出时才移除并按移动方向预测外扩后重新插入,
+ * 插入时以周长代价选择兄弟节点并通过旋转保持平衡.全部节点数据以数组保存,增删改与查询都不会产生临时对象(仅在容量不足时扩容).
+ * 
+ * 树结构的遍历不使用栈与共享缓存,因此在没有写操作时,query与forEachPair可在多个线程中同时调用而无需加锁.
+ */
+public class AABBTreeCollisionChecker implements CollisionChecker {
+
+	private final static int NULL_NODE = -1;
+
+	// 节点数据在各数组中的偏移(每个节点占4个元素)
+	private final static int PARENT = 0, CHILD1 = 1, CHILD2 = 2, HEIGHT = 3;
+
+	private final static int MIN_X = 0, MIN_Y = 1, MAX_X = 2, MAX_Y = 3;
+
+	private final static int X = 0, Y = 1, W = 2, H = 3;
+
+	// 移动时沿位移方向额外外扩的倍数
+	private final static float DISPLACEMENT_MULTIPLIER = 2f;
+
+	// 外扩后的包围盒
+	private float[] _aabb;
+
+	// 叶子所对应对象的实际包围盒
+	private float[] _bounds;
+
+	// 空闲节点以PARENT作为链表
+	private int[] _links;
+
+	private CollisionObject[] _objects;
+
+	private int _root = NULL_NODE;
+
+	private int _capacity;
+
+	private int _nodeCount;
+
+	private int _leafCount;
+
+	private int _freeList = NULL_NODE;
+
+	private int[] _scratch;
+
+	// 上次重建后新加入的对象数
+	private int _added;
+
+	private float _margin;
+
+	private int cellSizeX, cellSizeY;
+
+	private boolean itlayer = false;
+
+	private Vector2f offsetLocation = new Vector2f(0, 0);
+
+	private final CollisionBaseQuery actorQuery = new CollisionBaseQuery();
+
+	private final CollisionNeighbourQuery neighbourQuery = new CollisionNeighbourQuery();
+
+	private final CollisionPointQuery pointQuery = new CollisionPointQuery();
+
+	private final CollisionInRangeQuery inRangeQuery = new CollisionInRangeQuery();
+
+	public AABBTreeCollisionChecker() {
+		this(64, 4f);
+	}
+
+	/**
+	 * @param capacity
+	 *            初始节点容量
+	 * @param margin
+	 *            叶子包围盒的外扩距离
+	 */
+	public AABBTreeCollisionChecker(int capacity, float margin) {
+		this._margin = MathUtils.max(0f, margin);
+		allocate(MathUtils.max(16, capacity));
+	}
+
+	private void allocate(int capacity) {
+		final int old = _capacity;
+		_aabb = copy(_aabb, capacity << 2);
+		_bounds = copy(_bounds, capacity << 2);
+		_links = copy(_links, capacity << 2);
+		CollisionObject[] objects = new CollisionObject[capacity];
+		if (_objects != null) {
+			System.arraycopy(_objects, 0, objects, 0, old);
+		}
+		_objects = objects;
+		for (int i = old; i < capacity; i++) {
+			_links[(i << 2) + PARENT] = i + 1 < capacity ? i + 1 : _freeList;
+			_links[(i << 2) + CHILD1] = NULL_NODE;
+			_links[(i << 2) + CHILD2] = NULL_NODE;
+			_links[(i << 2) + HEIGHT] = -1;
+		}
+		_freeList = old;
+		_capacity = capacity;
+	}
+
+	private static float[] copy(float[] src, int size) {
+		float[] dst = new float[size];
+		if (src != null) {
+			System.arraycopy(src, 0, dst, 0, src.length);
+		}
+		return dst;
+	}
+
+	private static int[] copy(int[] src, int size) {
+		int[] dst = new int[size];
+		if (src != null) {
+			System.arraycopy(src, 0, dst, 0, src.length);
+		}
+		return dst;
+	}
+
+	private int allocateNode() {
+		if (_freeList == NULL_NODE) {
+			allocate(_capacity * 2);
+		}
+		final int node = _freeList;
+		_freeList = _links[(node << 2) + PARENT];
+		_links[(node << 2) + PARENT] = NULL_NODE;
+		_links[(node << 2) + CHILD1] = NULL_NODE;
+		_links[(node << 2) + CHILD2] = NULL_NODE;
+		_links[(node << 2) + HEIGHT] = 0;
+		_objects[node] = null;
+		_nodeCount++;
+		return node;
+	}
+
+	private void freeNode(int node) {
+		_links[(node << 2) + PARENT] = _freeList;
+		_links[(node << 2) + CHILD1] = NULL_NODE;
+		_links[(node << 2) + CHILD2] = NULL_NODE;
+		_links[(node << 2) + HEIGHT] = -1;
+		_objects[node] = null;
+		_freeList = node;
+		_nodeCount--;
+	}
+
+	private boolean isLeaf(int node) {
+		return _links[(node << 2) + CHILD1] == NULL_NODE;
+	}
+
+	private float perimeter(int node) {
+		final int n = node << 2;
+		return 2f * ((_aabb[n + MAX_X] - _aabb[n + MIN_X]) + (_aabb[n + MAX_Y] - _aabb[n + MIN_Y]));
+	}
+
+	private void union(int node, int a, int b) {
+		_aabb[(node << 2) + MIN_X] = MathUtils.min(_aabb[(a << 2) + MIN_X], _aabb[(b << 2) + MIN_X]);
+		_aabb[(node << 2) + MIN_Y] = MathUtils.min(_aabb[(a << 2) + MIN_Y], _aabb[(b << 2) + MIN_Y]);
+		_aabb[(node << 2) + MAX_X] = MathUtils.max(_aabb[(a << 2) + MAX_X], _aabb[(b << 2) + MAX_X]);
+		_aabb[(node << 2) + MAX_Y] = MathUtils.max(_aabb[(a << 2) + MAX_Y], _aabb[(b << 2) + MAX_Y]);
+	}
+
+	private void refit(int node) {
+		final int c1 = _links[(node << 2) + CHILD1];
+		final int c2 = _links[(node << 2) + CHILD2];
+		_links[(node << 2) + HEIGHT] = 1 + MathUtils.max(_links[(c1 << 2) + HEIGHT], _links[(c2 << 2) + HEIGHT]);
+		union(node, c1, c2);
+	}
+
+	private void insertLeaf(int leaf) {
+		if (_root == NULL_NODE) {
+			_root = leaf;
+			_links[(leaf << 2) + PARENT] = NULL_NODE;
+			return;
+		}
+		final float lminX = _aabb[(leaf << 2) + MIN_X];
+		final float lminY = _aabb[(leaf << 2) + MIN_Y];
+		final float lmaxX = _aabb[(leaf << 2) + MAX_X];
+		final float lmaxY = _aabb[(leaf << 2) + MAX_Y];
+		int index = _root;
+		// 以周长作为代价寻找最佳兄弟节点
+		while (!isLeaf(index)) {
+			final int c1 = _links[(index << 2) + CHILD1];
+			final int c2 = _links[(index << 2) + CHILD2];
+			final float area = perimeter(index);
+			final float combined = combinedPerimeter(index, lminX, lminY, lmaxX, lmaxY);
+			final float cost = 2f * combined;
+			final float inheritance = 2f * (combined - area);
+			final float cost1 = descendCost(c1, lminX, lminY, lmaxX, lmaxY) + inheritance;
+			final float cost2 = descendCost(c2, lminX, lminY, lmaxX, lmaxY) + inheritance;
+			if (cost < cost1 && cost < cost2) {
+				break;
+			}
+			index = cost1 < cost2 ? c1 : c2;
+		}
+		final int sibling = index;
+		final int oldParent = _links[(sibling << 2) + PARENT];
+		final int newParent = allocateNode();
+		_links[(newParent << 2) + PARENT] = oldParent;
+		union(newParent, leaf, sibling);
+		_links[(newParent << 2) + HEIGHT] = _links[(sibling << 2) + HEIGHT] + 1;
+		if (oldParent != NULL_NODE) {
+			if (_links[(oldParent << 2) + CHILD1] == sibling) {
+				_links[(oldParent << 2) + CHILD1] = newParent;
+			} else {
+				_links[(oldParent << 2) + CHILD2] = newParent;
+			}
+		} else {
+			_root = newParent;
+		}
+		_links[(newParent << 2) + CHILD1] = sibling;
+		_links[(newParent << 2) + CHILD2] = leaf;
+		_links[(sibling << 2) + PARENT] = newParent;
+		_links[(leaf << 2) + PARENT] = newParent;
+		for (index = _links[(leaf << 2) + PARENT]; index != NULL_NODE; index = _links[(index << 2) + PARENT]) {
+			index = balance(index);
+			refit(index);
+		}
+	}
+
+	private float combinedPerimeter(int node, float minX, float minY, float maxX, float maxY) {
+		final int n = node << 2;
+		return 2f * ((MathUtils.max(_aabb[n + MAX_X], maxX) - MathUtils.min(_aabb[n + MIN_X], minX))
+				+ (MathUtils.max(_aabb[n + MAX_Y], maxY) - MathUtils.min(_aabb[n + MIN_Y], minY)));
+	}
+
+	private float descendCost(int child, float minX, float minY, float maxX, float maxY) {
+		final float combined = combinedPerimeter(child, minX, minY, maxX, maxY);
+		return isLeaf(child) ? combined : combined - perimeter(child);
+	}
+
+	private void removeLeaf(int leaf) {
+		if (leaf == _root) {
+			_root = NULL_NODE;
+			return;
+		}
+		final int parent = _links[(leaf << 2) + PARENT];
+		final int grandParent = _links[(parent << 2) + PARENT];
+		final int sibling = _links[(parent << 2) + CHILD1] == leaf ? _links[(parent << 2) + CHILD2]
+				: _links[(parent << 2) + CHILD1];
+		if (grandParent != NULL_NODE) {
+			if (_links[(grandParent << 2) + CHILD1] == parent) {
+				_links[(grandParent << 2) + CHILD1] = sibling;
+			} else {
+				_links[(grandParent << 2) + CHILD2] = sibling;
+			}
+			_links[(sibling << 2) + PARENT] = grandParent;
+			freeNode(parent);
+			for (int index = grandParent; index != NULL_NODE; index = _links[(index << 2) + PARENT]) {
+				index = balance(index);
+				refit(index);
+			}
+		} else {
+			_root = sibling;
+			_links[(sibling << 2) + PARENT] = NULL_NODE;
+			freeNode(parent);
+		}
+		_links[(leaf << 2) + PARENT] = NULL_NODE;
+	}
+
+	private void replaceChild(int parent, int oldChild, int newChild) {
+		if (parent == NULL_NODE) {
+			_root = newChild;
+		} else if (_links[(parent << 2) + CHILD1] == oldChild) {
+			_links[(parent << 2) + CHILD1] = newChild;
+		} else {
+			_links[(parent << 2) + CHILD2] = newChild;
+		}
+	}
+
+	/**
+	 * 若节点A的左右子树高度差超过1则旋转,返回旋转后位于原A位置的节点
+	 */
+	private int balance(int a) {
+		if (isLeaf(a) || _links[(a << 2) + HEIGHT] < 2) {
+			return a;
+		}
+		final int b = _links[(a << 2) + CHILD1];
+		final int c = _links[(a << 2) + CHILD2];
+		final int diff = _links[(c << 2) + HEIGHT] - _links[(b << 2) + HEIGHT];
+		if (diff > 1) {
+			final int f = _links[(c << 2) + CHILD1];
+			final int g = _links[(c << 2) + CHILD2];
+			_links[(c << 2) + CHILD1] = a;
+			_links[(c << 2) + PARENT] = _links[(a << 2) + PARENT];
+			_links[(a << 2) + PARENT] = c;
+			replaceChild(_links[(c << 2) + PARENT], a, c);
+			if (_links[(f << 2) + HEIGHT] > _links[(g << 2) + HEIGHT]) {
+				_links[(c << 2) + CHILD2] = f;
+				_links[(a << 2) + CHILD2] = g;
+				_links[(g << 2) + PARENT] = a;
+			} else {
+				_links[(c << 2) + CHILD2] = g;
+				_links[(a << 2) + CHILD2] = f;
+				_links[(f << 2) + PARENT] = a;
+			}
+			refit(a);
+			refit(c);
+			return c;
+		}
+		if (diff < -1) {
+			final int d = _links[(b << 2) + CHILD1];
+			final int e = _links[(b << 2) + CHILD2];
+			_links[(b << 2) + CHILD1] = a;
+			_links[(b << 2) + PARENT] = _links[(a << 2) + PARENT];
+			_links[(a << 2) + PARENT] = b;
+			replaceChild(_links[(b << 2) + PARENT], a, b);
+			if (_links[(d << 2) + HEIGHT] > _links[(e << 2) + HEIGHT]) {
+				_links[(b << 2) + CHILD2] = d;
+				_links[(a << 2) + CHILD1] = e;
+				_links[(e << 2) + PARENT] = a;
+			} else {
+				_links[(b << 2) + CHILD2] = e;
+				_links[(a << 2) + CHILD1] = d;
+				_links[(d << 2) + PARENT] = a;
+			}
+			refit(a);
+			refit(b);
+			return b;
+		}
+		return a;
+	}
+
+	private int proxyOf(CollisionObject obj) {
+		Object data = obj.getCollisionData();
+		if (data instanceof Integer) {
+			int id = ((Integer) data).intValue();
+			if (id >= 0 && id < _capacity && _objects[id] == obj) {
+				return id;
+			}
+		}
+		return NULL_NODE;
+	}
+
+	private void readBounds(int leaf, CollisionObject obj) {
+		RectBox rect = obj.getBoundingRect();
+		if (rect == null) {
+			_bounds[(leaf << 2) + X] = obj.getX();
+			_bounds[(leaf << 2) + Y] = obj.getY();
+			_bounds[(leaf << 2) + W] = obj.getWidth();
+			_bounds[(leaf << 2) + H] = obj.getHeight();
+		} else {
+			_bounds[(leaf << 2) + X] = rect.x;
+			_bounds[(leaf << 2) + Y] = rect.y;
+			_bounds[(leaf << 2) + W] = rect.width;
+			_bounds[(leaf << 2) + H] = rect.height;
+		}
+	}
+
+	private void fatten(int leaf, float dx, float dy) {
+		final float margin = _margin;
+		_aabb[(leaf << 2) + MIN_X] = _bounds[(leaf << 2) + X] - margin;
+		_aabb[(leaf << 2) + MIN_Y] = _bounds[(leaf << 2) + Y] - margin;
+		_aabb[(leaf << 2) + MAX_X] = _bounds[(leaf << 2) + X] + _bounds[(leaf << 2) + W] + margin;
+		_aabb[(leaf << 2) + MAX_Y] = _bounds[(leaf << 2) + Y] + _bounds[(leaf << 2) + H] + margin;
+		dx *= DISPLACEMENT_MULTIPLIER;
+		dy *= DISPLACEMENT_MULTIPLIER;
+		if (dx < 0f) {
+			_aabb[(leaf << 2) + MIN_X] += dx;
+		} else {
+			_aabb[(leaf << 2) + MAX_X] += dx;
+		}
+		if (dy < 0f) {
+			_aabb[(leaf << 2) + MIN_Y] += dy;
+		} else {
+			_aabb[(leaf << 2) + MAX_Y] += dy;
+		}
+	}
+
+	private boolean fatContains(int leaf) {
+		final int n = leaf << 2;
+		return _aabb[n + MIN_X] <= _bounds[n + X] && _aabb[n + MIN_Y] <= _bounds[n + Y]
+				&& _bounds[n + X] + _bounds[n + W] <= _aabb[n + MAX_X] && _bounds[n + Y] + _bounds[n + H] <= _aabb[n + MAX_Y];
+	}
+
+	private void moveProxy(CollisionObject obj, float dx, float dy) {
+		final int leaf = proxyOf(obj);
+		if (leaf == NULL_NODE) {
+			return;
+		}
+		readBounds(leaf, obj);
+		if (fatContains(leaf)) {
+			return;
+		}
+		removeLeaf(leaf);
+		fatten(leaf, dx, dy);
+		insertLeaf(leaf);
+	}
+
+	@Override
+	public void initialize(int size) {
+		this.initialize(size, size);
+	}
+
+	@Override
+	public void initialize(int tsx, int tsy) {
+		this.cellSizeX = MathUtils.max(1, tsx);
+		this.cellSizeY = MathUtils.max(1, tsy);
+	}
+
+	public float getMargin() {
+		return _margin;
+	}
+
+	/**
+	 * 设定叶子包围盒的外扩距离,仅影响之后插入或重新插入的对象
+	 * 
+	 * @param margin
+	 */
+	public void setMargin(float margin) {
+		this._margin = MathUtils.max(0f, margin);
+	}
+
+	@Override
+	public void addObject(CollisionObject actor) {
+		if (actor == null) {
+			return;
+		}
+		if (proxyOf(actor) != NULL_NODE) {
+			moveProxy(actor, 0f, 0f);
+			return;
+		}
+		final int leaf = allocateNode();
+		_objects[leaf] = actor;
+		readBounds(leaf, actor);
+		fatten(leaf, 0f, 0f);
+		insertLeaf(leaf);
+		_leafCount++;
+		_added++;
+		actor.setCollisionData(Integer.valueOf(leaf));
+	}
+
+	@Override
+	public void removeObject(CollisionObject obj) {
+		if (obj == null) {
+			return;
+		}
+		final int leaf = proxyOf(obj);
+		if (leaf == NULL_NODE) {
+			return;
+		}
+		removeLeaf(leaf);
+		freeNode(leaf);
+		_leafCount--;
+		obj.setCollisionData(null);
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < _capacity; i++) {
+			CollisionObject obj = _objects[i];
+			if (obj != null && _links[(i << 2) + HEIGHT] == 0) {
+				obj.setCollisionData(null);
+			}
+			_objects[i] = null;
+			_links[(i << 2) + PARENT] = i + 1 < _capacity ? i + 1 : NULL_NODE;
+			_links[(i << 2) + CHILD1] = NULL_NODE;
+			_links[(i << 2) + CHILD2] = NULL_NODE;
+			_links[(i << 2) + HEIGHT] = -1;
+		}
+		_root = NULL_NODE;
+		_freeList = 0;
+		_nodeCount = 0;
+		_leafCount = 0;
+		_added = 0;
+	}
+
+	@Override
+	public void updateObjectLocation(CollisionObject obj, float oldX, float oldY) {
+		moveProxy(obj, obj.getX() - oldX, obj.getY() - oldY);
+	}
+
+	@Override
+	public void updateObjectSize(CollisionObject obj) {
+		moveProxy(obj, 0f, 0f);
+	}
+
+	@Override
+	public int numberActors() {
+		return _leafCount;
+	}
+
+	/**
+	 * 树的高度(空树为-1)
+	 * 
+	 * @return
+	 */
+	public int getTreeHeight() {
+		return _root == NULL_NODE ? -1 : _links[(_root << 2) + HEIGHT];
+	}
+
+	public int getNodeCount() {
+		return _nodeCount;
+	}
+
+	/**
+	 * 上次重建后新加入的对象超过总数一半时重建整棵树
+	 * 
+	 * @return 是否进行了重建
+	 */
+	public boolean optimize() {
+		if (_added > 32 && _added * 2 > _leafCount) {
+			rebuild();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 自顶向下(按中位数二分)重建整棵树,大量对象一次性加入后调用可明显提高查询效率
+	 */
+	public void rebuild() {
+		_added = 0;
+		if (_leafCount < 3) {
+			return;
+		}
+		if (_scratch == null || _scratch.length < _leafCount) {
+			_scratch = new int[_capacity];
+		}
+		int count = 0;
+		for (int i = 0; i < _capacity; i++) {
+			final int height = _links[(i << 2) + HEIGHT];
+			if (height == 0) {
+				_scratch[count++] = i;
+			} else if (height > 0) {
+				freeNode(i);
+			}
+		}
+		_root = build(_scratch, 0, count);
+		_links[(_root << 2) + PARENT] = NULL_NODE;
+	}
+
+	private int build(int[] leaves, int start, int end) {
+		if (end - start == 1) {
+			return leaves[start];
+		}
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		for (int i = start; i < end; i++) {
+			final int n = leaves[i] << 2;
+			final float cx = _aabb[n + MIN_X] + _aabb[n + MAX_X];
+			final float cy = _aabb[n + MIN_Y] + _aabb[n + MAX_Y];
+			minX = MathUtils.min(minX, cx);
+			maxX = MathUtils.max(maxX, cx);
+			minY = MathUtils.min(minY, cy);
+			maxY = MathUtils.max(maxY, cy);
+		}
+		final int axis = (maxX - minX) >= (maxY - minY) ? 0 : 1;
+		final int mid = (start + end) >>> 1;
+		select(leaves, start, end - 1, mid, axis);
+		final int node = allocateNode();
+		final int c1 = build(leaves, start, mid);
+		final int c2 = build(leaves, mid, end);
+		_links[(node << 2) + CHILD1] = c1;
+		_links[(node << 2) + CHILD2] = c2;
+		_links[(c1 << 2) + PARENT] = node;
+		_links[(c2 << 2) + PARENT] = node;
+		refit(node);
+		return node;
+	}
+
+	private float center(int node, int axis) {
+		return _aabb[(node << 2) + MIN_X + axis] + _aabb[(node << 2) + MAX_X + axis];
+	}
+
+	// 快速选择,使leaves[k]左侧的中心坐标均不大于右侧
+	private void select(int[] leaves, int left, int right, int k, int axis) {
+		while (left < right) {
+			final float pivot = center(leaves[(left + right) >>> 1], axis);
+			int i = left, j = right;
+			while (i <= j) {
+				while (center(leaves[i], axis) < pivot) {
+					i++;
+				}
+				while (center(leaves[j], axis) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					final int tmp = leaves[i];
+					leaves[i] = leaves[j];
+					leaves[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private boolean overlaps(int node, float minX, float minY, float maxX, float maxY) {
+		final int n = node << 2;
+		return _aabb[n + MIN_X] <= maxX && minX <= _aabb[n + MAX_X] && _aabb[n + MIN_Y] <= maxY && minY <= _aabb[n + MAX_Y];
+	}
+
+	/**
+	 * 在不使用栈的情况下返回深度优先顺序中node之后的下一个待访问节点
+	 */
+	private int skip(int node) {
+		int parent = _links[(node << 2) + PARENT];
+		while (parent != NULL_NODE && _links[(parent << 2) + CHILD2] == node) {
+			node = parent;
+			parent = _links[(node << 2) + PARENT];
+		}
+		return parent == NULL_NODE ? NULL_NODE : _links[(parent << 2) + CHILD2];
+	}
+
+	/**
+	 * 查询外扩包围盒与指定区域重叠,且满足条件的对象并放入result(不清空result),返回新增数量.
+	 * 
+	 * 无写操作时可在多个线程中同时调用,但query对象本身需由调用者保证不被共享修改.
+	 * 
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 * @param query
+	 *            为null时不过滤
+	 * @param result
+	 * @return
+	 */
+	public int query(float x, float y, float width, float height, CollisionQuery query,
+			TArray<CollisionObject> result) {
+		final float maxX = x + width;
+		final float maxY = y + height;
+		int count = 0;
+		int node = _root;
+		while (node != NULL_NODE) {
+			if (overlaps(node, x, y, maxX, maxY)) {
+				if (!isLeaf(node)) {
+					node = _links[(node << 2) + CHILD1];
+					continue;
+				}
+				CollisionObject obj = _objects[node];
+				if (query == null || query.checkCollision(obj)) {
+					result.add(obj);
+					count++;
+				}
+			}
+			node = skip(node);
+		}
+		return count;
+	}
+
+	private boolean boundsIntersect(int leaf, float minX, float minY, float maxX, float maxY) {
+		final float x = _bounds[(leaf << 2) + X];
+		final float y = _bounds[(leaf << 2) + Y];
+		return x + _bounds[(leaf << 2) + W] > minX && x < maxX && y + _bounds[(leaf << 2) + H] > minY && y < maxY;
+	}
+
+	/**
+	 * 遍历全部实际包围盒相交的对象对,每对只回调一次,不产生任何对象.
+	 * 
+	 * 无写操作时可在多个线程中同时调用.
+	 * 
+	 * @param callback
+	 * @return 相交对数
+	 */
+	public int forEachPair(CollisionPairCallback callback) {
+		return forEachPair(null, callback);
+	}
+
+	/**
+	 * 遍历全部实际包围盒相交的对象对,flag不为null时只处理至少一方为此标记的对象对
+	 * 
+	 * @param flag
+	 * @param callback
+	 * @return 相交对数
+	 */
+	public int forEachPair(String flag, CollisionPairCallback callback) {
+		if (_root == NULL_NODE) {
+			return 0;
+		}
+		return selfPairs(_root, flag, callback);
+	}
+
+	// 子树内部的相交对,等于两棵子树各自内部的相交对加上两者之间的相交对
+	private int selfPairs(int node, String flag, CollisionPairCallback callback) {
+		if (isLeaf(node)) {
+			return 0;
+		}
+		final int c1 = _links[(node << 2) + CHILD1];
+		final int c2 = _links[(node << 2) + CHILD2];
+		return selfPairs(c1, flag, callback) + selfPairs(c2, flag, callback) + crossPairs(c1, c2, flag, callback);
+	}
+
+	private int crossPairs(int a, int b, String flag, CollisionPairCallback callback) {
+		if (!overlaps(a, _aabb[(b << 2) + MIN_X], _aabb[(b << 2) + MIN_Y], _aabb[(b << 2) + MAX_X], _aabb[(b << 2) + MAX_Y])) {
+			return 0;
+		}
+		final boolean leafA = isLeaf(a);
+		final boolean leafB = isLeaf(b);
+		if (leafA && leafB) {
+			final int n = a << 2;
+			if (!boundsIntersect(b, _bounds[n + X], _bounds[n + Y], _bounds[n + X] + _bounds[n + W],
+					_bounds[n + Y] + _bounds[n + H])) {
+				return 0;
+			}
+			final CollisionObject objA = _objects[a];
+			final CollisionObject objB = _objects[b];
+			if (flag != null && !flag.equals(objA.getObjectFlag()) && !flag.equals(objB.getObjectFlag())) {
+				return 0;
+			}
+			if (callback != null) {
+				callback.onCollisionPair(objA, objB);
+			}
+			return 1;
+		}
+		// 优先拆分较大的一方
+		if (leafA || (!leafB && perimeter(b) > perimeter(a))) {
+			return crossPairs(a, _links[(b << 2) + CHILD1], flag, callback)
+					+ crossPairs(a, _links[(b << 2) + CHILD2], flag, callback);
+		}
+		return crossPairs(_links[(a << 2) + CHILD1], b, flag, callback)
+				+ crossPairs(_links[(a << 2) + CHILD2], b, flag, callback);
+	}
+
+	private TArray<CollisionObject> getIntersectingObjects(float x, float y, float w, float h, CollisionQuery query) {
+		TArray<CollisionObject> result = new TArray<CollisionObject>();
+		query(x, y, w, h, query, result);
+		return result;
+	}
+
+	@Override
+	public TArray<CollisionObject> getObjectsAt(float x, float y, String flag) {
+		float px = x * this.cellSizeX + this.cellSizeX / 2f;
+		float py = y * this.cellSizeY + this.cellSizeY / 2f;
+		this.pointQuery.init(px, py, flag, this.offsetLocation);
+		return this.getIntersectingObjects(px, py, 1, 1, this.pointQuery);
+	}
+
+	@Override
+	public TArray<CollisionObject> getIntersectingObjects(CollisionObject actor, String flag) {
+		RectBox r = actor.getBoundingRect();
+		this.actorQuery.init(flag, actor, offsetLocation);
+		return getInTheLayerObjects(actor.getLayer(),
+				this.getIntersectingObjects(r.x, r.y, r.width, r.height, this.actorQuery));
+	}
+
+	@Override
+	public TArray<CollisionObject> getObjectsInRange(float x, float y, float r, String flag) {
+		float halfCellX = this.cellSizeX / 2;
+		float halfCellY = this.cellSizeY / 2;
+		float sizeRX = 2 * r * this.cellSizeX;
+		float sizeRY = 2 * r * this.cellSizeY;
+		this.actorQuery.init(flag, null, this.offsetLocation);
+		this.inRangeQuery.init(x * this.cellSizeX + halfCellX, y * this.cellSizeY + halfCellY,
+				r * MathUtils.max(this.cellSizeX, this.cellSizeY), this.offsetLocation);
+		TArray<CollisionObject> result = new TArray<CollisionObject>();
+		int node = _root;
+		final float minX = (x - r) * this.cellSizeX + halfCellX;
+		final float minY = (y - r) * this.cellSizeY + halfCellY;
+		final float maxX = minX + sizeRX;
+		final float maxY = minY + sizeRY;
+		while (node != NULL_NODE) {
+			if (overlaps(node, minX, minY, maxX, maxY)) {
+				if (!isLeaf(node)) {
+					node = _links[(node << 2) + CHILD1];
+					continue;
+				}
+				CollisionObject obj = _objects[node];
+				if (this.actorQuery.checkCollision(obj) && this.inRangeQuery.checkCollision(obj)) {
+					result.add(obj);
+				}
+			}
+			node = skip(node);
+		}
+		return result;
+	}
+
+	@Override
+	public TArray<CollisionObject> getNeighbours(CollisionObject actor, float distance, boolean diag, String flag) {
+		float x = actor.getX();
+		float y = actor.getY();
+		float xPixel = x * this.cellSizeX;
+		float yPixel = y * this.cellSizeY;
+		float dxPixel = distance * this.cellSizeX;
+		float dyPixel = distance * this.cellSizeY;
+		this.neighbourQuery.init(x, y, distance, diag, flag, this.offsetLocation);
+		return getInTheLayerObjects(actor.getLayer(), this.getIntersectingObjects(xPixel - dxPixel,
+				yPixel - dyPixel, dxPixel * 2 + 1, dyPixel * 2 + 1, this.neighbourQuery));
+	}
+
+	@Override
+	public TArray<CollisionObject> getObjects(String flag) {
+		TArray<CollisionObject> result = new TArray<CollisionObject>(MathUtils.max(1, _leafCount));
+		for (int i = 0; i < _capacity; i++) {
+			CollisionObject obj = _objects[i];
+			if (obj != null && _links[(i << 2) + HEIGHT] == 0 && (flag == null || flag.equals(obj.getObjectFlag()))) {
+				result.add(obj);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public TArray<CollisionObject> getObjectsList() {
+		return this.getObjects((String) null);
+	}
+
+	private CollisionObject firstObject(CollisionObject ignore, float x, float y, float w, float h,
+			CollisionQuery query) {
+		final float maxX = x + w;
+		final float maxY = y + h;
+		int node = _root;
+		while (node != NULL_NODE) {
+			if (overlaps(node, x, y, maxX, maxY)) {
+				if (!isLeaf(node)) {
+					node = _links[(node << 2) + CHILD1];
+					continue;
+				}
+				CollisionObject obj = _objects[node];
+				if (obj != ignore && query.checkCollision(obj)) {
+					return obj;
+				}
+			}
+			node = skip(node);
+		}
+		return null;
+	}
+
+	@Override
+	public CollisionObject getOnlyObjectAt(CollisionObject obj, float dx, float dy, String flag) {
+		float px = dx * this.cellSizeX + this.cellSizeX / 2f;
+		float py = dy * this.cellSizeY + this.cellSizeY / 2f;
+		this.pointQuery.init(px, py, flag, offsetLocation);
+		return getInTheLayerObject(obj.getLayer(), firstObject(obj, px, py, 1, 1, this.pointQuery));
+	}
+
+	@Override
+	public CollisionObject getOnlyIntersectingObject(CollisionObject actor, String flag) {
+		if (proxyOf(actor) == NULL_NODE) {
+			return null;
+		}
+		RectBox rect = actor.getBoundingRect();
+		this.actorQuery.init(flag, actor, this.offsetLocation);
+		return getInTheLayerObject(actor.getLayer(),
+				firstObject(actor, rect.x, rect.y, rect.width, rect.height, this.actorQuery));
+	}
+
+	private CollisionObject getInTheLayerObject(int layer, CollisionObject obj) {
+		if (!itlayer) {
+			return obj;
+		}
+		if (obj != null && obj.getLayer() == layer) {
+			return obj;
+		}
+		return null;
+	}
+
+	private TArray<CollisionObject> getInTheLayerObjects(int layer, TArray<CollisionObject> lists) {
+		if (!itlayer) {
+			return lists;
+		}
+		for (int i = lists.size - 1; i >= 0; i--) {
+			CollisionObject obj = lists.get(i);
+			if (obj == null || obj.getLayer() != layer) {
+				lists.removeIndex(i);
+			}
+		}
+		return lists;
+	}
+
+	@Override
+	public LIterator<CollisionObject> getActorsIterator() {
+		final TArray<CollisionObject> list = getActorsList();
+		return new LIterator<CollisionObject>() {
+
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < list.size;
+			}
+
+			@Override
+			public CollisionObject next() {
+				return list.get(index++);
+			}
+
+			@Override
+			public void remove() {
+				removeObject(list.removeIndex(--index));
+			}
+		};
+	}
+
+	@Override
+	public TArray<CollisionObject> getActorsList() {
+		return getObjects((String) null);
+	}
+
+	@Override
+	public void setInTheLayer(boolean yes) {
+		this.itlayer = yes;
+	}
+
+	@Override
+	public boolean getInTheLayer() {
+		return itlayer;
+	}
+
+	@Override
+	public void setOffsetPos(float x, float y) {
+		offsetLocation.set(x, y);
+	}
+
+	@Override
+	public void setOffsetX(float x) {
+		offsetLocation.setX(x);
+	}
+
+	@Override
+	public void setOffsetY(float y) {
+		offsetLocation.setY(y);
+	}
+
+	@Override
+	public Vector2f getOffsetPos() {
+		return offsetLocation;
+	}
+
+	@Override
+	public void dispose() {
+		clear();
+	}
+
+}
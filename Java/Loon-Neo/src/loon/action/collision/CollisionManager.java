@@ -35,19 +35,99 @@ public class CollisionManager implements CollisionChecker {
 
 	private ObjectSet<String> collisionClasses = new ObjectSet<String>();
 
-	private CollisionChecker collisionChecker = new BSPCollisionChecker();
+	private CollisionChecker collisionChecker;
+
+	private int cellSizeX = 32, cellSizeY = 32;
 
 	public CollisionManager() {
+		this(new BSPCollisionChecker());
+	}
+
+	/**
+	 * 以指定的CollisionChecker处理碰撞,例如以AABBTreeCollisionChecker代替默认的BSPCollisionChecker
+	 * 
+	 * @param checker
+	 */
+	public CollisionManager(CollisionChecker checker) {
+		this.collisionChecker = checker == null ? new BSPCollisionChecker() : checker;
 		initialize(32);
 	}
 
+	public CollisionChecker getCollisionChecker() {
+		return collisionChecker;
+	}
+
+	/**
+	 * 替换当前使用的CollisionChecker,已加入的对象会转移到新的CollisionChecker中
+	 * 
+	 * @param checker
+	 * @return
+	 */
+	public CollisionManager setCollisionChecker(CollisionChecker checker) {
+		if (checker == null || checker == collisionChecker) {
+			return this;
+		}
+		synchronized (CollisionManager.class) {
+			CollisionChecker old = collisionChecker;
+			checker.initialize(cellSizeX, cellSizeY);
+			checker.setInTheLayer(old.getInTheLayer());
+			checker.setOffsetPos(old.getOffsetPos().x, old.getOffsetPos().y);
+			TArray<CollisionObject> objects = old.getObjectsList();
+			old.dispose();
+			old.clear();
+			for (int i = 0; i < objects.size; i++) {
+				CollisionObject obj = objects.get(i);
+				obj.setCollisionData(null);
+				checker.addObject(obj);
+			}
+			if (checker instanceof AABBTreeCollisionChecker) {
+				((AABBTreeCollisionChecker) checker).optimize();
+			}
+			this.collisionChecker = checker;
+		}
+		return this;
+	}
+
+	/**
+	 * 遍历全部相交的对象对(当前CollisionChecker为AABBTreeCollisionChecker时不产生额外对象)
+	 * 
+	 * @param flag
+	 *            不为null时只处理至少一方为此标记的对象对
+	 * @param callback
+	 * @return 相交对数
+	 */
+	public int forEachPair(String flag, CollisionPairCallback callback) {
+		this.makeCollisionObjects(null, false);
+		if (collisionChecker instanceof AABBTreeCollisionChecker) {
+			return ((AABBTreeCollisionChecker) collisionChecker).forEachPair(flag, callback);
+		}
+		int count = 0;
+		TArray<CollisionObject> objects = collisionChecker.getObjectsList();
+		for (int i = 0; i < objects.size; i++) {
+			CollisionObject a = objects.get(i);
+			for (int j = i + 1; j < objects.size; j++) {
+				CollisionObject b = objects.get(j);
+				if ((flag == null || flag.equals(a.getObjectFlag()) || flag.equals(b.getObjectFlag()))
+						&& a.getBoundingRect().intersects(b.getBoundingRect())) {
+					count++;
+					if (callback != null) {
+						callback.onCollisionPair(a, b);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
 	@Override
 	public void initialize(int cellSize) {
-		this.collisionChecker.initialize(cellSize);
+		this.initialize(cellSize, cellSize);
 	}
 
 	@Override
 	public void initialize(int cellSizeX, int cellSizeY) {
+		this.cellSizeX = cellSizeX;
+		this.cellSizeY = cellSizeY;
 		this.collisionChecker.initialize(cellSizeX, cellSizeY);
 	}
 
@@ -100,6 +180,9 @@ public class CollisionManager implements CollisionChecker {
 				}
 			}
 		}
+		if (collisionChecker instanceof AABBTreeCollisionChecker) {
+			((AABBTreeCollisionChecker) collisionChecker).optimize();
+		}
 	}
 
 	private void prepareForCollision(CollisionObject actor, String flag) {
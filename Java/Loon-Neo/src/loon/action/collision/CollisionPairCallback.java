@@ -0,0 +1,36 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.collision;
+
+/**
+ * 碰撞对回调,用于以不产生额外对象的方式遍历全部相交的碰撞对象
+ */
+public interface CollisionPairCallback {
+
+	/**
+	 * 发现一对相交的碰撞对象(同一对只回调一次)
+	 * 
+	 * @param a
+	 * @param b
+	 */
+	void onCollisionPair(CollisionObject a, CollisionObject b);
+
+}
@@ -57,16 +57,12 @@ public class AStarFinder extends TileImplPathFind implements Updateable, LReleas
 
 	private final static IntMap<TArray<Vector2f>> FINDER_LAZY = new IntMap<TArray<Vector2f>>(100);
 
-	private final static int makeLazyKey(AStarFindHeuristic heuristic, int[][] map, int[] limits, int sx, int sy,
+	private final static int makeLazyKey(AStarFindHeuristic heuristic, Field2D map, int[] limits, int sx, int sy,
 			int ex, int ey, boolean flag) {
 		int hashCode = 1;
-		int w = map.length;
-		int h = map[0].length;
-		for (int i = 0; i < w; i++) {
-			for (int j = 0; j < h; j++) {
-				hashCode = LSystem.unite(hashCode, map[i][j]);
-			}
-		}
+		hashCode = LSystem.unite(hashCode, map.getWidth());
+		hashCode = LSystem.unite(hashCode, map.getHeight());
+		hashCode = LSystem.unite(hashCode, map.getMapHashCode());
 		if (limits != null) {
 			for (int i = 0; i < limits.length; i++) {
 				hashCode = LSystem.unite(hashCode, limits[i]);
@@ -83,6 +79,14 @@ public class AStarFinder extends TileImplPathFind implements Updateable, LReleas
 
 	public static TArray<Vector2f> find(AStarFindHeuristic heuristic, int[][] maps, int[] limits, int x1, int y1,
 			int x2, int y2, boolean flag) {
+		return find(heuristic, new Field2D(maps), false, limits, x1, y1, x2, y2, flag);
+	}
+
+	/**
+	 * 以地图内容的哈希值查找缓存,未命中时才在地图副本上寻径(shared为true时地图为调用者所有,需复制后使用)
+	 */
+	private static TArray<Vector2f> find(AStarFindHeuristic heuristic, Field2D maps, boolean shared, int[] limits,
+			int x1, int y1, int x2, int y2, boolean flag) {
 		heuristic = (heuristic == null ? ASTAR_MANHATTAN : heuristic);
 		synchronized (FINDER_LAZY) {
 			if (FINDER_LAZY.size >= LSystem.DEFAULT_MAX_CACHE_SIZE * 10) {
@@ -92,7 +96,7 @@ public class AStarFinder extends TileImplPathFind implements Updateable, LReleas
 			TArray<Vector2f> result = FINDER_LAZY.get(key);
 			if (result == null) {
 				AStarFinder astar = new AStarFinder(heuristic);
-				Field2D fieldMap = new Field2D(maps);
+				Field2D fieldMap = shared ? new Field2D(maps) : maps;
 				if (limits != null) {
 					fieldMap.setLimit(limits);
 				}
@@ -121,12 +125,12 @@ public class AStarFinder extends TileImplPathFind implements Updateable, LReleas
 
 	public static TArray<Vector2f> find(AStarFindHeuristic heuristic, Field2D maps, int x1, int y1, int x2, int y2,
 			boolean flag) {
-		return find(heuristic, maps.getMap(), maps.getLimit(), x1, y1, x2, y2, flag);
+		return find(heuristic, maps, true, maps.getLimit(), x1, y1, x2, y2, flag);
 	}
 
 	public static TArray<Vector2f> find(AStarFindHeuristic heuristic, Field2D maps, Vector2f start, Vector2f goal,
 			boolean flag) {
-		return find(heuristic, maps.getMap(), maps.getLimit(), start.x(), start.y(), goal.x(), goal.y(), flag);
+		return find(heuristic, maps, true, maps.getLimit(), start.x(), start.y(), goal.x(), goal.y(), flag);
 	}
 
 	public static TArray<Vector2f> find(AStarFindHeuristic heuristic, int[][] maps, Vector2f start, Vector2f goal,
@@ -31,6 +31,7 @@ import loon.geom.RectBox;
 import loon.geom.Vector2f;
 import loon.utils.CollectionUtils;
 import loon.utils.IArray;
+import loon.utils.IntChunkGrid;
 import loon.utils.MathUtils;
 import loon.utils.TArray;
 
@@ -55,6 +56,9 @@ public class Field2D implements IArray, Config {
 
 	private int[][] mapArrays;
 
+	// 稀疏存储(不为null时代替mapArrays)
+	private IntChunkGrid _grid;
+
 	private int[] moveLimited;
 
 	// default size
@@ -310,8 +314,25 @@ public class Field2D implements IArray, Config {
 		this.set(mapArrays, tw, th);
 	}
 
+	/**
+	 * 以分块稀疏网格为地图数据,适用于大而稀疏的地图(未写入的格子不占内存)
+	 * 
+	 * @param grid
+	 * @param width
+	 * @param height
+	 * @param tw
+	 * @param th
+	 */
+	public Field2D(IntChunkGrid grid, int width, int height, int tw, int th) {
+		this.set(grid, width, height, tw, th);
+	}
+
 	public void cpy(Field2D field) {
-		this.set(CollectionUtils.copyOf(field.mapArrays), field.tileWidth, field.tileHeight);
+		if (field._grid != null) {
+			this.set(field._grid.cpy(), field.width, field.height, field.tileWidth, field.tileHeight);
+		} else {
+			this.set(CollectionUtils.copyOf(field.mapArrays), field.tileWidth, field.tileHeight);
+		}
 	}
 
 	public Tile getTile(int x, int y) {
@@ -332,6 +353,46 @@ public class Field2D implements IArray, Config {
 		}
 	}
 
+	public void set(IntChunkGrid grid, int width, int height, int tw, int th) {
+		this.mapArrays = null;
+		this._grid = grid;
+		this.setTileWidth(tw);
+		this.setTileHeight(th);
+		this.width = width;
+		this.height = height;
+		if (_tileImpl == null) {
+			this._tileImpl = new TileHelper(tileWidth, tileHeight);
+		} else {
+			this._tileImpl.setWidth(tileWidth);
+			this._tileImpl.setHeight(tileHeight);
+		}
+	}
+
+	/**
+	 * 将当前的地图数组转为分块稀疏存储(数值为0的区域不再占用内存)
+	 * 
+	 * @return
+	 */
+	public Field2D toSparse() {
+		if (_grid == null) {
+			IntChunkGrid grid = new IntChunkGrid();
+			if (mapArrays != null) {
+				grid.setArray(0, 0, mapArrays);
+			}
+			this.mapArrays = null;
+			this._grid = grid;
+		}
+		return this;
+	}
+
+	public boolean isSparse() {
+		return _grid != null;
+	}
+
+	public IntChunkGrid getGrid() {
+		return _grid;
+	}
+
 	public void setSize(int width, int height) {
 		this.width = width;
 		this.height = height;
@@ -423,6 +484,9 @@ public class Field2D implements IArray, Config {
 			if (!allowLimit(x, y)) {
 				return -1;
 			}
+			if (_grid != null) {
+				return _grid.get(x, y);
+			}
 			return mapArrays[y][x];
 		} catch (Throwable e) {
 			return -1;
@@ -434,17 +498,51 @@ public class Field2D implements IArray, Config {
 			if (!allowLimit(x, y)) {
 				return;
 			}
+			if (_grid != null) {
+				_grid.set(x, y, tile);
+				return;
+			}
 			this.mapArrays[y][x] = tile;
 		} catch (Throwable e) {
 		}
 	}
 
 	public int[][] getMap() {
+		if (_grid != null) {
+			return _grid.toArray(0, 0, width, height);
+		}
 		return CollectionUtils.copyOf(mapArrays);
 	}
 
+	/**
+	 * 按地图内容计算哈希值(逐行读取,稀疏模式下不会生成完整数组)
+	 * 
+	 * @return
+	 */
+	public int getMapHashCode() {
+		int result = 1;
+		if (_grid != null) {
+			final int[] row = new int[width];
+			for (int y = 0; y < height; y++) {
+				_grid.getRow(0, y, width, row, 0);
+				for (int x = 0; x < width; x++) {
+					result = 31 * result + row[x];
+				}
+			}
+			return result;
+		}
+		for (int y = 0; y < height; y++) {
+			final int[] row = mapArrays[y];
+			for (int x = 0; x < width; x++) {
+				result = 31 * result + row[x];
+			}
+		}
+		return result;
+	}
+
 	public void setMap(int[][] mapArrays) {
 		this.mapArrays = mapArrays;
+		this._grid = null;
 	}
 
 	public int getPixelsAtFieldType(Vector2f pos) {
@@ -489,7 +587,7 @@ public class Field2D implements IArray, Config {
 	}
 
 	public boolean isHit(int px, int py) {
-		int type = get(mapArrays, px, py);
+		int type = _grid == null ? get(mapArrays, px, py) : getTileType(px, py);
 		if (type == -1) {
 			return false;
 		}
@@ -640,6 +738,10 @@ public class Field2D implements IArray, Config {
 	}
 
 	public Field2D setValues(int val) {
+		if (_grid != null) {
+			_grid.setDefaultValue(val);
+			return this;
+		}
 		int w = mapArrays[0].length;
 		int h = mapArrays.length;
 		for (int i = 0; i < h; i++) {
@@ -676,6 +778,9 @@ public class Field2D implements IArray, Config {
 
 	@Override
 	public boolean isEmpty() {
+		if (_grid != null) {
+			return width <= 0 || height <= 0;
+		}
 		return mapArrays == null || mapArrays.length == 0;
 	}
 
@@ -694,6 +799,11 @@ public class Field2D implements IArray, Config {
 
 	@Override
 	public void clear() {
+		if (_grid != null) {
+			// 与数组模式一致清零,setValues改过的默认值也一并复位
+			_grid.setDefaultValue(0);
+			return;
+		}
 		set(new int[height][width], width, height);
 	}
 
@@ -711,7 +821,7 @@ public class Field2D implements IArray, Config {
 		buffer.append(LSystem.LS);
 		for (int i = 0; i < height; i++) {
 			for (int j = 0; j < width; j++) {
-				buffer.append(mapArrays[i][j]);
+				buffer.append(getTileType(j, i));
 				if (j < width - 1) {
 					buffer.append(split);
 				}
@@ -51,6 +51,7 @@ import loon.opengl.GLEx;
 import loon.opengl.LTexturePack;
 import loon.opengl.LTexturePackClip;
 import loon.utils.CollectionUtils;
+import loon.utils.IntArray;
 import loon.utils.IntMap;
 import loon.utils.MathUtils;
 import loon.utils.SortedList;
@@ -92,6 +93,8 @@ public class HexagonMap extends LObject<ISprite> implements FontSet<HexagonMap>,
 
 	private AStarFindHeuristic heuristic = null;
 
+	private HexagonNavigator navigator;
+
 	private SortedList<int[]> focuses;
 
 	private Format format = Format.LINEAR;
@@ -312,57 +315,18 @@ public class HexagonMap extends LObject<ISprite> implements FontSet<HexagonMap>,
 	}
 
 	public static Path findPath(HexagonMap map, int[] start, int[] end, int endRadius) {
-		NodeList openNodes = new NodeList();
-		NodeList closedNodes = new NodeList();
-		openNodes.add(new Node(start));
-		Node found = null;
-		for (;;) {
-			if (openNodes.size == 0) {
-				return null;
-			}
-			Node node = openNodes.removeIndex(0);
-			int distance = map.distance(node.position, end);
-			if (distance <= endRadius) {
-				found = node;
-				break;
-			}
-			closedNodes.add(node);
-			int[][] positions = map.adjacent(node.position);
-			for (int[] position : positions) {
-				if (!map.isAllowMoved(position)) {
-					continue;
-				}
-				if (closedNodes.find(position) != null) {
-					continue;
-				}
-				Node openNode = openNodes.find(position);
-				if (openNode == null) {
-					Node newNode = new Node(position);
-					newNode.g = node.g + map.getLimitType(position);
-					newNode.h = (int) (map.distance(position, end) * map.baseScore(position, end));
-					newNode.f = newNode.g + newNode.h;
-					newNode.parent = node;
-					openNodes.insert(newNode);
-				} else {
-					int g = node.g + map.getLimitType(position);
-					if (openNode.g > g) {
-						openNode.g = g;
-						openNode.f = openNode.g + openNode.h;
-						openNode.parent = node;
-						openNodes.sort(openNode);
-					}
-				}
-			}
-		}
-		if (found == null) {
+		final HexagonNavigator navigator = map.getNavigator();
+		final int cost = navigator.findPath(start[0], start[1], end[0], end[1], endRadius, null);
+		if (cost < 0) {
 			return null;
 		}
+		final IntArray hexes = navigator.getPath();
 		Path path = new Path();
-		path.cost = found.g;
+		path.cost = cost;
 		SortedList<int[]> positions = new SortedList<int[]>();
-		while (found != null) {
-			positions.addFirst(CollectionUtils.copyOf(found.position));
-			found = found.parent;
+		for (int i = 0; i < hexes.length; i++) {
+			final int hex = hexes.get(i);
+			positions.add(new int[] { HexagonNavigator.unpackQ(hex), HexagonNavigator.unpackR(hex) });
 		}
 		path.positions = positions;
 		return path;
@@ -632,6 +596,18 @@ public class HexagonMap extends LObject<ISprite> implements FontSet<HexagonMap>,
 		return orientationsByHexagon[r + 1][c + 1];
 	}
 
+	/**
+	 * 获得本地图的寻路,移动范围与视野组件(各查询复用同一组缓冲区)
+	 * 
+	 * @return
+	 */
+	public HexagonNavigator getNavigator() {
+		if (navigator == null) {
+			navigator = new HexagonNavigator(this);
+		}
+		return navigator;
+	}
+
 	public AStarFindHeuristic getHeuristic() {
 		return heuristic;
 	}
@@ -0,0 +1,615 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.map;
+
+import loon.action.map.colider.TileImpl;
+import loon.utils.IntArray;
+import loon.utils.MathUtils;
+
+/**
+ * 六边形地图的寻路,移动范围与视野计算组件.
+ * 
+ * 坐标与HexagonMap相同(轴向坐标q,r,存储位置为[q + (r >> 1)][r]),对外用pack后的int表示一个格子.
+ * 全部查询共用一组按地图大小分配的缓冲区,以世代号标记访问状态,不需要每次清空,查询过程中不产生对象.
+ */
+public class HexagonNavigator {
+
+	/**
+	 * 地形数据
+	 */
+	public static interface Terrain {
+
+		/**
+		 * 进入该格需要的消耗,小于0时不可通行
+		 */
+		public int getCost(int q, int r);
+
+		/**
+		 * 该格是否遮挡视线
+		 */
+		public boolean isOpaque(int q, int r);
+
+	}
+
+	/**
+	 * 直接读取HexagonMap瓦片的地形,消耗与HexagonMap.getLimitType一致
+	 */
+	protected static class MapTerrain implements Terrain {
+
+		protected final HexagonMap map;
+
+		public MapTerrain(HexagonMap map) {
+			this.map = map;
+		}
+
+		@Override
+		public int getCost(int q, int r) {
+			final TileImpl tile = map.tiles[q + (r >> 1)][r];
+			if (tile == null) {
+				return -1;
+			}
+			final int id = tile.idx;
+			final int[] limits = map.getLimit();
+			if (limits != null) {
+				for (int i = 0; i < limits.length; i++) {
+					if (limits[i] == id) {
+						return -1;
+					}
+				}
+			}
+			return id;
+		}
+
+		@Override
+		public boolean isOpaque(int q, int r) {
+			return getCost(q, r) < 0;
+		}
+
+	}
+
+	// 与HexagonMap.adjacent相同的邻格顺序
+	private final static int[] NEIGHBOR_Q = { -1, 0, 1, 1, 0, -1 };
+
+	private final static int[] NEIGHBOR_R = { 0, -1, -1, 0, 1, 1 };
+
+	// 环形遍历的方向顺序,起点为中心沿(-1,1)方向移动半径格
+	private final static int[] RING_Q = { 1, 1, 0, -1, -1, 0 };
+
+	private final static int[] RING_R = { 0, -1, -1, 0, 1, 1 };
+
+	// 视野以六个扇区为一周
+	private final static float FULL_TURN = 6f;
+
+	public static int pack(int q, int r) {
+		return (r << 16) | (q & 0xFFFF);
+	}
+
+	public static int unpackQ(int hex) {
+		return (short) hex;
+	}
+
+	public static int unpackR(int hex) {
+		return hex >> 16;
+	}
+
+	public static int distance(int q1, int r1, int q2, int r2) {
+		final int dq = q2 - q1;
+		final int dr = r2 - r1;
+		return (MathUtils.abs(dq) + MathUtils.abs(dr) + MathUtils.abs(dq + dr)) >> 1;
+	}
+
+	private final HexagonMap _map;
+
+	private final Terrain _terrain;
+
+	private AStarFindHeuristic _heuristic;
+
+	private float _heuristicScale;
+
+	private int _cols, _rows;
+
+	private int _generation;
+
+	private int _sequence;
+
+	private int[] _stamp, _closed, _g, _h, _order, _parent, _heapIndex;
+
+	private int[] _heap;
+
+	private int _heapSize;
+
+	private int _rangeGeneration, _viewGeneration;
+
+	private final IntArray _path = new IntArray();
+
+	private float[] _shadowStart = new float[16];
+
+	private float[] _shadowEnd = new float[16];
+
+	private int _shadowCount;
+
+	/**
+	 * 使用HexagonMap的瓦片作为地形,寻路估值与HexagonMap.baseScore一致
+	 * 
+	 * @param map
+	 */
+	public HexagonNavigator(HexagonMap map) {
+		this._map = map;
+		this._terrain = new MapTerrain(map);
+		this._heuristicScale = 10f;
+	}
+
+	public HexagonNavigator(int cols, int rows, Terrain terrain) {
+		this._map = null;
+		this._terrain = terrain;
+		this._heuristicScale = 1f;
+		resize(cols, rows);
+	}
+
+	public HexagonNavigator resize(int cols, int rows) {
+		if (cols == _cols && rows == _rows && _stamp != null) {
+			return this;
+		}
+		final int size = MathUtils.max(cols * rows, 1);
+		this._cols = cols;
+		this._rows = rows;
+		if (_stamp == null || _stamp.length < size) {
+			_stamp = new int[size];
+			_closed = new int[size];
+			_g = new int[size];
+			_h = new int[size];
+			_order = new int[size];
+			_parent = new int[size];
+			_heapIndex = new int[size];
+			_heap = new int[size];
+			_generation = 0;
+		}
+		return this;
+	}
+
+	public int getCols() {
+		return _cols;
+	}
+
+	public int getRows() {
+		return _rows;
+	}
+
+	public AStarFindHeuristic getHeuristic() {
+		return _heuristic;
+	}
+
+	/**
+	 * 设置寻路估值,为null时使用距离乘以估值系数
+	 */
+	public HexagonNavigator setHeuristic(AStarFindHeuristic heuristic) {
+		this._heuristic = heuristic;
+		return this;
+	}
+
+	public float getHeuristicScale() {
+		return _heuristicScale;
+	}
+
+	/**
+	 * 估值系数不大于地形的最小消耗时,寻路结果为最短路径
+	 */
+	public HexagonNavigator setHeuristicScale(float scale) {
+		this._heuristicScale = scale;
+		return this;
+	}
+
+	public boolean contains(int q, int r) {
+		final int m = q + (r >> 1);
+		return m >= 0 && m < _cols && r >= 0 && r < _rows;
+	}
+
+	private int index(int q, int r) {
+		return r * _cols + q + (r >> 1);
+	}
+
+	private int toPacked(int idx) {
+		final int r = idx / _cols;
+		return pack(idx - r * _cols - (r >> 1), r);
+	}
+
+	private void prepare() {
+		if (_map != null) {
+			resize(_map.cols, _map.rows);
+			_heuristic = _map.getHeuristic();
+		}
+		if (_generation == Integer.MAX_VALUE) {
+			for (int i = 0; i < _stamp.length; i++) {
+				_stamp[i] = 0;
+				_closed[i] = 0;
+			}
+			_generation = 0;
+		}
+		_generation++;
+		_sequence = 0;
+		_heapSize = 0;
+	}
+
+	/**
+	 * A*寻路,结果为从起点到终点(含两端)的格子,可用getPath获取
+	 * 
+	 * @param startQ
+	 * @param startR
+	 * @param endQ
+	 * @param endR
+	 * @param endRadius 与终点距离不超过此值即视为到达
+	 * @param out       可为null
+	 * @return 路径总消耗,无法到达时返回-1
+	 */
+	public int findPath(int startQ, int startR, int endQ, int endR, int endRadius, IntArray out) {
+		prepare();
+		_path.clear();
+		if (out != null) {
+			out.clear();
+		}
+		if (distance(startQ, startR, endQ, endR) <= endRadius) {
+			_path.add(pack(startQ, startR));
+			if (out != null) {
+				out.add(pack(startQ, startR));
+			}
+			return 0;
+		}
+		if (!contains(startQ, startR)) {
+			return -1;
+		}
+		final int gen = _generation;
+		final int start = index(startQ, startR);
+		_stamp[start] = gen;
+		_g[start] = 0;
+		_h[start] = 0;
+		_parent[start] = -1;
+		push(start);
+		while (_heapSize > 0) {
+			final int node = pop();
+			_closed[node] = gen;
+			final int r = node / _cols;
+			final int q = node - r * _cols - (r >> 1);
+			if (distance(q, r, endQ, endR) <= endRadius) {
+				for (int idx = node; idx != -1; idx = _parent[idx]) {
+					_path.add(toPacked(idx));
+				}
+				_path.reverse();
+				if (out != null) {
+					out.addAll(_path);
+				}
+				return _g[node];
+			}
+			for (int i = 0; i < 6; i++) {
+				final int nq = q + NEIGHBOR_Q[i];
+				final int nr = r + NEIGHBOR_R[i];
+				if (!contains(nq, nr)) {
+					continue;
+				}
+				final int next = index(nq, nr);
+				if (_closed[next] == gen) {
+					continue;
+				}
+				final int cost = _terrain.getCost(nq, nr);
+				if (cost < 0) {
+					continue;
+				}
+				final int g = _g[node] + cost;
+				if (_stamp[next] != gen) {
+					_stamp[next] = gen;
+					_g[next] = g;
+					_h[next] = estimate(nq, nr, endQ, endR);
+					_parent[next] = node;
+					push(next);
+				} else if (_g[next] > g) {
+					_g[next] = g;
+					_parent[next] = node;
+					siftUp(_heapIndex[next]);
+				}
+			}
+		}
+		return -1;
+	}
+
+	public int findPath(int startQ, int startR, int endQ, int endR, IntArray out) {
+		return findPath(startQ, startR, endQ, endR, 0, out);
+	}
+
+	/**
+	 * 最近一次findPath的结果(pack后的格子),下次寻路时会被覆盖
+	 */
+	public IntArray getPath() {
+		return _path;
+	}
+
+	private int estimate(int q, int r, int endQ, int endR) {
+		final float score = (_heuristic != null) ? _heuristic.getScore(q, r, endQ, endR) : _heuristicScale;
+		return (int) (distance(q, r, endQ, endR) * score);
+	}
+
+	/**
+	 * 计算消耗不超过budget即可到达的全部格子(含起点),按到达消耗从小到大输出
+	 * 
+	 * @param q
+	 * @param r
+	 * @param budget
+	 * @param out    可为null
+	 * @return 可到达的格子数
+	 */
+	public int movementRange(int q, int r, int budget, IntArray out) {
+		prepare();
+		if (out != null) {
+			out.clear();
+		}
+		_rangeGeneration = _generation;
+		if (!contains(q, r) || budget < 0) {
+			return 0;
+		}
+		final int gen = _generation;
+		final int start = index(q, r);
+		_stamp[start] = gen;
+		_g[start] = 0;
+		_h[start] = 0;
+		_parent[start] = -1;
+		push(start);
+		int count = 0;
+		while (_heapSize > 0) {
+			final int node = pop();
+			_closed[node] = gen;
+			count++;
+			final int nr = node / _cols;
+			final int nq = node - nr * _cols - (nr >> 1);
+			if (out != null) {
+				out.add(pack(nq, nr));
+			}
+			for (int i = 0; i < 6; i++) {
+				final int aq = nq + NEIGHBOR_Q[i];
+				final int ar = nr + NEIGHBOR_R[i];
+				if (!contains(aq, ar)) {
+					continue;
+				}
+				final int next = index(aq, ar);
+				if (_closed[next] == gen) {
+					continue;
+				}
+				final int cost = _terrain.getCost(aq, ar);
+				if (cost < 0) {
+					continue;
+				}
+				final int g = _g[node] + cost;
+				if (g > budget) {
+					continue;
+				}
+				if (_stamp[next] != gen) {
+					_stamp[next] = gen;
+					_g[next] = g;
+					_h[next] = 0;
+					_parent[next] = node;
+					push(next);
+				} else if (_g[next] > g) {
+					_g[next] = g;
+					_parent[next] = node;
+					siftUp(_heapIndex[next]);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 最近一次movementRange中到达该格的消耗,不可到达时返回-1
+	 */
+	public int getRangeCost(int q, int r) {
+		if (_rangeGeneration != _generation || !contains(q, r)) {
+			return -1;
+		}
+		final int idx = index(q, r);
+		return _closed[idx] == _generation ? _g[idx] : -1;
+	}
+
+	/**
+	 * 以六边形阴影投射计算视野,格子中心位于已见遮挡物的阴影内即不可见
+	 * 
+	 * @param q
+	 * @param r
+	 * @param radius
+	 * @param out    可为null
+	 * @return 可见的格子数(含中心)
+	 */
+	public int fieldOfView(int q, int r, int radius, IntArray out) {
+		prepare();
+		if (out != null) {
+			out.clear();
+		}
+		_viewGeneration = _generation;
+		_shadowCount = 0;
+		if (!contains(q, r)) {
+			return 0;
+		}
+		final int gen = _generation;
+		_stamp[index(q, r)] = gen;
+		if (out != null) {
+			out.add(pack(q, r));
+		}
+		int count = 1;
+		final int maxRadius = MathUtils.min(radius, _cols + _rows);
+		for (int k = 1; k <= maxRadius && !fullShadow(); k++) {
+			int cq = q - k;
+			int cr = r + k;
+			final float unit = 1f / k;
+			int n = 0;
+			for (int side = 0; side < 6; side++) {
+				for (int j = 0; j < k; j++, n++) {
+					if (contains(cq, cr) && !inShadow(n * unit)) {
+						_stamp[index(cq, cr)] = gen;
+						count++;
+						if (out != null) {
+							out.add(pack(cq, cr));
+						}
+						if (_terrain.isOpaque(cq, cr)) {
+							addShadow((n - 0.5f) * unit, (n + 0.5f) * unit);
+						}
+					}
+					cq += RING_Q[side];
+					cr += RING_R[side];
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 最近一次fieldOfView中该格是否可见
+	 */
+	public boolean isVisible(int q, int r) {
+		return _viewGeneration == _generation && contains(q, r) && _stamp[index(q, r)] == _generation;
+	}
+
+	private boolean inShadow(float angle) {
+		for (int i = 0; i < _shadowCount; i++) {
+			if (angle < _shadowStart[i]) {
+				return false;
+			}
+			if (angle <= _shadowEnd[i]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean fullShadow() {
+		return _shadowCount == 1 && _shadowStart[0] <= 0f && _shadowEnd[0] >= FULL_TURN;
+	}
+
+	private void addShadow(float start, float end) {
+		if (start < 0f) {
+			insertShadow(start + FULL_TURN, FULL_TURN);
+			insertShadow(0f, end);
+		} else if (end > FULL_TURN) {
+			insertShadow(start, FULL_TURN);
+			insertShadow(0f, end - FULL_TURN);
+		} else {
+			insertShadow(start, end);
+		}
+	}
+
+	private void insertShadow(float start, float end) {
+		int i = 0;
+		while (i < _shadowCount && _shadowEnd[i] < start) {
+			i++;
+		}
+		int j = i;
+		while (j < _shadowCount && _shadowStart[j] <= end) {
+			start = MathUtils.min(start, _shadowStart[j]);
+			end = MathUtils.max(end, _shadowEnd[j]);
+			j++;
+		}
+		final int removed = j - i;
+		if (removed == 0) {
+			if (_shadowCount == _shadowStart.length) {
+				final float[] newStart = new float[_shadowCount * 2];
+				final float[] newEnd = new float[_shadowCount * 2];
+				System.arraycopy(_shadowStart, 0, newStart, 0, _shadowCount);
+				System.arraycopy(_shadowEnd, 0, newEnd, 0, _shadowCount);
+				_shadowStart = newStart;
+				_shadowEnd = newEnd;
+			}
+			System.arraycopy(_shadowStart, i, _shadowStart, i + 1, _shadowCount - i);
+			System.arraycopy(_shadowEnd, i, _shadowEnd, i + 1, _shadowCount - i);
+			_shadowCount++;
+		} else if (removed > 1) {
+			System.arraycopy(_shadowStart, j, _shadowStart, i + 1, _shadowCount - j);
+			System.arraycopy(_shadowEnd, j, _shadowEnd, i + 1, _shadowCount - j);
+			_shadowCount -= removed - 1;
+		}
+		_shadowStart[i] = start;
+		_shadowEnd[i] = end;
+	}
+
+	// 二叉堆,按f(g + h),h,入堆顺序排序,与HexagonMap原有的有序表一致
+
+	private boolean less(int a, int b) {
+		final int fa = _g[a] + _h[a];
+		final int fb = _g[b] + _h[b];
+		if (fa != fb) {
+			return fa < fb;
+		}
+		if (_h[a] != _h[b]) {
+			return _h[a] < _h[b];
+		}
+		return _order[a] < _order[b];
+	}
+
+	private void push(int node) {
+		_order[node] = _sequence++;
+		_heap[_heapSize] = node;
+		_heapIndex[node] = _heapSize;
+		siftUp(_heapSize++);
+	}
+
+	private int pop() {
+		final int top = _heap[0];
+		final int last = _heap[--_heapSize];
+		if (_heapSize > 0) {
+			_heap[0] = last;
+			_heapIndex[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int pos) {
+		final int node = _heap[pos];
+		while (pos > 0) {
+			final int parent = (pos - 1) >> 1;
+			final int other = _heap[parent];
+			if (!less(node, other)) {
+				break;
+			}
+			_heap[pos] = other;
+			_heapIndex[other] = pos;
+			pos = parent;
+		}
+		_heap[pos] = node;
+		_heapIndex[node] = pos;
+	}
+
+	private void siftDown(int pos) {
+		final int node = _heap[pos];
+		final int half = _heapSize >> 1;
+		while (pos < half) {
+			int child = (pos << 1) + 1;
+			final int right = child + 1;
+			if (right < _heapSize && less(_heap[right], _heap[child])) {
+				child = right;
+			}
+			final int other = _heap[child];
+			if (!less(other, node)) {
+				break;
+			}
+			_heap[pos] = other;
+			_heapIndex[other] = pos;
+			pos = child;
+		}
+		_heap[pos] = node;
+		_heapIndex[node] = pos;
+	}
+
+}
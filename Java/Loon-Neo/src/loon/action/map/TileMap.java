@@ -459,11 +459,10 @@ public class TileMap extends LObject<ISprite> implements ISprite {
 		if (!dirty && lastOffsetX == offsetX && lastOffsetY == offsetY) {
 			texturePack.postCache();
 			if (playAnimation) {
-				int[][] maps = field2d.getMap();
 				for (int i = firstTileX; i < lastTileX; i++) {
 					for (int j = firstTileY; j < lastTileY; j++) {
 						if (i > -1 && j > -1 && i < field2d.getWidth() && j < field2d.getHeight()) {
-							int id = maps[j][i];
+							int id = field2d.getTileType(i, j);
 							for (TileImpl tile : arrays) {
 								if (tile.isAnimation && tile.idx == id) {
 									if (useBatch) {
@@ -499,11 +498,10 @@ public class TileMap extends LObject<ISprite> implements ISprite {
 			lastTileX = MathUtils.min(lastTileX, field2d.getWidth());
 			lastTileY = firstTileY + field2d.pixelsToTilesHeight(maxHeight) + 1;
 			lastTileY = MathUtils.min(lastTileY, field2d.getHeight());
-			int[][] maps = field2d.getMap();
 			for (int i = firstTileX; i < lastTileX; i++) {
 				for (int j = firstTileY; j < lastTileY; j++) {
 					if (i > -1 && j > -1 && i < field2d.getWidth() && j < field2d.getHeight()) {
-						int id = maps[j][i];
+						int id = field2d.getTileType(i, j);
 						for (TileImpl tile : arrays) {
 							if (playAnimation) {
 								if (tile.idx == id) {
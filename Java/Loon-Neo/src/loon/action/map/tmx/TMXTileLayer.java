@@ -20,7 +20,6 @@
  */
 package loon.action.map.tmx;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
@@ -31,7 +30,6 @@ import loon.LSystem;
 import loon.action.map.Field2D;
 import loon.action.map.TileMapConfig;
 import loon.action.map.tmx.tiles.TMXMapTile;
-import loon.utils.Base64Coder;
 import loon.utils.MathUtils;
 import loon.utils.TArray;
 import loon.utils.xml.XMLElement;
@@ -48,6 +46,11 @@ public class TMXTileLayer extends TMXMapLayer {
 
 	private TMXMapTile[] tileMap;
 
+	// 图块数据的修改次数与最近一次修改的位置,渲染器据此让区块缓存失效
+	private int modCount;
+
+	private int modX = -1, modY = -1;
+
 	private Encoding encoding;
 	private Compression compression;
 
@@ -73,6 +76,7 @@ public class TMXTileLayer extends TMXMapLayer {
 			properties.parse(nodes);
 
 		tileMap = new TMXMapTile[width * height];
+		markModified(-1, -1);
 
 		XMLElement dataElement = element.getChildrenByName("data");
 
@@ -110,14 +114,14 @@ public class TMXTileLayer extends TMXMapLayer {
 
 		case BASE64:
 			try {
-				parseBase64(dataElement.getContents());
+				parseBase64(dataElement.readContentBase64());
 			} catch (Throwable e) {
 				LSystem.error("TMXTile parse base64 exception", e);
 			}
 			break;
 
 		case CSV:
-			parseCSV(dataElement.getContents());
+			parseCSV(dataElement);
 			break;
 		}
 	}
@@ -144,50 +148,54 @@ public class TMXTileLayer extends TMXMapLayer {
 		return b & 0xFF;
 	}
 
-	private void parseBase64(String base64) throws Exception {
-		byte[] bytes = Base64Coder.decodeBase64(base64.toCharArray());
-		InputStream is = null;
-		if (compression == null || compression == Compression.NONE) {
-			is = new ByteArrayInputStream(bytes);
-		} else if (compression == Compression.GZIP) {
-			is = new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes), bytes.length));
-		} else if (compression == Compression.ZLIB) {
-			is = new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)));
-		}
-		byte[] temp = new byte[4];
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				int read = is.read(temp);
-				while (read < temp.length) {
-					int curr = is.read(temp, read, temp.length - read);
-					if (curr == -1)
-						break;
-					read += curr;
-				}
-				if (read != temp.length) {
-					throw new LSysException("Error Reading TMX Layer Data: Premature end of tile data");
+	private void parseBase64(byte[] bytes) throws Exception {
+		final int length = width * height * 4;
+		byte[] data = bytes;
+		if (compression == Compression.GZIP || compression == Compression.ZLIB) {
+			InputStream is = null;
+			if (compression == Compression.GZIP) {
+				is = new GZIPInputStream(new ByteArrayInputStream(bytes), bytes.length);
+			} else {
+				is = new InflaterInputStream(new ByteArrayInputStream(bytes));
+			}
+			data = new byte[length];
+			int read = 0;
+			while (read < length) {
+				int curr = is.read(data, read, length - read);
+				if (curr == -1) {
+					break;
 				}
-				int gid = byteToInt(temp[0]) | byteToInt(temp[1]) << 8 | byteToInt(temp[2]) << 16
-						| byteToInt(temp[3]) << 24;
+				read += curr;
+			}
+			is.close();
+			if (read != length) {
+				throw new LSysException("Error Reading TMX Layer Data: Premature end of tile data");
+			}
+		} else if (data.length < length) {
+			throw new LSysException("Error Reading TMX Layer Data: Premature end of tile data");
+		}
+		for (int i = 0, tileCount = 0; i < length; i += 4, tileCount++) {
+			int gid = byteToInt(data[i]) | byteToInt(data[i + 1]) << 8 | byteToInt(data[i + 2]) << 16
+					| byteToInt(data[i + 3]) << 24;
 
-				int tileSetIndex = map.findTileSetIndex(gid);
+			int tileSetIndex = map.findTileSetIndex(gid);
 
-				if (tileSetIndex != -1) {
-					TMXTileSet tileSet = map.getTileset(tileSetIndex);
-					tileMap[y * width + x] = new TMXMapTile(gid, tileSet.getFirstGID(), tileSetIndex);
-				} else {
-					tileMap[y * width + x] = new TMXMapTile(gid, 0, -1);
-				}
+			if (tileSetIndex != -1) {
+				TMXTileSet tileSet = map.getTileset(tileSetIndex);
+				tileMap[tileCount] = new TMXMapTile(gid, tileSet.getFirstGID(), tileSetIndex);
+			} else {
+				tileMap[tileCount] = new TMXMapTile(gid, 0, -1);
 			}
 		}
 	}
 
-	private void parseCSV(String csv) {
-		String[] tokens = csv.split(",");
-		int tileCount = 0;
+	private void parseCSV(XMLElement dataElement) {
+		// 直接从解析缓冲区读取数字,不再分割字符串
+		final int[] gids = new int[tileMap.length];
+		final int size = dataElement.readContentInts(gids, 0);
 
-		for (String token : tokens) {
-			int gid = MathUtils.parseUnsignedInt(token.trim());
+		for (int tileCount = 0; tileCount < size; tileCount++) {
+			int gid = gids[tileCount];
 
 			int tileSetIndex = map.findTileSetIndex(gid);
 
@@ -197,8 +205,6 @@ public class TMXTileLayer extends TMXMapLayer {
 			} else {
 				tileMap[tileCount] = new TMXMapTile(gid, 0, -1);
 			}
-
-			tileCount++;
 		}
 	}
 
@@ -210,6 +216,40 @@ public class TMXTileLayer extends TMXMapLayer {
 		} else {
 			tileMap[y * width + x] = new TMXMapTile(gid, 0, -1);
 		}
+		markModified(x, y);
+	}
+
+	private void markModified(int x, int y) {
+		modCount++;
+		modX = x;
+		modY = y;
+	}
+
+	/**
+	 * 图块数据的修改次数(setTileGID或重新解析时递增)
+	 * 
+	 * @return
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * 最近一次修改的图块x坐标,整层被重新解析时为-1
+	 * 
+	 * @return
+	 */
+	public int getModX() {
+		return modX;
+	}
+
+	/**
+	 * 最近一次修改的图块y坐标,整层被重新解析时为-1
+	 * 
+	 * @return
+	 */
+	public int getModY() {
+		return modY;
 	}
 
 	public int getTileID(int x, int y) {
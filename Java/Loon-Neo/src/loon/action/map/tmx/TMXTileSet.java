@@ -108,20 +108,16 @@ public class TMXTileSet {
 				* (image.getHeight() / tileHeight);
 
 		for (int tID = 0; tID < tileCount; tID++) {
-			TMXTile tile = new TMXTile(tID + firstGID);
+			TMXTile tile = new TMXTile(tID);
 			tiles.add(tile);
 		}
 
-		nodes = element.getChildrenByName("tile");
-
-		if (nodes != null) {
-
-			TArray<XMLElement> list = nodes.list();
-			for (int i = 0; i < list.size; i++) {
-				XMLElement tileNode = list.get(i);
-				TMXTile tile = new TMXTile(i);
-				tile.parse(tileNode);
-				tiles.get(tile.getID()).parse(tileNode);
+		TArray<XMLElement> tileNodes = element.list("tile");
+		for (int i = 0; i < tileNodes.size; i++) {
+			XMLElement tileNode = tileNodes.get(i);
+			int tileID = tileNode.getIntAttribute("id", i);
+			if (tileID >= 0 && tileID < tiles.size) {
+				tiles.get(tileID).parse(tileNode);
 			}
 		}
 
@@ -168,6 +164,12 @@ public class TMXTileSet {
 	}
 
 	public TMXTile getTile(int id) {
+		if (id >= 0 && id < tiles.size) {
+			TMXTile tile = tiles.get(id);
+			if (tile.getID() == id) {
+				return tile;
+			}
+		}
 		for (TMXTile tile : tiles) {
 			if (tile.getID() == id) {
 				return tile;
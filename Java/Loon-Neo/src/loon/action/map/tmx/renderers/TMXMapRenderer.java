@@ -24,6 +24,7 @@ import loon.LObject;
 import loon.LSysException;
 import loon.LSystem;
 import loon.LTexture;
+import loon.LTextureBatch;
 import loon.PlayerUtils;
 import loon.Screen;
 import loon.action.ActionTween;
@@ -34,13 +35,19 @@ import loon.action.map.tmx.TMXMapLayer;
 import loon.action.map.tmx.TMXTileLayer;
 import loon.action.map.tmx.TMXTileSet;
 import loon.action.map.tmx.tiles.TMXAnimationFrame;
+import loon.action.map.tmx.tiles.TMXMapTile;
 import loon.action.map.tmx.tiles.TMXTile;
 import loon.action.sprite.ISprite;
 import loon.action.sprite.Sprites;
 import loon.canvas.LColor;
 import loon.geom.RectBox;
+import loon.geom.Vector2f;
+import loon.opengl.BlendState;
 import loon.opengl.GLEx;
+import loon.utils.IntArray;
+import loon.utils.MathUtils;
 import loon.utils.ObjectMap;
+import loon.utils.TArray;
 import loon.utils.TimeUtils;
 
 public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite {
@@ -76,8 +83,6 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 		}
 	}
 
-	protected abstract void renderTileLayer(GLEx gl, TMXTileLayer tileLayer);
-
 	protected abstract void renderImageLayer(GLEx gl, TMXImageLayer imageLayer);
 
 	protected TMXMap map;
@@ -90,8 +95,26 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 
 	protected LColor baseColor = new LColor(LColor.white);
 
+	// 单次提交的最大图块数(索引为short类型,每图块4个顶点)
+	private final static int MAX_BATCH_QUADS = 16383;
+
+	private final static float WHITE_BITS = LColor.white.toFloatBits();
+
+	protected int chunkSize = TMXTileChunks.DEFAULT_CHUNK_SIZE;
+
+	protected ObjectMap<TMXTileLayer, TMXTileChunks> tileChunks;
+
+	private final IntArray visibleChunks = new IntArray();
+
+	private final float[] quadVertices = new float[TMXTileChunks.QUAD_SIZE];
+
+	private final Vector2f tilePosition = new Vector2f();
+
+	private int renderedQuads, renderedFlushes, renderedChunks;
+
 	public TMXMapRenderer(TMXMap map) {
 		this.textureMap = new ObjectMap<String, LTexture>();
+		this.tileChunks = new ObjectMap<TMXTileLayer, TMXTileChunks>();
 		this.tileAnimators = new ObjectMap<TMXTile, TileAnimator>();
 		this.visible = true;
 		this.map = map;
@@ -123,6 +146,10 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 			return new TMXIsometricMapRenderer(map);
 		case ORTHOGONAL:
 			return new TMXOrthogonalMapRenderer(map);
+		case STAGGERED:
+			return new TMXStaggeredMapRenderer(map);
+		case HEXAGONAL:
+			return new TMXHexagonalMapRenderer(map);
 		default:
 			break;
 		}
@@ -135,6 +162,465 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 		}
 	}
 
+	/**
+	 * 获得指定图块在图层本地坐标系(不含地图位置,缩放与旋转)中的绘制位置,默认为正交排列
+	 * 
+	 * @param x
+	 * @param y
+	 * @param tileSet
+	 * @param out
+	 */
+	protected void getTileLocalPosition(int x, int y, TMXTileSet tileSet, Vector2f out) {
+		out.set(x * map.getTileWidth(), y * map.getTileHeight());
+	}
+
+	protected float getTileDrawWidth(TMXTileSet tileSet) {
+		return tileSet.getTileWidth();
+	}
+
+	protected float getTileDrawHeight(TMXTileSet tileSet) {
+		return tileSet.getTileHeight();
+	}
+
+	protected float getTileUVCorrection() {
+		return 0.2f;
+	}
+
+	/**
+	 * 区块的切分与绘制顺序,图块会相互遮挡的地图需按行或列切分,以保持原有的遮挡关系
+	 * 
+	 * @return
+	 */
+	protected int getChunkOrder() {
+		// 图集中的图块大于地图网格时会与相邻图块重叠,改为按行绘制
+		final TArray<TMXTileSet> tileSets = map.getTileSets();
+		for (int i = 0; i < tileSets.size; i++) {
+			final TMXTileSet tileSet = tileSets.get(i);
+			if (tileSet.getTileWidth() > map.getTileWidth() || tileSet.getTileHeight() > map.getTileHeight()) {
+				return TMXTileChunks.ORDER_ROWS;
+			}
+		}
+		return TMXTileChunks.ORDER_CHUNK;
+	}
+
+	/**
+	 * 以区块方式渲染图块层,仅提交与屏幕相交的区块.方形区块每种纹理每层只提交一次,
+	 * 条带区块(图块相互遮挡)在图层使用多个纹理时按条带顺序提交,并在条带内切换纹理
+	 * 
+	 * @param g
+	 * @param tileLayer
+	 */
+	protected void renderTileLayer(GLEx g, TMXTileLayer tileLayer) {
+		synchronized (this) {
+			if (!tileLayer.isVisible()) {
+				return;
+			}
+			float opacity = tileLayer.getOpacity();
+			if (opacity <= 0f) {
+				return;
+			}
+			if (opacity > 1f) {
+				opacity = 1f;
+			}
+			if (scaleX == 0f || scaleY == 0f) {
+				return;
+			}
+			final TMXTileChunks chunks = getTileChunks(tileLayer);
+
+			float tmpAlpha = baseColor.a;
+			baseColor.a *= opacity;
+			final float color = baseColor.toFloatBits();
+			baseColor.a = tmpAlpha;
+
+			// 将屏幕范围换算到图层本地坐标系
+			final float viewWidth = LSystem.viewSize.getWidth() / scaleX;
+			final float viewHeight = LSystem.viewSize.getHeight() / scaleY;
+			float left = MathUtils.min(0f, viewWidth) - _location.x;
+			float top = MathUtils.min(0f, viewHeight) - _location.y;
+			float right = MathUtils.max(0f, viewWidth) - _location.x;
+			float bottom = MathUtils.max(0f, viewHeight) - _location.y;
+			if (_rotation != 0f) {
+				final float halfWidth = (right - left) / 2f;
+				final float halfHeight = (bottom - top) / 2f;
+				final float dx = left + halfWidth - chunks.centerX;
+				final float dy = top + halfHeight - chunks.centerY;
+				final float radius = MathUtils.sqrt(dx * dx + dy * dy)
+						+ MathUtils.sqrt(halfWidth * halfWidth + halfHeight * halfHeight);
+				left = chunks.centerX - radius;
+				top = chunks.centerY - radius;
+				right = chunks.centerX + radius;
+				bottom = chunks.centerY + radius;
+			}
+
+			visibleChunks.clear();
+			for (int i = 0; i < chunks.chunks.length; i++) {
+				TMXTileChunks.Chunk chunk = chunks.chunks[i];
+				if (!chunk.intersects(left, top, right, bottom)) {
+					continue;
+				}
+				if (!chunk.built) {
+					buildChunk(chunks, chunk);
+					if (!chunk.intersects(left, top, right, bottom)) {
+						continue;
+					}
+				}
+				if (!chunk.isEmpty()) {
+					visibleChunks.add(i);
+				}
+			}
+			renderedChunks += visibleChunks.length;
+			if (chunks.isOrdered() && chunks.textures.size > 1) {
+				renderOrderedChunks(chunks, color);
+			} else {
+				for (int i = 0; i < chunks.textures.size; i++) {
+					renderChunks(chunks, i, color);
+				}
+			}
+		}
+	}
+
+	private void renderChunks(TMXTileChunks chunks, int texture, float color) {
+		final LTexture current = chunks.textures.get(texture);
+		LTextureBatch batch = null;
+		int pending = 0;
+		for (int i = 0; i < visibleChunks.length; i++) {
+			TMXTileChunks.Chunk chunk = chunks.chunks[visibleChunks.get(i)];
+			int group = chunk.indexOf(texture);
+			if (group == -1) {
+				continue;
+			}
+			if (chunk.animatedCount > 0) {
+				updateAnimatedTiles(chunks, chunk, group, current);
+			}
+			final int length = chunk.groupLengths[group];
+			final int quads = length / TMXTileChunks.QUAD_SIZE;
+			if (batch == null) {
+				batch = beginChunkBatch(current);
+			} else if (pending + quads > MAX_BATCH_QUADS) {
+				commitChunkBatch(batch, chunks, pending);
+				batch = beginChunkBatch(current);
+				pending = 0;
+			}
+			batch.glVertices(chunk.groupVertices[group], 0, length, color);
+			pending += quads;
+		}
+		if (batch != null) {
+			commitChunkBatch(batch, chunks, pending);
+		}
+	}
+
+	/**
+	 * 按区块与顶点组的原始顺序提交,仅在纹理变化(或批次已满)时切换批次,保证多图集图层的遮挡顺序
+	 */
+	private void renderOrderedChunks(TMXTileChunks chunks, float color) {
+		LTextureBatch batch = null;
+		int texture = -1;
+		int pending = 0;
+		for (int i = 0; i < visibleChunks.length; i++) {
+			TMXTileChunks.Chunk chunk = chunks.chunks[visibleChunks.get(i)];
+			for (int group = 0; group < chunk.groupCount; group++) {
+				final int groupTexture = chunk.groupTextures[group];
+				final LTexture current = chunks.textures.get(groupTexture);
+				if (chunk.animatedCount > 0) {
+					updateAnimatedTiles(chunks, chunk, group, current);
+				}
+				final int length = chunk.groupLengths[group];
+				final int quads = length / TMXTileChunks.QUAD_SIZE;
+				if (batch == null || groupTexture != texture || pending + quads > MAX_BATCH_QUADS) {
+					if (batch != null) {
+						commitChunkBatch(batch, chunks, pending);
+					}
+					batch = beginChunkBatch(current);
+					texture = groupTexture;
+					pending = 0;
+				}
+				batch.glVertices(chunk.groupVertices[group], 0, length, color);
+				pending += quads;
+			}
+		}
+		if (batch != null) {
+			commitChunkBatch(batch, chunks, pending);
+		}
+	}
+
+	/**
+	 * 动画图块的当前帧变化时,原地改写其在区块缓存中的顶点
+	 */
+	private void updateAnimatedTiles(TMXTileChunks chunks, TMXTileChunks.Chunk chunk, int group, LTexture texture) {
+		final TMXTileLayer layer = chunks.layer;
+		final int layerWidth = layer.getWidth();
+		for (int j = 0; j < chunk.animatedCount; j++) {
+			if (chunk.animatedGroups[j] != group) {
+				continue;
+			}
+			final int idx = chunk.animatedTiles[j];
+			final int x = idx % layerWidth;
+			final int y = idx / layerWidth;
+			TMXMapTile mapTile = layer.getTile(x, y);
+			TMXTileSet tileSet = map.getTileset(mapTile.getTileSetID());
+			TMXTile tile = tileSet.getTile(mapTile.getGID() - tileSet.getFirstGID());
+			TileAnimator animator = tileAnimators.get(tile);
+			if (animator == null) {
+				continue;
+			}
+			final int frame = animator.getCurrentFrame().getTileID();
+			if (frame != chunk.animatedFrames[j]) {
+				putTileVertices(x, y, mapTile, tileSet, frame, texture, quadVertices, WHITE_BITS);
+				System.arraycopy(quadVertices, 0, chunk.groupVertices[group], chunk.animatedOffsets[j],
+						TMXTileChunks.QUAD_SIZE);
+				chunk.animatedFrames[j] = frame;
+			}
+		}
+	}
+
+	private LTextureBatch beginChunkBatch(LTexture texture) {
+		LTextureBatch batch = texture.getTextureBatch();
+		batch.begin();
+		batch.setBlendState(BlendState.AlphaBlend);
+		return batch;
+	}
+
+	private void commitChunkBatch(LTextureBatch batch, TMXTileChunks chunks, int quads) {
+		batch.commit(_location.x * scaleX, _location.y * scaleY, scaleX, scaleY, chunks.centerX, chunks.centerY,
+				_rotation);
+		renderedQuads += quads;
+		renderedFlushes++;
+	}
+
+	private void buildChunk(TMXTileChunks chunks, TMXTileChunks.Chunk chunk) {
+		final TMXTileLayer layer = chunks.layer;
+		final int layerWidth = layer.getWidth();
+		final boolean columnMajor = chunks.isColumnMajor();
+		final int outer = columnMajor ? chunk.tileWidth : chunk.tileHeight;
+		final int inner = columnMajor ? chunk.tileHeight : chunk.tileWidth;
+		chunk.begin();
+		for (int i = 0; i < outer; i++) {
+			for (int j = 0; j < inner; j++) {
+				final int x = chunk.tileX + (columnMajor ? i : j);
+				final int y = chunk.tileY + (columnMajor ? j : i);
+				TMXMapTile mapTile = layer.getTile(x, y);
+				if (mapTile == null || mapTile.getTileSetID() == -1) {
+					continue;
+				}
+				TMXTileSet tileSet = map.getTileset(mapTile.getTileSetID());
+				int tileID = mapTile.getGID() - tileSet.getFirstGID();
+				TMXTile tile = tileSet.getTile(tileID);
+				LTexture texture = textureMap.get(tileSet.getImage().getSource());
+				int textureIndex = chunks.indexOfTexture(texture);
+				TileAnimator animator = tile == null || !tile.isAnimated() ? null : tileAnimators.get(tile);
+				if (animator != null) {
+					final int frame = animator.getCurrentFrame().getTileID();
+					putTileVertices(x, y, mapTile, tileSet, frame, texture, quadVertices, WHITE_BITS);
+					chunk.addAnimated(y * layerWidth + x, textureIndex, frame, quadVertices);
+				} else {
+					putTileVertices(x, y, mapTile, tileSet, tileID, texture, quadVertices, WHITE_BITS);
+					chunk.addQuad(textureIndex, quadVertices);
+				}
+			}
+		}
+		chunk.finish();
+	}
+
+	private void putTileVertices(int x, int y, TMXMapTile mapTile, TMXTileSet tileSet, int tileID, LTexture texture,
+			float[] dst, float color) {
+		final LTextureBatch batch = texture.getTextureBatch();
+		final int numColsPerRow = tileSet.getImage().getWidth() / tileSet.getTileWidth();
+		final int tileSetCol = tileID % numColsPerRow;
+		final int tileSetRow = tileID / numColsPerRow;
+
+		final float tileWidth = getTileDrawWidth(tileSet);
+		final float tileHeight = getTileDrawHeight(tileSet);
+
+		getTileLocalPosition(x, y, tileSet, tilePosition);
+		final float posX = tilePosition.x;
+		final float posY = tilePosition.y;
+
+		final float srcX = tileSet.getMargin() + (tileSet.getTileWidth() + tileSet.getSpacing()) * tileSetCol;
+		final float srcY = tileSet.getMargin() + (tileSet.getTileHeight() + tileSet.getSpacing()) * tileSetRow;
+
+		float xOff = srcX * batch.getInvTexWidth() + texture.xOff;
+		float widthRatio = (srcX + tileWidth) * batch.getInvTexWidth();
+		float yOff = srcY * batch.getInvTexHeight() + texture.yOff;
+		float heightRatio = (srcY + tileHeight) * batch.getInvTexHeight();
+
+		boolean flipX = mapTile.isFlippedHorizontally();
+		boolean flipY = mapTile.isFlippedVertically();
+		final boolean flipZ = mapTile.isFlippedDiagonally();
+		if (flipZ) {
+			flipX = !flipX;
+			flipY = !flipY;
+		}
+		if (flipX) {
+			float temp = xOff;
+			xOff = widthRatio;
+			widthRatio = temp;
+		}
+		if (flipY) {
+			float temp = yOff;
+			yOff = heightRatio;
+			heightRatio = temp;
+		}
+
+		final float uvCorrectionX = getTileUVCorrection() / tileSet.getImage().getWidth();
+		final float uvCorrectionY = getTileUVCorrection() / tileSet.getImage().getHeight();
+		final float u1 = xOff + uvCorrectionX;
+		final float v1 = yOff + uvCorrectionY;
+		final float u2 = widthRatio - uvCorrectionX;
+		final float v2 = heightRatio - uvCorrectionY;
+
+		dst[0] = posX;
+		dst[1] = posY;
+		dst[2] = color;
+		dst[3] = u1;
+		dst[4] = v1;
+
+		dst[5] = flipZ ? posX + tileWidth : posX;
+		dst[6] = flipZ ? posY : posY + tileHeight;
+		dst[7] = color;
+		dst[8] = u1;
+		dst[9] = v2;
+
+		dst[10] = posX + tileWidth;
+		dst[11] = posY + tileHeight;
+		dst[12] = color;
+		dst[13] = u2;
+		dst[14] = v2;
+
+		dst[15] = flipZ ? posX : posX + tileWidth;
+		dst[16] = flipZ ? posY + tileHeight : posY;
+		dst[17] = color;
+		dst[18] = u2;
+		dst[19] = v1;
+	}
+
+	/**
+	 * 获得指定图块层的区块数据,不存在时创建(区块内容在首次可见时才会生成)
+	 * 
+	 * @param tileLayer
+	 * @return
+	 */
+	public TMXTileChunks getTileChunks(TMXTileLayer tileLayer) {
+		TMXTileChunks chunks = tileChunks.get(tileLayer);
+		if (chunks == null) {
+			chunks = new TMXTileChunks(tileLayer, chunkSize, getChunkOrder());
+			estimateChunks(chunks);
+			tileChunks.put(tileLayer, chunks);
+		} else if (chunks.modCount != tileLayer.getModCount()) {
+			// 自上次绘制后只修改了一个图块时只重新生成其所在区块,否则整层重新生成
+			if (tileLayer.getModCount() - chunks.modCount == 1 && tileLayer.getModX() != -1) {
+				chunks.invalidate(tileLayer.getModX(), tileLayer.getModY());
+			} else {
+				chunks.invalidate();
+			}
+			chunks.modCount = tileLayer.getModCount();
+		}
+		return chunks;
+	}
+
+	private void estimateChunks(TMXTileChunks chunks) {
+		float maxWidth = map.getTileWidth();
+		float maxHeight = map.getTileHeight();
+		for (TMXTileSet tileSet : map.getTileSets()) {
+			maxWidth = MathUtils.max(maxWidth, getTileDrawWidth(tileSet));
+			maxHeight = MathUtils.max(maxHeight, getTileDrawHeight(tileSet));
+		}
+		float layerMinX = Float.MAX_VALUE, layerMinY = Float.MAX_VALUE;
+		float layerMaxX = -Float.MAX_VALUE, layerMaxY = -Float.MAX_VALUE;
+		for (int i = 0; i < chunks.chunks.length; i++) {
+			TMXTileChunks.Chunk chunk = chunks.chunks[i];
+			float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+			float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+			final int x2 = chunk.tileX + chunk.tileWidth - 1;
+			final int y2 = chunk.tileY + chunk.tileHeight - 1;
+			for (TMXTileSet tileSet : map.getTileSets()) {
+				for (int c = 0; c < 4; c++) {
+					getTileLocalPosition((c & 1) == 0 ? chunk.tileX : x2, (c & 2) == 0 ? chunk.tileY : y2, tileSet,
+							tilePosition);
+					minX = MathUtils.min(minX, tilePosition.x);
+					minY = MathUtils.min(minY, tilePosition.y);
+					maxX = MathUtils.max(maxX, tilePosition.x);
+					maxY = MathUtils.max(maxY, tilePosition.y);
+				}
+			}
+			// 估算范围按最大图块尺寸向四周扩展,以覆盖交错行偏移与图块本身大小
+			chunk.estimate(minX - maxWidth, minY - maxHeight, maxX + maxWidth * 2, maxY + maxHeight * 2);
+			layerMinX = MathUtils.min(layerMinX, minX);
+			layerMinY = MathUtils.min(layerMinY, minY);
+			layerMaxX = MathUtils.max(layerMaxX, maxX + maxWidth);
+			layerMaxY = MathUtils.max(layerMaxY, maxY + maxHeight);
+		}
+		if (chunks.chunks.length > 0) {
+			chunks.centerX = (layerMinX + layerMaxX) / 2f;
+			chunks.centerY = (layerMinY + layerMaxY) / 2f;
+		}
+	}
+
+	/**
+	 * 令对应区块重新生成(通过setTileGID修改图层时会自动重新生成,无需调用)
+	 * 
+	 * @param tileLayer
+	 */
+	public void invalidateTileLayer(TMXTileLayer tileLayer) {
+		TMXTileChunks chunks = tileChunks.get(tileLayer);
+		if (chunks != null) {
+			chunks.invalidate();
+		}
+	}
+
+	public void invalidateTileLayers() {
+		tileChunks.clear();
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * 设置区块边长(以图块为单位),默认16,即每区块最多256个图块(按行或列切分时为一行或一列中连续的16个图块)
+	 * 
+	 * @param size
+	 */
+	public void setChunkSize(int size) {
+		size = MathUtils.max(1, size);
+		if (size != chunkSize) {
+			chunkSize = size;
+			tileChunks.clear();
+		}
+	}
+
+	/**
+	 * 最近一次绘制中提交的图块数量
+	 * 
+	 * @return
+	 */
+	public int getRenderedQuads() {
+		return renderedQuads;
+	}
+
+	/**
+	 * 最近一次绘制中的批处理提交次数
+	 * 
+	 * @return
+	 */
+	public int getRenderedFlushes() {
+		return renderedFlushes;
+	}
+
+	/**
+	 * 最近一次绘制中可见的区块数量
+	 * 
+	 * @return
+	 */
+	public int getRenderedChunks() {
+		return renderedChunks;
+	}
+
+	protected void resetRenderStats() {
+		renderedQuads = 0;
+		renderedFlushes = 0;
+		renderedChunks = 0;
+	}
+
 	protected void renderBackgroundColor(GLEx gl) {
 		gl.fillRect(_location.x, _location.y, map.getWidth() * map.getTileWidth(),
 				map.getHeight() * map.getTileHeight(), map.getBackgroundColor());
@@ -180,13 +666,14 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 	}
 
 	public void renderTileLayers(GLEx gl, int... layerIDs) {
+		resetRenderStats();
 		if (layerIDs == null || layerIDs.length == 0) {
 			for (TMXTileLayer tileLayer : map.getTileLayers()) {
 				renderTileLayer(gl, tileLayer);
 			}
 		} else {
 			for (int layerIndex : layerIDs) {
-				if (layerIndex > map.getNumTileLayers()) {
+				if (layerIndex < map.getNumTileLayers()) {
 					renderTileLayer(gl, map.getTileLayer(layerIndex));
 				}
 			}
@@ -215,6 +702,7 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 		g.setAlpha(_alpha);
 		baseColor.a = _alpha;
 		g.setColor(baseColor);
+		resetRenderStats();
 		renderBackgroundColor(g);
 		float ox = getX();
 		float oy = getY();
@@ -241,6 +729,7 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 		g.setAlpha(_alpha);
 		baseColor.a = _alpha;
 		g.setColor(baseColor);
+		resetRenderStats();
 		renderBackgroundColor(g);
 		for (TMXMapLayer mapLayer : map.getLayers()) {
 			if (mapLayer instanceof TMXTileLayer) {
@@ -364,6 +853,9 @@ public abstract class TMXMapRenderer extends LObject<ISprite> implements ISprite
 		if (tileAnimators != null) {
 			tileAnimators.clear();
 		}
+		if (tileChunks != null) {
+			tileChunks.clear();
+		}
 		for (LTexture texture : textureMap.values()) {
 			texture.close();
 		}
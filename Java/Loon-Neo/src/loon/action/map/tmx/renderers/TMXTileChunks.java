@@ -0,0 +1,401 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.map.tmx.renderers;
+
+import loon.LTexture;
+import loon.action.map.tmx.TMXTileLayer;
+import loon.utils.CollectionUtils;
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+
+/**
+ * 按固定大小把一个图块层切分为若干区块,每个区块按纹理保存一份预先生成的静态顶点数据,
+ * 动画图块同样写入区块,并记录其顶点位置,当前帧变化时由渲染器原地改写对应顶点,因此动画变化不会使区块失效.
+ * 图层数据被修改(见{@link TMXTileLayer#getModCount()})后,渲染器会令相应区块重新生成.
+ * 
+ * 方形区块内的图块按纹理合并;按行或列切分的条带区块则按图块顺序保存连续同纹理的片段,纹理切换处另起一组,以保持遮挡顺序.
+ */
+public class TMXTileChunks {
+
+	public final static int DEFAULT_CHUNK_SIZE = 16;
+
+	// 方形区块,适用于图块间互不重叠的地图
+	public final static int ORDER_CHUNK = 0;
+
+	// 整行区块(y外层,x内层),适用于按行相互遮挡的地图
+	public final static int ORDER_ROWS = 1;
+
+	// 整列区块(x外层,y内层),适用于按列相互遮挡的地图
+	public final static int ORDER_COLUMNS = 2;
+
+	// 每个图块的顶点数据长度(4个顶点,每顶点x,y,color,u,v)
+	final static int QUAD_SIZE = 20;
+
+	public static class Chunk {
+
+		public final int tileX;
+
+		public final int tileY;
+
+		public final int tileWidth;
+
+		public final int tileHeight;
+
+		// 为true时顶点组按图块顺序排列(同纹理仅合并相邻的图块)
+		final boolean ordered;
+
+		// 区块在图层本地坐标系中的范围,生成前为估算值,生成后为实际值
+		float minX, minY, maxX, maxY;
+
+		private float estMinX, estMinY, estMaxX, estMaxY;
+
+		boolean built;
+
+		int quadCount;
+
+		int groupCount;
+
+		int[] groupTextures;
+
+		float[][] groupVertices;
+
+		int[] groupLengths;
+
+		int animatedCount;
+
+		int[] animatedTiles;
+
+		int[] animatedGroups;
+
+		int[] animatedOffsets;
+
+		int[] animatedFrames;
+
+		Chunk(int tileX, int tileY, int tileWidth, int tileHeight, boolean ordered) {
+			this.tileX = tileX;
+			this.tileY = tileY;
+			this.tileWidth = tileWidth;
+			this.tileHeight = tileHeight;
+			this.ordered = ordered;
+		}
+
+		void estimate(float left, float top, float right, float bottom) {
+			minX = estMinX = left;
+			minY = estMinY = top;
+			maxX = estMaxX = right;
+			maxY = estMaxY = bottom;
+		}
+
+		void reset() {
+			minX = estMinX;
+			minY = estMinY;
+			maxX = estMaxX;
+			maxY = estMaxY;
+			built = false;
+			quadCount = 0;
+			groupCount = 0;
+			groupTextures = null;
+			groupVertices = null;
+			groupLengths = null;
+			animatedCount = 0;
+			animatedTiles = null;
+			animatedGroups = null;
+			animatedOffsets = null;
+			animatedFrames = null;
+		}
+
+		void begin() {
+			reset();
+			minX = minY = Float.MAX_VALUE;
+			maxX = maxY = -Float.MAX_VALUE;
+		}
+
+		int indexOf(int texture) {
+			for (int i = 0; i < groupCount; i++) {
+				if (groupTextures[i] == texture) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		int addQuad(int texture, float[] quad) {
+			int group;
+			if (ordered) {
+				group = groupCount > 0 && groupTextures[groupCount - 1] == texture ? groupCount - 1 : -1;
+			} else {
+				group = indexOf(texture);
+			}
+			if (group == -1) {
+				if (groupTextures == null) {
+					groupTextures = new int[2];
+					groupVertices = new float[2][];
+					groupLengths = new int[2];
+				} else if (groupCount == groupTextures.length) {
+					groupTextures = CollectionUtils.copyOf(groupTextures, groupCount * 2);
+					groupLengths = CollectionUtils.copyOf(groupLengths, groupCount * 2);
+					float[][] tmp = new float[groupCount * 2][];
+					System.arraycopy(groupVertices, 0, tmp, 0, groupCount);
+					groupVertices = tmp;
+				}
+				group = groupCount++;
+				groupTextures[group] = texture;
+				groupVertices[group] = new float[QUAD_SIZE * 16];
+				groupLengths[group] = 0;
+			}
+			float[] vertices = groupVertices[group];
+			final int len = groupLengths[group];
+			if (len + QUAD_SIZE > vertices.length) {
+				vertices = groupVertices[group] = CollectionUtils.copyOf(vertices, vertices.length * 2);
+			}
+			System.arraycopy(quad, 0, vertices, len, QUAD_SIZE);
+			groupLengths[group] = len + QUAD_SIZE;
+			include(quad);
+			quadCount++;
+			return group;
+		}
+
+		/**
+		 * 动画图块与静态图块写入同一顶点组(保证绘制顺序不变),并记录其位置,以便帧变化时原地改写
+		 * 
+		 * @param tile
+		 * @param texture
+		 * @param frame
+		 * @param quad
+		 */
+		void addAnimated(int tile, int texture, int frame, float[] quad) {
+			final int group = addQuad(texture, quad);
+			if (animatedTiles == null) {
+				animatedTiles = new int[4];
+				animatedGroups = new int[4];
+				animatedOffsets = new int[4];
+				animatedFrames = new int[4];
+			} else if (animatedCount == animatedTiles.length) {
+				animatedTiles = CollectionUtils.copyOf(animatedTiles, animatedCount * 2);
+				animatedGroups = CollectionUtils.copyOf(animatedGroups, animatedCount * 2);
+				animatedOffsets = CollectionUtils.copyOf(animatedOffsets, animatedCount * 2);
+				animatedFrames = CollectionUtils.copyOf(animatedFrames, animatedCount * 2);
+			}
+			animatedTiles[animatedCount] = tile;
+			animatedGroups[animatedCount] = group;
+			animatedOffsets[animatedCount] = groupLengths[group] - QUAD_SIZE;
+			animatedFrames[animatedCount] = frame;
+			animatedCount++;
+		}
+
+		private void include(float[] quad) {
+			for (int i = 0; i < QUAD_SIZE; i += 5) {
+				final float x = quad[i];
+				final float y = quad[i + 1];
+				minX = MathUtils.min(minX, x);
+				minY = MathUtils.min(minY, y);
+				maxX = MathUtils.max(maxX, x);
+				maxY = MathUtils.max(maxY, y);
+			}
+		}
+
+		void finish() {
+			for (int i = 0; i < groupCount; i++) {
+				if (groupVertices[i].length != groupLengths[i]) {
+					groupVertices[i] = CollectionUtils.copyOf(groupVertices[i], groupLengths[i]);
+				}
+			}
+			built = true;
+		}
+
+		public boolean isBuilt() {
+			return built;
+		}
+
+		public boolean isEmpty() {
+			return built && quadCount == 0;
+		}
+
+		public int getQuadCount() {
+			return quadCount;
+		}
+
+		public int getAnimatedCount() {
+			return animatedCount;
+		}
+
+		public boolean intersects(float left, float top, float right, float bottom) {
+			return minX < right && maxX > left && minY < bottom && maxY > top;
+		}
+	}
+
+	final TMXTileLayer layer;
+
+	final int order;
+
+	final int chunkWidth;
+
+	final int chunkHeight;
+
+	final int cols;
+
+	final int rows;
+
+	final Chunk[] chunks;
+
+	final TArray<LTexture> textures;
+
+	float centerX, centerY;
+
+	// 区块生成时所依据的图层修改次数
+	int modCount;
+
+	public TMXTileChunks(TMXTileLayer layer, int chunkSize) {
+		this(layer, chunkSize, ORDER_CHUNK);
+	}
+
+	/**
+	 * 按指定顺序切分图块层,区块的生成与绘制顺序与逐个图块绘制时一致
+	 * 
+	 * @param layer
+	 * @param chunkSize
+	 * @param order
+	 */
+	public TMXTileChunks(TMXTileLayer layer, int chunkSize, int order) {
+		chunkSize = MathUtils.max(1, chunkSize);
+		this.layer = layer;
+		this.order = order;
+		this.modCount = layer.getModCount();
+		switch (order) {
+		case ORDER_ROWS:
+			this.chunkWidth = chunkSize;
+			this.chunkHeight = 1;
+			break;
+		case ORDER_COLUMNS:
+			this.chunkWidth = 1;
+			this.chunkHeight = chunkSize;
+			break;
+		default:
+			this.chunkWidth = chunkSize;
+			this.chunkHeight = chunkSize;
+			break;
+		}
+		this.cols = (layer.getWidth() + chunkWidth - 1) / chunkWidth;
+		this.rows = (layer.getHeight() + chunkHeight - 1) / chunkHeight;
+		this.chunks = new Chunk[cols * rows];
+		this.textures = new TArray<LTexture>();
+		for (int cy = 0; cy < rows; cy++) {
+			for (int cx = 0; cx < cols; cx++) {
+				final int tx = cx * chunkWidth;
+				final int ty = cy * chunkHeight;
+				chunks[indexOf(cx, cy)] = new Chunk(tx, ty, MathUtils.min(chunkWidth, layer.getWidth() - tx),
+						MathUtils.min(chunkHeight, layer.getHeight() - ty), order != ORDER_CHUNK);
+			}
+		}
+	}
+
+	private int indexOf(int cx, int cy) {
+		return order == ORDER_COLUMNS ? cx * rows + cy : cy * cols + cx;
+	}
+
+	/**
+	 * 是否需按区块顺序逐组绘制(条带区块,图块相互遮挡)
+	 * 
+	 * @return
+	 */
+	public boolean isOrdered() {
+		return order != ORDER_CHUNK;
+	}
+
+	public boolean isColumnMajor() {
+		return order == ORDER_COLUMNS;
+	}
+
+	int indexOfTexture(LTexture texture) {
+		for (int i = 0; i < textures.size; i++) {
+			if (textures.get(i) == texture) {
+				return i;
+			}
+		}
+		textures.add(texture);
+		return textures.size - 1;
+	}
+
+	/**
+	 * 令全部区块在下次绘制时重新生成(图层数据被修改后调用)
+	 */
+	public void invalidate() {
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i].reset();
+		}
+		textures.clear();
+	}
+
+	/**
+	 * 令包含指定图块的区块在下次绘制时重新生成
+	 * 
+	 * @param x
+	 * @param y
+	 */
+	public void invalidate(int x, int y) {
+		if (x < 0 || y < 0 || x >= layer.getWidth() || y >= layer.getHeight()) {
+			return;
+		}
+		chunks[indexOf(x / chunkWidth, y / chunkHeight)].reset();
+	}
+
+	public TMXTileLayer getLayer() {
+		return layer;
+	}
+
+	public int getOrder() {
+		return order;
+	}
+
+	public int getChunkWidth() {
+		return chunkWidth;
+	}
+
+	public int getChunkHeight() {
+		return chunkHeight;
+	}
+
+	public int getColumns() {
+		return cols;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int size() {
+		return chunks.length;
+	}
+
+	public Chunk getChunk(int idx) {
+		return chunks[idx];
+	}
+
+	public int getBuiltCount() {
+		int count = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			if (chunks[i].built) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
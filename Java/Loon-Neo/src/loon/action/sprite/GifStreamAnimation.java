@@ -0,0 +1,219 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.action.sprite;
+
+import loon.BaseIO;
+import loon.LTexture;
+import loon.canvas.Image;
+import loon.opengl.GLEx;
+import loon.utils.ArrayByte;
+import loon.utils.GifStream;
+import loon.utils.MathUtils;
+
+/**
+ * 流式播放的gif动画,与GifAnimation不同,它不会一次解码全部帧并为每帧创建纹理,而是按播放进度预先解码少量帧,
+ * 上传到一组循环使用的纹理中,适合帧数较多的gif特效.
+ * 
+ * Example:
+ * 
+ * GifStreamAnimation gif = new GifStreamAnimation("effect.gif"); add(gif);
+ */
+public class GifStreamAnimation extends Entity {
+
+	private GifStream _stream;
+
+	private Image _upload;
+
+	private LTexture[] _ring;
+
+	private int[] _ringFrames;
+
+	private int _head;
+
+	private int _ready;
+
+	private long _elapsed;
+
+	private boolean _running = true;
+
+	public GifStreamAnimation(String path) {
+		this(BaseIO.loadArrayByte(path));
+	}
+
+	public GifStreamAnimation(ArrayByte bytes) {
+		this(bytes, 3, false);
+	}
+
+	/**
+	 * @param bytes
+	 * @param ringSize
+	 *            循环使用的纹理数量(即最多预先解码的帧数)
+	 * @param cacheDeltas
+	 *            是否缓存帧的差异数据,循环播放时不再解码
+	 */
+	public GifStreamAnimation(ArrayByte bytes, int ringSize, boolean cacheDeltas) {
+		loadData(bytes, ringSize, cacheDeltas);
+	}
+
+	public GifStream loadData(ArrayByte bytes, int ringSize, boolean cacheDeltas) {
+		freeTextures();
+		this._stream = new GifStream(bytes, cacheDeltas);
+		this._width = _stream.getWidth();
+		this._height = _stream.getHeight();
+		this._head = 0;
+		this._ready = 0;
+		this._elapsed = 0;
+		if (_stream.getFrameCount() > 0) {
+			int size = MathUtils.max(2, ringSize);
+			this._upload = Image.createImage(_stream.getWidth(), _stream.getHeight());
+			this._ring = new LTexture[size];
+			this._ringFrames = new int[size];
+			for (int i = 0; i < size; i++) {
+				_ring[i] = _upload.createTexture(LTexture.Format.LINEAR);
+			}
+			decodeAhead(1);
+			setTexture(_ring[_head]);
+		}
+		setRepaint(true);
+		return _stream;
+	}
+
+	/**
+	 * 解码后续帧到空闲的纹理中
+	 * 
+	 * @param count
+	 */
+	private void decodeAhead(int count) {
+		if (_ring == null || (_ready > 0 && _stream.getFrameCount() == 1)) {
+			return;
+		}
+		for (int i = 0; i < count && _ready < _ring.length; i++) {
+			int[] pixels = _stream.nextFrame();
+			if (pixels == null) {
+				return;
+			}
+			int slot = (_head + _ready) % _ring.length;
+			_upload.setPixels(pixels, _stream.getWidth(), _stream.getHeight());
+			_ring[slot].update(_upload, false);
+			_ringFrames[slot] = _stream.getCurrentIndex();
+			_ready++;
+		}
+	}
+
+	private long currentDelay() {
+		int delay = _stream.getDelay(_ringFrames[_head]);
+		return delay <= 0 ? 100 : delay;
+	}
+
+	public void setRunning(boolean running) {
+		this._running = running;
+	}
+
+	public boolean isRunning() {
+		return _running;
+	}
+
+	@Override
+	public void onUpdate(long elapsedTime) {
+		if (_ring == null) {
+			return;
+		}
+		if (_running && _stream.getFrameCount() > 1) {
+			_elapsed += elapsedTime;
+			for (;;) {
+				long delay = currentDelay();
+				if (_elapsed < delay) {
+					break;
+				}
+				// 预读的帧不足时立即解码
+				if (_ready <= 1) {
+					decodeAhead(1);
+				}
+				if (_ready <= 1) {
+					_elapsed = 0;
+					break;
+				}
+				_elapsed -= delay;
+				_head = (_head + 1) % _ring.length;
+				_ready--;
+			}
+		}
+		// 每次更新最多预读一帧,分摊解码耗时
+		decodeAhead(1);
+		setTexture(_ring[_head]);
+	}
+
+	@Override
+	public void repaint(GLEx g, float offsetX, float offsetY) {
+		if (_ring != null) {
+			g.draw(_ring[_head], drawX(offsetX), drawY(offsetY));
+		}
+	}
+
+	@Override
+	public LTexture getBitmap() {
+		return _ring == null ? null : _ring[_head];
+	}
+
+	/**
+	 * 当前显示的帧索引
+	 * 
+	 * @return
+	 */
+	public int getCurrentFrame() {
+		return _ring == null ? -1 : _ringFrames[_head];
+	}
+
+	public int getTotalFrames() {
+		return _stream == null ? 0 : _stream.getFrameCount();
+	}
+
+	public GifStream getGifStream() {
+		return _stream;
+	}
+
+	private void freeTextures() {
+		if (_ring != null) {
+			for (int i = 0; i < _ring.length; i++) {
+				if (_ring[i] != null) {
+					_ring[i].close();
+				}
+			}
+			_ring = null;
+		}
+		if (_upload != null) {
+			_upload.close();
+			_upload = null;
+		}
+		if (_stream != null) {
+			_stream.close();
+			_stream = null;
+		}
+		_image = null;
+	}
+
+	@Override
+	public void close() {
+		freeTextures();
+		super.close();
+	}
+
+}
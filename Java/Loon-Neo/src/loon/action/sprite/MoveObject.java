@@ -29,7 +29,6 @@ import loon.event.GameTouch;
 import loon.geom.ShapeUtils;
 import loon.geom.Vector2f;
 import loon.utils.TArray;
-import loon.utils.CollectionUtils;
 import loon.utils.MathUtils;
 import loon.utils.timer.LTimer;
 
@@ -284,8 +283,7 @@ public class MoveObject extends ActionObject {
 		hashCode = LSystem.unite(hashCode, tiles.getHeight());
 		hashCode = LSystem.unite(hashCode, tiles.getTileWidth());
 		hashCode = LSystem.unite(hashCode, tiles.getTileHeight());
-		hashCode = LSystem.unite(hashCode,
-				CollectionUtils.hashCode(tiles.getMap()));
+		hashCode = LSystem.unite(hashCode, tiles.getField2D().getMapHashCode());
 		return hashCode;
 	}
 
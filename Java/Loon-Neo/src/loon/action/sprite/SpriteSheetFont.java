@@ -22,6 +22,7 @@ package loon.action.sprite;
 
 import loon.LSystem;
 import loon.canvas.LColor;
+import loon.font.GlyphAdvances;
 import loon.font.IFont;
 import loon.geom.Affine2f;
 import loon.geom.PointI;
@@ -361,6 +362,7 @@ public class SpriteSheetFont implements IFont {
 			_font = null;
 		}
 		_closed = true;
+		GlyphAdvances.remove(this);
 		LSystem.popFontPool(this);
 	}
 
@@ -292,11 +292,20 @@ public class Pixmap extends Limit implements LRelease {
 	 * @return
 	 */
 	public Pixmap filter(int src, int dst) {
-		for (int i = 0; i < size; i++) {
-			if (_drawPixels[i] == src) {
-				_drawPixels[i] = dst;
-			}
+		return filter(new PixmapFilter().replace(src, dst));
+	}
+
+	/**
+	 * 以指定的滤镜管线处理Pixmap
+	 * 
+	 * @param filter
+	 * @return
+	 */
+	public Pixmap filter(PixmapFilter filter) {
+		if (_isClosed || filter == null) {
+			return this;
 		}
+		filter.apply(_drawPixels, _width, _height);
 		_dirty = true;
 		return this;
 	}
@@ -339,23 +348,7 @@ public class Pixmap extends Limit implements LRelease {
 	 * @return
 	 */
 	public Pixmap greyScale(float mix) {
-		mix = MathUtils.min(MathUtils.max(mix, 0f), 1f);
-		for (int i = 0; i < size; i++) {
-			int color = _drawPixels[i];
-			if (color != LColor.TRANSPARENT) {
-				int[] rgba = LColor.getRGBAs(color);
-				int r = rgba[0];
-				int g = rgba[1];
-				int b = rgba[2];
-				float a = rgba[3] / 255f;
-				float v = LColor.getLuminanceRGB(r, g, b);
-				_drawPixels[i] = LColor.argb(a, v * mix + r * (1 - mix), v * mix + g * (1 - mix),
-						v * mix + b * (1 - mix));
-			} else {
-				_drawPixels[i] = _transparent;
-			}
-		}
-		return this;
+		return filter(new PixmapFilter().greyScale(mix));
 	}
 
 	/**
@@ -368,28 +361,13 @@ public class Pixmap extends Limit implements LRelease {
 	}
 
 	/**
-	 * 过滤指定像素阀值
+	 * 过滤指定像素阀值,亮度(0-255)高于阀值的像素变为白色,否则为黑色
 	 * 
 	 * @param threshold
 	 * @return
 	 */
 	public Pixmap threshold(int threshold) {
-		threshold = (threshold | 127);
-		for (int i = 0; i < size; i++) {
-			int color = _drawPixels[i];
-			if (color != LColor.TRANSPARENT) {
-				int[] rgba = LColor.getRGBAs(color);
-				int r = rgba[0];
-				int g = rgba[1];
-				int b = rgba[2];
-				float a = rgba[3] / 255f;
-				float v = LColor.getLuminanceRGB(r, g, b) > threshold ? 255f : 0f;
-				_drawPixels[i] = LColor.argb(a, v, v, v);
-			} else {
-				_drawPixels[i] = _transparent;
-			}
-		}
-		return this;
+		return filter(new PixmapFilter().threshold(threshold));
 	}
 
 	/**
@@ -399,22 +377,7 @@ public class Pixmap extends Limit implements LRelease {
 	 * @return
 	 */
 	public Pixmap invert(float mix) {
-		mix = MathUtils.min(MathUtils.max(mix, 0f), 1f);
-		for (int i = 0; i < size; i++) {
-			int color = _drawPixels[i];
-			if (color != LColor.TRANSPARENT) {
-				int[] rgba = LColor.getRGBAs(color);
-				int r = rgba[0];
-				int g = rgba[1];
-				int b = rgba[2];
-				float a = rgba[3] / 255f;
-				_drawPixels[i] = LColor.argb(a, (255 - r) * mix + r * (1 - mix), (255 - g) * mix + g * (1 - mix),
-						(255 - b) * mix + b * (1 - mix));
-			} else {
-				_drawPixels[i] = _transparent;
-			}
-		}
-		return this;
+		return filter(new PixmapFilter().invert(mix));
 	}
 
 	/**
@@ -424,24 +387,7 @@ public class Pixmap extends Limit implements LRelease {
 	 * @return
 	 */
 	public Pixmap sepia(float mix) {
-		mix = MathUtils.min(MathUtils.max(mix, 0f), 1f);
-		for (int i = 0; i < size; i++) {
-			int color = _drawPixels[i];
-			if (color != LColor.TRANSPARENT) {
-				int[] rgba = LColor.getRGBAs(color);
-				float r = rgba[0] / 255f;
-				float g = rgba[1] / 255f;
-				float b = rgba[2] / 255f;
-				float a = rgba[3] / 255f;
-				float nr = (0.393f * r + 0.769f * g + 0.189f * b) * mix + r * (1f - mix);
-				float ng = (0.349f * r + 0.686f * g + 0.168f * b) * mix + g * (1f - mix);
-				float nb = (0.272f * r + 0.534f * g + 0.131f * b) * mix + b * (1f - mix);
-				_drawPixels[i] = LColor.argb(a, nr, ng, nb);
-			} else {
-				_drawPixels[i] = _transparent;
-			}
-		}
-		return this;
+		return filter(new PixmapFilter().sepia(mix));
 	}
 
 	/**
@@ -1677,62 +1623,43 @@ public class Pixmap extends Limit implements LRelease {
 		int spitch = img._width;
 		int dpitch = this._width;
 
-		float x_ratio = ((float) srcWidth - 1) / dstWidth;
-		float y_ratio = ((float) srcHeight - 1) / dstHeight;
-		float x_diff = 0F;
-		float y_diff = 0F;
-
-		int dx = dstX;
-		int dy = dstY;
-		int sx = srcX;
-		int sy = srcY;
-		int i = 0;
-		int j = 0;
-
-		for (; i < dstHeight; i++) {
-			sy = (int) (i * y_ratio) + srcY;
-			dy = i + dstY;
-			y_diff = (y_ratio * i + srcY) - sy;
-			if (sy < 0 || dy < 0) {
+		// 16.16定点坐标,取相邻四个像素做双线性插值
+		final int stepX = (int) (((long) srcWidth << 16) / dstWidth);
+		final int stepY = (int) (((long) srcHeight << 16) / dstHeight);
+		final int minX = MathUtils.max(0, srcX);
+		final int minY = MathUtils.max(0, srcY);
+		final int maxX = MathUtils.min(img._width, srcX + srcWidth) - 1;
+		final int maxY = MathUtils.min(img._height, srcY + srcHeight) - 1;
+		if (maxX < minX || maxY < minY) {
+			return this;
+		}
+
+		for (int i = 0; i < dstHeight; i++) {
+			int dy = i + dstY;
+			if (dy < 0) {
 				continue;
 			}
-			if (sy >= img._height || dy >= this._height) {
+			if (dy >= this._height) {
 				break;
 			}
-
-			for (j = 0; j < dstWidth; j++) {
-				sx = (int) (j * x_ratio) + srcX;
-				dx = j + dstX;
-				x_diff = (x_ratio * j + srcX) - sx;
-				if (sx < 0 || dx < 0) {
+			int fy = (srcY << 16) + i * stepY + (stepY >> 1) - 0x8000;
+			for (int j = 0; j < dstWidth; j++) {
+				int dx = j + dstX;
+				if (dx < 0) {
 					continue;
 				}
-				if (sx >= img._width || dx >= this._width) {
+				if (dx >= this._width) {
 					break;
 				}
-
-				int src_ptr = sx + sy * spitch;
+				int fx = (srcX << 16) + j * stepX + (stepX >> 1) - 0x8000;
+				int src_pixel = PixmapScaler.sample(currentPixels, spitch, fx, fy, minX, minY, maxX, maxY);
 				int dst_ptr = dx + dy * dpitch;
-				int src_color = currentPixels[src_ptr];
-				int src_pixel = src_color;
-
 				if (src_pixel != _transparent) {
-					float ta = (1 - x_diff) * (1 - y_diff);
-					float tb = (x_diff) * (1 - y_diff);
-					float tc = (1 - x_diff) * (y_diff);
-					float td = (x_diff) * (y_diff);
-
-					int a = (int) (((src_pixel & 0xff000000) >> 24) * ta + ((src_pixel & 0xff000000) >> 24) * tb
-							+ ((src_pixel & 0xff000000) >> 24) * tc + ((src_pixel & 0xff000000) >> 24) * td) & 0xff;
-					int b = (int) (((src_pixel & 0xff0000) >> 16) * ta + ((src_pixel & 0xff0000) >> 16) * tb
-							+ ((src_pixel & 0xff0000) >> 16) * tc + ((src_pixel & 0xff0000) >> 16) * td) & 0xff;
-					int g = (int) (((src_pixel & 0xff00) >> 8) * ta + ((src_pixel & 0xff00) >> 8) * tb
-							+ ((src_pixel & 0xff00) >> 8) * tc + ((src_pixel & 0xff00) >> 8) * td) & 0xff;
-					int r = (int) ((src_pixel & 0xff) * ta + (src_pixel & 0xff) * tb + (src_pixel & 0xff) * tc
-							+ (src_pixel & 0xff) * td) & 0xff;
-
-					int dst_color = _drawPixels[dst_ptr];
-					drawPoint(_drawPixels, dst_ptr, blend(r, g, b, a, dst_color), src_color);
+					int a = (src_pixel >>> 24) & 0xff;
+					int b = (src_pixel >> 16) & 0xff;
+					int g = (src_pixel >> 8) & 0xff;
+					int r = src_pixel & 0xff;
+					drawPoint(_drawPixels, dst_ptr, blend(r, g, b, a, _drawPixels[dst_ptr]), src_pixel);
 				} else {
 					drawPoint(_drawPixels, dst_ptr, _transparent);
 				}
@@ -0,0 +1,450 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.canvas;
+
+import loon.utils.CollectionUtils;
+import loon.utils.IntArray;
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+
+/**
+ * Pixmap的像素滤镜管线,相邻的逐像素滤镜(灰化,墨化,反色,阀值,颜色替换)会合并为一次内存遍历,卷积则单独作为一步.
+ * 
+ * 图像按缓存大小的分块处理,各分块之间互不依赖(卷积读取的是处理前的副本),可通过TileExecutor交给多个线程并行执行,结果与执行顺序无关.
+ * 默认在当前线程中顺序执行(与GWT等不支持多线程的平台兼容),支持多线程的平台可通过setDefaultExecutor注入线程池.
+ * 
+ * Example:
+ * 
+ * new PixmapFilter().greyScale(0.5f).invert(1f).convolve(matrix).apply(pixmap);
+ */
+public class PixmapFilter {
+
+	/**
+	 * 分块任务
+	 */
+	public static interface TileTask {
+
+		public void run(int index);
+
+	}
+
+	/**
+	 * 分块任务的执行者,需在全部分块执行完毕后才返回
+	 */
+	public static interface TileExecutor {
+
+		public void execute(int count, TileTask task);
+
+	}
+
+	private final static TileExecutor SERIAL = new TileExecutor() {
+
+		@Override
+		public void execute(int count, TileTask task) {
+			for (int i = 0; i < count; i++) {
+				task.run(i);
+			}
+		}
+	};
+
+	private static TileExecutor _defaultExecutor = SERIAL;
+
+	public static void setDefaultExecutor(TileExecutor executor) {
+		_defaultExecutor = (executor == null) ? SERIAL : executor;
+	}
+
+	public static TileExecutor getDefaultExecutor() {
+		return _defaultExecutor;
+	}
+
+	static void execute(TileExecutor executor, int count, TileTask task) {
+		if (count <= 1) {
+			for (int i = 0; i < count; i++) {
+				task.run(i);
+			}
+		} else {
+			(executor == null ? _defaultExecutor : executor).execute(count, task);
+		}
+	}
+
+	// 64x64像素(16KB)的分块
+	public final static int DEFAULT_TILE_SIZE = 64;
+
+	private final static int OP_GREY = 0;
+
+	private final static int OP_SEPIA = 1;
+
+	private final static int OP_INVERT = 2;
+
+	private final static int OP_THRESHOLD = 3;
+
+	private final static int OP_REPLACE = 4;
+
+	private final static int OP_CONVOLVE = 5;
+
+	// 每个滤镜占三项:类型,参数1,参数2
+	private final IntArray _ops = new IntArray();
+
+	private final TArray<ConvolutionMatrix> _matrices = new TArray<ConvolutionMatrix>();
+
+	private int _tileSize = DEFAULT_TILE_SIZE;
+
+	private TileExecutor _executor;
+
+	private PixmapFilter add(int op, int a, int b) {
+		_ops.add(op);
+		_ops.add(a);
+		_ops.add(b);
+		return this;
+	}
+
+	private static int mixValue(float mix) {
+		return (int) (MathUtils.min(MathUtils.max(mix, 0f), 1f) * 256);
+	}
+
+	/**
+	 * 灰化
+	 * 
+	 * @param mix
+	 * @return
+	 */
+	public PixmapFilter greyScale(float mix) {
+		return add(OP_GREY, mixValue(mix), 0);
+	}
+
+	/**
+	 * 墨化
+	 * 
+	 * @param mix
+	 * @return
+	 */
+	public PixmapFilter sepia(float mix) {
+		return add(OP_SEPIA, mixValue(mix), 0);
+	}
+
+	/**
+	 * 反色
+	 * 
+	 * @param mix
+	 * @return
+	 */
+	public PixmapFilter invert(float mix) {
+		return add(OP_INVERT, mixValue(mix), 0);
+	}
+
+	/**
+	 * 亮度(0-255)高于阀值的像素变为白色,否则为黑色
+	 * 
+	 * @param threshold
+	 * @return
+	 */
+	public PixmapFilter threshold(int threshold) {
+		return add(OP_THRESHOLD, threshold, 0);
+	}
+
+	/**
+	 * 替换指定颜色为目标颜色
+	 * 
+	 * @param src
+	 * @param dst
+	 * @return
+	 */
+	public PixmapFilter replace(int src, int dst) {
+		return add(OP_REPLACE, src, dst);
+	}
+
+	/**
+	 * 3x3卷积(边缘一像素不处理)
+	 * 
+	 * @param matrix
+	 * @return
+	 */
+	public PixmapFilter convolve(ConvolutionMatrix matrix) {
+		_matrices.add(matrix);
+		return add(OP_CONVOLVE, _matrices.size - 1, 0);
+	}
+
+	public PixmapFilter setTileSize(int size) {
+		this._tileSize = MathUtils.max(8, size);
+		return this;
+	}
+
+	public int getTileSize() {
+		return _tileSize;
+	}
+
+	/**
+	 * 设置执行分块任务的线程池,为null时使用默认值
+	 * 
+	 * @param executor
+	 * @return
+	 */
+	public PixmapFilter setExecutor(TileExecutor executor) {
+		this._executor = executor;
+		return this;
+	}
+
+	public PixmapFilter clear() {
+		_ops.clear();
+		_matrices.clear();
+		return this;
+	}
+
+	public boolean isEmpty() {
+		return _ops.length == 0;
+	}
+
+	/**
+	 * 处理Pixmap(直接修改其像素)
+	 * 
+	 * @param pixmap
+	 * @return
+	 */
+	public Pixmap apply(Pixmap pixmap) {
+		if (pixmap == null || pixmap.isClosed()) {
+			return pixmap;
+		}
+		apply(pixmap.getData(), pixmap.getWidth(), pixmap.getHeight());
+		return pixmap;
+	}
+
+	/**
+	 * 处理像素数组(直接修改)
+	 * 
+	 * @param pixels
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	public int[] apply(int[] pixels, int width, int height) {
+		final int[] ops = _ops.toArray();
+		final int size = ops.length;
+		for (int i = 0; i < size;) {
+			if (ops[i] == OP_CONVOLVE) {
+				int[] src = CollectionUtils.copyOf(pixels);
+				convolve(_matrices.get(ops[i + 1]), src, pixels, width, height);
+				i += 3;
+			} else {
+				int end = i;
+				for (; end < size && ops[end] != OP_CONVOLVE;) {
+					end += 3;
+				}
+				filter(ops, i, end, pixels, width, height);
+				i = end;
+			}
+		}
+		return pixels;
+	}
+
+	/**
+	 * 以卷积处理src,结果写入dst(dst边缘一像素保持不变)
+	 * 
+	 * @param matrix
+	 * @param src
+	 * @param dst
+	 * @param width
+	 * @param height
+	 */
+	public void convolve(final ConvolutionMatrix matrix, final int[] src, final int[] dst, final int width,
+			final int height) {
+		if (width < 3 || height < 3) {
+			return;
+		}
+		final int tile = _tileSize;
+		final int cols = (width + tile - 1) / tile;
+		final int rows = (height + tile - 1) / tile;
+		final float[][] m = matrix.matrix;
+		// 矩阵值皆为较小整数时,逐项累加不会产生截断,可改用整数运算且结果不变
+		boolean integral = true;
+		for (int i = 0; i < 3 && integral; i++) {
+			for (int j = 0; j < 3; j++) {
+				float v = m[i][j];
+				if (v != (int) v || v > 4096 || v < -4096) {
+					integral = false;
+					break;
+				}
+			}
+		}
+		final boolean intMode = integral;
+		execute(_executor, cols * rows, new TileTask() {
+
+			@Override
+			public void run(int index) {
+				final int x0 = MathUtils.max(1, (index % cols) * tile);
+				final int y0 = MathUtils.max(1, (index / cols) * tile);
+				final int x1 = MathUtils.min(width - 1, (index % cols) * tile + tile);
+				final int y1 = MathUtils.min(height - 1, (index / cols) * tile + tile);
+				if (intMode) {
+					convolveInt(matrix, src, dst, width, x0, y0, x1, y1);
+				} else {
+					convolveFloat(matrix, src, dst, width, x0, y0, x1, y1);
+				}
+			}
+		});
+	}
+
+	private static void convolveInt(ConvolutionMatrix matrix, int[] src, int[] dst, int width, int x0, int y0,
+			int x1, int y1) {
+		final float[][] m = matrix.matrix;
+		final int m00 = (int) m[0][0], m01 = (int) m[0][1], m02 = (int) m[0][2];
+		final int m10 = (int) m[1][0], m11 = (int) m[1][1], m12 = (int) m[1][2];
+		final int m20 = (int) m[2][0], m21 = (int) m[2][1], m22 = (int) m[2][2];
+		final float factor = matrix.factor;
+		final float offset = matrix.offset;
+		for (int y = y0; y < y1; y++) {
+			int up = (y - 1) * width + x0 - 1;
+			int mid = up + width;
+			int down = mid + width;
+			// 滑动3x3窗口,c[列][行]
+			int c00 = src[up], c01 = src[mid], c02 = src[down];
+			int c10 = src[up + 1], c11 = src[mid + 1], c12 = src[down + 1];
+			for (int x = x0; x < x1; x++) {
+				final int c20 = src[up + 2], c21 = src[mid + 2], c22 = src[down + 2];
+				final int sumR = ((c00 >> 16) & 0xff) * m00 + ((c01 >> 16) & 0xff) * m01 + ((c02 >> 16) & 0xff) * m02
+						+ ((c10 >> 16) & 0xff) * m10 + ((c11 >> 16) & 0xff) * m11 + ((c12 >> 16) & 0xff) * m12
+						+ ((c20 >> 16) & 0xff) * m20 + ((c21 >> 16) & 0xff) * m21 + ((c22 >> 16) & 0xff) * m22;
+				final int sumG = ((c00 >> 8) & 0xff) * m00 + ((c01 >> 8) & 0xff) * m01 + ((c02 >> 8) & 0xff) * m02
+						+ ((c10 >> 8) & 0xff) * m10 + ((c11 >> 8) & 0xff) * m11 + ((c12 >> 8) & 0xff) * m12
+						+ ((c20 >> 8) & 0xff) * m20 + ((c21 >> 8) & 0xff) * m21 + ((c22 >> 8) & 0xff) * m22;
+				final int sumB = (c00 & 0xff) * m00 + (c01 & 0xff) * m01 + (c02 & 0xff) * m02 + (c10 & 0xff) * m10
+						+ (c11 & 0xff) * m11 + (c12 & 0xff) * m12 + (c20 & 0xff) * m20 + (c21 & 0xff) * m21
+						+ (c22 & 0xff) * m22;
+				dst[y * width + x] = pack(c11, sumR, sumG, sumB, factor, offset);
+				c00 = c10;
+				c01 = c11;
+				c02 = c12;
+				c10 = c20;
+				c11 = c21;
+				c12 = c22;
+				up++;
+				mid++;
+				down++;
+			}
+		}
+	}
+
+	private static void convolveFloat(ConvolutionMatrix matrix, int[] src, int[] dst, int width, int x0, int y0,
+			int x1, int y1) {
+		final float[][] m = matrix.matrix;
+		final float factor = matrix.factor;
+		final float offset = matrix.offset;
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				int sumR = 0, sumG = 0, sumB = 0;
+				// 与ConvolutionMatrix原有的累加顺序一致,保证结果相同
+				for (int i = 0; i < 3; i++) {
+					for (int j = 0; j < 3; j++) {
+						int c = src[(y + j - 1) * width + (x + i - 1)];
+						float v = m[i][j];
+						sumR += (((c >> 16) & 0xff) * v);
+						sumG += (((c >> 8) & 0xff) * v);
+						sumB += ((c & 0xff) * v);
+					}
+				}
+				dst[y * width + x] = pack(src[y * width + x], sumR, sumG, sumB, factor, offset);
+			}
+		}
+	}
+
+	private static int pack(int c, int sumR, int sumG, int sumB, float factor, float offset) {
+		int r = MathUtils.clamp((int) (sumR / factor + offset), 0, 255);
+		int g = MathUtils.clamp((int) (sumG / factor + offset), 0, 255);
+		int b = MathUtils.clamp((int) (sumB / factor + offset), 0, 255);
+		return (c & 0xff000000) | (r << 16) | (g << 8) | b;
+	}
+
+	private void filter(final int[] ops, final int from, final int to, final int[] pixels, final int width,
+			final int height) {
+		final int tile = _tileSize;
+		final int cols = (width + tile - 1) / tile;
+		final int rows = (height + tile - 1) / tile;
+		execute(_executor, cols * rows, new TileTask() {
+
+			@Override
+			public void run(int index) {
+				final int x0 = (index % cols) * tile;
+				final int y0 = (index / cols) * tile;
+				final int x1 = MathUtils.min(width, x0 + tile);
+				final int y1 = MathUtils.min(height, y0 + tile);
+				for (int y = y0; y < y1; y++) {
+					for (int i = y * width + x0, end = y * width + x1; i < end; i++) {
+						pixels[i] = process(pixels[i], ops, from, to);
+					}
+				}
+			}
+		});
+	}
+
+	private static int mix(int v, int o, int m) {
+		return (v * m + o * (256 - m)) >> 8;
+	}
+
+	private static int process(int c, final int[] ops, final int from, final int to) {
+		for (int k = from; k < to; k += 3) {
+			final int op = ops[k];
+			if (op == OP_REPLACE) {
+				if (c == ops[k + 1]) {
+					c = ops[k + 2];
+				}
+				continue;
+			}
+			// 与Pixmap原有处理一致,LColor.TRANSPARENT视为透明
+			if (c == LColor.TRANSPARENT) {
+				c = 0;
+				continue;
+			}
+			final int a = c >>> 24;
+			int r = (c >> 16) & 0xff;
+			int g = (c >> 8) & 0xff;
+			int b = c & 0xff;
+			final int m = ops[k + 1];
+			switch (op) {
+			case OP_GREY: {
+				int v = (54 * r + 183 * g + 19 * b) >> 8;
+				r = mix(v, r, m);
+				g = mix(v, g, m);
+				b = mix(v, b, m);
+				break;
+			}
+			case OP_SEPIA: {
+				int nr = MathUtils.min(255, (101 * r + 197 * g + 48 * b) >> 8);
+				int ng = MathUtils.min(255, (89 * r + 176 * g + 43 * b) >> 8);
+				int nb = MathUtils.min(255, (70 * r + 137 * g + 34 * b) >> 8);
+				r = mix(nr, r, m);
+				g = mix(ng, g, m);
+				b = mix(nb, b, m);
+				break;
+			}
+			case OP_INVERT:
+				r = mix(255 - r, r, m);
+				g = mix(255 - g, g, m);
+				b = mix(255 - b, b, m);
+				break;
+			case OP_THRESHOLD:
+				r = g = b = (((54 * r + 183 * g + 19 * b) >> 8) > m) ? 255 : 0;
+				break;
+			}
+			c = (a << 24) | (r << 16) | (g << 8) | b;
+		}
+		return c;
+	}
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.canvas;
+
+import loon.canvas.PixmapFilter.TileExecutor;
+import loon.canvas.PixmapFilter.TileTask;
+import loon.utils.MathUtils;
+
+/**
+ * Pixmap缩放用类,以16.16定点数计算坐标,提供真正的双线性插值(取四个相邻像素加权)与盒式缩小(取区域内像素平均值)两种方式,
+ * 逐行分块处理,可经由PixmapFilter.TileExecutor并行执行,结果与执行顺序无关.
+ */
+public class PixmapScaler {
+
+	private final static int ROWS_PER_TILE = 32;
+
+	private PixmapScaler() {
+	}
+
+	/**
+	 * 缩放Pixmap,缩小到一半以下时先以盒式缩小,其它情况使用双线性插值
+	 * 
+	 * @param src
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	public static Pixmap scale(Pixmap src, int width, int height) {
+		if (src.getWidth() >= width * 2 && src.getHeight() >= height * 2) {
+			return box(src, width, height);
+		}
+		return bilinear(src, width, height);
+	}
+
+	public static Pixmap bilinear(Pixmap src, int width, int height) {
+		Pixmap dst = new Pixmap(width, height, src.hasAlpha());
+		bilinear(src.getData(), src.getWidth(), 0, 0, src.getWidth(), src.getHeight(), dst.getData(), width, height,
+				null);
+		return dst;
+	}
+
+	public static Pixmap box(Pixmap src, int width, int height) {
+		Pixmap dst = new Pixmap(width, height, src.hasAlpha());
+		box(src.getData(), src.getWidth(), src.getHeight(), dst.getData(), width, height, null);
+		return dst;
+	}
+
+	/**
+	 * 以双线性插值缩放源像素中的指定区域到目标像素
+	 * 
+	 * @param src
+	 * @param srcPitch
+	 *            源像素每行像素数
+	 * @param srcX
+	 * @param srcY
+	 * @param srcWidth
+	 * @param srcHeight
+	 * @param dst
+	 * @param dstWidth
+	 * @param dstHeight
+	 * @param executor
+	 *            为null时使用PixmapFilter的默认值
+	 */
+	public static void bilinear(final int[] src, final int srcPitch, final int srcX, final int srcY,
+			final int srcWidth, final int srcHeight, final int[] dst, final int dstWidth, final int dstHeight,
+			TileExecutor executor) {
+		if (srcWidth <= 0 || srcHeight <= 0 || dstWidth <= 0 || dstHeight <= 0) {
+			return;
+		}
+		final int stepX = (int) (((long) srcWidth << 16) / dstWidth);
+		final int stepY = (int) (((long) srcHeight << 16) / dstHeight);
+		final int maxX = srcX + srcWidth - 1;
+		final int maxY = srcY + srcHeight - 1;
+		PixmapFilter.execute(executor, (dstHeight + ROWS_PER_TILE - 1) / ROWS_PER_TILE, new TileTask() {
+
+			@Override
+			public void run(int index) {
+				final int y0 = index * ROWS_PER_TILE;
+				final int y1 = MathUtils.min(dstHeight, y0 + ROWS_PER_TILE);
+				for (int y = y0; y < y1; y++) {
+					// 以像素中心对齐
+					int fy = (srcY << 16) + y * stepY + (stepY >> 1) - 0x8000;
+					int offset = y * dstWidth;
+					for (int x = 0; x < dstWidth; x++) {
+						int fx = (srcX << 16) + x * stepX + (stepX >> 1) - 0x8000;
+						dst[offset + x] = sample(src, srcPitch, fx, fy, srcX, srcY, maxX, maxY);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * 取16.16定点坐标处双线性插值后的颜色
+	 */
+	static int sample(int[] src, int pitch, int fx, int fy, int minX, int minY, int maxX, int maxY) {
+		if (fx < (minX << 16)) {
+			fx = minX << 16;
+		}
+		if (fy < (minY << 16)) {
+			fy = minY << 16;
+		}
+		int x0 = fx >> 16;
+		int y0 = fy >> 16;
+		if (x0 >= maxX) {
+			x0 = maxX;
+			fx = maxX << 16;
+		}
+		if (y0 >= maxY) {
+			y0 = maxY;
+			fy = maxY << 16;
+		}
+		final int x1 = x0 < maxX ? x0 + 1 : x0;
+		final int y1 = y0 < maxY ? y0 + 1 : y0;
+		final int wx = (fx >> 8) & 0xff;
+		final int wy = (fy >> 8) & 0xff;
+		final int c00 = src[y0 * pitch + x0];
+		final int c10 = src[y0 * pitch + x1];
+		final int c01 = src[y1 * pitch + x0];
+		final int c11 = src[y1 * pitch + x1];
+		if (c00 == c10 && c00 == c01 && c00 == c11) {
+			return c00;
+		}
+		final int w00 = (256 - wx) * (256 - wy);
+		final int w10 = wx * (256 - wy);
+		final int w01 = (256 - wx) * wy;
+		final int w11 = wx * wy;
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 8) {
+			int v = ((c00 >>> shift) & 0xff) * w00 + ((c10 >>> shift) & 0xff) * w10 + ((c01 >>> shift) & 0xff) * w01
+					+ ((c11 >>> shift) & 0xff) * w11;
+			result |= ((v + 0x8000) >>> 16) << shift;
+		}
+		return result;
+	}
+
+	/**
+	 * 以盒式缩小(取对应区域内所有像素的平均值)缩放像素,适合大比例缩小
+	 * 
+	 * @param src
+	 * @param srcWidth
+	 * @param srcHeight
+	 * @param dst
+	 * @param dstWidth
+	 * @param dstHeight
+	 * @param executor
+	 *            为null时使用PixmapFilter的默认值
+	 */
+	public static void box(final int[] src, final int srcWidth, final int srcHeight, final int[] dst,
+			final int dstWidth, final int dstHeight, TileExecutor executor) {
+		if (srcWidth <= 0 || srcHeight <= 0 || dstWidth <= 0 || dstHeight <= 0) {
+			return;
+		}
+		PixmapFilter.execute(executor, (dstHeight + ROWS_PER_TILE - 1) / ROWS_PER_TILE, new TileTask() {
+
+			@Override
+			public void run(int index) {
+				final int y0 = index * ROWS_PER_TILE;
+				final int y1 = MathUtils.min(dstHeight, y0 + ROWS_PER_TILE);
+				for (int y = y0; y < y1; y++) {
+					int sy0 = (int) ((long) y * srcHeight / dstHeight);
+					int sy1 = MathUtils.max(sy0 + 1, (int) ((long) (y + 1) * srcHeight / dstHeight));
+					for (int x = 0; x < dstWidth; x++) {
+						int sx0 = (int) ((long) x * srcWidth / dstWidth);
+						int sx1 = MathUtils.max(sx0 + 1, (int) ((long) (x + 1) * srcWidth / dstWidth));
+						long a = 0, r = 0, g = 0, b = 0;
+						for (int sy = sy0; sy < sy1; sy++) {
+							for (int i = sy * srcWidth + sx0, end = sy * srcWidth + sx1; i < end; i++) {
+								int c = src[i];
+								a += c >>> 24;
+								r += (c >> 16) & 0xff;
+								g += (c >> 8) & 0xff;
+								b += c & 0xff;
+							}
+						}
+						long count = (long) (sx1 - sx0) * (sy1 - sy0);
+						long half = count >> 1;
+						dst[y * dstWidth + x] = (int) ((((a + half) / count) << 24) | (((r + half) / count) << 16)
+								| (((g + half) / count) << 8) | ((b + half) / count));
+					}
+				}
+			}
+		});
+	}
+
+}
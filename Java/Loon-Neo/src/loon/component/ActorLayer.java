@@ -478,9 +478,9 @@ public abstract class ActorLayer extends LContainer {
 			return;
 		}
 		if (tmpField != null) {
-			if ((field.getMap().length == tmpField.getMap().length) && (field.getTileWidth() == tmpField.getTileWidth())
+			if ((field.getHeight() == tmpField.getHeight()) && (field.getTileWidth() == tmpField.getTileWidth())
 					&& (field.getTileHeight() == tmpField.getTileHeight())) {
-				tmpField.set(field.getMap(), field.getTileWidth(), field.getTileHeight());
+				tmpField.cpy(field);
 			}
 		} else {
 			tmpField = field;
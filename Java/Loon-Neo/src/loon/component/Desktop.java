@@ -295,6 +295,27 @@ public class Desktop implements Visible, LRelease {
 
 	boolean isClicked;
 
+	// 当前帧中直接使用渲染缓存,以及重新渲染了缓存的容器数量
+	int cachedContainers, renderedContainers;
+
+	/**
+	 * 最近一帧中直接绘制缓存纹理的容器数量
+	 * 
+	 * @return
+	 */
+	public int getCachedContainers() {
+		return cachedContainers;
+	}
+
+	/**
+	 * 最近一帧中因缓存失效而重新渲染的容器数量
+	 * 
+	 * @return
+	 */
+	public int getRenderedContainers() {
+		return renderedContainers;
+	}
+
 	/**
 	 * 刷新当前桌面
 	 * 
@@ -416,6 +437,8 @@ public class Desktop implements Visible, LRelease {
 		if (!dvisible) {
 			return;
 		}
+		this.cachedContainers = 0;
+		this.renderedContainers = 0;
 		try {
 			g.saveTx();
 			this.contentPane.createUI(g);
@@ -484,6 +507,7 @@ public class Desktop implements Visible, LRelease {
 			if (this.input.getTouchDX() != 0 || this.input.getTouchDY() != 0 || SysTouch.getDX() != 0
 					|| SysTouch.getDY() != 0) {
 				this.hoverComponent.processTouchDragged();
+				this.hoverComponent.invalidateCache();
 				if (LSystem.isMobile() || LSystem.base().setting.emulateTouch) {
 					if (tooltip != null) {
 						this.tooltip.setToolTipComponent(hoverComponent);
@@ -533,10 +557,20 @@ public class Desktop implements Visible, LRelease {
 					this.hoverComponent.processTouchExited();
 				}
 			}
+			if (comp != this.hoverComponent) {
+				invalidateCache(this.hoverComponent);
+				invalidateCache(comp);
+			}
 			this.hoverComponent = comp;
 		}
 	}
 
+	private static void invalidateCache(LComponent comp) {
+		if (comp != null) {
+			comp.invalidateCache();
+		}
+	}
+
 	public LToolTip getToolTip() {
 		return this.tooltip;
 	}
@@ -557,6 +591,9 @@ public class Desktop implements Visible, LRelease {
 	 */
 	private void processTouchEvent() {
 		int pressed = this.input.getTouchPressed(), released = this.input.getTouchReleased();
+		if (pressed > SysInput.NO_BUTTON || released > SysInput.NO_BUTTON) {
+			invalidateCache(this.hoverComponent);
+		}
 		if (pressed > SysInput.NO_BUTTON) {
 			if (!LSystem.isMobile() && !LSystem.base().setting.emulateTouch) {
 				if (tooltip != null) {
@@ -596,6 +633,9 @@ public class Desktop implements Visible, LRelease {
 	 * 
 	 */
 	private void processKeyEvent() {
+		if (this.input.getKeyPressed() != SysInput.NO_KEY || this.input.getKeyReleased() != SysInput.NO_KEY) {
+			invalidateCache(this.selectedComponent);
+		}
 		if (this.selectedComponent != null && !this.selectedComponent._keyLocked
 				&& this.input.getKeyPressed() != SysInput.NO_KEY) {
 			this.selectedComponent.keyPressed();
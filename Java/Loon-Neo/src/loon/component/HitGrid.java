@@ -0,0 +1,224 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.component;
+
+import loon.utils.IntArray;
+import loon.utils.IntMap;
+import loon.utils.MathUtils;
+
+/**
+ * 容器子组件的均匀网格索引,坐标相对于容器的屏幕位置(容器自身移动时无需更新),用于加速触屏命中查找.
+ * 
+ * 网格只负责筛选候选组件,最终仍以组件自身的intersects判断,因此结果与逐个遍历相同.
+ */
+final class HitGrid {
+
+	// 单个组件覆盖的格子超过此数量时放入大组件列表,每次查找都会检查
+	private final static int MAX_CELLS = 64;
+
+	private final IntMap<IntArray> cells = new IntMap<IntArray>();
+
+	private final IntArray large = new IntArray(false, 8);
+
+	private int shift = 6;
+
+	// 每个子组件已记录的相对位置与大小
+	private float[] bounds = new float[0];
+
+	// 每个子组件所占的格子范围,大组件的minX为Integer.MIN_VALUE
+	private int[] ranges = new int[0];
+
+	private int size;
+
+	int size() {
+		return size;
+	}
+
+	void build(LComponent[] childs, int count, int ox, int oy) {
+		cells.clear();
+		large.clear();
+		size = count;
+		if (bounds.length < count * 4) {
+			bounds = new float[count * 4];
+			ranges = new int[count * 4];
+		}
+		float total = 0;
+		int num = 0;
+		for (int i = 0; i < count; i++) {
+			LComponent c = childs[i];
+			if (c != null) {
+				total += MathUtils.max(c._width * c._scaleX, c._height * c._scaleY);
+				num++;
+			}
+		}
+		// 格子大小取子组件平均尺寸附近的2的幂
+		int cell = num == 0 ? 64 : MathUtils.nextPowerOfTwo(MathUtils.max(16, (int) (total / num)));
+		cell = MathUtils.min(cell, 512);
+		shift = 0;
+		while ((1 << shift) < cell) {
+			shift++;
+		}
+		for (int i = 0; i < count; i++) {
+			LComponent c = childs[i];
+			if (c == null) {
+				ranges[i * 4] = Integer.MAX_VALUE;
+				continue;
+			}
+			record(i, c, ox, oy);
+			insert(i);
+		}
+	}
+
+	/**
+	 * 子组件位置或大小变化时更新其所占格子
+	 * 
+	 * @return 是否发生了变化
+	 */
+	boolean update(int index, LComponent c, int ox, int oy) {
+		if (index < 0 || index >= size) {
+			return false;
+		}
+		final int b = index * 4;
+		final float[] bs = bounds;
+		if (bs[b] == c._screenX - ox && bs[b + 1] == c._screenY - oy && bs[b + 2] == c._width * c._scaleX
+				&& bs[b + 3] == c._height * c._scaleY) {
+			return false;
+		}
+		remove(index);
+		record(index, c, ox, oy);
+		insert(index);
+		return true;
+	}
+
+	private void record(int index, LComponent c, int ox, int oy) {
+		final int b = index * 4;
+		final float x = c._screenX - ox;
+		final float y = c._screenY - oy;
+		final float w = c._width * c._scaleX;
+		final float h = c._height * c._scaleY;
+		bounds[b] = x;
+		bounds[b + 1] = y;
+		bounds[b + 2] = w;
+		bounds[b + 3] = h;
+		int minX = cellOf(x), minY = cellOf(y);
+		int maxX = cellOf(x + MathUtils.max(w, 0)), maxY = cellOf(y + MathUtils.max(h, 0));
+		if ((long) (maxX - minX + 1) * (maxY - minY + 1) > MAX_CELLS) {
+			ranges[b] = Integer.MIN_VALUE;
+		} else {
+			ranges[b] = minX;
+			ranges[b + 1] = minY;
+			ranges[b + 2] = maxX;
+			ranges[b + 3] = maxY;
+		}
+	}
+
+	private void insert(int index) {
+		final int b = index * 4;
+		final int minX = ranges[b];
+		if (minX == Integer.MAX_VALUE) {
+			return;
+		}
+		if (minX == Integer.MIN_VALUE) {
+			large.add(index);
+			return;
+		}
+		for (int cy = ranges[b + 1]; cy <= ranges[b + 3]; cy++) {
+			for (int cx = minX; cx <= ranges[b + 2]; cx++) {
+				int key = key(cx, cy);
+				IntArray list = cells.get(key);
+				if (list == null) {
+					list = new IntArray(false, 4);
+					cells.put(key, list);
+				}
+				list.add(index);
+			}
+		}
+	}
+
+	private void remove(int index) {
+		final int b = index * 4;
+		final int minX = ranges[b];
+		if (minX == Integer.MAX_VALUE) {
+			return;
+		}
+		if (minX == Integer.MIN_VALUE) {
+			large.removeValue(index);
+			return;
+		}
+		for (int cy = ranges[b + 1]; cy <= ranges[b + 3]; cy++) {
+			for (int cx = minX; cx <= ranges[b + 2]; cx++) {
+				IntArray list = cells.get(key(cx, cy));
+				if (list != null) {
+					list.removeValue(index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 返回包含指定屏幕坐标的最前(下标最小)子组件下标,不存在时返回-1
+	 */
+	int find(LComponent[] childs, int x, int y, int ox, int oy) {
+		int result = Integer.MAX_VALUE;
+		IntArray list = cells.get(key(cellOf(x - ox), cellOf(y - oy)));
+		if (list != null) {
+			result = find(list, childs, x, y, result);
+		}
+		result = find(large, childs, x, y, result);
+		return result == Integer.MAX_VALUE ? -1 : result;
+	}
+
+	private int find(IntArray list, LComponent[] childs, int x, int y, int result) {
+		final int[] items = list.items;
+		for (int i = 0, n = list.length; i < n; i++) {
+			int idx = items[i];
+			if (idx < result && idx < childs.length) {
+				LComponent c = childs[idx];
+				if (c != null && c.intersects(x, y)) {
+					result = idx;
+				}
+			}
+		}
+		return result;
+	}
+
+	private int cellOf(float v) {
+		int c = MathUtils.floor(v) >> shift;
+		if (c < Short.MIN_VALUE) {
+			return Short.MIN_VALUE;
+		}
+		if (c > Short.MAX_VALUE) {
+			return Short.MAX_VALUE;
+		}
+		return c;
+	}
+
+	private static int key(int cx, int cy) {
+		return (cx << 16) | (cy & 0xffff);
+	}
+
+	void clear() {
+		cells.clear();
+		large.clear();
+		size = 0;
+	}
+
+}
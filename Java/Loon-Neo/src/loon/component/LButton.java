@@ -196,6 +196,7 @@ public class LButton extends LComponent implements FontSet<LButton> {
 
 	public void setText(String st) {
 		this.text = st;
+		invalidateCache();
 	}
 
 	public void checked() {
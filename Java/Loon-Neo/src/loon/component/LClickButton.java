@@ -352,6 +352,7 @@ public class LClickButton extends LComponent implements FontSet<LClickButton> {
 				LSTRDictionary.get().bind((LFont) font, text);
 			}
 		}
+		invalidateCache();
 		return this;
 	}
 
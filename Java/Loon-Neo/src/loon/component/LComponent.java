@@ -272,6 +272,12 @@ public abstract class LComponent extends LObject<LContainer>
 
 	protected SysInput input;
 
+	// 最后一次通知缓存容器时的相对位置
+	private float _cacheLocX = Float.NaN, _cacheLocY = Float.NaN;
+
+	// 在所属容器命中索引中的下标
+	int _hitIndex = -1;
+
 	/**
 	 * 构造可用组件
 	 * 
@@ -541,6 +547,7 @@ public abstract class LComponent extends LObject<LContainer>
 			return;
 		}
 		this._component_visible = v;
+		invalidateCache();
 		if (_desktop != null) {
 			this._desktop.setComponentStat(this, this._component_visible);
 		}
@@ -555,6 +562,7 @@ public abstract class LComponent extends LObject<LContainer>
 			return this;
 		}
 		this._component_enabled = b;
+		invalidateCache();
 		if (_desktop != null) {
 			this._desktop.setComponentStat(this, this._component_enabled);
 		}
@@ -566,7 +574,10 @@ public abstract class LComponent extends LObject<LContainer>
 	}
 
 	final LComponent setSelected(boolean b) {
-		this._component_selected = b;
+		if (this._component_selected != b) {
+			this._component_selected = b;
+			invalidateCache();
+		}
 		return this;
 	}
 
@@ -620,6 +631,8 @@ public abstract class LComponent extends LObject<LContainer>
 			if (_height == 0) {
 				_height = 1;
 			}
+			this.invalidateCache();
+			this.notifyBoundsChanged();
 			this.validateSize();
 		}
 		return this;
@@ -699,6 +712,8 @@ public abstract class LComponent extends LObject<LContainer>
 			if (this._height == 0) {
 				this._height = 1;
 			}
+			this.invalidateCache();
+			this.notifyBoundsChanged();
 			this.validateSize();
 		}
 	}
@@ -714,6 +729,59 @@ public abstract class LComponent extends LObject<LContainer>
 			this._screenX = _location.x();
 			this._screenY = _location.y();
 		}
+		// 缓存以相对位置保存,只有自身位置变化才需通知上级容器
+		if (_location.x != _cacheLocX || _location.y != _cacheLocY) {
+			_cacheLocX = _location.x;
+			_cacheLocY = _location.y;
+			if (_super != null) {
+				_super.invalidateCache();
+				_super.childBoundsChanged(this);
+			}
+		}
+	}
+
+	private void notifyBoundsChanged() {
+		if (_super != null) {
+			_super.childBoundsChanged(this);
+		}
+	}
+
+	/**
+	 * 通知包含此组件的缓存容器(见LContainer.setRenderCache)重新渲染,组件外观在内部发生变化时调用
+	 */
+	public void invalidateCache() {
+		LContainer c = isContainer() ? (LContainer) this : _super;
+		for (; c != null; c = c.getContainer()) {
+			c._cacheDirty = true;
+		}
+	}
+
+	/**
+	 * 计算组件在画面中实际可见的纵向范围(相对组件顶部),已计入上级滚动容器的偏移与剪切区域及画面大小,用于只绘制可见的行
+	 *
+	 * @param out
+	 *            out[0]为可见范围顶部,out[1]为底部
+	 * @return 完全不可见时返回false
+	 */
+	public boolean getVisibleRangeY(float[] out) {
+		float top = 0;
+		float bottom = LSystem.viewSize.getHeight();
+		float scroll = 0;
+		for (LContainer c = _super; c != null; c = c.getContainer()) {
+			if (c instanceof LScrollContainer) {
+				scroll += ((LScrollContainer) c).getScrollY();
+			}
+			// 剪切区域不受translate影响,使用未滚动的屏幕坐标
+			if (c.isElastic()) {
+				top = MathUtils.max(top, c._screenY);
+				bottom = MathUtils.min(bottom, c._screenY + c.getHeight());
+			}
+		}
+		top = MathUtils.max(0, top + scroll - _screenY);
+		bottom = MathUtils.min(getHeight(), bottom + scroll - _screenY);
+		out[0] = top;
+		out[1] = bottom;
+		return bottom > top;
 	}
 
 	public int getScreenX() {
@@ -726,12 +794,38 @@ public abstract class LComponent extends LObject<LContainer>
 
 	@Override
 	public void setHeight(float height) {
-		this._height = height;
+		if (this._height != height) {
+			this._height = height;
+			invalidateCache();
+			notifyBoundsChanged();
+		}
 	}
 
 	@Override
 	public void setWidth(float width) {
-		this._width = width;
+		if (this._width != width) {
+			this._width = width;
+			invalidateCache();
+			notifyBoundsChanged();
+		}
+	}
+
+	@Override
+	public void setAlpha(float a) {
+		float old = this._alpha;
+		super.setAlpha(a);
+		if (old != this._alpha) {
+			invalidateCache();
+		}
+	}
+
+	@Override
+	public void setRotation(float r) {
+		float old = this._rotation;
+		super.setRotation(r);
+		if (old != this._rotation) {
+			invalidateCache();
+		}
 	}
 
 	@Override
@@ -914,6 +1008,8 @@ public abstract class LComponent extends LObject<LContainer>
 			this._height = imageUI[0].getHeight();
 		}
 		this._imageUI = imageUI;
+		invalidateCache();
+		notifyBoundsChanged();
 	}
 
 	public void setImageUI(int index, LTexture imageUI) {
@@ -922,6 +1018,8 @@ public abstract class LComponent extends LObject<LContainer>
 			this._height = imageUI.getHeight();
 		}
 		this._imageUI[index] = imageUI;
+		invalidateCache();
+		notifyBoundsChanged();
 	}
 
 	public abstract String getUIName();
@@ -974,6 +1072,7 @@ public abstract class LComponent extends LObject<LContainer>
 			return this;
 		}
 		this._background = b;
+		this.invalidateCache();
 		this.setSize(w, h);
 		freeRes().add(_background);
 		return this;
@@ -1022,6 +1121,8 @@ public abstract class LComponent extends LObject<LContainer>
 		}
 		this._scaleX = sx;
 		this._scaleY = sy;
+		invalidateCache();
+		notifyBoundsChanged();
 	}
 
 	@Override
@@ -1284,6 +1385,7 @@ public abstract class LComponent extends LObject<LContainer>
 	@Override
 	public void setColor(LColor c) {
 		this._component_baseColor = new LColor(c);
+		invalidateCache();
 	}
 
 	@Override
@@ -1302,12 +1404,14 @@ public abstract class LComponent extends LObject<LContainer>
 	@Override
 	public LComponent setFlipX(boolean x) {
 		this._flipX = x;
+		invalidateCache();
 		return this;
 	}
 
 	@Override
 	public LComponent setFlipY(boolean y) {
 		this._flipY = y;
+		invalidateCache();
 		return this;
 	}
 
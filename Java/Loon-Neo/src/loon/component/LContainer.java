@@ -30,8 +30,11 @@ import loon.event.GameKey;
 import loon.event.QueryEvent;
 import loon.geom.RectBox;
 import loon.geom.Vector2f;
+import loon.opengl.GL20;
 import loon.opengl.GLEx;
+import loon.opengl.LTextureImage;
 import loon.utils.CollectionUtils;
+import loon.utils.GLUtils;
 import loon.utils.IArray;
 import loon.utils.LayerSorter;
 import loon.utils.MathUtils;
@@ -52,6 +55,22 @@ public abstract class LContainer extends LComponent implements IArray {
 
 	private LComponent latestInserted = null;
 
+	// 渲染缓存(保留模式),子树未变化时只绘制一次纹理
+	private boolean _cacheEnabled = false;
+
+	boolean _cacheDirty = true;
+
+	private LTextureImage _cacheImage;
+
+	private float _cacheScreenAlpha = -1f;
+
+	// 子组件数量达到此值时使用网格索引查找触屏命中的组件
+	private final static int HIT_GRID_MIN = 16;
+
+	private HitGrid _hitGrid;
+
+	private boolean _hitDirty = true;
+
 	public LContainer(int x, int y, int w, int h) {
 		super(x, y, w, h);
 		this.setFocusable(false);
@@ -542,6 +561,8 @@ public abstract class LContainer extends LComponent implements IArray {
 		}
 		this._childs = CollectionUtils.cut(this._childs, index);
 		this.childCount--;
+		this._hitDirty = true;
+		this.invalidateCache();
 		return comp;
 	}
 
@@ -563,6 +584,8 @@ public abstract class LContainer extends LComponent implements IArray {
 		}
 		this._childs = new LComponent[0];
 		this.childCount = 0;
+		this._hitDirty = true;
+		this.invalidateCache();
 	}
 
 	public void replace(LComponent oldComp, LComponent newComp) {
@@ -585,10 +608,15 @@ public abstract class LContainer extends LComponent implements IArray {
 			try {
 				super.update(timer);
 				LComponent component;
+				final boolean syncHit = _hitGrid != null && !_hitDirty;
 				for (int i = 0; i < this.childCount; i++) {
 					component = _childs[i];
 					if (component != this) {
 						component.update(timer);
+						// 同步子类直接修改的位置与大小
+						if (syncHit) {
+							_hitGrid.update(i, component, this._screenX, this._screenY);
+						}
 					}
 				}
 			} catch (Throwable cause) {
@@ -638,6 +666,9 @@ public abstract class LContainer extends LComponent implements IArray {
 			return;
 		}
 		synchronized (_childs) {
+			if (_cacheEnabled && createCacheUI(g)) {
+				return;
+			}
 			super.createUI(g);
 			if (this._component_elastic) {
 				g.setClip(this.getScreenX(), this.getScreenY(), this.getWidth(), this.getHeight());
@@ -649,6 +680,100 @@ public abstract class LContainer extends LComponent implements IArray {
 		}
 	}
 
+	/**
+	 * 绘制缓存纹理,缓存失效时先将整个子树渲染到纹理中(纹理大小即容器大小,超出部分被剪切)
+	 * 
+	 * @param g
+	 * @return 无法使用缓存时返回false
+	 */
+	private boolean createCacheUI(GLEx g) {
+		final int width = (int) getWidth();
+		final int height = (int) getHeight();
+		if (width <= 0 || height <= 0 || LSystem.base() == null) {
+			return false;
+		}
+		if (_alpha < 0.01f) {
+			return true;
+		}
+		if (_cacheImage != null && (_cacheImage.texture.width() != width || _cacheImage.texture.height() != height)) {
+			freeRenderCache();
+		}
+		final float screenAlpha = getScreen() == null ? 1f : getScreen().getAlpha();
+		if (_cacheDirty || _cacheImage == null || _cacheScreenAlpha != screenAlpha) {
+			final GL20 gl = g.batch().gl;
+			final boolean writeAlpha = GLUtils.isWriteAlpha();
+			// 先清除标记,渲染期间发生的变化会在下一帧重新渲染
+			_cacheDirty = false;
+			_cacheScreenAlpha = screenAlpha;
+			g.suspend();
+			try {
+				if (_cacheImage == null) {
+					_cacheImage = new LTextureImage(LSystem.base().graphics(), g.batch(), width, height, true);
+				}
+				final LTextureImage img = _cacheImage;
+				img.begin();
+				GLUtils.setWriteAlpha(gl, true);
+				img.clear();
+				img.saveTx();
+				img.translate(-_screenX, -_screenY);
+				img.setClipOffset(-_screenX, -_screenY);
+				super.createUI(img);
+				this.renderComponents(img);
+				img.setClipOffset(0, 0);
+				img.restoreTx();
+				img.end();
+			} catch (Throwable cause) {
+				LSystem.error("LContainer createCacheUI() exception", cause);
+			} finally {
+				GLUtils.setWriteAlpha(gl, writeAlpha);
+				g.resume();
+			}
+			if (_desktop != null) {
+				_desktop.renderedContainers++;
+			}
+		} else if (_desktop != null) {
+			_desktop.cachedContainers++;
+		}
+		g.draw(_cacheImage.texture, _screenX, _screenY, width, height);
+		return true;
+	}
+
+	/**
+	 * 开启或关闭渲染缓存,开启后子树只在位置,大小,文字,透明度,可见性等发生变化时重新渲染,其余时候作为一张纹理绘制.
+	 * 
+	 * 子组件外观在内部自行变化(如逐帧动画)时,需调用其invalidateCache,否则应关闭缓存.
+	 * 
+	 * @param cache
+	 * @return
+	 */
+	public LContainer setRenderCache(boolean cache) {
+		if (this._cacheEnabled != cache) {
+			this._cacheEnabled = cache;
+			if (!cache) {
+				freeRenderCache();
+			}
+			this._cacheDirty = true;
+		}
+		return this;
+	}
+
+	public boolean isRenderCache() {
+		return _cacheEnabled;
+	}
+
+	public boolean isCacheDirty() {
+		return _cacheDirty;
+	}
+
+	private void freeRenderCache() {
+		if (_cacheImage != null) {
+			_cacheImage.close();
+			_cacheImage.texture.close();
+			_cacheImage = null;
+		}
+		_cacheDirty = true;
+	}
+
 	protected void renderComponents(GLEx g) {
 		if (_component_isClose) {
 			return;
@@ -708,6 +833,8 @@ public abstract class LContainer extends LComponent implements IArray {
 			return;
 		}
 		compSorter.sort(this._childs);
+		this._hitDirty = true;
+		this.invalidateCache();
 	}
 
 	protected void transferFocus(LComponent component) {
@@ -789,38 +916,101 @@ public abstract class LContainer extends LComponent implements IArray {
 		if (!this.intersects(x1, y1)) {
 			return null;
 		}
-		for (int i = 0; i < this.childCount; i++) {
-			LComponent child = this._childs[i];
-			if (child != null && child.getSuper() != null && child.getSuper().isContainer()
-					&& (child.getSuper() instanceof LScrollContainer)) {
-				LScrollContainer scr = (LScrollContainer) child.getSuper();
-				int nx = x1 + scr.getScrollX();
-				int ny = y1 + scr.getScrollY();
-				if (child.intersects(nx, ny)) {
-					LComponent comp = (!child.isContainer()) ? child : ((LContainer) child).findComponent(nx, ny);
-					LContainer container = comp.getContainer();
-					if (container != null && container.isContainer() && (container instanceof LScrollContainer)) {
-						if (container.contains(comp) && (comp.getWidth() >= container.getWidth()
-								|| comp.getHeight() >= container.getHeight())) {
-							return comp.getContainer();
-						}
-					}
+		if (this.childCount >= HIT_GRID_MIN) {
+			// 子组件较多时通过网格索引筛选候选者
+			if (_hitGrid == null) {
+				_hitGrid = new HitGrid();
+			}
+			if (_hitDirty || _hitGrid.size() != this.childCount) {
+				buildHitGrid();
+			}
+			int index = _hitGrid.find(this._childs, x1, y1, this._screenX, this._screenY);
+			if (this instanceof LScrollContainer) {
+				LScrollContainer scr = (LScrollContainer) this;
+				int scrollIndex = _hitGrid.find(this._childs, x1 + scr.getScrollX(), y1 + scr.getScrollY(),
+						this._screenX, this._screenY);
+				if (scrollIndex != -1 && (index == -1 || scrollIndex < index)) {
+					index = scrollIndex;
+				}
+			}
+			if (index != -1) {
+				LComponent comp = findComponent(this._childs[index], x1, y1);
+				if (comp != null) {
 					return comp;
 				}
 			}
-			if (child.intersects(x1, y1)) {
-				LComponent comp = (!child.isContainer()) ? child : ((LContainer) child).findComponent(x1, y1);
+			return this;
+		}
+		for (int i = 0; i < this.childCount; i++) {
+			LComponent comp = findComponent(this._childs[i], x1, y1);
+			if (comp != null) {
+				return comp;
+			}
+		}
+		return this;
+	}
+
+	private LComponent findComponent(LComponent child, int x1, int y1) {
+		if (child == null) {
+			return null;
+		}
+		if (child.getSuper() != null && child.getSuper().isContainer()
+				&& (child.getSuper() instanceof LScrollContainer)) {
+			LScrollContainer scr = (LScrollContainer) child.getSuper();
+			int nx = x1 + scr.getScrollX();
+			int ny = y1 + scr.getScrollY();
+			if (child.intersects(nx, ny)) {
+				LComponent comp = (!child.isContainer()) ? child : ((LContainer) child).findComponent(nx, ny);
 				LContainer container = comp.getContainer();
 				if (container != null && container.isContainer() && (container instanceof LScrollContainer)) {
-					if (container.contains(comp)
-							&& (comp.getWidth() >= container.getWidth() || comp.getHeight() >= container.getHeight())) {
+					if (container.contains(comp) && (comp.getWidth() >= container.getWidth()
+							|| comp.getHeight() >= container.getHeight())) {
 						return comp.getContainer();
 					}
 				}
 				return comp;
 			}
 		}
-		return this;
+		if (child.intersects(x1, y1)) {
+			LComponent comp = (!child.isContainer()) ? child : ((LContainer) child).findComponent(x1, y1);
+			LContainer container = comp.getContainer();
+			if (container != null && container.isContainer() && (container instanceof LScrollContainer)) {
+				if (container.contains(comp)
+						&& (comp.getWidth() >= container.getWidth() || comp.getHeight() >= container.getHeight())) {
+					return comp.getContainer();
+				}
+			}
+			return comp;
+		}
+		return null;
+	}
+
+	private void buildHitGrid() {
+		for (int i = 0; i < this.childCount; i++) {
+			LComponent comp = this._childs[i];
+			if (comp != null) {
+				comp._hitIndex = i;
+			}
+		}
+		_hitGrid.build(this._childs, this.childCount, this._screenX, this._screenY);
+		_hitDirty = false;
+	}
+
+	/**
+	 * 子组件的相对位置或大小发生变化
+	 * 
+	 * @param comp
+	 */
+	void childBoundsChanged(LComponent comp) {
+		if (_hitGrid == null || _hitDirty) {
+			return;
+		}
+		int index = comp._hitIndex;
+		if (index >= 0 && index < this.childCount && this._childs[index] == comp) {
+			_hitGrid.update(index, comp, this._screenX, this._screenY);
+		} else {
+			_hitDirty = true;
+		}
 	}
 
 	public int getComponentCount() {
@@ -1131,6 +1321,11 @@ public abstract class LContainer extends LComponent implements IArray {
 		}
 		this._component_isClose = true;
 		this._newLineHeight = 0;
+		this.freeRenderCache();
+		if (_hitGrid != null) {
+			_hitGrid.clear();
+			_hitGrid = null;
+		}
 	}
 
 }
@@ -215,6 +215,7 @@ public class LLabel extends LComponent implements FontSet<LLabel> {
 
 	public LLabel setText(CharSequence ch) {
 		_text.setText(ch);
+		invalidateCache();
 		return this;
 	}
 
@@ -126,6 +126,7 @@ public class LScrollContainer extends LContainer {
 				scrollX = width() + size;
 			}
 		}
+		invalidateCache();
 		return this;
 	}
 
@@ -146,6 +147,26 @@ public class LScrollContainer extends LContainer {
 				scrollY = height() - size * 2;
 			}
 		}
+		invalidateCache();
+		return this;
+	}
+
+	/**
+	 * 纵向滚动到子组件内部的指定位置,使其显示于容器顶部
+	 *
+	 * @param comp
+	 * @param offsetY
+	 *            相对于子组件顶部的偏移
+	 * @return
+	 */
+	public LScrollContainer scrollToChildY(LComponent comp, float offsetY) {
+		if (comp == null) {
+			return this;
+		}
+		final boolean old = accumulate;
+		accumulate = false;
+		moveScrollY(MathUtils.max(0, (int) (comp.getScreenY() + offsetY - getScreenY())));
+		accumulate = old;
 		return this;
 	}
 
@@ -36,10 +36,12 @@ import loon.canvas.LColor;
 import loon.component.skin.MessageSkin;
 import loon.component.skin.SkinManager;
 import loon.font.FontSet;
+import loon.font.GlyphAdvances;
 import loon.font.IFont;
 import loon.font.LFont;
 import loon.opengl.GLEx;
 import loon.opengl.LSTRDictionary;
+import loon.utils.MathUtils;
 import loon.utils.StringUtils;
 
 /**
@@ -294,20 +296,12 @@ public class LTextArea extends LComponent implements FontSet<LTextArea> {
 		}
 
 		if ((this.font != null) && (this.font.stringWidth(this.message[this.num]) > this.messageWidthLimit)) {
-			this.posx = 1;
-			for (;;) {
-				if (this.font.stringWidth(this.message[this.num].substring(0,
-						this.message[this.num].length() - this.posx)) <= this.messageWidthLimit) {
-					this.str = this.message[this.num].substring(this.message[this.num].length() - this.posx,
-							this.message[this.num].length());
-					this.message[this.num] = this.message[this.num].substring(0,
-							this.message[this.num].length() - this.posx);
-					this.over = true;
-					break;
-				}
-				this.posx += 1;
-			}
-
+			final String line = this.message[this.num];
+			final int end = MathUtils.max(1,
+					GlyphAdvances.get(this.font).fit(line, 0, line.length(), this.messageWidthLimit));
+			this.str = line.substring(end);
+			this.message[this.num] = line.substring(0, end);
+			this.over = true;
 		}
 
 		this.num += 1;
@@ -302,11 +302,13 @@ public class LTextBar extends LComponent {
 		if(StringUtils.isEmpty(mes)){
 			this._text = LSystem.EMPTY;
 			this._messages = Print.formatMessage(_text, _font, _maxWidth);
+			invalidateCache();
 			return this;
 		}
 		if (!mes.equals(_lastText)) {
 			this._text = mes;
 			this._messages = Print.formatMessage(_text, _font, _maxWidth);
+			invalidateCache();
 		}
 		return this;
 	}
@@ -31,6 +31,7 @@ import loon.event.SysTouch;
 import loon.font.FontSet;
 import loon.font.IFont;
 import loon.opengl.GLEx;
+import loon.utils.MathUtils;
 
 /**
  * 文字列表显示用UI,用以列表方式显示指定数据,LGame本身附带有默认UI,用户也可以自行注入图片进行替换.
@@ -94,6 +95,9 @@ public class LTextList extends LComponent implements FontSet<LTextList> {
 	private boolean useHold;
 	private int hold;
 
+	private boolean virtualized;
+	private final float[] visibleRange = new float[2];
+
 	public LTextList(int x, int y) {
 		this(128, x, y, defaultWidth, defaultHeight, 30);
 	}
@@ -343,6 +347,32 @@ public class LTextList extends LComponent implements FontSet<LTextList> {
 		}
 	}
 
+	/**
+	 * 滚动列表,使指定行显示于列表首行
+	 * 
+	 * @param idx
+	 * @return
+	 */
+	public LTextList scrollToIndex(int idx) {
+		this.scrollList = MathUtils.clamp(idx, 0, MathUtils.max(0, this.num - this.drawNum));
+		return this;
+	}
+
+	/**
+	 * 设置是否以虚拟化方式显示,为true时被上级容器剪切或位于画面外的行不再布局及绘制
+	 * 
+	 * @param v
+	 * @return
+	 */
+	public LTextList setVirtualized(boolean v) {
+		this.virtualized = v;
+		return this;
+	}
+
+	public boolean isVirtualized() {
+		return virtualized;
+	}
+
 	private synchronized void drawString(GLEx g, String str, int x, int y) {
 		if (_font != null) {
 			_font.drawString(g, str, x, y);
@@ -370,7 +400,21 @@ public class LTextList extends LComponent implements FontSet<LTextList> {
 				this.loop = 0;
 				this.selectList = -1;
 
-				for (int i = this.scrollList; i < this.drawNum + this.scrollList; i++) {
+				int begin = this.scrollList;
+				int end = this.drawNum + this.scrollList;
+				// 虚拟化时跳过被上级容器剪切或位于画面外的行
+				if (this.virtualized) {
+					if (getVisibleRangeY(this.visibleRange)) {
+						this.loop = MathUtils.max(0, (int) ((this.visibleRange[0] - 5) / fontSize));
+						begin += this.loop;
+						end = MathUtils.min(end,
+								this.scrollList + MathUtils.ceil((this.visibleRange[1] - 5) / fontSize));
+					} else {
+						end = begin;
+					}
+				}
+
+				for (int i = begin; i < end; i++) {
 					if (i >= this.num)
 						break;
 					this.drawX = (x + 5);
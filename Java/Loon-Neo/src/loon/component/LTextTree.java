@@ -81,6 +81,13 @@ public class LTextTree extends LComponent implements FontSet<LTextTree> {
 
 	private String subLastTreeFlag = "└── ";
 
+	private boolean _virtualized;
+
+	private final float[] _visibleRange = new float[2];
+
+	// 各行的累计偏移,用于由坐标查找行及只绘制可见行
+	private final VirtualRows<Object> _rows = new VirtualRows<Object>();
+
 	public static class TreeElement {
 
 		protected TArray<TreeElement> childs;
@@ -293,7 +300,18 @@ public class LTextTree extends LComponent implements FontSet<LTextTree> {
 			pack();
 			return;
 		}
-		for (int i = 0; i < _lines.size; i++) {
+		int first = 0;
+		int last = _lines.size - 1;
+		if (_virtualized) {
+			if (getVisibleRangeY(_visibleRange)
+					&& _rows.visible(_visibleRange[0] - offsetY, _visibleRange[1] - offsetY)) {
+				first = _rows.getFirst();
+				last = _rows.getLast();
+			} else {
+				return;
+			}
+		}
+		for (int i = first; i <= last; i++) {
 			String text = _lines.get(i);
 			RectF rect = _selectRects[i];
 			g.drawString(text, rect.x + x + offsetX, rect.y + y + offsetY, _fontColor);
@@ -314,32 +332,19 @@ public class LTextTree extends LComponent implements FontSet<LTextTree> {
 		}
 		float maxWidth = 0;
 		float maxHeight = 0;
-		float lastWidth = 0;
-		float lastHeight = 0;
-		this._selectRects = new RectF[_lines.size];
-		for (int i = 0; i < _lines.size; i++) {
+		final int size = _lines.size;
+		final float[] heights = new float[size];
+		for (int i = 0; i < size; i++) {
 			String text = _lines.get(i);
-			lastWidth = maxWidth;
-			lastHeight = maxHeight;
 			maxWidth = MathUtils.max(maxWidth, FontUtils.measureText(_font, text) + _font.getHeight() + _space);
-			int height = (int) (MathUtils.max(_font.stringHeight(text), _font.getHeight()) + _space);
-			if (maxWidth > lastWidth) {
-				for (int j = 0; j < _selectRects.length; j++) {
-					if (_selectRects[j] != null) {
-						_selectRects[j].width = maxWidth;
-					}
-				}
-			}
-			if (maxHeight > lastHeight) {
-				for (int j = 0; j < _selectRects.length; j++) {
-					if (_selectRects[j] != null) {
-						_selectRects[j].height = maxHeight;
-					}
-				}
-			}
-			_selectRects[i] = new RectF(0, maxHeight, maxWidth, height);
-			maxHeight += height;
+			heights[i] = (int) (MathUtils.max(_font.stringHeight(text), _font.getHeight()) + _space);
+		}
+		this._selectRects = new RectF[size];
+		for (int i = 0; i < size; i++) {
+			_selectRects[i] = new RectF(0, maxHeight, maxWidth, heights[i]);
+			maxHeight += heights[i];
 		}
+		_rows.setHeights(heights, size);
 		setSize(maxWidth + _space * 2 - _font.getSize(), maxHeight + _space * 2);
 		if (_useLFont) {
 			LSTRDictionary.get().bind((LFont) _font, StringUtils.getListToStrings(_lines));
@@ -356,11 +361,9 @@ public class LTextTree extends LComponent implements FontSet<LTextTree> {
 		super.update(elapsedTime);
 		if (SysTouch.isDown() || SysTouch.isDrag() || SysTouch.isMove()) {
 			if (_selectRects != null) {
-				for (int i = 0; i < _selectRects.length; i++) {
-					RectF touched = _selectRects[i];
-					if (touched != null && touched.inside(getUITouchX(), getUITouchY())) {
-						_selected = i;
-					}
+				int idx = _rows.indexAt(getUITouchY());
+				if (idx != -1 && idx < _selectRects.length && _selectRects[idx].inside(getUITouchX(), getUITouchY())) {
+					_selected = idx;
 				}
 			}
 		}
@@ -570,6 +573,57 @@ public class LTextTree extends LComponent implements FontSet<LTextTree> {
 		this._selected = selected;
 	}
 
+	/**
+	 * 返回相对于组件顶部的纵坐标所在的行,不存在时返回-1
+	 * 
+	 * @param y
+	 * @return
+	 */
+	public int getIndexAt(float y) {
+		return _rows.indexAt(y);
+	}
+
+	/**
+	 * 返回指定行顶部相对于组件顶部的位置
+	 * 
+	 * @param idx
+	 * @return
+	 */
+	public float getIndexOffset(int idx) {
+		return _rows.offsetOf(idx) + offsetY;
+	}
+
+	/**
+	 * 滚动所在的滚动容器(LScrollContainer),使指定行显示于容器顶部
+	 * 
+	 * @param idx
+	 * @return
+	 */
+	public LTextTree scrollToIndex(int idx) {
+		if (_dirty || _lines == null) {
+			pack();
+		}
+		if (getContainer() instanceof LScrollContainer) {
+			((LScrollContainer) getContainer()).scrollToChildY(this, getIndexOffset(idx));
+		}
+		return this;
+	}
+
+	/**
+	 * 设置是否以虚拟化方式显示,为true时只绘制位于可见区域(上级容器剪切范围与画面范围之内)的行
+	 * 
+	 * @param v
+	 * @return
+	 */
+	public LTextTree setVirtualized(boolean v) {
+		this._virtualized = v;
+		return this;
+	}
+
+	public boolean isVirtualized() {
+		return _virtualized;
+	}
+
 	@Override
 	public String getUIName() {
 		return "TextTree";
@@ -27,6 +27,7 @@ import loon.canvas.LColor;
 import loon.event.Updateable;
 import loon.font.FontSet;
 import loon.font.FontUtils;
+import loon.font.GlyphAdvances;
 import loon.font.IFont;
 import loon.font.LFont;
 import loon.geom.Vector2f;
@@ -111,37 +112,47 @@ public class Print implements FontSet<Print>, LRelease {
 		char c1 = '〜';
 		char c2 = 65374;
 		String str = text.replace(c1, c2);
-		String line = LSystem.EMPTY;
 
+		GlyphAdvances advances = GlyphAdvances.get(font);
+		// 带字距调整的字体仍按整段文字测量
+		boolean kerning = advances.isKerning();
+		int length = str.length();
+		int start = 0;
+		int lineWidth = 0;
 		int i = 0;
 
-		while (i <= str.length()) {
-			if (i == str.length()) {
-				list.add(line);
+		for (;;) {
+			if (i == length) {
+				list.add(str.substring(start));
 				break;
 			}
 
 			char c = str.charAt(i);
+			int nextWidth = kerning ? (int) advances.measure(str, start, i + 1) : lineWidth + advances.advance(c);
 
-			if ((c == '\n') || (font.stringWidth(line + c) > width)) {
-				line = str.substring(0, i);
-
-				for (int j = 0; j < _otherFlagsSize; j++) {
-					if (c == WarpChars.TABLE[j]) {
-						int delta = (int) (font.stringWidth(line + c) - width);
-						if (delta < 15) {
-							line = str.substring(0, ++i);
+			if ((c == '\n') || (nextWidth > width)) {
+				int end = i;
+				if (c == '\n') {
+					i++;
+				} else {
+					for (int j = 0; j < _otherFlagsSize; j++) {
+						if (c == WarpChars.TABLE[j]) {
+							if (nextWidth - width < 15) {
+								end = ++i;
+							}
 							break;
 						}
 					}
+					// 单字宽于行宽时至少保留一字,避免死循环
+					if (end == start) {
+						end = ++i;
+					}
 				}
-				i += (c == '\n' ? 1 : 0);
-				list.add(line);
-				line = LSystem.EMPTY;
-				str = str.substring(i);
-				i = 0;
+				list.add(str.substring(start, end));
+				start = i;
+				lineWidth = 0;
 			} else {
-				line = line + c;
+				lineWidth = nextWidth;
 				i++;
 			}
 		}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.component;
+
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+import loon.utils.cache.Pool;
+
+/**
+ * 列表类组件虚拟化显示用的行管理器,保存各行的累计偏移(以二分查找由坐标定位行号),并只为当前可见范围内的行保留行对象,
+ * 离开可见范围的行对象会回收到缓存池中重复使用.
+ * 
+ * 行对象由子类实现newRow与bindRow提供,不需要行对象时可直接使用,仅作为行偏移计算用.
+ * 
+ * @param <T>
+ */
+public class VirtualRows<T> {
+
+	private final Pool<T> _pool = new Pool<T>() {
+
+		@Override
+		protected T newObject() {
+			return newRow();
+		}
+
+	};
+
+	private TArray<T> _rows = new TArray<T>();
+
+	private TArray<T> _temp = new TArray<T>();
+
+	// 行高不等时保存每行顶部的累计偏移(长度为行数+1),为null时所有行等高
+	private float[] _offsets;
+
+	private float _rowHeight;
+
+	private int _count;
+
+	private int _first = 0, _last = -1;
+
+	/**
+	 * 设置所有行等高
+	 * 
+	 * @param count
+	 * @param rowHeight
+	 */
+	public VirtualRows<T> setUniform(int count, float rowHeight) {
+		this._offsets = null;
+		this._count = MathUtils.max(0, count);
+		this._rowHeight = rowHeight;
+		return checkRange();
+	}
+
+	/**
+	 * 设置每行的行高(不等高)
+	 * 
+	 * @param heights
+	 * @param count
+	 */
+	public VirtualRows<T> setHeights(float[] heights, int count) {
+		count = MathUtils.max(0, count);
+		if (_offsets == null || _offsets.length < count + 1) {
+			_offsets = new float[count + 1];
+		}
+		float sum = 0;
+		for (int i = 0; i < count; i++) {
+			_offsets[i] = sum;
+			sum += heights[i];
+		}
+		_offsets[count] = sum;
+		this._count = count;
+		return checkRange();
+	}
+
+	private VirtualRows<T> checkRange() {
+		if (_last >= _count) {
+			range(_first, _count - 1);
+		}
+		return this;
+	}
+
+	public int size() {
+		return _count;
+	}
+
+	public float offsetOf(int index) {
+		if (index <= 0) {
+			return 0;
+		}
+		if (index >= _count) {
+			return getTotalHeight();
+		}
+		return _offsets == null ? index * _rowHeight : _offsets[index];
+	}
+
+	public float heightOf(int index) {
+		if (index < 0 || index >= _count) {
+			return 0;
+		}
+		return _offsets == null ? _rowHeight : _offsets[index + 1] - _offsets[index];
+	}
+
+	public float getTotalHeight() {
+		return _offsets == null ? _count * _rowHeight : _offsets[_count];
+	}
+
+	/**
+	 * 返回指定纵坐标所在的行,超出范围时返回-1
+	 * 
+	 * @param y
+	 * @return
+	 */
+	public int indexAt(float y) {
+		if (_count == 0 || y < 0 || y >= getTotalHeight()) {
+			return -1;
+		}
+		return clampIndex(y);
+	}
+
+	private int clampIndex(float y) {
+		if (_count == 0) {
+			return -1;
+		}
+		if (_offsets == null) {
+			if (_rowHeight <= 0) {
+				return 0;
+			}
+			return MathUtils.clamp((int) (y / _rowHeight), 0, _count - 1);
+		}
+		int low = 0;
+		int high = _count - 1;
+		for (; low < high;) {
+			int mid = (low + high + 1) >>> 1;
+			if (_offsets[mid] <= y) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * 以纵向可见区域(相对于第一行顶部)更新可见行
+	 * 
+	 * @param top
+	 * @param bottom
+	 * @return 存在可见行时返回true
+	 */
+	public boolean visible(float top, float bottom) {
+		if (_count == 0 || bottom <= 0 || top >= getTotalHeight() || bottom <= top) {
+			range(0, -1);
+			return false;
+		}
+		range(clampIndex(top), clampIndex(bottom));
+		return true;
+	}
+
+	/**
+	 * 设置可见行范围,范围外的行对象被回收,新进入范围的行对象从缓存池取出并重新绑定
+	 * 
+	 * @param first
+	 * @param last
+	 */
+	public void range(int first, int last) {
+		first = MathUtils.max(0, first);
+		last = MathUtils.min(_count - 1, last);
+		if (last < first) {
+			first = 0;
+			last = -1;
+		}
+		if (first == _first && last == _last) {
+			return;
+		}
+		TArray<T> old = _rows;
+		TArray<T> rows = _temp;
+		rows.clear();
+		for (int i = first; i <= last; i++) {
+			if (i >= _first && i <= _last) {
+				rows.add(old.get(i - _first));
+			} else {
+				T row = _pool.obtain();
+				if (row != null) {
+					bindRow(row, i);
+				}
+				rows.add(row);
+			}
+		}
+		for (int i = _first; i <= _last; i++) {
+			if (i < first || i > last) {
+				T row = old.get(i - _first);
+				if (row != null) {
+					_pool.free(row);
+				}
+			}
+		}
+		old.clear();
+		this._temp = old;
+		this._rows = rows;
+		this._first = first;
+		this._last = last;
+	}
+
+	public int getFirst() {
+		return _first;
+	}
+
+	public int getLast() {
+		return _last;
+	}
+
+	/**
+	 * 返回可见行的行对象,不在可见范围内时返回null
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public T getRow(int index) {
+		if (index < _first || index > _last) {
+			return null;
+		}
+		return _rows.get(index - _first);
+	}
+
+	/**
+	 * 回收全部行对象,下次显示时重新绑定
+	 */
+	public void invalidate() {
+		range(0, -1);
+	}
+
+	public int getPoolFree() {
+		return _pool.getFree();
+	}
+
+	public void clear() {
+		invalidate();
+		_pool.clear();
+		_offsets = null;
+		_count = 0;
+	}
+
+	protected T newRow() {
+		return null;
+	}
+
+	protected void bindRow(T row, int index) {
+	}
+
+}
@@ -26,6 +26,8 @@ import loon.LTexture;
 import loon.canvas.LColor;
 import loon.component.LComponent;
 import loon.component.LContainer;
+import loon.component.LScrollContainer;
+import loon.component.VirtualRows;
 import loon.component.skin.SkinManager;
 import loon.component.skin.TableSkin;
 import loon.font.FontSet;
@@ -120,6 +122,44 @@ public class LTable extends LContainer implements FontSet<LTable> {
 
 	private LTexture backgroundTexture;
 
+	private boolean virtualized = false;
+
+	private final float[] visibleRange = new float[2];
+
+	// 虚拟化显示时缓存的单行单元格布局
+	static class RowCache {
+		Object[] values;
+		int[] widths;
+		int[] alignedX;
+		int[] alignedY;
+
+		void bind(int columns) {
+			if (values == null || values.length < columns) {
+				values = new Object[columns];
+				widths = new int[columns];
+				alignedX = new int[columns];
+				alignedY = new int[columns];
+			} else {
+				for (int i = 0; i < values.length; i++) {
+					values[i] = null;
+				}
+			}
+		}
+	}
+
+	private final VirtualRows<RowCache> rows = new VirtualRows<RowCache>() {
+
+		@Override
+		protected RowCache newRow() {
+			return new RowCache();
+		}
+
+		@Override
+		protected void bindRow(RowCache row, int index) {
+			row.bind(model == null ? 0 : model.getColumnCount());
+		}
+	};
+
 	public LTable(int x, int y) {
 		this(SkinManager.get().getTableSkin().getFont(), x, y, LSystem.viewSize.getWidth(),
 				LSystem.viewSize.getHeight());
@@ -336,10 +376,7 @@ public class LTable extends LContainer implements FontSet<LTable> {
 		if (model == null) {
 			return super.getHeight();
 		}
-		int height = 0;
-		for (int i = 0; i < model.getRowCount(); i++) {
-			height += (cellHeight + cellSpacing);
-		}
+		int height = model.getRowCount() * (cellHeight + cellSpacing);
 		if (isTableHeadVisible()) {
 			height += (cellHeight + cellSpacing);
 		}
@@ -378,10 +415,9 @@ public class LTable extends LContainer implements FontSet<LTable> {
 			for (int i = 0; i < model.getColumnCount(); i++) {
 				wid += getColumnWidth(i);
 			}
-			int hei = 0;
-			for (int i = 0; i < model.getRowCount(); i++) {
-				hei += (cellHeight + cellSpacing);
-			}
+			final int rowCount = model.getRowCount();
+			final int rowHeight = cellHeight + cellSpacing;
+			int hei = rowCount * rowHeight;
 			if (wid != getWidth() || hei + (cellHeight + cellSpacing) != getHeight()) {
 				setSize(wid, hei + (cellHeight + cellSpacing));
 			}
@@ -400,7 +436,23 @@ public class LTable extends LContainer implements FontSet<LTable> {
 				newFont.setSupportCacheFontPack(false);
 			}
 
-			for (int row = 0; row < size && row < model.getRowCount(); row++) {
+			int first = 0;
+			int last = MathUtils.min(size, rowCount) - 1;
+			// 虚拟化时只布局及绘制与可见区域相交的行
+			if (virtualized) {
+				rows.setUniform(rowCount, rowHeight);
+				if (getVisibleRangeY(visibleRange)
+						&& rows.visible(visibleRange[0] - cellHeight, visibleRange[1] - cellHeight)) {
+					first = rows.getFirst();
+					last = MathUtils.min(last, rows.getLast());
+				} else {
+					last = -1;
+				}
+				y += first * rowHeight;
+			}
+
+			for (int row = first; row <= last; row++) {
+				RowCache cache = virtualized ? rows.getRow(row) : null;
 				x = displayX;
 				if (isSelected(row)) {
 					g.setColor(selectionColor);
@@ -414,14 +466,31 @@ public class LTable extends LContainer implements FontSet<LTable> {
 
 					if (value != null) {
 						ICellRenderer cellRenderer = getColumn(columnIndex).getCellRenderer();
-						Dimension contentDimension = cellRenderer.getCellContentSize(value);
-						if (contentDimension == null) {
-							contentDimension = new Dimension(getColumnWidth(columnIndex), cellHeight);
+						int columnWidth = getColumnWidth(columnIndex);
+						int alignedX, alignedY;
+						if (cache != null && cache.values[columnIndex] == value
+								&& cache.widths[columnIndex] == columnWidth) {
+							alignedX = x + cache.alignedX[columnIndex];
+							alignedY = y + cache.alignedY[columnIndex];
+						} else {
+							Dimension contentDimension = cellRenderer.getCellContentSize(value);
+							int contentWidth = columnWidth;
+							int contentHeight = cellHeight;
+							if (contentDimension != null) {
+								contentWidth = contentDimension.getWidth();
+								contentHeight = contentDimension.getHeight();
+							}
+							int offsetX = getColumn(columnIndex).getEntryAlignment().alignX(columnWidth, contentWidth);
+							int offsetY = getColumn(columnIndex).getEntryAlignment().alignY(cellHeight, contentHeight);
+							if (cache != null) {
+								cache.values[columnIndex] = value;
+								cache.widths[columnIndex] = columnWidth;
+								cache.alignedX[columnIndex] = offsetX;
+								cache.alignedY[columnIndex] = offsetY;
+							}
+							alignedX = x + offsetX;
+							alignedY = y + offsetY;
 						}
-						int alignedX = x + getColumn(columnIndex).getEntryAlignment()
-								.alignX(getColumnWidth(columnIndex), contentDimension.getWidth());
-						int alignedY = y + getColumn(columnIndex).getEntryAlignment().alignY(cellHeight,
-								contentDimension.getHeight());
 
 						if (bindIcons.size() == 0) {
 							cellRenderer.paint(g, value, alignedX, alignedY, getColumnWidth(columnIndex), cellHeight);
@@ -507,6 +576,7 @@ public class LTable extends LContainer implements FontSet<LTable> {
 		this.font = fn;
 		this.useLFont = (this.font instanceof LFont);
 		this.cellHeight = font.getHeight();
+		this.rows.invalidate();
 		return this;
 	}
 
@@ -547,6 +617,7 @@ public class LTable extends LContainer implements FontSet<LTable> {
 
 	public LTable setCellHeight(int cellHeight) {
 		this.cellHeight = cellHeight;
+		this.rows.invalidate();
 		return this;
 	}
 
@@ -616,6 +687,7 @@ public class LTable extends LContainer implements FontSet<LTable> {
 
 	public LTable setModel(ITableModel m, int width) {
 		model = m;
+		rows.clear();
 		columns = new TableColumn[m.getColumnCount()];
 		selected = new boolean[m.getRowCount()];
 		for (int i = 0; i < columns.length; i++) {
@@ -624,6 +696,62 @@ public class LTable extends LContainer implements FontSet<LTable> {
 		return this;
 	}
 
+	/**
+	 * 设置是否以虚拟化方式显示,为true时只布局及绘制可见区域(上级容器剪切范围与画面范围之内)中的行,并缓存这些行的单元格布局,适合大量数据的表格
+	 * 
+	 * @param v
+	 * @return
+	 */
+	public LTable setVirtualized(boolean v) {
+		if (this.virtualized != v) {
+			this.virtualized = v;
+			rows.clear();
+		}
+		return this;
+	}
+
+	public boolean isVirtualized() {
+		return virtualized;
+	}
+
+	/**
+	 * 返回指定行顶部相对于表格顶部的位置
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public int getRowOffset(int row) {
+		int count = model == null ? 0 : model.getRowCount();
+		return cellHeight + MathUtils.clamp(row, 0, count) * (cellHeight + cellSpacing);
+	}
+
+	/**
+	 * 返回相对于表格顶部的纵坐标所在的行,不存在时返回-1
+	 * 
+	 * @param y
+	 * @return
+	 */
+	public int getRowAt(float y) {
+		if (model == null || y < cellHeight) {
+			return -1;
+		}
+		int row = (int) ((y - cellHeight) / (cellHeight + cellSpacing));
+		return row < model.getRowCount() ? row : -1;
+	}
+
+	/**
+	 * 滚动表格所在的滚动容器(LScrollContainer),使指定行显示于容器顶部
+	 * 
+	 * @param row
+	 * @return
+	 */
+	public LTable scrollToRow(int row) {
+		if (model != null && getContainer() instanceof LScrollContainer) {
+			((LScrollContainer) getContainer()).scrollToChildY(this, getRowOffset(row));
+		}
+		return this;
+	}
+
 	public ITableModel getModel() {
 		return model;
 	}
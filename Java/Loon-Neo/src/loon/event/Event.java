@@ -33,7 +33,12 @@ public abstract class Event {
 
 		public int flags;
 
-		public final double time;
+		public double time;
+
+		// 来自InputEventQueue的复用事件,在派发结束后会被改写
+		InputEventQueue _owner;
+
+		boolean _retained;
 
 		public boolean isAltDown() {
 			return isSet(F_ALT_DOWN);
@@ -72,6 +77,41 @@ public abstract class Event {
 			}
 		}
 
+		/**
+		 * 事件是否为派发队列中复用的对象(此类对象在监听返回后即会被改写,需要保存时应调用retain)
+		 * 
+		 * @return
+		 */
+		public boolean isPooled() {
+			return _owner != null;
+		}
+
+		public boolean isRetained() {
+			return _retained;
+		}
+
+		/**
+		 * 保留此事件,使其在派发结束后不被队列复用,直到调用release为止
+		 * 
+		 * @return
+		 */
+		public Input retain() {
+			if (_owner != null) {
+				_retained = true;
+			}
+			return this;
+		}
+
+		/**
+		 * 释放已保留的事件,使其返回队列的缓存池
+		 */
+		public void release() {
+			if (_retained) {
+				_retained = false;
+				_owner.recycle(this);
+			}
+		}
+
 		@Override
 		public String toString() {
 			StringBuilder builder = new StringBuilder(name()).append('[');
@@ -110,9 +150,9 @@ public abstract class Event {
 
 	public static class XY extends Input implements loon.geom.XY {
 
-		public final float x;
+		public float x;
 
-		public final float y;
+		public float y;
 
 		@Override
 		public float getX() {
@@ -0,0 +1,271 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.event;
+
+import loon.Screen;
+import loon.utils.TArray;
+
+/**
+ * FrameLoopEvent的帧循环列表:
+ * 
+ * 1.增加与删除先写入待处理队列(双缓冲,可由其它线程提交),在下一次update开始时统一生效,派发过程中列表本身不会变化
+ * 
+ * 2.已死亡的事件在本帧全部派发后调用completed并移出,默认保持加入顺序,setOrdered(false)时改为交换删除
+ * 
+ * 3.数组只增不减,稳定运行后每帧不产生新对象
+ */
+public class FrameLoopEvents {
+
+	private final static int ADD = 0;
+
+	private final static int REMOVE = 1;
+
+	private final static int CLEAR = 2;
+
+	private FrameLoopEvent[] _events = new FrameLoopEvent[8];
+
+	private int _size;
+
+	private FrameLoopEvent[] _pendingEvents = new FrameLoopEvent[8];
+
+	private int[] _pendingTypes = new int[8];
+
+	private int _pendingCount;
+
+	// 与待处理队列交换使用的后备缓冲
+	private FrameLoopEvent[] _backEvents = new FrameLoopEvent[8];
+
+	private int[] _backTypes = new int[8];
+
+	private volatile boolean _dirty;
+
+	private boolean _ordered = true;
+
+	private int _deadCount;
+
+	public FrameLoopEvents add(FrameLoopEvent e) {
+		if (e != null) {
+			post(ADD, e);
+		}
+		return this;
+	}
+
+	public FrameLoopEvents addAll(TArray<FrameLoopEvent> list) {
+		if (list != null) {
+			for (int i = 0; i < list.size; i++) {
+				add(list.get(i));
+			}
+		}
+		return this;
+	}
+
+	public FrameLoopEvents remove(FrameLoopEvent e) {
+		if (e != null) {
+			post(REMOVE, e);
+		}
+		return this;
+	}
+
+	public FrameLoopEvents clear() {
+		post(CLEAR, null);
+		return this;
+	}
+
+	private synchronized void post(int type, FrameLoopEvent e) {
+		if (_pendingCount == _pendingTypes.length) {
+			final int len = _pendingCount * 2;
+			FrameLoopEvent[] events = new FrameLoopEvent[len];
+			System.arraycopy(_pendingEvents, 0, events, 0, _pendingCount);
+			_pendingEvents = events;
+			int[] types = new int[len];
+			System.arraycopy(_pendingTypes, 0, types, 0, _pendingCount);
+			_pendingTypes = types;
+		}
+		_pendingEvents[_pendingCount] = e;
+		_pendingTypes[_pendingCount] = type;
+		_pendingCount++;
+		_dirty = true;
+	}
+
+	/**
+	 * 使待处理的增加与删除生效
+	 */
+	public void apply() {
+		if (!_dirty) {
+			return;
+		}
+		final FrameLoopEvent[] events;
+		final int[] types;
+		final int count;
+		synchronized (this) {
+			events = _pendingEvents;
+			types = _pendingTypes;
+			count = _pendingCount;
+			if (_backTypes.length < types.length) {
+				_backEvents = new FrameLoopEvent[types.length];
+				_backTypes = new int[types.length];
+			}
+			_pendingEvents = _backEvents;
+			_pendingTypes = _backTypes;
+			_pendingCount = 0;
+			_backEvents = events;
+			_backTypes = types;
+			_dirty = false;
+		}
+		for (int i = 0; i < count; i++) {
+			switch (types[i]) {
+			case ADD:
+				append(events[i]);
+				break;
+			case REMOVE:
+				removeEvent(events[i]);
+				break;
+			case CLEAR:
+				for (int j = 0; j < _size; j++) {
+					_events[j] = null;
+				}
+				_size = 0;
+				break;
+			}
+			events[i] = null;
+		}
+	}
+
+	private void append(FrameLoopEvent e) {
+		if (_size == _events.length) {
+			FrameLoopEvent[] events = new FrameLoopEvent[_size * 2];
+			System.arraycopy(_events, 0, events, 0, _size);
+			_events = events;
+		}
+		_events[_size++] = e;
+	}
+
+	private void removeEvent(FrameLoopEvent e) {
+		for (int i = 0; i < _size; i++) {
+			if (_events[i] == e) {
+				removeIndex(i);
+				return;
+			}
+		}
+	}
+
+	private void removeIndex(int idx) {
+		final int last = --_size;
+		if (_ordered) {
+			System.arraycopy(_events, idx + 1, _events, idx, last - idx);
+		} else {
+			_events[idx] = _events[last];
+		}
+		_events[last] = null;
+	}
+
+	/**
+	 * 派发一帧,顺序与加入顺序一致
+	 * 
+	 * @param elapsedTime
+	 * @param screen
+	 */
+	public void update(long elapsedTime, Screen screen) {
+		apply();
+		final int size = _size;
+		if (size == 0) {
+			return;
+		}
+		final FrameLoopEvent[] events = _events;
+		int dead = 0;
+		for (int i = 0; i < size; i++) {
+			FrameLoopEvent e = events[i];
+			e.call(elapsedTime, screen);
+			if (e.isDead()) {
+				dead++;
+			}
+		}
+		if (dead > 0) {
+			removeDead();
+		}
+	}
+
+	private void removeDead() {
+		final FrameLoopEvent[] events = _events;
+		if (_ordered) {
+			int n = 0;
+			for (int i = 0; i < _size; i++) {
+				FrameLoopEvent e = events[i];
+				if (e.isDead()) {
+					_deadCount++;
+					e.completed();
+				} else {
+					events[n++] = e;
+				}
+			}
+			for (int i = n; i < _size; i++) {
+				events[i] = null;
+			}
+			_size = n;
+		} else {
+			for (int i = 0; i < _size;) {
+				FrameLoopEvent e = events[i];
+				if (e.isDead()) {
+					_deadCount++;
+					e.completed();
+					removeIndex(i);
+				} else {
+					i++;
+				}
+			}
+		}
+	}
+
+	public boolean isOrdered() {
+		return _ordered;
+	}
+
+	/**
+	 * 为false时移除事件改为交换删除(不再保持加入顺序)
+	 * 
+	 * @param ordered
+	 */
+	public FrameLoopEvents setOrdered(boolean ordered) {
+		this._ordered = ordered;
+		return this;
+	}
+
+	public FrameLoopEvent get(int idx) {
+		return idx >= 0 && idx < _size ? _events[idx] : null;
+	}
+
+	/**
+	 * 当前生效的事件数量(不含尚未生效的增加)
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return _size;
+	}
+
+	public boolean isEmpty() {
+		return _size == 0 && !_dirty;
+	}
+
+	public int getCompletedCount() {
+		return _deadCount;
+	}
+}
@@ -0,0 +1,485 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.event;
+
+import loon.utils.cache.Pool;
+
+/**
+ * 输入事件的环形队列,后台只需将原始输入写入队列,再由游戏线程调用dispatch统一派发:
+ * 
+ * 1.原始数据以数组保存,派发时填充复用的事件对象(游标),稳定运行后每个事件都不会产生新对象
+ * 
+ * 2.同一指针连续且尚未派发的移动事件会合并为最后一次
+ * 
+ * 3.监听中需要保存事件时调用事件的retain,用完后调用release使其返回缓存池
+ * 
+ * 此类并非线程安全,提交与派发都应在游戏线程中进行.
+ */
+public class InputEventQueue {
+
+	private final static int KEY = 1;
+
+	private final static int MOUSE = 2;
+
+	private final static int TOUCH = 3;
+
+	private final static TouchMake.Event.Kind[] KINDS = TouchMake.Event.Kind.values();
+
+	private int[] _types;
+
+	private double[] _times;
+
+	private float[] _xs;
+
+	private float[] _ys;
+
+	private float[] _pressures;
+
+	private float[] _sizes;
+
+	// 键值,鼠标按键或触点id
+	private int[] _codes;
+
+	// 按下状态或触摸类型
+	private int[] _states;
+
+	private int[] _flags;
+
+	// 触摸批次的首条记录保存此批次的数量
+	private int[] _batches;
+
+	private char[] _chars;
+
+	private int _mask;
+
+	// 读写位置均为递增序号,以_mask取得实际下标
+	private int _head, _tail;
+
+	// 尚未派发的鼠标移动,以及全部为MOVE的触摸批次的序号
+	private int _mouseMove = -1, _touchMove = -1;
+
+	// 正在写入的触摸批次
+	private int _batchStart = -1;
+
+	private boolean _batchMoves;
+
+	private boolean _coalesce = true;
+
+	private boolean _dispatching;
+
+	private int _coalesced;
+
+	private KeyMake.KeyEvent _keyCursor;
+
+	private MouseMake.ButtonEvent _buttonCursor;
+
+	private TouchMake.Event[] _touchCursors;
+
+	private TouchMake.Event[][] _touchArrays;
+
+	private final Pool<KeyMake.KeyEvent> _keyPool = new Pool<KeyMake.KeyEvent>() {
+
+		@Override
+		protected KeyMake.KeyEvent newObject() {
+			KeyMake.KeyEvent e = new KeyMake.KeyEvent(0, 0, (char) 0, 0, false);
+			e._owner = InputEventQueue.this;
+			return e;
+		}
+	};
+
+	private final Pool<MouseMake.ButtonEvent> _buttonPool = new Pool<MouseMake.ButtonEvent>() {
+
+		@Override
+		protected MouseMake.ButtonEvent newObject() {
+			MouseMake.ButtonEvent e = new MouseMake.ButtonEvent(0, 0, 0, 0, -1, false);
+			e._owner = InputEventQueue.this;
+			return e;
+		}
+	};
+
+	private final Pool<TouchMake.Event> _touchPool = new Pool<TouchMake.Event>() {
+
+		@Override
+		protected TouchMake.Event newObject() {
+			TouchMake.Event e = new TouchMake.Event(0, 0, 0, 0, TouchMake.Event.Kind.MOVE, 0);
+			e._owner = InputEventQueue.this;
+			return e;
+		}
+	};
+
+	public InputEventQueue() {
+		this(64);
+	}
+
+	public InputEventQueue(int capacity) {
+		int size = 8;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		allocate(size);
+		this._touchCursors = new TouchMake.Event[4];
+		this._touchArrays = new TouchMake.Event[5][];
+	}
+
+	private void allocate(int size) {
+		final int[] types = new int[size];
+		final double[] times = new double[size];
+		final float[] xs = new float[size];
+		final float[] ys = new float[size];
+		final float[] pressures = new float[size];
+		final float[] sizes = new float[size];
+		final int[] codes = new int[size];
+		final int[] states = new int[size];
+		final int[] flags = new int[size];
+		final int[] batches = new int[size];
+		final char[] chars = new char[size];
+		final int mask = size - 1;
+		if (_types != null) {
+			for (int seq = _head; seq != _tail; seq++) {
+				final int src = seq & _mask;
+				final int dst = seq & mask;
+				types[dst] = _types[src];
+				times[dst] = _times[src];
+				xs[dst] = _xs[src];
+				ys[dst] = _ys[src];
+				pressures[dst] = _pressures[src];
+				sizes[dst] = _sizes[src];
+				codes[dst] = _codes[src];
+				states[dst] = _states[src];
+				flags[dst] = _flags[src];
+				batches[dst] = _batches[src];
+				chars[dst] = _chars[src];
+			}
+		}
+		this._types = types;
+		this._times = times;
+		this._xs = xs;
+		this._ys = ys;
+		this._pressures = pressures;
+		this._sizes = sizes;
+		this._codes = codes;
+		this._states = states;
+		this._flags = flags;
+		this._batches = batches;
+		this._chars = chars;
+		this._mask = mask;
+	}
+
+	private int append(int type) {
+		if (_tail - _head > _mask) {
+			allocate((_mask + 1) << 1);
+		}
+		final int seq = _tail++;
+		final int idx = seq & _mask;
+		_types[idx] = type;
+		_batches[idx] = 0;
+		_pressures[idx] = -1f;
+		_sizes[idx] = -1f;
+		_chars[idx] = 0;
+		return idx;
+	}
+
+	public void postKey(double time, int keyCode, char keyChar, boolean down, int flags) {
+		final int idx = append(KEY);
+		_times[idx] = time;
+		_codes[idx] = keyCode;
+		_chars[idx] = keyChar;
+		_states[idx] = down ? 1 : 0;
+		_flags[idx] = flags;
+	}
+
+	/**
+	 * 提交鼠标事件,button为-1时表示移动
+	 * 
+	 * @param time
+	 * @param x
+	 * @param y
+	 * @param button
+	 * @param down
+	 * @param flags
+	 */
+	public void postMouse(double time, float x, float y, int button, boolean down, int flags) {
+		// 只合并紧邻队尾的移动事件,中间插入了按键或触摸时不能越过它们改写,否则会打乱输入顺序
+		if (button == -1 && _coalesce && _mouseMove >= _head && _mouseMove == _tail - 1) {
+			final int idx = _mouseMove & _mask;
+			_times[idx] = time;
+			_xs[idx] = x;
+			_ys[idx] = y;
+			_flags[idx] = flags;
+			_coalesced++;
+			return;
+		}
+		final int seq = _tail;
+		final int idx = append(MOUSE);
+		_times[idx] = time;
+		_xs[idx] = x;
+		_ys[idx] = y;
+		_codes[idx] = button;
+		_states[idx] = down ? 1 : 0;
+		_flags[idx] = flags;
+		_mouseMove = (button == -1) ? seq : -1;
+	}
+
+	/**
+	 * 开始提交一组同时发生的触摸事件(对应touchEvents中的一个数组)
+	 */
+	public void beginTouches() {
+		if (_batchStart != -1) {
+			endTouches();
+		}
+		_batchStart = _tail;
+		_batchMoves = true;
+	}
+
+	public void addTouch(double time, float x, float y, TouchMake.Event.Kind kind, int id) {
+		addTouch(time, x, y, kind, id, -1f, -1f, 0);
+	}
+
+	public void addTouch(double time, float x, float y, TouchMake.Event.Kind kind, int id, float pressure,
+			float size, int flags) {
+		if (_batchStart == -1) {
+			beginTouches();
+		}
+		final int idx = append(TOUCH);
+		_times[idx] = time;
+		_xs[idx] = x;
+		_ys[idx] = y;
+		_codes[idx] = id;
+		_states[idx] = kind.ordinal();
+		_pressures[idx] = pressure;
+		_sizes[idx] = size;
+		_flags[idx] = flags;
+		if (kind != TouchMake.Event.Kind.MOVE) {
+			_batchMoves = false;
+		}
+	}
+
+	public void endTouches() {
+		final int start = _batchStart;
+		if (start == -1) {
+			return;
+		}
+		_batchStart = -1;
+		final int count = _tail - start;
+		if (count <= 0) {
+			return;
+		}
+		_batches[start & _mask] = count;
+		if (!_batchMoves) {
+			_touchMove = -1;
+			return;
+		}
+		if (_coalesce && _touchMove >= _head && _touchMove + count == start && sameTouches(_touchMove, start, count)) {
+			for (int i = 0; i < count; i++) {
+				final int src = (start + i) & _mask;
+				final int dst = (_touchMove + i) & _mask;
+				_times[dst] = _times[src];
+				_xs[dst] = _xs[src];
+				_ys[dst] = _ys[src];
+				_pressures[dst] = _pressures[src];
+				_sizes[dst] = _sizes[src];
+				_flags[dst] = _flags[src];
+			}
+			_batches[_touchMove & _mask] = count;
+			_tail = start;
+			_coalesced += count;
+			return;
+		}
+		_touchMove = start;
+	}
+
+	private boolean sameTouches(int a, int b, int count) {
+		if (_batches[a & _mask] != count) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			if (_codes[(a + i) & _mask] != _codes[(b + i) & _mask]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 派发队列中的全部事件(监听中新提交的事件会在本次一并派发)
+	 * 
+	 * @param input
+	 * @return 派发的事件数量
+	 */
+	public int dispatch(InputMake input) {
+		if (_dispatching) {
+			return 0;
+		}
+		int count = 0;
+		_dispatching = true;
+		try {
+			for (;;) {
+				final int end = _batchStart == -1 ? _tail : _batchStart;
+				if (_head == end) {
+					break;
+				}
+				final int seq = _head;
+				final int idx = seq & _mask;
+				if (seq == _mouseMove) {
+					_mouseMove = -1;
+				}
+				if (seq == _touchMove) {
+					_touchMove = -1;
+				}
+				switch (_types[idx]) {
+				case KEY:
+					final KeyMake.KeyEvent key = keyCursor();
+					key.set(_flags[idx], _times[idx], _chars[idx], _codes[idx], _states[idx] != 0);
+					_head++;
+					input.keyboardEvents.emit(key);
+					break;
+				case MOUSE:
+					final MouseMake.ButtonEvent button = buttonCursor();
+					button.set(_flags[idx], _times[idx], _xs[idx], _ys[idx], _codes[idx], _states[idx] != 0);
+					_head++;
+					input.mouseEvents.emit(button);
+					break;
+				case TOUCH:
+					final int size = _batches[idx];
+					final TouchMake.Event[] touches = touchArray(size);
+					for (int i = 0; i < size; i++) {
+						final int j = (seq + i) & _mask;
+						final TouchMake.Event touch = touchCursor(i);
+						touch.set(_flags[j], _times[j], _xs[j], _ys[j], KINDS[_states[j]], _codes[j], _pressures[j],
+								_sizes[j]);
+						touches[i] = touch;
+					}
+					_head += size;
+					input.touchEvents.emit(touches);
+					break;
+				default:
+					_head++;
+					break;
+				}
+				count++;
+			}
+		} finally {
+			_dispatching = false;
+			if (_head == _tail && _batchStart == -1) {
+				_head = _tail = 0;
+				_mouseMove = _touchMove = -1;
+			}
+		}
+		return count;
+	}
+
+	private KeyMake.KeyEvent keyCursor() {
+		if (_keyCursor == null || _keyCursor._retained) {
+			_keyCursor = _keyPool.obtain();
+		}
+		return _keyCursor;
+	}
+
+	private MouseMake.ButtonEvent buttonCursor() {
+		if (_buttonCursor == null || _buttonCursor._retained) {
+			_buttonCursor = _buttonPool.obtain();
+		}
+		return _buttonCursor;
+	}
+
+	private TouchMake.Event touchCursor(int index) {
+		if (index >= _touchCursors.length) {
+			final TouchMake.Event[] tmp = new TouchMake.Event[index + 4];
+			System.arraycopy(_touchCursors, 0, tmp, 0, _touchCursors.length);
+			_touchCursors = tmp;
+		}
+		TouchMake.Event e = _touchCursors[index];
+		if (e == null || e._retained) {
+			_touchCursors[index] = e = _touchPool.obtain();
+		}
+		return e;
+	}
+
+	private TouchMake.Event[] touchArray(int size) {
+		if (size >= _touchArrays.length) {
+			final TouchMake.Event[][] tmp = new TouchMake.Event[size + 1][];
+			System.arraycopy(_touchArrays, 0, tmp, 0, _touchArrays.length);
+			_touchArrays = tmp;
+		}
+		TouchMake.Event[] events = _touchArrays[size];
+		if (events == null) {
+			_touchArrays[size] = events = new TouchMake.Event[size];
+		}
+		return events;
+	}
+
+	void recycle(Event.Input e) {
+		if (e instanceof KeyMake.KeyEvent) {
+			_keyPool.free((KeyMake.KeyEvent) e);
+		} else if (e instanceof MouseMake.ButtonEvent) {
+			_buttonPool.free((MouseMake.ButtonEvent) e);
+		} else if (e instanceof TouchMake.Event) {
+			_touchPool.free((TouchMake.Event) e);
+		}
+	}
+
+	/**
+	 * 是否合并连续的移动事件
+	 * 
+	 * @param c
+	 * @return
+	 */
+	public InputEventQueue setCoalesce(boolean c) {
+		this._coalesce = c;
+		if (!c) {
+			_mouseMove = _touchMove = -1;
+		}
+		return this;
+	}
+
+	public boolean isCoalesce() {
+		return _coalesce;
+	}
+
+	/**
+	 * 返回尚未派发的记录数
+	 * 
+	 * @return
+	 */
+	public int getPending() {
+		return _tail - _head;
+	}
+
+	/**
+	 * 返回因合并而省去的记录数
+	 * 
+	 * @return
+	 */
+	public int getCoalescedCount() {
+		return _coalesced;
+	}
+
+	public int getCapacity() {
+		return _mask + 1;
+	}
+
+	public void clear() {
+		_head = _tail = 0;
+		_mouseMove = _touchMove = _batchStart = -1;
+		_coalesced = 0;
+	}
+
+}
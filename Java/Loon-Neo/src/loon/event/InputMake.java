@@ -39,6 +39,8 @@ public abstract class InputMake {
 
 	public Act<KeyMake.Event> keyboardEvents = Act.create();
 
+	private final InputEventQueue _eventQueue = new InputEventQueue();
+
 	public boolean hasMouse() {
 		return false;
 	}
@@ -70,18 +72,30 @@ public abstract class InputMake {
 
 	protected void emitKeyPress(double time, int keyCode, char keyChar,
 			boolean down, int flags) {
-		KeyMake.KeyEvent event = new KeyMake.KeyEvent(0, time, keyChar,
-				keyCode, down);
-		event.setFlag(flags);
-		keyboardEvents.emit(event);
+		_eventQueue.postKey(time, keyCode, keyChar, down, flags);
 	}
 
 	protected void emitMouseButton(double time, float x, float y, int btnid,
 			boolean down, int flags) {
-		MouseMake.ButtonEvent event = new MouseMake.ButtonEvent(0, time, x, y,
-				btnid, down);
-		event.setFlag(flags);
-		mouseEvents.emit(event);
+		_eventQueue.postMouse(time, x, y, btnid, down, flags);
+	}
+
+	/**
+	 * 返回输入事件队列,emitKeyPress与emitMouseButton提交的事件都会先写入此队列
+	 * 
+	 * @return
+	 */
+	public InputEventQueue getEventQueue() {
+		return _eventQueue;
+	}
+
+	/**
+	 * 派发队列中尚未处理的输入事件,后台应在每次轮询输入后调用
+	 * 
+	 * @return
+	 */
+	public int dispatchEvents() {
+		return _eventQueue.dispatch(this);
 	}
 
 	public abstract void callback(LObject<?> o);
@@ -39,9 +39,9 @@ public abstract class KeyMake {
 
 	public static class KeyEvent extends Event {
 
-		public final int keyCode;
+		public int keyCode;
 
-		public final boolean down;
+		public boolean down;
 
 		public KeyEvent(int flags, double time, char keyChar, int keyCode,
 				boolean down) {
@@ -50,6 +50,20 @@ public abstract class KeyMake {
 			this.down = down;
 		}
 
+		void set(int flags, double time, char keyChar, int keyCode, boolean down) {
+			this.flags = flags;
+			this.time = time;
+			this.keyChar = keyChar;
+			this.keyCode = keyCode;
+			this.down = down;
+		}
+
+		@Override
+		public KeyEvent retain() {
+			super.retain();
+			return this;
+		}
+
 		@Override
 		protected String name() {
 			return "Key";
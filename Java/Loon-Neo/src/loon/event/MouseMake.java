@@ -33,7 +33,7 @@ public class MouseMake {
 
   public static class ButtonEvent extends Event {
 
-    public final int button;
+    public int button;
 
     public boolean down;
 
@@ -43,6 +43,20 @@ public class MouseMake {
       this.down = down;
     }
 
+    void set (int flags, double time, float x, float y, int button, boolean down) {
+      this.flags = flags;
+      this.time = time;
+      this.x = x;
+      this.y = y;
+      this.button = button;
+      this.down = down;
+    }
+
+    @Override public ButtonEvent retain () {
+      super.retain();
+      return this;
+    }
+
     @Override protected String name () {
       return "Button";
     }
@@ -35,13 +35,13 @@ public class TouchMake {
 			}
 		};
 
-		public final Kind kind;
+		public Kind kind;
 
-		public final int id;
+		public int id;
 
-		public final float pressure;
+		public float pressure;
 
-		public final float size;
+		public float size;
 
 		public Event(int flags, double time, float x, float y, Kind kind, int id) {
 			this(flags, time, x, y, kind, id, -1, -1);
@@ -56,6 +56,23 @@ public class TouchMake {
 			this.size = size;
 		}
 
+		void set(int flags, double time, float x, float y, Kind kind, int id, float pressure, float size) {
+			this.flags = flags;
+			this.time = time;
+			this.x = x;
+			this.y = y;
+			this.kind = kind;
+			this.id = id;
+			this.pressure = pressure;
+			this.size = size;
+		}
+
+		@Override
+		public Event retain() {
+			super.retain();
+			return this;
+		}
+
 		@Override
 		protected String name() {
 			return "Touch";
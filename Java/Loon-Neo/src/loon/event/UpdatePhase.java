@@ -0,0 +1,31 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.event;
+
+/**
+ * Screen中可独立执行的更新阶段(比如AI,粒子,重力计算),同一帧中的各阶段可能被并行执行,
+ * 因此阶段之间不应读写共同的数据,也不应在其中调用任何GL或绘图接口.
+ */
+public interface UpdatePhase {
+
+	public void update(long elapsedTime);
+
+}
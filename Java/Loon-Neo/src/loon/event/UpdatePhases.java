@@ -0,0 +1,223 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.event;
+
+import loon.LSysException;
+
+/**
+ * 一组互相独立的更新阶段,每帧由Executor执行全部阶段,并在全部完成后才返回(渲染前汇合).
+ * 
+ * 默认的Executor在当前线程中依次执行(顺序与加入顺序一致),平台可通过setDefaultExecutor提供线程池实现并行执行.
+ * 阶段的增加与删除在下一次update开始时生效,稳定运行后每帧不产生新对象.
+ */
+public class UpdatePhases {
+
+	/**
+	 * 执行单个阶段
+	 */
+	public static interface Task {
+
+		public void run(int index);
+
+	}
+
+	/**
+	 * 阶段的执行者,需在全部阶段执行完毕后才返回
+	 */
+	public static interface Executor {
+
+		public void execute(int count, Task task);
+
+	}
+
+	public final static Executor SERIAL = new Executor() {
+
+		@Override
+		public void execute(int count, Task task) {
+			for (int i = 0; i < count; i++) {
+				task.run(i);
+			}
+		}
+	};
+
+	private static Executor _defaultExecutor = SERIAL;
+
+	public static void setDefaultExecutor(Executor executor) {
+		_defaultExecutor = (executor == null) ? SERIAL : executor;
+	}
+
+	public static Executor getDefaultExecutor() {
+		return _defaultExecutor;
+	}
+
+	private final Task _task = new Task() {
+
+		@Override
+		public void run(int index) {
+			final UpdatePhase phase = _running[index];
+			final long start = _profile ? System.nanoTime() : 0;
+			try {
+				phase.update(_elapsedTime);
+			} catch (Throwable ex) {
+				synchronized (UpdatePhases.this) {
+					if (_error == null) {
+						_error = ex;
+					}
+				}
+			}
+			if (_profile) {
+				_times[index] = System.nanoTime() - start;
+			}
+		}
+	};
+
+	private UpdatePhase[] _phases = new UpdatePhase[4];
+
+	private int _size;
+
+	private UpdatePhase[] _running = new UpdatePhase[4];
+
+	private long[] _times = new long[4];
+
+	private boolean _dirty;
+
+	private Executor _executor;
+
+	private long _elapsedTime;
+
+	private boolean _profile;
+
+	private Throwable _error;
+
+	public synchronized UpdatePhases add(UpdatePhase phase) {
+		if (phase == null) {
+			return this;
+		}
+		if (_size == _phases.length) {
+			UpdatePhase[] phases = new UpdatePhase[_size * 2];
+			System.arraycopy(_phases, 0, phases, 0, _size);
+			_phases = phases;
+		}
+		_phases[_size++] = phase;
+		_dirty = true;
+		return this;
+	}
+
+	public synchronized UpdatePhases remove(UpdatePhase phase) {
+		for (int i = 0; i < _size; i++) {
+			if (_phases[i] == phase) {
+				System.arraycopy(_phases, i + 1, _phases, i, _size - i - 1);
+				_phases[--_size] = null;
+				_dirty = true;
+				break;
+			}
+		}
+		return this;
+	}
+
+	public synchronized UpdatePhases clear() {
+		for (int i = 0; i < _size; i++) {
+			_phases[i] = null;
+		}
+		_size = 0;
+		_dirty = true;
+		return this;
+	}
+
+	public synchronized int size() {
+		return _size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * 执行全部阶段,全部完成后返回,任一阶段抛出异常时在汇合后抛出
+	 * 
+	 * @param elapsedTime
+	 */
+	public void update(long elapsedTime) {
+		if (_dirty) {
+			synchronized (this) {
+				if (_running.length < _size) {
+					_running = new UpdatePhase[_phases.length];
+					_times = new long[_phases.length];
+				}
+				for (int i = 0; i < _running.length; i++) {
+					_running[i] = i < _size ? _phases[i] : null;
+				}
+				_dirty = false;
+			}
+		}
+		int count = 0;
+		while (count < _running.length && _running[count] != null) {
+			count++;
+		}
+		if (count == 0) {
+			return;
+		}
+		_elapsedTime = elapsedTime;
+		_error = null;
+		if (count == 1) {
+			_task.run(0);
+		} else {
+			getExecutor().execute(count, _task);
+		}
+		if (_error != null) {
+			Throwable error = _error;
+			_error = null;
+			throw new LSysException("UpdatePhase execution failed", error);
+		}
+	}
+
+	public Executor getExecutor() {
+		return _executor == null ? _defaultExecutor : _executor;
+	}
+
+	/**
+	 * 为此组阶段指定执行者,为null时使用默认执行者
+	 * 
+	 * @param executor
+	 */
+	public UpdatePhases setExecutor(Executor executor) {
+		this._executor = executor;
+		return this;
+	}
+
+	public boolean isProfile() {
+		return _profile;
+	}
+
+	/**
+	 * 记录每个阶段最近一次的执行耗时(纳秒)
+	 * 
+	 * @param profile
+	 */
+	public UpdatePhases setProfile(boolean profile) {
+		this._profile = profile;
+		return this;
+	}
+
+	public long getPhaseTime(int index) {
+		return index >= 0 && index < _times.length ? _times[index] : 0;
+	}
+}
@@ -27,18 +27,16 @@ import loon.BaseIO;
 import loon.LSysException;
 import loon.LSystem;
 import loon.LTexture;
-import loon.LTextureBatch.Cache;
 import loon.canvas.LColor;
 import loon.geom.Affine2f;
 import loon.geom.PointI;
 import loon.opengl.GLEx;
+import loon.font.GlyphRunCache.Run;
+import loon.utils.IntArray;
 import loon.utils.IntMap;
 import loon.utils.MathUtils;
-import loon.utils.ObjectMap;
 import loon.utils.StringKeyValue;
 import loon.utils.StringUtils;
-import loon.utils.ObjectMap.Entries;
-import loon.utils.ObjectMap.Entry;
 import loon.utils.TArray;
 
 // AngelCode图像字体专用类(因为仅处理限定范围内的字体，此类速度会比较早前版本中提供的文字渲染类更快，
@@ -97,9 +95,9 @@ public class BMFont implements IFont {
 
 	private float fontScaleX = 1f, fontScaleY = 1f;
 
-	private IntMap<Display> displays;
+	private final GlyphRunCache runs = new GlyphRunCache();
 
-	private int lazyHashCode = 1;
+	private final KerningTable kernings = new KerningTable();
 
 	private LTexture displayList;
 
@@ -111,17 +109,6 @@ public class BMFont implements IFont {
 
 	private String info, common, page, face, charset;
 
-	private static class Display {
-
-		String text;
-
-		Cache cache;
-
-		int width;
-
-		int height;
-	}
-
 	private static class CharDef {
 
 		int id;
@@ -140,7 +127,7 @@ public class BMFont implements IFont {
 
 		short advance;
 
-		short[] kerning;
+		boolean kerning;
 
 		BMFont _bmFont;
 
@@ -165,27 +152,6 @@ public class BMFont implements IFont {
 					sy + (y + yoffset) * _bmFont.fontScaleX, width * _bmFont.fontScaleX, height * _bmFont.fontScaleY,
 					tx, ty, width, height, c);
 		}
-
-		public int getKerning(int point) {
-			if (kerning == null) {
-				return 0;
-			}
-			int low = 0;
-			int high = kerning.length - 1;
-			while (low <= high) {
-				int midIndex = (low + high) >>> 1;
-				int value = kerning[midIndex];
-				int foundCodePoint = value & 0xff;
-				if (foundCodePoint < point) {
-					low = midIndex + 1;
-				} else if (foundCodePoint > point) {
-					high = midIndex - 1;
-				} else {
-					return value >> 8;
-				}
-			}
-			return 0;
-		}
 	}
 
 	public BMFont(String file, LTexture image) throws LSysException {
@@ -204,11 +170,8 @@ public class BMFont implements IFont {
 	}
 
 	private void parse(String text) throws LSysException {
-		if (displays == null) {
-			displays = new IntMap<Display>(DEFAULT_MAX_CHAR);
-		} else {
-			displays.clear();
-		}
+		runs.clear();
+		kernings.clear();
 		if (StringUtils.isEmpty(text)) {
 			throw new LSysException("BMFont resource is null !");
 		}
@@ -243,8 +206,8 @@ public class BMFont implements IFont {
 			}
 		}
 
-		ObjectMap<Short, TArray<Short>> kerning = new ObjectMap<Short, TArray<Short>>(64);
 		TArray<CharDef> charDefs = new TArray<CharDef>(DEFAULT_MAX_CHAR);
+		IntArray kerningFirsts = new IntArray();
 
 		int maxChar = 0;
 		boolean done = false;
@@ -266,17 +229,13 @@ public class BMFont implements IFont {
 					StringTokenizer tokens = new StringTokenizer(line, " =");
 					tokens.nextToken();
 					tokens.nextToken();
-					short first = Short.parseShort(tokens.nextToken());
+					int first = Integer.parseInt(tokens.nextToken());
 					tokens.nextToken();
 					int second = Integer.parseInt(tokens.nextToken());
 					tokens.nextToken();
 					int offset = Integer.parseInt(tokens.nextToken());
-					TArray<Short> values = kerning.get(new Short(first));
-					if (values == null) {
-						values = new TArray<Short>();
-						kerning.put(new Short(first), values);
-					}
-					values.add(new Short((short) ((offset << 8) | second)));
+					kernings.put(first, second, offset);
+					kerningFirsts.add(first);
 				}
 			}
 		}
@@ -292,19 +251,10 @@ public class BMFont implements IFont {
 			}
 		}
 
-		for (Entries<Short, TArray<Short>> iter = kerning.entries(); iter.hasNext();) {
-			Entry<Short, TArray<Short>> entry = iter.next();
-			short first = entry.key;
-			TArray<Short> valueList = entry.value;
-			short[] valueArray = new short[valueList.size];
-			int i = 0;
-			for (Iterator<Short> valueIter = valueList.iterator(); valueIter.hasNext(); i++) {
-				valueArray[i] = (valueIter.next()).shortValue();
-			}
-			if (first < totalCharSet) {
-				charArray[first].kerning = valueArray;
-			} else {
-				customChars.get((int) first).kerning = valueArray;
+		for (int i = 0; i < kerningFirsts.length; i++) {
+			CharDef def = getCharDef(kerningFirsts.get(i));
+			if (def != null) {
+				def.kerning = true;
 			}
 		}
 		LSystem.pushFontPool(this);
@@ -369,26 +319,9 @@ public class BMFont implements IFont {
 			_initDraw++;
 			return;
 		}
-		if (displays.size > DEFAULT_MAX_CHAR) {
-			displays.clear();
-		}
+		Run run = runs.getRun(text, c, fontScaleX, fontScaleY);
 
-		lazyHashCode = 1;
-
-		if (c != null) {
-			lazyHashCode = LSystem.unite(lazyHashCode, c.r);
-			lazyHashCode = LSystem.unite(lazyHashCode, c.g);
-			lazyHashCode = LSystem.unite(lazyHashCode, c.b);
-			lazyHashCode = LSystem.unite(lazyHashCode, c.a);
-		}
-
-		int keyCode = 1;
-		keyCode = LSystem.unite(keyCode, text.hashCode());
-		keyCode = LSystem.unite(keyCode, lazyHashCode);
-
-		Display display = displays.get(keyCode);
-
-		if (display == null) {
+		if (run == null) {
 
 			int x = 0, y = 0;
 
@@ -401,23 +334,21 @@ public class BMFont implements IFont {
 
 			CharDef lastCharDef = null;
 			for (int i = startIndex; i < endIndex; i++) {
-				int id = text.charAt(i);
+				int id = text.codePointAt(i);
+				if (id > 0xFFFF) {
+					i++;
+				}
 				if (id == '\n') {
 					x = 0;
 					y += lineHeight;
 					continue;
 				}
-				CharDef charDef = null;
-				if (id < totalCharSet) {
-					charDef = charArray[id];
-				} else {
-					charDef = customChars.get(id);
-				}
+				CharDef charDef = getCharDef(id);
 				if (charDef == null) {
 					continue;
 				}
 				if (lastCharDef != null) {
-					x += lastCharDef.getKerning(id);
+					x += getKerning(lastCharDef, id);
 				}
 
 				lastCharDef = charDef;
@@ -431,21 +362,25 @@ public class BMFont implements IFont {
 
 			displayList.glEnd();
 
-			display = new Display();
+			runs.putRun(text, c, fontScaleX, fontScaleY, displayList.newBatchCache());
 
-			display.cache = displayList.newBatchCache();
-			display.text = text;
-			display.width = 0;
-			display.height = 0;
+		} else if (run.cache != null) {
+			run.cache.x = tx + _offset.x;
+			run.cache.y = ty + _offset.y;
+			displayList.postCache(run.cache);
+		}
 
-			displays.put(keyCode, display);
+	}
 
-		} else if (display.cache != null) {
-			display.cache.x = tx + _offset.x;
-			display.cache.y = ty + _offset.y;
-			displayList.postCache(display.cache);
+	private CharDef getCharDef(int id) {
+		if (id < totalCharSet) {
+			return id < 0 ? null : charArray[id];
 		}
+		return customChars.get(id);
+	}
 
+	private int getKerning(CharDef first, int second) {
+		return first.kerning ? kernings.get(first.id, second) : 0;
 	}
 
 	@Override
@@ -488,23 +423,21 @@ public class BMFont implements IFont {
 		int x = 0, y = 0;
 		CharDef lastCharDef = null;
 		for (int i = startIndex; i < endIndex; i++) {
-			int id = text.charAt(i);
+			int id = text.codePointAt(i);
+			if (id > 0xFFFF) {
+				i++;
+			}
 			if (id == '\n') {
 				x = 0;
 				y += lineHeight;
 				continue;
 			}
-			CharDef charDef = null;
-			if (id < totalCharSet) {
-				charDef = charArray[id];
-			} else {
-				charDef = customChars.get(id);
-			}
+			CharDef charDef = getCharDef(id);
 			if (charDef == null) {
 				continue;
 			}
 			if (lastCharDef != null) {
-				x += lastCharDef.getKerning(id);
+				x += getKerning(lastCharDef, id);
 			}
 			lastCharDef = charDef;
 			charDef.draw(g, tx + _offset.x, ty + _offset.y, x, y, c);
@@ -583,44 +516,7 @@ public class BMFont implements IFont {
 		if (StringUtils.isEmpty(text)) {
 			return 0;
 		}
-		make();
-		Display display = null;
-		for (Display d : displays.values()) {
-			if (d != null && text.equals(d.text)) {
-				display = d;
-				break;
-			}
-		}
-		if (display != null && display.height != 0) {
-			return display.height;
-		}
-		if (display == null) {
-			display = new Display();
-		}
-		int lines = 0;
-		for (int i = 0; i < text.length(); i++) {
-			int id = text.charAt(i);
-			if (id == '\n') {
-				lines++;
-				display.height = 0;
-				continue;
-			}
-			if (id == ' ') {
-				continue;
-			}
-			CharDef charDef = null;
-			if (id < totalCharSet) {
-				charDef = charArray[id];
-			} else {
-				charDef = customChars.get(id);
-			}
-			if (charDef == null) {
-				continue;
-			}
-			display.height = MathUtils.max(charDef.height + charDef.yoffset, display.height);
-		}
-		display.height += lines * lineHeight;
-		return (int) (display.height * fontScaleY);
+		return (int) (getMetrics(text).height * fontScaleY);
 	}
 
 	@Override
@@ -629,56 +525,84 @@ public class BMFont implements IFont {
 			return 0;
 		}
 		make();
-		CharDef charDef = null;
-		if (c < totalCharSet) {
-			charDef = charArray[(int) c];
-		} else {
-			charDef = customChars.get((int) c);
-		}
+		CharDef charDef = getCharDef(c);
 		if (charDef == null) {
 			return getSize();
 		}
 		return charDef.width;
 	}
 
+	/**
+	 * 返回单字的前进宽度(已缩放,不含字距调整),字体中不存在的字符返回0
+	 
+	 * @param c
+	 * @return
+	 */
+	public int charAdvance(char c) {
+		if (c == '\n') {
+			return 0;
+		}
+		make();
+		CharDef charDef = getCharDef(c);
+		if (charDef == null) {
+			return 0;
+		}
+		return (int) (charDef.advance * fontScaleX);
+	}
+
+	/**
+	 * 字体是否带有字距调整数据,带有时逐字累加的宽度与stringWidth并不一致
+	 
+	 * @return
+	 */
+	public boolean isKerning() {
+		make();
+		return !kernings.isEmpty();
+	}
+
 	@Override
 	public int stringWidth(String text) {
 		if (StringUtils.isEmpty(text)) {
 			return 0;
 		}
+		return (int) (getMetrics(text).width * fontScaleX);
+	}
+
+	/**
+	 * 返回缓存的文字尺寸(未缩放),不存在时计算并缓存
+	 * 
+	 * @param text
+	 * @return
+	 */
+	private Run getMetrics(String text) {
 		make();
-		Display display = null;
-		for (Display d : displays.values()) {
-			if (d != null && text.equals(d.text)) {
-				display = d;
-				break;
-			}
+		Run run = runs.getMetrics(text);
+		if (run != null) {
+			return run;
 		}
-		if (display != null && display.width != 0) {
-			return display.width;
-		}
-		if (display == null) {
-			display = new Display();
-		}
-		int width = 0;
+		int maxWidth = 0, width = 0;
+		int height = 0, lines = 0;
 		CharDef lastCharDef = null;
 		for (int i = 0, n = text.length(); i < n; i++) {
-			int id = text.charAt(i);
+			int id = text.codePointAt(i);
+			if (id > 0xFFFF) {
+				i++;
+			}
 			if (id == '\n') {
 				width = 0;
+				lines++;
+				height = 0;
 				continue;
 			}
-			CharDef charDef = null;
-			if (id < totalCharSet) {
-				charDef = charArray[id];
-			} else {
-				charDef = customChars.get(id);
-			}
+			CharDef charDef = getCharDef(id);
 			if (charDef == null) {
 				continue;
 			}
+			if (id != ' ') {
+				height = MathUtils.max(charDef.height + charDef.yoffset, height);
+			}
 			if (lastCharDef != null) {
-				width += lastCharDef.getKerning(id);
+				width += getKerning(lastCharDef, id);
 			}
 			lastCharDef = charDef;
 			if (i < n - 1) {
@@ -686,10 +610,28 @@ public class BMFont implements IFont {
 			} else {
 				width += charDef.width;
 			}
-			display.width = MathUtils.max(display.width, width);
+			maxWidth = MathUtils.max(maxWidth, width);
 		}
+		return runs.putMetrics(text, maxWidth, height + lines * lineHeight);
+	}
 
-		return (int) (display.width * fontScaleX);
+	/**
+	 * 已渲染文字与文字尺寸的缓存
+	 * 
+	 * @return
+	 */
+	public GlyphRunCache getRunCache() {
+		return runs;
+	}
+
+	/**
+	 * 设置文字缓存的字节预算,超出时淘汰最久未使用的缓存
+	 * 
+	 * @param bytes
+	 */
+	public BMFont setRunCacheBudget(long bytes) {
+		runs.setMaxBytes(bytes);
+		return this;
 	}
 
 	public String getCommon() {
@@ -822,16 +764,10 @@ public class BMFont implements IFont {
 			displayList.close(true);
 			displayList = null;
 		}
-		if (displays != null) {
-			for (Display d : displays.values()) {
-				if (d != null && d.cache != null) {
-					d.cache.close();
-				}
-			}
-			displays.clear();
-		}
+		runs.clear();
 		_initDraw = -1;
 		_initParse = false;
+		GlyphAdvances.remove(this);
 		LSystem.popFontPool(this);
 	}
 
@@ -101,9 +101,9 @@ public class FontUtils {
 			return font.charWidth(chars.charAt(start));
 		}
 		if (chars instanceof String) {
-			return font.stringWidth(((String) chars).substring(start, end).toString());
+			return font.stringWidth(((String) chars).substring(start, end));
 		} else {
-			return font.stringWidth(new StringBuffer(chars).substring(start, end).toString());
+			return font.stringWidth(chars.subSequence(start, end).toString());
 		}
 	}
 
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.font;
+
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+
+/**
+ * 按字体缓存的单字宽度表,以256字符为一页按需分配,字体尺寸变化时自动失效.
+ * 
+ * 文字宽度按单字宽度累加计算,用于断行与测量等需要反复查询宽度的场合.带字距调整的字体(见{@link #isKerning()})逐字累加并不准确,
+ * 此时measure与fit仍以字体的stringWidth测量整段文字.
+ */
+public class GlyphAdvances {
+
+	private final static int PAGE_BITS = 8;
+
+	private final static int PAGE_SIZE = 1 << PAGE_BITS;
+
+	private final static int PAGE_MASK = PAGE_SIZE - 1;
+
+	private final static TArray<GlyphAdvances> _fonts = new TArray<GlyphAdvances>();
+
+	private static GlyphAdvances _last;
+
+	/**
+	 * 返回指定字体共享的宽度表
+	 * 
+	 * @param font
+	 * @return
+	 */
+	public static GlyphAdvances get(IFont font) {
+		GlyphAdvances last = _last;
+		if (last != null && last._font == font) {
+			return last.validate();
+		}
+		for (int i = 0; i < _fonts.size; i++) {
+			GlyphAdvances adv = _fonts.get(i);
+			if (adv._font == font) {
+				return (_last = adv).validate();
+			}
+		}
+		GlyphAdvances adv = new GlyphAdvances(font);
+		_fonts.add(adv);
+		return _last = adv;
+	}
+
+	/**
+	 * 移除指定字体的宽度表(各字体的close中已自动调用,改变字形后也需调用)
+	 * 
+	 * @param font
+	 */
+	public static void remove(IFont font) {
+		for (int i = _fonts.size - 1; i > -1; i--) {
+			if (_fonts.get(i)._font == font) {
+				_fonts.removeIndex(i);
+			}
+		}
+		if (_last != null && _last._font == font) {
+			_last = null;
+		}
+	}
+
+	public static void clearAll() {
+		_fonts.clear();
+		_last = null;
+	}
+
+	private final IFont _font;
+
+	private final int[][] _pages = new int[PAGE_SIZE][];
+
+	private int _size;
+
+	private int _count;
+
+	private final boolean _kerning;
+
+	public GlyphAdvances(IFont font) {
+		this._font = font;
+		this._size = font.getSize();
+		this._kerning = (font instanceof BMFont) && ((BMFont) font).isKerning();
+	}
+
+	private GlyphAdvances validate() {
+		if (_size != _font.getSize()) {
+			clear();
+		}
+		return this;
+	}
+
+	/**
+	 * 返回单字宽度,首次查询时向字体请求并缓存.BMFont返回字形的前进宽度,其他字体返回单字的stringWidth
+	 * 
+	 * @param ch
+	 * @return
+	 */
+	public int advance(char ch) {
+		int[] page = _pages[ch >>> PAGE_BITS];
+		if (page == null) {
+			page = _pages[ch >>> PAGE_BITS] = new int[PAGE_SIZE];
+			for (int i = 0; i < PAGE_SIZE; i++) {
+				page[i] = -1;
+			}
+		}
+		int w = page[ch & PAGE_MASK];
+		if (w < 0) {
+			w = page[ch & PAGE_MASK] = measureChar(ch);
+			_count++;
+		}
+		return w;
+	}
+
+	private int measureChar(char ch) {
+		if (ch == '\n') {
+			return 0;
+		}
+		// BMFont的stringWidth对末字取字形宽度而非前进宽度,单字测量会偏窄
+		if (_font instanceof BMFont) {
+			return ((BMFont) _font).charAdvance(ch);
+		}
+		// 单独的空白字符会被部分字体视为空字符串,因此夹在两个可见字符间测量
+		if (ch <= ' ' || ch == '\u3000') {
+			return MathUtils.max(0, _font.stringWidth("|" + ch + "|") - _font.stringWidth("||"));
+		}
+		return _font.stringWidth(String.valueOf(ch));
+	}
+
+	public float measure(CharSequence chars) {
+		return measure(chars, 0, chars.length());
+	}
+
+	/**
+	 * 以缓存的单字宽度累加测量文字宽度
+	 * 
+	 * @param chars
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public float measure(CharSequence chars, int start, int end) {
+		if (_kerning) {
+			return _font.stringWidth(chars.subSequence(start, end).toString());
+		}
+		int width = 0;
+		for (int i = start; i < end; i++) {
+			width += advance(chars.charAt(i));
+		}
+		return width;
+	}
+
+	public float measure(char[] chars, int start, int end) {
+		if (_kerning) {
+			return _font.stringWidth(new String(chars, start, end - start));
+		}
+		int width = 0;
+		for (int i = start; i < end; i++) {
+			width += advance(chars[i]);
+		}
+		return width;
+	}
+
+	/**
+	 * 返回从start开始,宽度不超过maxWidth时最多可容纳到的结束索引
+	 * 
+	 * @param chars
+	 * @param start
+	 * @param end
+	 * @param maxWidth
+	 * @return
+	 */
+	public int fit(CharSequence chars, int start, int end, float maxWidth) {
+		if (_kerning) {
+			for (int i = start; i < end; i++) {
+				if (measure(chars, start, i + 1) > maxWidth) {
+					return i;
+				}
+			}
+			return end;
+		}
+		int width = 0;
+		for (int i = start; i < end; i++) {
+			width += advance(chars.charAt(i));
+			if (width > maxWidth) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	public IFont getFont() {
+		return _font;
+	}
+
+	/**
+	 * 字体是否带有字距调整,此时逐字累加的宽度不能代表整段文字宽度,需以stringWidth测量
+	 * 
+	 * @return
+	 */
+	public boolean isKerning() {
+		return _kerning;
+	}
+
+	public int getCachedCount() {
+		return _count;
+	}
+
+	public void clear() {
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			_pages[i] = null;
+		}
+		_size = _font.getSize();
+		_count = 0;
+	}
+
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.font;
+
+import loon.LTextureBatch.Cache;
+import loon.canvas.LColor;
+import loon.utils.MathUtils;
+import loon.utils.NumberUtils;
+
+/**
+ * 已渲染文字串(字形顶点缓存)与文字尺寸的LRU缓存,以字节预算为上限.
+ * 
+ * 渲染缓存以(文字,颜色,缩放)精确比较为键,尺寸缓存仅以文字为键,两者共用同一个预算与淘汰顺序,查询时不产生新对象.
+ */
+public class GlyphRunCache {
+
+	// 每个条目除文字与顶点外的大致开销
+	private final static int ENTRY_OVERHEAD = 64;
+
+	public final static int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+	public static class Run {
+
+		final String text;
+
+		final boolean metrics;
+
+		final int r, g, b, a;
+
+		final int sx, sy;
+
+		final int hash;
+
+		Cache cache;
+
+		int width;
+
+		int height;
+
+		int bytes;
+
+		Run hashNext;
+
+		Run prev, next;
+
+		Run(String text, boolean metrics, int r, int g, int b, int a, int sx, int sy, int hash) {
+			this.text = text;
+			this.metrics = metrics;
+			this.r = r;
+			this.g = g;
+			this.b = b;
+			this.a = a;
+			this.sx = sx;
+			this.sy = sy;
+			this.hash = hash;
+		}
+
+		boolean match(String s, boolean m, int r, int g, int b, int a, int sx, int sy, int h) {
+			return hash == h && metrics == m && this.r == r && this.g == g && this.b == b && this.a == a
+					&& this.sx == sx && this.sy == sy && (text == s || text.equals(s));
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public Cache getCache() {
+			return cache;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+	}
+
+	// 没有颜色时使用的颜色键(不会与任何float的位模式冲突的NaN值)
+	private final static int NO_COLOR = 0x7fc00001;
+
+	private Run[] buckets = new Run[64];
+
+	private int size;
+
+	// LRU链表,head为最近使用
+	private Run head, tail;
+
+	private long bytes;
+
+	private long maxBytes;
+
+	private long hits, misses, evictions;
+
+	public GlyphRunCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	public GlyphRunCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	private static int colorBits(LColor c, int channel) {
+		if (c == null) {
+			return NO_COLOR;
+		}
+		switch (channel) {
+		case 0:
+			return NumberUtils.floatToIntBits(c.r);
+		case 1:
+			return NumberUtils.floatToIntBits(c.g);
+		case 2:
+			return NumberUtils.floatToIntBits(c.b);
+		default:
+			return NumberUtils.floatToIntBits(c.a);
+		}
+	}
+
+	private static int hash(String text, boolean metrics, int r, int g, int b, int a, int sx, int sy) {
+		int h = text.hashCode();
+		h = h * 31 + (metrics ? 1 : 0);
+		h = h * 31 + r;
+		h = h * 31 + g;
+		h = h * 31 + b;
+		h = h * 31 + a;
+		h = h * 31 + sx;
+		h = h * 31 + sy;
+		return h ^ (h >>> 16);
+	}
+
+	private Run find(String text, boolean metrics, int r, int g, int b, int a, int sx, int sy) {
+		final int h = hash(text, metrics, r, g, b, a, sx, sy);
+		for (Run run = buckets[h & (buckets.length - 1)]; run != null; run = run.hashNext) {
+			if (run.match(text, metrics, r, g, b, a, sx, sy, h)) {
+				touch(run);
+				hits++;
+				return run;
+			}
+		}
+		misses++;
+		return null;
+	}
+
+	private Run insert(String text, boolean metrics, int r, int g, int b, int a, int sx, int sy) {
+		final int h = hash(text, metrics, r, g, b, a, sx, sy);
+		final Run run = new Run(text, metrics, r, g, b, a, sx, sy, h);
+		if (size >= buckets.length - (buckets.length >> 2)) {
+			rehash(buckets.length << 1);
+		}
+		final int idx = h & (buckets.length - 1);
+		run.hashNext = buckets[idx];
+		buckets[idx] = run;
+		size++;
+		linkHead(run);
+		return run;
+	}
+
+	private void rehash(int capacity) {
+		final Run[] old = buckets;
+		final Run[] table = new Run[capacity];
+		for (int i = 0; i < old.length; i++) {
+			for (Run run = old[i]; run != null;) {
+				final Run next = run.hashNext;
+				final int idx = run.hash & (capacity - 1);
+				run.hashNext = table[idx];
+				table[idx] = run;
+				run = next;
+			}
+		}
+		buckets = table;
+	}
+
+	/**
+	 * 查找已缓存的文字渲染结果
+	 */
+	public Run getRun(String text, LColor c, float scaleX, float scaleY) {
+		return find(text, false, colorBits(c, 0), colorBits(c, 1), colorBits(c, 2), colorBits(c, 3),
+				NumberUtils.floatToIntBits(scaleX), NumberUtils.floatToIntBits(scaleY));
+	}
+
+	/**
+	 * 缓存文字渲染结果,超出预算时淘汰最久未使用的条目
+	 */
+	public Run putRun(String text, LColor c, float scaleX, float scaleY, Cache cache) {
+		final Run run = insert(text, false, colorBits(c, 0), colorBits(c, 1), colorBits(c, 2), colorBits(c, 3),
+				NumberUtils.floatToIntBits(scaleX), NumberUtils.floatToIntBits(scaleY));
+		run.cache = cache;
+		account(run);
+		return run;
+	}
+
+	/**
+	 * 查找已缓存的文字尺寸(未缩放)
+	 */
+	public Run getMetrics(String text) {
+		return find(text, true, 0, 0, 0, 0, 0, 0);
+	}
+
+	public Run putMetrics(String text, int width, int height) {
+		final Run run = insert(text, true, 0, 0, 0, 0, 0, 0);
+		run.width = width;
+		run.height = height;
+		account(run);
+		return run;
+	}
+
+	private void account(Run run) {
+		run.bytes = ENTRY_OVERHEAD + run.text.length() * 2 + (run.cache == null ? 0 : run.cache.getByteSize());
+		bytes += run.bytes;
+		trim(maxBytes);
+	}
+
+	private void touch(Run run) {
+		if (run != head) {
+			unlink(run);
+			linkHead(run);
+		}
+	}
+
+	private void linkHead(Run run) {
+		run.prev = null;
+		run.next = head;
+		if (head != null) {
+			head.prev = run;
+		}
+		head = run;
+		if (tail == null) {
+			tail = run;
+		}
+	}
+
+	private void unlink(Run run) {
+		if (run.prev != null) {
+			run.prev.next = run.next;
+		} else {
+			head = run.next;
+		}
+		if (run.next != null) {
+			run.next.prev = run.prev;
+		} else {
+			tail = run.prev;
+		}
+		run.prev = run.next = null;
+	}
+
+	private void remove(Run run) {
+		final int idx = run.hash & (buckets.length - 1);
+		Run prev = null;
+		for (Run cur = buckets[idx]; cur != null; cur = cur.hashNext) {
+			if (cur == run) {
+				if (prev == null) {
+					buckets[idx] = cur.hashNext;
+				} else {
+					prev.hashNext = cur.hashNext;
+				}
+				break;
+			}
+			prev = cur;
+		}
+		run.hashNext = null;
+		unlink(run);
+		size--;
+		bytes -= run.bytes;
+		if (run.cache != null) {
+			run.cache.close();
+			run.cache = null;
+		}
+	}
+
+	/**
+	 * 淘汰最久未使用的条目,直到占用不超过指定字节数(至少保留最近使用的一个条目)
+	 * 
+	 * @param limit
+	 */
+	public void trim(long limit) {
+		while (bytes > limit && tail != null && tail != head) {
+			remove(tail);
+			evictions++;
+		}
+	}
+
+	public void clear() {
+		while (tail != null) {
+			remove(tail);
+		}
+		if (buckets.length > 64) {
+			buckets = new Run[64];
+		}
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public GlyphRunCache setMaxBytes(long maxBytes) {
+		this.maxBytes = MathUtils.max(0, maxBytes);
+		trim(this.maxBytes);
+		return this;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public void resetStats() {
+		hits = misses = evictions = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "GlyphRunCache [size=" + size + ", bytes=" + bytes + "/" + maxBytes + ", hits=" + hits + ", misses="
+				+ misses + ", evictions=" + evictions + "]";
+	}
+}
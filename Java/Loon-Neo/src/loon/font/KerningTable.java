@@ -0,0 +1,140 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.font;
+
+/**
+ * 以(前一字符,后一字符)的完整Unicode码点对为键的字距表,开放寻址(线性探测),查询时不产生新对象
+ */
+public class KerningTable {
+
+	private final static long EMPTY = -1L;
+
+	private long[] keys;
+
+	private int[] values;
+
+	private int size;
+
+	private int mask;
+
+	public KerningTable() {
+		this(16);
+	}
+
+	public KerningTable(int capacity) {
+		int cap = 16;
+		while (cap < capacity * 2) {
+			cap <<= 1;
+		}
+		allocate(cap);
+	}
+
+	private void allocate(int cap) {
+		keys = new long[cap];
+		values = new int[cap];
+		for (int i = 0; i < cap; i++) {
+			keys[i] = EMPTY;
+		}
+		mask = cap - 1;
+	}
+
+	private static long key(int first, int second) {
+		return ((long) first << 32) | (second & 0xffffffffL);
+	}
+
+	private static int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	public void put(int first, int second, int amount) {
+		if ((size + 1) * 2 > keys.length) {
+			final long[] oldKeys = keys;
+			final int[] oldValues = values;
+			allocate(keys.length << 1);
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != EMPTY) {
+					insert(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+		insert(key(first, second), amount);
+	}
+
+	private void insert(long key, int value) {
+		int idx = slot(key) & mask;
+		for (;;) {
+			final long k = keys[idx];
+			if (k == EMPTY) {
+				keys[idx] = key;
+				values[idx] = value;
+				size++;
+				return;
+			}
+			if (k == key) {
+				values[idx] = value;
+				return;
+			}
+			idx = (idx + 1) & mask;
+		}
+	}
+
+	/**
+	 * 返回字距,没有对应字符对时返回0
+	 * 
+	 * @param first
+	 * @param second
+	 * @return
+	 */
+	public int get(int first, int second) {
+		if (size == 0) {
+			return 0;
+		}
+		final long key = key(first, second);
+		int idx = slot(key) & mask;
+		for (;;) {
+			final long k = keys[idx];
+			if (k == key) {
+				return values[idx];
+			}
+			if (k == EMPTY) {
+				return 0;
+			}
+			idx = (idx + 1) & mask;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = EMPTY;
+		}
+		size = 0;
+	}
+}
@@ -545,6 +545,7 @@ public class LFont implements IFont {
 	public void close() {
 		closed = true;
 		closeTempTexture();
+		GlyphAdvances.remove(this);
 		LSystem.popFontPool(this);
 	}
 
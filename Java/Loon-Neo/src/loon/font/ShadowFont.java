@@ -220,6 +220,7 @@ public class ShadowFont implements IFont {
 	@Override
 	public void close() {
 		this.closed = true;
+		GlyphAdvances.remove(this);
 	}
 
 	public boolean isClosed() {
@@ -54,6 +54,12 @@ public class Text implements LRelease {
 	protected FloatArray _lineWidths = new FloatArray(1);
 	protected float _width = 0, _height = 0;
 
+	// 上次布局时的参数,文字与参数都未变化时不再重新断行与测量
+	private IFont _layoutFont;
+	private AutoWrap _layoutAutoWrap;
+	private int _layoutFontSize;
+	private float _layoutWrapWidth, _layoutLeading;
+
 	public Text(final IFont font, final CharSequence chars) {
 		this(font, chars, new TextOptions());
 	}
@@ -103,6 +109,9 @@ public class Text implements LRelease {
 		if (LSystem.base() == null || chars == null) {
 			return;
 		}
+		if (isLayoutValid(chars)) {
+			return;
+		}
 		this._chars = chars != null ? chars : LSystem.EMPTY;
 		final IFont font = this._font;
 		this._lines.clear();
@@ -134,9 +143,38 @@ public class Text implements LRelease {
 		if (_height <= 0) {
 			_height = _font.getHeight();
 		}
+		this._layoutFont = font;
+		this._layoutFontSize = font.getSize();
+		this._layoutAutoWrap = this._textOptions._autoWrap;
+		this._layoutWrapWidth = this._textOptions._autoWrapWidth;
+		this._layoutLeading = this._textOptions._leading;
 		this._initNativeDraw = false;
 	}
 
+	private boolean isLayoutValid(final CharSequence chars) {
+		if (_layoutFont != _font || _layoutFontSize != _font.getSize() || _layoutAutoWrap != _textOptions._autoWrap
+				|| _layoutWrapWidth != _textOptions._autoWrapWidth || _layoutLeading != _textOptions._leading) {
+			return false;
+		}
+		// 可变的文字对象内容可能已被修改,只有字符串能安全比较
+		final CharSequence old = this._chars;
+		if (!(old instanceof String)) {
+			return false;
+		}
+		if (old == chars) {
+			return true;
+		}
+		if (old.length() != chars.length()) {
+			return false;
+		}
+		for (int i = chars.length() - 1; i > -1; i--) {
+			if (old.charAt(i) != chars.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private String toString(CharSequence ch) {
 		String mes = null;
 		if (ch instanceof String) {
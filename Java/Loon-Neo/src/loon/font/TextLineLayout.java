@@ -0,0 +1,526 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.font;
+
+import loon.LSysException;
+import loon.canvas.LColor;
+import loon.opengl.GLEx;
+import loon.utils.FloatArray;
+import loon.utils.IntArray;
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+
+/**
+ * 可增量更新的文字断行布局,用于长文本(日志,对话,打字机效果)的反复显示.
+ * 
+ * 单字宽度由{@link GlyphAdvances}按字体缓存,断行位置与行宽被保存下来,追加文字时只重排最后两行,改变宽度时只重排而不重新测量字形.
+ * 行高固定,因此按滚动位置查找可见行为O(1).
+ * 
+ * <pre>
+ * TextLineLayout log = new TextLineLayout(font, AutoWrap.HORIZONTAL, 300);
+ * log.append("Hello World\n");
+ * log.draw(g, 10, 10, scrollY, 200, LColor.white);
+ * </pre>
+ */
+public class TextLineLayout {
+
+	// 禁止出现在行首的标点
+	private final static String NO_LINE_START = ",.!?;:)]}%、。，．！？；：）」』】］…ー";
+
+	private IFont _font;
+
+	private GlyphAdvances _advances;
+
+	private AutoWrap _autoWrap;
+
+	private float _wrapWidth;
+
+	private float _leading;
+
+	private char[] _buffer;
+
+	private int _length;
+
+	// 每行开始扫描的位置(软换行后行首空白会被跳过,因此可能小于行首)
+	private final IntArray _scanStarts = new IntArray();
+
+	private final IntArray _lineStarts = new IntArray();
+
+	private final IntArray _lineEnds = new IntArray();
+
+	private final FloatArray _lineWidths = new FloatArray();
+
+	// 第0行到第i行中的最大行宽
+	private final FloatArray _maxWidths = new FloatArray();
+
+	private final TArray<String> _lineTexts = new TArray<String>();
+
+	// 自此字符位置之后的布局已失效,-1表示布局有效
+	private int _dirtyFrom;
+
+	private int _reflowCount;
+
+	public TextLineLayout(IFont font) {
+		this(font, AutoWrap.NONE, 0);
+	}
+
+	public TextLineLayout(IFont font, AutoWrap autoWrap, float wrapWidth) {
+		this(font, autoWrap, wrapWidth, 0);
+	}
+
+	public TextLineLayout(IFont font, AutoWrap autoWrap, float wrapWidth, float leading) {
+		this._buffer = new char[64];
+		this._autoWrap = autoWrap == null ? AutoWrap.NONE : autoWrap;
+		this._wrapWidth = wrapWidth;
+		this._leading = leading;
+		this.setFont(font);
+	}
+
+	public TextLineLayout setFont(IFont font) {
+		if (font == null) {
+			throw new LSysException("IFont is null!");
+		}
+		this._font = font;
+		this._advances = GlyphAdvances.get(font);
+		invalidate(0);
+		return this;
+	}
+
+	public IFont getFont() {
+		return _font;
+	}
+
+	public TextLineLayout setAutoWrap(AutoWrap autoWrap) {
+		if (autoWrap == null) {
+			autoWrap = AutoWrap.NONE;
+		}
+		if (this._autoWrap != autoWrap) {
+			this._autoWrap = autoWrap;
+			invalidate(0);
+		}
+		return this;
+	}
+
+	public AutoWrap getAutoWrap() {
+		return _autoWrap;
+	}
+
+	/**
+	 * 改变断行宽度,已缓存的字形宽度不会失效
+	 * 
+	 * @param wrapWidth
+	 * @return
+	 */
+	public TextLineLayout setWrapWidth(float wrapWidth) {
+		if (this._wrapWidth != wrapWidth) {
+			this._wrapWidth = wrapWidth;
+			invalidate(0);
+		}
+		return this;
+	}
+
+	public float getWrapWidth() {
+		return _wrapWidth;
+	}
+
+	public TextLineLayout setLeading(float leading) {
+		this._leading = leading;
+		return this;
+	}
+
+	public float getLeading() {
+		return _leading;
+	}
+
+	/**
+	 * 替换全部文字,与旧文字相同的前缀部分不会重排
+	 * 
+	 * @param chars
+	 * @return
+	 */
+	public TextLineLayout setText(CharSequence chars) {
+		final int len = chars == null ? 0 : chars.length();
+		final int limit = MathUtils.min(len, _length);
+		int same = 0;
+		while (same < limit && _buffer[same] == chars.charAt(same)) {
+			same++;
+		}
+		if (same == len && same == _length) {
+			return this;
+		}
+		_length = same;
+		ensureCapacity(len);
+		for (int i = same; i < len; i++) {
+			_buffer[i] = chars.charAt(i);
+		}
+		_length = len;
+		invalidate(same);
+		return this;
+	}
+
+	public TextLineLayout append(CharSequence chars) {
+		if (chars == null) {
+			return this;
+		}
+		final int len = chars.length();
+		if (len == 0) {
+			return this;
+		}
+		ensureCapacity(_length + len);
+		invalidate(_length);
+		for (int i = 0; i < len; i++) {
+			_buffer[_length++] = chars.charAt(i);
+		}
+		return this;
+	}
+
+	public TextLineLayout append(char ch) {
+		ensureCapacity(_length + 1);
+		invalidate(_length);
+		_buffer[_length++] = ch;
+		return this;
+	}
+
+	/**
+	 * 截断文字到指定长度
+	 * 
+	 * @param length
+	 * @return
+	 */
+	public TextLineLayout setLength(int length) {
+		length = MathUtils.max(0, length);
+		if (length < _length) {
+			_length = length;
+			invalidate(length);
+		}
+		return this;
+	}
+
+	public TextLineLayout clear() {
+		return setLength(0);
+	}
+
+	public int length() {
+		return _length;
+	}
+
+	public char charAt(int index) {
+		return _buffer[index];
+	}
+
+	public String getText() {
+		return new String(_buffer, 0, _length);
+	}
+
+	private void ensureCapacity(int size) {
+		if (size > _buffer.length) {
+			char[] tmp = new char[MathUtils.max(size, _buffer.length * 2)];
+			System.arraycopy(_buffer, 0, tmp, 0, _length);
+			_buffer = tmp;
+		}
+	}
+
+	private void invalidate(int from) {
+		if (_dirtyFrom < 0 || from < _dirtyFrom) {
+			_dirtyFrom = from;
+		}
+	}
+
+	/**
+	 * 重排失效部分.一行在何处断开最多取决于下一行内的字符,因此从失效位置所在行的上一行开始重排即可
+	 * 
+	 * @return
+	 */
+	public TextLineLayout layout() {
+		if (_dirtyFrom < 0) {
+			return this;
+		}
+		int line = MathUtils.max(0, lineOfScan(_dirtyFrom) - 1);
+		int pos = line < _scanStarts.length ? _scanStarts.get(line) : 0;
+		_scanStarts.truncate(line);
+		_lineStarts.truncate(line);
+		_lineEnds.truncate(line);
+		_lineWidths.truncate(line);
+		_maxWidths.truncate(line);
+		if (_lineTexts.size > line) {
+			_lineTexts.truncate(line);
+		}
+		for (; pos >= 0;) {
+			pos = layoutLine(pos);
+			_reflowCount++;
+		}
+		_dirtyFrom = -1;
+		return this;
+	}
+
+	private int lineOfScan(int index) {
+		final int[] starts = _scanStarts.items;
+		int low = 0, high = _scanStarts.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= index) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	private boolean isWrap() {
+		return _autoWrap != AutoWrap.NONE && _wrapWidth > 0;
+	}
+
+	private static boolean isWide(char ch) {
+		return (ch >= 0x2E80 && ch <= 0x9FFF) || (ch >= 0xAC00 && ch <= 0xD7AF) || (ch >= 0xF900 && ch <= 0xFAFF)
+				|| (ch >= 0xFF00 && ch <= 0xFFEF);
+	}
+
+	/**
+	 * 按词断行时,是否允许在index之前断开
+	 */
+	private boolean canBreakBefore(int index) {
+		final char ch = _buffer[index];
+		if (ch == ' ' || NO_LINE_START.indexOf(ch) != -1) {
+			return false;
+		}
+		final char prev = _buffer[index - 1];
+		return prev == ' ' || isWide(ch) || isWide(prev);
+	}
+
+	/**
+	 * 从scan位置排出一行,返回下一行的扫描位置,文字结束时返回-1
+	 */
+	private int layoutLine(final int scan) {
+		final char[] buffer = _buffer;
+		final int length = _length;
+		final boolean wrap = isWrap();
+		final boolean words = wrap && _autoWrap == AutoWrap.HORIZONTAL;
+		int start = scan;
+		if (wrap && scan > 0 && buffer[scan - 1] != '\n') {
+			while (start < length && buffer[start] == ' ') {
+				start++;
+			}
+			if (start == length) {
+				return -1;
+			}
+		}
+		int width = 0;
+		int lastBreak = -1;
+		for (int i = start; i < length; i++) {
+			final char ch = buffer[i];
+			if (ch == '\n') {
+				addLine(scan, start, i, width, words);
+				return i + 1;
+			}
+			if (words && i > start && canBreakBefore(i)) {
+				lastBreak = i;
+			}
+			// 带字距调整的字体按整段测量,否则逐字累加
+			width = _advances.isKerning() ? (int) _advances.measure(buffer, start, i + 1)
+					: width + _advances.advance(ch);
+			if (wrap && width > _wrapWidth && i > start && !(words && ch == ' ')) {
+				int end = i, next = i;
+				if (words && lastBreak > start) {
+					end = next = lastBreak;
+				}
+				if (words) {
+					while (end > start && buffer[end - 1] == ' ') {
+						end--;
+					}
+				}
+				addLine(scan, start, end, _advances.measure(buffer, start, end), false);
+				return next;
+			}
+		}
+		addLine(scan, start, length, width, words);
+		return -1;
+	}
+
+	private void addLine(int scan, int start, int end, float width, boolean trim) {
+		if (trim) {
+			final int last = end;
+			while (end > start && _buffer[end - 1] == ' ') {
+				width -= _advances.advance(' ');
+				end--;
+			}
+			if (end != last && _advances.isKerning()) {
+				width = _advances.measure(_buffer, start, end);
+			}
+		}
+		final int count = _maxWidths.length;
+		_scanStarts.add(scan);
+		_lineStarts.add(start);
+		_lineEnds.add(end);
+		_lineWidths.add(width);
+		_maxWidths.add(count == 0 ? width : MathUtils.max(width, _maxWidths.get(count - 1)));
+	}
+
+	public int getLineCount() {
+		layout();
+		return _lineStarts.length;
+	}
+
+	public int getLineStart(int line) {
+		layout();
+		return _lineStarts.get(line);
+	}
+
+	public int getLineEnd(int line) {
+		layout();
+		return _lineEnds.get(line);
+	}
+
+	public float getLineWidth(int line) {
+		layout();
+		return _lineWidths.get(line);
+	}
+
+	/**
+	 * 返回指定行的文字(结果会被缓存,直到该行重排)
+	 * 
+	 * @param line
+	 * @return
+	 */
+	public String getLine(int line) {
+		layout();
+		for (int i = _lineTexts.size; i <= line; i++) {
+			_lineTexts.add(null);
+		}
+		String text = _lineTexts.get(line);
+		if (text == null) {
+			final int start = _lineStarts.get(line);
+			text = new String(_buffer, start, _lineEnds.get(line) - start);
+			_lineTexts.set(line, text);
+		}
+		return text;
+	}
+
+	public <T extends TArray<CharSequence>> T getLines(T result) {
+		final int count = getLineCount();
+		for (int i = 0; i < count; i++) {
+			result.add(getLine(i));
+		}
+		return result;
+	}
+
+	/**
+	 * 返回指定字符所在的行
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public int getLineOfChar(int index) {
+		layout();
+		final int[] starts = _lineStarts.items;
+		int low = 0, high = _lineStarts.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (starts[mid] <= index) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	public float getLineHeight() {
+		return _font.getHeight() + _leading;
+	}
+
+	/**
+	 * 返回纵向位置y(相对文字顶部)所在的行
+	 * 
+	 * @param y
+	 * @return
+	 */
+	public int getLineAt(float y) {
+		final int count = getLineCount();
+		final int line = (int) (y / getLineHeight());
+		return MathUtils.max(0, MathUtils.min(count - 1, line));
+	}
+
+	/**
+	 * 返回在指定高度的视口内最多可见的行数
+	 * 
+	 * @param viewHeight
+	 * @return
+	 */
+	public int getVisibleLineCount(float viewHeight) {
+		return MathUtils.max(1, MathUtils.iceil(viewHeight / getLineHeight()) + 1);
+	}
+
+	public float getWidth() {
+		layout();
+		return _maxWidths.length == 0 ? 0 : _maxWidths.get(_maxWidths.length - 1);
+	}
+
+	public float getHeight() {
+		final int count = getLineCount();
+		return count * _font.getHeight() + (count - 1) * _leading;
+	}
+
+	public float measure(CharSequence chars) {
+		return _advances.measure(chars);
+	}
+
+	/**
+	 * 累计重排的行数(可用于确认增量更新是否生效)
+	 * 
+	 * @return
+	 */
+	public int getReflowCount() {
+		return _reflowCount;
+	}
+
+	/**
+	 * 只绘制滚动位置scrollY处,高为viewHeight的视口内可见的行
+	 * 
+	 * @param g
+	 * @param x
+	 * @param y
+	 * @param scrollY
+	 * @param viewHeight
+	 * @param color
+	 */
+	public void draw(GLEx g, float x, float y, float scrollY, float viewHeight, LColor color) {
+		final int count = getLineCount();
+		final float lineHeight = getLineHeight();
+		final int first = getLineAt(scrollY);
+		final int last = MathUtils.min(count, first + getVisibleLineCount(viewHeight));
+		for (int i = first; i < last; i++) {
+			final float lineY = i * lineHeight - scrollY;
+			if (lineY + lineHeight < 0 || lineY > viewHeight) {
+				continue;
+			}
+			if (_lineEnds.get(i) > _lineStarts.get(i)) {
+				_font.drawString(g, getLine(i), x, y + lineY, color);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+
+}
@@ -120,6 +120,8 @@ public class Ellipse extends Shape {
 
 		float start = _start;
 		float end = _end;
+		// 不超过一周的弧线(以弦闭合)必为凸多边形
+		this.convex = (end - start) <= 360f;
 
 		float cx = x + radius1;
 		float cy = y + radius2;
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.geom;
+
+/**
+ * 视锥体,由组合(投影*视图)矩阵提取六个裁剪平面,用于包围球与包围盒的可见性剔除
+ */
+public class Frustum {
+
+	public final static int LEFT = 0;
+
+	public final static int RIGHT = 1;
+
+	public final static int BOTTOM = 2;
+
+	public final static int TOP = 3;
+
+	public final static int NEAR = 4;
+
+	public final static int FAR = 5;
+
+	public final Plane[] planes = new Plane[6];
+
+	public Frustum() {
+		for (int i = 0; i < 6; i++) {
+			planes[i] = new Plane(new Vector3f(), 0);
+		}
+	}
+
+	public Frustum(Matrix4 combined) {
+		this();
+		update(combined);
+	}
+
+	/**
+	 * 以组合矩阵(clip = combined * world)更新六个平面,平面法线朝向视锥内部
+	 * 
+	 * @param combined
+	 * @return
+	 */
+	public Frustum update(Matrix4 combined) {
+		final float[] m = combined.val;
+		final float r0x = m[Matrix4.M00], r0y = m[Matrix4.M01], r0z = m[Matrix4.M02], r0w = m[Matrix4.M03];
+		final float r1x = m[Matrix4.M10], r1y = m[Matrix4.M11], r1z = m[Matrix4.M12], r1w = m[Matrix4.M13];
+		final float r2x = m[Matrix4.M20], r2y = m[Matrix4.M21], r2z = m[Matrix4.M22], r2w = m[Matrix4.M23];
+		final float r3x = m[Matrix4.M30], r3y = m[Matrix4.M31], r3z = m[Matrix4.M32], r3w = m[Matrix4.M33];
+		planes[LEFT].set(r3x + r0x, r3y + r0y, r3z + r0z, r3w + r0w);
+		planes[RIGHT].set(r3x - r0x, r3y - r0y, r3z - r0z, r3w - r0w);
+		planes[BOTTOM].set(r3x + r1x, r3y + r1y, r3z + r1z, r3w + r1w);
+		planes[TOP].set(r3x - r1x, r3y - r1y, r3z - r1z, r3w - r1w);
+		planes[NEAR].set(r3x + r2x, r3y + r2y, r3z + r2z, r3w + r2w);
+		planes[FAR].set(r3x - r2x, r3y - r2y, r3z - r2z, r3w - r2w);
+		return this;
+	}
+
+	public boolean pointInFrustum(float x, float y, float z) {
+		for (int i = 0; i < 6; i++) {
+			final Plane p = planes[i];
+			if (p.normal.x * x + p.normal.y * y + p.normal.z * z + p.d < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean pointInFrustum(Vector3f point) {
+		return pointInFrustum(point.x, point.y, point.z);
+	}
+
+	public boolean sphereInFrustum(float x, float y, float z, float radius) {
+		for (int i = 0; i < 6; i++) {
+			final Plane p = planes[i];
+			if (p.normal.x * x + p.normal.y * y + p.normal.z * z + p.d < -radius) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean sphereInFrustum(Vector3f center, float radius) {
+		return sphereInFrustum(center.x, center.y, center.z, radius);
+	}
+
+	public boolean boundsInFrustum(BoundingBox bounds) {
+		return boundsInFrustum(bounds.getCenterX(), bounds.getCenterY(), bounds.getCenterZ(),
+				bounds.getWidth() / 2f, bounds.getHeight() / 2f, bounds.getDepth() / 2f);
+	}
+
+	/**
+	 * 以中心与半尺寸判断轴对齐包围盒是否(部分)处于视锥之内
+	 */
+	public boolean boundsInFrustum(float x, float y, float z, float halfWidth, float halfHeight, float halfDepth) {
+		for (int i = 0; i < 6; i++) {
+			final Plane p = planes[i];
+			final float nx = p.normal.x, ny = p.normal.y, nz = p.normal.z;
+			final float r = halfWidth * (nx < 0 ? -nx : nx) + halfHeight * (ny < 0 ? -ny : ny)
+					+ halfDepth * (nz < 0 ? -nz : nz);
+			if (nx * x + ny * y + nz * z + p.d < -r) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -49,22 +49,27 @@ public class RectBox extends Shape implements BoxSize {
 	private Matrix4 _matrix;
 
 	public RectBox() {
+		this.convex = true;
 		setBounds(0, 0, 0, 0);
 	}
 
 	public RectBox(int x, int y, int width, int height) {
+		this.convex = true;
 		setBounds(x, y, width, height);
 	}
 
 	public RectBox(float x, float y, float width, float height) {
+		this.convex = true;
 		setBounds(x, y, width, height);
 	}
 
 	public RectBox(double x, double y, double width, double height) {
+		this.convex = true;
 		setBounds(x, y, width, height);
 	}
 
 	public RectBox(RectBox rect) {
+		this.convex = true;
 		setBounds(rect.x, rect.y, rect.width, rect.height);
 	}
 
@@ -68,6 +68,25 @@ public abstract class Shape implements Serializable, IArray, XY {
 
 	protected ShapeEntity entity;
 
+	// 由构建时即可确定为凸多边形的子类设置,用于相交检测的快速路径
+	protected boolean convex;
+
+	// 边数乘积超过此值时使用扫描线检测
+	private final static int SWEEP_EDGE_PAIRS = 1024;
+
+	// 包围盒与分离轴剔除时的相对容差,保证剔除结果与逐边检测一致
+	private final static float EPSILON = 1e-5f;
+
+	private transient float[] _boundsPoints;
+
+	private transient int _boundsLength;
+
+	private transient float _boundsX, _boundsY;
+
+	private transient float _boundsMinX, _boundsMinY, _boundsMaxX, _boundsMaxY, _boundsExtent, _boundsOrient;
+
+	private transient boolean _convexKnown, _convexValue;
+
 	public Shape() {
 		pointsDirty = true;
 		scaleX = scaleY = 1f;
@@ -113,6 +132,7 @@ public abstract class Shape implements Serializable, IArray, XY {
 			for (int i = 0; i < points.length / 2; i++) {
 				points[i * 2] += dx;
 			}
+			_boundsPoints = null;
 			center[0] += dx;
 			x += dx;
 			maxX += dx;
@@ -131,6 +151,7 @@ public abstract class Shape implements Serializable, IArray, XY {
 			for (int i = 0; i < points.length / 2; i++) {
 				points[(i * 2) + 1] += dy;
 			}
+			_boundsPoints = null;
 			center[1] += dy;
 			y += dy;
 			maxY += dy;
@@ -259,12 +280,25 @@ public abstract class Shape implements Serializable, IArray, XY {
 	}
 
 	public boolean contains(Shape other) {
+		if (other == null) {
+			return false;
+		}
+		final float[] thatPoints = other.getPoints();
+		checkPoints();
+		if (thatPoints.length > 0 && points.length > 0) {
+			other.updateBounds();
+			updateBounds();
+			// 任一点在包围盒外时contains(x,y)必然为false
+			if (other._boundsMinX < _boundsMinX || other._boundsMaxX > _boundsMaxX || other._boundsMinY < _boundsMinY
+					|| other._boundsMaxY > _boundsMaxY) {
+				return false;
+			}
+		}
 		if (other.intersects(this)) {
 			return false;
 		}
-		for (int i = 0; i < other.getPointCount(); i++) {
-			float[] pt = other.getPoint(i);
-			if (!contains(pt[0], pt[1])) {
+		for (int i = 0; i < thatPoints.length; i += 2) {
+			if (!contains(thatPoints[i], thatPoints[i + 1])) {
 				return false;
 			}
 		}
@@ -321,6 +355,10 @@ public abstract class Shape implements Serializable, IArray, XY {
 		if (points.length == 0) {
 			return false;
 		}
+		updateBounds();
+		if (x < _boundsMinX || x > _boundsMaxX || y < _boundsMinY || y > _boundsMaxY) {
+			return false;
+		}
 
 		boolean result = false;
 		float xnew, ynew;
@@ -362,13 +400,13 @@ public abstract class Shape implements Serializable, IArray, XY {
 
 		checkPoints();
 
-		boolean result = false;
-		float points[] = getPoints();
-		float thatPoints[] = shape.getPoints();
+		final float[] points = getPoints();
+		final float[] thatPoints = shape.getPoints();
+		if (points.length == 0 || thatPoints.length == 0) {
+			return false;
+		}
 		int length = points.length;
 		int thatLength = thatPoints.length;
-		float unknownA;
-		float unknownB;
 
 		if (!closed()) {
 			length -= 2;
@@ -376,39 +414,359 @@ public abstract class Shape implements Serializable, IArray, XY {
 		if (!shape.closed()) {
 			thatLength -= 2;
 		}
+		if (length <= 0 || thatLength <= 0) {
+			return false;
+		}
+
+		// 包围盒不相交时,任何边都不可能相交
+		updateBounds();
+		shape.updateBounds();
+		final float tolerance = EPSILON * (MathUtils.max(_boundsExtent, shape._boundsExtent) + 1f);
+		if (_boundsMaxX < shape._boundsMinX - tolerance || shape._boundsMaxX < _boundsMinX - tolerance
+				|| _boundsMaxY < shape._boundsMinY - tolerance || shape._boundsMaxY < _boundsMinY - tolerance) {
+			return false;
+		}
+
+		// 边数较多时使用扫描线,避免逐边的平方级检测
+		if ((length / 2) * (thatLength / 2) > SWEEP_EDGE_PAIRS) {
+			return sweepIntersects(points, length, thatPoints, thatLength, tolerance);
+		}
+
+		// 两个闭合的凸多边形在逐边检测的同时检查双方的边法线,找到分离轴即可提前排除
+		final boolean convexPair = length == points.length && thatLength == thatPoints.length
+				&& points.length >= 6 && thatPoints.length >= 6 && _boundsOrient != 0 && shape._boundsOrient != 0
+				&& convexPoints() && shape.convexPoints();
 
 		for (int i = 0; i < length; i += 2) {
 			int iNext = i + 2;
 			if (iNext >= points.length) {
 				iNext = 0;
 			}
-
+			if (convexPair && (separated(points, _boundsOrient, i, thatPoints, tolerance)
+					|| (i < thatLength && separated(thatPoints, shape._boundsOrient, i, points, tolerance)))) {
+				return false;
+			}
 			for (int j = 0; j < thatLength; j += 2) {
 				int jNext = j + 2;
 				if (jNext >= thatPoints.length) {
 					jNext = 0;
 				}
+				if (edgesIntersect(points, i, iNext, thatPoints, j, jNext)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
 
-				unknownA = (((points[iNext] - points[i]) * (float) (thatPoints[j + 1] - points[i + 1]))
-						- ((points[iNext + 1] - points[i + 1]) * (thatPoints[j] - points[i])))
-						/ (((points[iNext + 1] - points[i + 1]) * (thatPoints[jNext] - thatPoints[j]))
-								- ((points[iNext] - points[i]) * (thatPoints[jNext + 1] - thatPoints[j + 1])));
-				unknownB = (((thatPoints[jNext] - thatPoints[j]) * (float) (thatPoints[j + 1] - points[i + 1]))
-						- ((thatPoints[jNext + 1] - thatPoints[j + 1]) * (thatPoints[j] - points[i])))
-						/ (((points[iNext + 1] - points[i + 1]) * (thatPoints[jNext] - thatPoints[j]))
-								- ((points[iNext] - points[i]) * (thatPoints[jNext + 1] - thatPoints[j + 1])));
-
-				if (unknownA >= 0 && unknownA <= 1 && unknownB >= 0 && unknownB <= 1) {
-					result = true;
-					break;
+	/**
+	 * 判断两条边是否相交(参数方程求交,与旧有的逐边检测完全一致)
+	 */
+	private static boolean edgesIntersect(float[] points, int i, int iNext, float[] thatPoints, int j, int jNext) {
+		final float unknownA = (((points[iNext] - points[i]) * (float) (thatPoints[j + 1] - points[i + 1]))
+				- ((points[iNext + 1] - points[i + 1]) * (thatPoints[j] - points[i])))
+				/ (((points[iNext + 1] - points[i + 1]) * (thatPoints[jNext] - thatPoints[j]))
+						- ((points[iNext] - points[i]) * (thatPoints[jNext + 1] - thatPoints[j + 1])));
+		final float unknownB = (((thatPoints[jNext] - thatPoints[j]) * (float) (thatPoints[j + 1] - points[i + 1]))
+				- ((thatPoints[jNext + 1] - thatPoints[j + 1]) * (thatPoints[j] - points[i])))
+				/ (((points[iNext + 1] - points[i + 1]) * (thatPoints[jNext] - thatPoints[j]))
+						- ((points[iNext] - points[i]) * (thatPoints[jNext + 1] - thatPoints[j + 1])));
+		return unknownA >= 0 && unknownA <= 1 && unknownB >= 0 && unknownB <= 1;
+	}
+
+	/**
+	 * 凸多边形poly的第i条边是否为分离轴,即other的全部顶点都严格位于该边外侧(留有浮点误差余量)
+	 */
+	private static boolean separated(float[] poly, float orient, int i, float[] other, float tolerance) {
+		final int n = (i + 2 == poly.length) ? 0 : i + 2;
+		final float ex = poly[n] - poly[i];
+		final float ey = poly[n + 1] - poly[i + 1];
+		if (ex == 0 && ey == 0) {
+			return false;
+		}
+		final float eps = tolerance * (MathUtils.abs(ex) + MathUtils.abs(ey));
+		for (int k = 0; k < other.length; k += 2) {
+			if ((ex * (other[k + 1] - poly[i + 1]) - ey * (other[k] - poly[i])) * orient >= -eps) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 边数较多时,先以对方包围盒筛选各自的边,再按x坐标排序扫描,只检测x与y范围重叠的边对
+	 */
+	private static boolean sweepIntersects(float[] points, int length, float[] thatPoints, int thatLength,
+			float tolerance) {
+		final float[] boundsA = edgeBounds(thatPoints, thatLength);
+		final float[] boundsB = edgeBounds(points, length);
+		final float[] edgesA = collectEdges(points, length, boundsA, tolerance);
+		final float[] edgesB = collectEdges(thatPoints, thatLength, boundsB, tolerance);
+		final int countA = (int) edgesA[0];
+		final int countB = (int) edgesB[0];
+		if (countA == 0 || countB == 0) {
+			return false;
+		}
+		final int[] orderA = sortEdges(edgesA, countA);
+		final int[] orderB = sortEdges(edgesB, countB);
+		final int[] activeA = new int[countA];
+		final int[] activeB = new int[countB];
+		int sizeA = 0, sizeB = 0;
+		int ia = 0, ib = 0;
+		while (ia < countA || ib < countB) {
+			final boolean takeA = ib >= countB
+					|| (ia < countA && edgeValue(edgesA, orderA[ia], 0) <= edgeValue(edgesB, orderB[ib], 0));
+			final float[] edges = takeA ? edgesA : edgesB;
+			final int edge = takeA ? orderA[ia++] : orderB[ib++];
+			final float minX = edgeValue(edges, edge, 0) - tolerance;
+			final float minY = edgeValue(edges, edge, 1) - tolerance;
+			final float maxY = edgeValue(edges, edge, 3) + tolerance;
+			final float[] others = takeA ? edgesB : edgesA;
+			final int[] active = takeA ? activeB : activeA;
+			int size = takeA ? sizeB : sizeA;
+			for (int k = 0; k < size;) {
+				final int other = active[k];
+				if (edgeValue(others, other, 2) < minX) {
+					active[k] = active[--size];
+					continue;
 				}
+				if (edgeValue(others, other, 1) <= maxY && edgeValue(others, other, 3) >= minY) {
+					final boolean hit;
+					if (takeA) {
+						hit = testEdges(points, edgeIndex(edgesA, edge), thatPoints, edgeIndex(edgesB, other));
+					} else {
+						hit = testEdges(points, edgeIndex(edgesA, other), thatPoints, edgeIndex(edgesB, edge));
+					}
+					if (hit) {
+						return true;
+					}
+				}
+				k++;
 			}
-			if (result) {
-				break;
+			if (takeA) {
+				sizeB = size;
+				activeA[sizeA++] = edge;
+			} else {
+				sizeA = size;
+				activeB[sizeB++] = edge;
 			}
 		}
+		return false;
+	}
 
-		return result;
+	private static boolean testEdges(float[] points, int i, float[] thatPoints, int j) {
+		int iNext = i + 2;
+		if (iNext >= points.length) {
+			iNext = 0;
+		}
+		int jNext = j + 2;
+		if (jNext >= thatPoints.length) {
+			jNext = 0;
+		}
+		return edgesIntersect(points, i, iNext, thatPoints, j, jNext);
+	}
+
+	private static float[] edgeBounds(float[] points, int length) {
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		for (int i = 0; i < length; i += 2) {
+			int n = i + 2;
+			if (n >= points.length) {
+				n = 0;
+			}
+			minX = MathUtils.min(minX, MathUtils.min(points[i], points[n]));
+			maxX = MathUtils.max(maxX, MathUtils.max(points[i], points[n]));
+			minY = MathUtils.min(minY, MathUtils.min(points[i + 1], points[n + 1]));
+			maxY = MathUtils.max(maxY, MathUtils.max(points[i + 1], points[n + 1]));
+		}
+		return new float[] { minX, minY, maxX, maxY };
+	}
+
+	/**
+	 * 收集与bounds重叠的边,结果[0]为数量,之后每5个值为一条边(minX,minY,maxX,maxY,起点索引)
+	 */
+	private static float[] collectEdges(float[] points, int length, float[] bounds, float tolerance) {
+		final float[] edges = new float[1 + (length / 2) * 5];
+		int count = 0;
+		for (int i = 0; i < length; i += 2) {
+			int n = i + 2;
+			if (n >= points.length) {
+				n = 0;
+			}
+			final float minX = MathUtils.min(points[i], points[n]);
+			final float maxX = MathUtils.max(points[i], points[n]);
+			final float minY = MathUtils.min(points[i + 1], points[n + 1]);
+			final float maxY = MathUtils.max(points[i + 1], points[n + 1]);
+			if (maxX < bounds[0] - tolerance || minX > bounds[2] + tolerance || maxY < bounds[1] - tolerance
+					|| minY > bounds[3] + tolerance) {
+				continue;
+			}
+			final int idx = 1 + count * 5;
+			edges[idx] = minX;
+			edges[idx + 1] = minY;
+			edges[idx + 2] = maxX;
+			edges[idx + 3] = maxY;
+			edges[idx + 4] = i;
+			count++;
+		}
+		edges[0] = count;
+		return edges;
+	}
+
+	private static float edgeValue(float[] edges, int edge, int field) {
+		return edges[1 + edge * 5 + field];
+	}
+
+	private static int edgeIndex(float[] edges, int edge) {
+		return (int) edges[1 + edge * 5 + 4];
+	}
+
+	private static int[] sortEdges(final float[] edges, int count) {
+		final int[] order = new int[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		sortEdges(edges, order, 0, count - 1);
+		return order;
+	}
+
+	private static void sortEdges(float[] edges, int[] order, int lo, int hi) {
+		while (hi - lo > 16) {
+			final float pivot = edgeValue(edges, order[(lo + hi) >>> 1], 0);
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (edgeValue(edges, order[i], 0) < pivot) {
+					i++;
+				}
+				while (edgeValue(edges, order[j], 0) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					final int tmp = order[i];
+					order[i++] = order[j];
+					order[j--] = tmp;
+				}
+			}
+			if (j - lo < hi - i) {
+				sortEdges(edges, order, lo, j);
+				lo = i;
+			} else {
+				sortEdges(edges, order, i, hi);
+				hi = j;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++) {
+			final int v = order[i];
+			final float key = edgeValue(edges, v, 0);
+			int j = i - 1;
+			while (j >= lo && edgeValue(edges, order[j], 0) > key) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = v;
+		}
+	}
+
+	/**
+	 * 形状是否为凸多边形(RectBox,Ellipse,Circle,Triangle2f在构建时即标记为凸,其它形状按顶点计算并缓存)
+	 * 
+	 * @return
+	 */
+	public boolean isConvex() {
+		checkPoints();
+		return convexPoints();
+	}
+
+	private boolean convexPoints() {
+		if (convex) {
+			return true;
+		}
+		updateBounds();
+		if (!_convexKnown) {
+			_convexValue = computeConvex(points);
+			_convexKnown = true;
+		}
+		return _convexValue;
+	}
+
+	private static boolean computeConvex(float[] points) {
+		if (points == null) {
+			return false;
+		}
+		final int size = points.length;
+		if (size < 6) {
+			return false;
+		}
+		float sign = 0;
+		int xChanges = 0;
+		float lastDx = 0;
+		for (int i = 0; i < size; i += 2) {
+			final int n = (i + 2) % size;
+			final int m = (i + 4) % size;
+			final float dx1 = points[n] - points[i];
+			final float dy1 = points[n + 1] - points[i + 1];
+			final float dx2 = points[m] - points[n];
+			final float dy2 = points[m + 1] - points[n + 1];
+			final float cross = dx1 * dy2 - dy1 * dx2;
+			if (cross != 0) {
+				if (sign == 0) {
+					sign = cross;
+				} else if ((sign > 0) != (cross > 0)) {
+					return false;
+				}
+			}
+			// x方向的转折超过两次时为自相交(比如五角星)
+			if (dx1 != 0) {
+				if (lastDx != 0 && (lastDx > 0) != (dx1 > 0)) {
+					xChanges++;
+				}
+				lastDx = dx1;
+			}
+		}
+		return sign != 0 && xChanges <= 2;
+	}
+
+	/**
+	 * 按当前顶点计算包围盒,顶点数组与位置不变时直接使用缓存.
+	 * 
+	 * 子类原地改写points后需令pointsDirty为true(checkPoints会清除缓存),直接修改getPoints()返回的数组则需调用resetBounds
+	 */
+	private void updateBounds() {
+		final float[] pts = points;
+		if (!pointsDirty && pts == _boundsPoints && _boundsX == x && _boundsY == y && pts != null
+				&& _boundsLength == pts.length) {
+			return;
+		}
+		_boundsPoints = pts;
+		_boundsX = x;
+		_boundsY = y;
+		_convexKnown = false;
+		if (pts == null || pts.length == 0) {
+			_boundsLength = 0;
+			_boundsMinX = _boundsMinY = _boundsMaxX = _boundsMaxY = _boundsExtent = _boundsOrient = 0;
+			return;
+		}
+		_boundsLength = pts.length;
+		float minX = pts[0], maxX = pts[0];
+		float minY = pts[1], maxY = pts[1];
+		float area = 0;
+		for (int i = 2; i < pts.length; i += 2) {
+			final float px = pts[i];
+			final float py = pts[i + 1];
+			minX = px < minX ? px : minX;
+			maxX = px > maxX ? px : maxX;
+			minY = py < minY ? py : minY;
+			maxY = py > maxY ? py : maxY;
+			area += (pts[i - 2] - pts[0]) * (py - pts[1]) - (px - pts[0]) * (pts[i - 1] - pts[1]);
+		}
+		_boundsOrient = area > 0 ? 1f : (area < 0 ? -1f : 0f);
+		_boundsMinX = minX;
+		_boundsMaxX = maxX;
+		_boundsMinY = minY;
+		_boundsMaxY = maxY;
+		_boundsExtent = MathUtils.max(MathUtils.max(MathUtils.abs(minX), MathUtils.abs(maxX)),
+				MathUtils.max(MathUtils.abs(minY), MathUtils.abs(maxY)));
 	}
 
 	public boolean hasVertex(float x, float y) {
@@ -525,6 +883,7 @@ public abstract class Shape implements Serializable, IArray, XY {
 
 	protected synchronized final void checkPoints() {
 		if (pointsDirty) {
+			_boundsPoints = null;
 			createPoints();
 			findCenter();
 			calculateRadius();
@@ -631,6 +990,13 @@ public abstract class Shape implements Serializable, IArray, XY {
 		return points == null ? 0 : points.length;
 	}
 
+	/**
+	 * 清除碰撞检测使用的包围盒缓存(直接改写getPoints()返回的数组后调用)
+	 */
+	public void resetBounds() {
+		_boundsPoints = null;
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return size() == 0;
@@ -639,6 +1005,7 @@ public abstract class Shape implements Serializable, IArray, XY {
 	@Override
 	public void clear() {
 		points = new float[0];
+		_boundsPoints = null;
 		center = new float[0];
 		x = 0;
 		y = 0;
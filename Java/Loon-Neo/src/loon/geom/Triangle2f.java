@@ -38,6 +38,7 @@ public class Triangle2f extends Shape implements Triangle {
 	public float[] ypoints;
 
 	public Triangle2f() {
+		this.convex = true;
 		xpoints = new float[3];
 		ypoints = new float[3];
 	}
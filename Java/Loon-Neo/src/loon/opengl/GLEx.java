@@ -115,6 +115,8 @@ public class GLEx extends PixmapFImpl implements LRelease {
 
 	private float offsetStringX = 0, offsetStringY = 0;
 
+	private float clipOffsetX = 0, clipOffsetY = 0;
+
 	/**
 	 * 创建一个默认的GL渲染封装，将其作为默认的渲染器来使用。与0.5以前版本不同的是,此GLEX将不再唯一，允许复数构建.
 	 * 如果使用HTML5，则禁止非纹理的渲染方式（因为部分浏览器不支持，会自动用纹理方式替代，但是glBegin到glEnd的
@@ -204,6 +206,62 @@ public class GLEx extends PixmapFImpl implements LRelease {
 		return batch;
 	}
 
+	/**
+	 * 暂停当前渲染(提交已有内容并关闭剪切),以便临时向其它渲染目标绘制,完成后需调用resume恢复
+	 * 
+	 * @return
+	 */
+	public GLEx suspend() {
+		if (isClosed) {
+			return this;
+		}
+		if (batch == null) {
+			return this;
+		}
+		if (batch.running()) {
+			batch.end();
+		}
+		if (scissorDepth > 0) {
+			GLUtils.disablecissorTest(batch.gl);
+		}
+		return this;
+	}
+
+	/**
+	 * 恢复suspend前的渲染目标,剪切区域与混合模式
+	 * 
+	 * @return
+	 */
+	public GLEx resume() {
+		if (isClosed) {
+			return this;
+		}
+		if (batch == null) {
+			return this;
+		}
+		begin();
+		if (scissorDepth > 0) {
+			RectBox r = scissors.get(scissorDepth - 1);
+			batch.gl.glScissor(r.x(), r.y(), r.width(), r.height());
+			GLUtils.enablecissorTest(batch.gl);
+		}
+		GLUtils.setBlendMode(batch.gl, lastBrush.blend);
+		return this;
+	}
+
+	/**
+	 * 剪切区域的坐标偏移(绘制坐标经平移后再绘制到纹理时使用)
+	 * 
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public GLEx setClipOffset(float x, float y) {
+		this.clipOffsetX = x;
+		this.clipOffsetY = y;
+		return this;
+	}
+
 	/**
 	 * 替换当前Batch的着色器设置
 	 * 
@@ -441,8 +499,8 @@ public class GLEx extends PixmapFImpl implements LRelease {
 		if (isClosed) {
 			return false;
 		}
-		int x = (int) (x1 * LSystem.getScaleWidth());
-		int y = (int) (y1 * LSystem.getScaleHeight());
+		int x = (int) ((x1 + clipOffsetX) * LSystem.getScaleWidth());
+		int y = (int) ((y1 + clipOffsetY) * LSystem.getScaleHeight());
 		int width = (int) (w1 * LSystem.getScaleWidth());
 		int height = (int) (h1 * LSystem.getScaleHeight());
 		batch.flush();
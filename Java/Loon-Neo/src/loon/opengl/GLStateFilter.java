@@ -0,0 +1,1728 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.opengl;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import loon.utils.IntMap;
+
+/**
+ * GL状态过滤器,包装实际的GL20实现,记录当前绑定的着色器程序,各纹理单元绑定的纹理,混合函数与方程,开关状态,裁剪区域,视口,
+ * 以及每个着色器程序的uniform数值,丢弃不会改变GL状态的重复调用.
+ *
+ * 全部GL调用都应经由此对象(即Graphics.gl)发出,若有代码绕过它直接修改了GL状态,需要调用invalidate使记录失效.
+ */
+public class GLStateFilter extends GL20 {
+
+	private final static int MAX_TEXTURE_UNITS = 32;
+
+	private final static int MAX_UNIFORM_LOCATION = 1024;
+
+	private final static int UNKNOWN = Integer.MIN_VALUE;
+
+	private final static int UNIFORM_NONE = 0;
+	private final static int UNIFORM_1I = 1;
+	private final static int UNIFORM_2I = 2;
+	private final static int UNIFORM_3I = 3;
+	private final static int UNIFORM_4I = 4;
+	private final static int UNIFORM_1F = 5;
+	private final static int UNIFORM_2F = 6;
+	private final static int UNIFORM_3F = 7;
+	private final static int UNIFORM_4F = 8;
+	private final static int UNIFORM_MAT3 = 9;
+	private final static int UNIFORM_MAT3_T = 10;
+	private final static int UNIFORM_MAT4 = 11;
+	private final static int UNIFORM_MAT4_T = 12;
+
+	/**
+	 * 单个着色器程序的uniform数值记录,以location为下标
+	 */
+	private static class UniformState {
+
+		int[] kinds = new int[16];
+
+		int[] values = new int[64];
+
+		float[][] matrices = new float[16][];
+
+		void ensure(int location) {
+			if (location >= kinds.length) {
+				int size = kinds.length;
+				while (size <= location) {
+					size <<= 1;
+				}
+				int[] newKinds = new int[size];
+				System.arraycopy(kinds, 0, newKinds, 0, kinds.length);
+				kinds = newKinds;
+				int[] newValues = new int[size * 4];
+				System.arraycopy(values, 0, newValues, 0, values.length);
+				values = newValues;
+				float[][] newMatrices = new float[size][];
+				System.arraycopy(matrices, 0, newMatrices, 0, matrices.length);
+				matrices = newMatrices;
+			}
+		}
+	}
+
+	/**
+	 * 若gl为GLStateFilter,返回其包装的实际GL20
+	 *
+	 * @param gl
+	 * @return
+	 */
+	public static GL20 unwrap(GL20 gl) {
+		return gl instanceof GLStateFilter ? ((GLStateFilter) gl).gl : gl;
+	}
+
+	private final GL20 gl;
+
+	private final IntMap<UniformState> programUniforms = new IntMap<UniformState>();
+
+	private final int[] boundTextures = new int[MAX_TEXTURE_UNITS];
+
+	private boolean filtering = true;
+
+	private int currentProgram;
+
+	private int boundProgram;
+
+	private UniformState currentUniforms;
+
+	private int activeUnit;
+
+	private int blendSrcRGB, blendDstRGB, blendSrcAlpha, blendDstAlpha;
+
+	private int blendModeRGB, blendModeAlpha;
+
+	private int capKnown, capEnabled;
+
+	private int scissorX, scissorY, scissorWidth, scissorHeight;
+
+	private int viewportX, viewportY, viewportWidth, viewportHeight;
+
+	private int colorMask;
+
+	private int depthMask;
+
+	private int clearColorR, clearColorG, clearColorB, clearColorA;
+
+	private long issuedCalls;
+
+	private long filteredCalls;
+
+	public GLStateFilter(GL20 gl) {
+		super(gl.bufs, gl.checkErrors);
+		this.gl = gl;
+		invalidate();
+	}
+
+	/**
+	 * 清空全部状态记录,此后每种状态的首次设置都会实际提交给GL
+	 */
+	public void invalidate() {
+		currentProgram = boundProgram = UNKNOWN;
+		currentUniforms = null;
+		programUniforms.clear();
+		activeUnit = UNKNOWN;
+		for (int i = 0; i < MAX_TEXTURE_UNITS; i++) {
+			boundTextures[i] = UNKNOWN;
+		}
+		blendSrcRGB = blendDstRGB = blendSrcAlpha = blendDstAlpha = UNKNOWN;
+		blendModeRGB = blendModeAlpha = UNKNOWN;
+		capKnown = capEnabled = 0;
+		scissorX = scissorY = scissorWidth = scissorHeight = UNKNOWN;
+		viewportX = viewportY = viewportWidth = viewportHeight = UNKNOWN;
+		colorMask = UNKNOWN;
+		depthMask = UNKNOWN;
+		clearColorR = clearColorG = clearColorB = clearColorA = UNKNOWN;
+	}
+
+	public GL20 getTarget() {
+		return gl;
+	}
+
+	public boolean isFiltering() {
+		return filtering;
+	}
+
+	/**
+	 * 为false时不再丢弃任何调用(状态仍会被记录),用于对比或排查问题
+	 *
+	 * @param filtering
+	 */
+	public void setFiltering(boolean filtering) {
+		this.filtering = filtering;
+	}
+
+	/**
+	 * 被记录的状态类调用中,实际提交给GL的次数
+	 *
+	 * @return
+	 */
+	public long getIssuedCalls() {
+		return issuedCalls;
+	}
+
+	/**
+	 * 被记录的状态类调用中,因状态未变而被丢弃的次数
+	 *
+	 * @return
+	 */
+	public long getFilteredCalls() {
+		return filteredCalls;
+	}
+
+	public void resetStats() {
+		issuedCalls = 0;
+		filteredCalls = 0;
+	}
+
+	private boolean filter(boolean same) {
+		if (same && filtering) {
+			filteredCalls++;
+			return true;
+		}
+		issuedCalls++;
+		return false;
+	}
+
+	private static int capBit(int cap) {
+		switch (cap) {
+		case GL_BLEND:
+			return 1;
+		case GL_SCISSOR_TEST:
+			return 1 << 1;
+		case GL_DEPTH_TEST:
+			return 1 << 2;
+		case GL_CULL_FACE:
+			return 1 << 3;
+		case GL_DITHER:
+			return 1 << 4;
+		case GL_STENCIL_TEST:
+			return 1 << 5;
+		case GL_POLYGON_OFFSET_FILL:
+			return 1 << 6;
+		case GL_SAMPLE_ALPHA_TO_COVERAGE:
+			return 1 << 7;
+		case GL_SAMPLE_COVERAGE:
+			return 1 << 8;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * 解除程序绑定(glUseProgram(0))会被延迟,直到有依赖当前程序的调用(绘制,设置uniform,删除程序)时才实际提交
+	 */
+	private void flushProgram() {
+		if (currentProgram != boundProgram) {
+			boundProgram = currentProgram;
+			issuedCalls++;
+			gl.glUseProgram(boundProgram);
+		}
+	}
+
+	private UniformState uniformState(int location) {
+		flushProgram();
+		if (currentProgram <= 0 || location < 0 || location >= MAX_UNIFORM_LOCATION) {
+			return null;
+		}
+		UniformState state = currentUniforms;
+		if (state == null) {
+			state = new UniformState();
+			programUniforms.put(currentProgram, state);
+			currentUniforms = state;
+		}
+		state.ensure(location);
+		return state;
+	}
+
+	private boolean sameUniform(int location, int kind, int v0, int v1, int v2, int v3) {
+		UniformState state = uniformState(location);
+		if (state == null) {
+			issuedCalls++;
+			return false;
+		}
+		final int idx = location << 2;
+		final int[] values = state.values;
+		if (filter(state.kinds[location] == kind && values[idx] == v0 && values[idx + 1] == v1
+				&& values[idx + 2] == v2 && values[idx + 3] == v3)) {
+			return true;
+		}
+		state.kinds[location] = kind;
+		values[idx] = v0;
+		values[idx + 1] = v1;
+		values[idx + 2] = v2;
+		values[idx + 3] = v3;
+		return false;
+	}
+
+	private boolean sameUniform(int location, int kind, float v0, float v1, float v2, float v3) {
+		return sameUniform(location, kind, Float.floatToRawIntBits(v0), Float.floatToRawIntBits(v1),
+				Float.floatToRawIntBits(v2), Float.floatToRawIntBits(v3));
+	}
+
+	private boolean sameMatrix(int location, int kind, int count, float[] value, int offset, FloatBuffer buffer) {
+		UniformState state = count == 1 ? uniformState(location) : null;
+		if (state == null) {
+			forgetUniform(location);
+			issuedCalls++;
+			return false;
+		}
+		final int size = (kind == UNIFORM_MAT4 || kind == UNIFORM_MAT4_T) ? 16 : 9;
+		float[] matrix = state.matrices[location];
+		if (matrix == null) {
+			matrix = state.matrices[location] = new float[16];
+		}
+		final int pos = buffer == null ? offset : buffer.position();
+		boolean same = state.kinds[location] == kind;
+		if (same) {
+			for (int i = 0; i < size; i++) {
+				float v = buffer == null ? value[pos + i] : buffer.get(pos + i);
+				if (Float.floatToRawIntBits(v) != Float.floatToRawIntBits(matrix[i])) {
+					same = false;
+					break;
+				}
+			}
+		}
+		if (filter(same)) {
+			return true;
+		}
+		for (int i = 0; i < size; i++) {
+			matrix[i] = buffer == null ? value[pos + i] : buffer.get(pos + i);
+		}
+		state.kinds[location] = kind;
+		return false;
+	}
+
+	private void forgetUniform(int location) {
+		flushProgram();
+		UniformState state = currentUniforms;
+		if (state != null && location >= 0 && location < state.kinds.length) {
+			state.kinds[location] = UNIFORM_NONE;
+		}
+	}
+
+	private void forgetTexture(int texture) {
+		for (int i = 0; i < MAX_TEXTURE_UNITS; i++) {
+			if (boundTextures[i] == texture) {
+				boundTextures[i] = 0;
+			}
+		}
+	}
+
+	private void forgetTextures(int n, IntBuffer textures) {
+		final int pos = textures.position();
+		for (int i = 0; i < n; i++) {
+			forgetTexture(textures.get(pos + i));
+		}
+	}
+
+	private void forgetProgram(int program) {
+		programUniforms.remove(program);
+		if (currentProgram == program) {
+			currentProgram = UNKNOWN;
+			currentUniforms = null;
+		}
+		if (boundProgram == program) {
+			boundProgram = UNKNOWN;
+		}
+	}
+
+	@Override
+	public void glUseProgram(int program) {
+		if (program == 0 && filtering && currentProgram != UNKNOWN) {
+			// 延迟解除绑定
+			filteredCalls++;
+			currentProgram = 0;
+			currentUniforms = null;
+			return;
+		}
+		if (program != currentProgram) {
+			currentProgram = program;
+			currentUniforms = programUniforms.get(program);
+		}
+		if (filter(program == boundProgram)) {
+			return;
+		}
+		boundProgram = program;
+		gl.glUseProgram(program);
+	}
+
+	@Override
+	public int glCreateProgram() {
+		int program = gl.glCreateProgram();
+		forgetProgram(program);
+		return program;
+	}
+
+	@Override
+	public void glLinkProgram(int program) {
+		forgetProgram(program);
+		gl.glLinkProgram(program);
+	}
+
+	@Override
+	public void glDeleteProgram(int program) {
+		flushProgram();
+		forgetProgram(program);
+		gl.glDeleteProgram(program);
+	}
+
+	@Override
+	public void glDrawArrays(int mode, int first, int count) {
+		flushProgram();
+		gl.glDrawArrays(mode, first, count);
+	}
+
+	@Override
+	public void glDrawElements(int mode, int count, int type, Buffer indices) {
+		flushProgram();
+		gl.glDrawElements(mode, count, type, indices);
+	}
+
+	@Override
+	public void glDrawElements(int mode, int count, int type, int offset) {
+		flushProgram();
+		gl.glDrawElements(mode, count, type, offset);
+	}
+
+	@Override
+	public void glGetIntegerv(int pname, IntBuffer params) {
+		if (pname == GL_CURRENT_PROGRAM) {
+			flushProgram();
+		}
+		gl.glGetIntegerv(pname, params);
+	}
+
+	@Override
+	public void glGetIntegerv(int pname, int[] params, int offset) {
+		if (pname == GL_CURRENT_PROGRAM) {
+			flushProgram();
+		}
+		gl.glGetIntegerv(pname, params, offset);
+	}
+
+	@Override
+	public void glActiveTexture(int texture) {
+		final int unit = texture - GL_TEXTURE0;
+		if (filter(unit == activeUnit)) {
+			return;
+		}
+		activeUnit = (unit >= 0 && unit < MAX_TEXTURE_UNITS) ? unit : UNKNOWN;
+		gl.glActiveTexture(texture);
+	}
+
+	@Override
+	public void glBindTexture(int target, int texture) {
+		if (target == GL_TEXTURE_2D && activeUnit != UNKNOWN) {
+			if (filter(boundTextures[activeUnit] == texture)) {
+				return;
+			}
+			boundTextures[activeUnit] = texture;
+		} else {
+			issuedCalls++;
+		}
+		gl.glBindTexture(target, texture);
+	}
+
+	@Override
+	public void glDeleteTexture(int id) {
+		forgetTexture(id);
+		gl.glDeleteTexture(id);
+	}
+
+	@Override
+	public void glDeleteTextures(int n, int[] textures, int offset) {
+		for (int i = 0; i < n; i++) {
+			forgetTexture(textures[offset + i]);
+		}
+		gl.glDeleteTextures(n, textures, offset);
+	}
+
+	@Override
+	public void glDeleteTextures(int n, IntBuffer textures) {
+		forgetTextures(n, textures);
+		gl.glDeleteTextures(n, textures);
+	}
+
+	@Override
+	public void glBlendFunc(int sfactor, int dfactor) {
+		if (filter(blendSrcRGB == sfactor && blendDstRGB == dfactor && blendSrcAlpha == sfactor
+				&& blendDstAlpha == dfactor)) {
+			return;
+		}
+		blendSrcRGB = blendSrcAlpha = sfactor;
+		blendDstRGB = blendDstAlpha = dfactor;
+		gl.glBlendFunc(sfactor, dfactor);
+	}
+
+	@Override
+	public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		if (filter(blendSrcRGB == srcRGB && blendDstRGB == dstRGB && blendSrcAlpha == srcAlpha
+				&& blendDstAlpha == dstAlpha)) {
+			return;
+		}
+		blendSrcRGB = srcRGB;
+		blendDstRGB = dstRGB;
+		blendSrcAlpha = srcAlpha;
+		blendDstAlpha = dstAlpha;
+		gl.glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+	}
+
+	@Override
+	public void glBlendEquation(int mode) {
+		if (filter(blendModeRGB == mode && blendModeAlpha == mode)) {
+			return;
+		}
+		blendModeRGB = blendModeAlpha = mode;
+		gl.glBlendEquation(mode);
+	}
+
+	@Override
+	public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+		if (filter(blendModeRGB == modeRGB && blendModeAlpha == modeAlpha)) {
+			return;
+		}
+		blendModeRGB = modeRGB;
+		blendModeAlpha = modeAlpha;
+		gl.glBlendEquationSeparate(modeRGB, modeAlpha);
+	}
+
+	@Override
+	public void glEnable(int cap) {
+		final int bit = capBit(cap);
+		if (bit != 0) {
+			if (filter((capKnown & bit) != 0 && (capEnabled & bit) != 0)) {
+				return;
+			}
+			capKnown |= bit;
+			capEnabled |= bit;
+		} else {
+			issuedCalls++;
+		}
+		gl.glEnable(cap);
+	}
+
+	@Override
+	public void glDisable(int cap) {
+		final int bit = capBit(cap);
+		if (bit != 0) {
+			if (filter((capKnown & bit) != 0 && (capEnabled & bit) == 0)) {
+				return;
+			}
+			capKnown |= bit;
+			capEnabled &= ~bit;
+		} else {
+			issuedCalls++;
+		}
+		gl.glDisable(cap);
+	}
+
+	@Override
+	public void glScissor(int x, int y, int width, int height) {
+		if (filter(scissorX == x && scissorY == y && scissorWidth == width && scissorHeight == height)) {
+			return;
+		}
+		scissorX = x;
+		scissorY = y;
+		scissorWidth = width;
+		scissorHeight = height;
+		gl.glScissor(x, y, width, height);
+	}
+
+	@Override
+	public void glViewport(int x, int y, int width, int height) {
+		if (filter(viewportX == x && viewportY == y && viewportWidth == width && viewportHeight == height)) {
+			return;
+		}
+		viewportX = x;
+		viewportY = y;
+		viewportWidth = width;
+		viewportHeight = height;
+		gl.glViewport(x, y, width, height);
+	}
+
+	@Override
+	public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		final int mask = (red ? 1 : 0) | (green ? 2 : 0) | (blue ? 4 : 0) | (alpha ? 8 : 0);
+		if (filter(colorMask == mask)) {
+			return;
+		}
+		colorMask = mask;
+		gl.glColorMask(red, green, blue, alpha);
+	}
+
+	@Override
+	public void glDepthMask(boolean flag) {
+		final int mask = flag ? 1 : 0;
+		if (filter(depthMask == mask)) {
+			return;
+		}
+		depthMask = mask;
+		gl.glDepthMask(flag);
+	}
+
+	@Override
+	public void glClearColor(float red, float green, float blue, float alpha) {
+		final int r = Float.floatToRawIntBits(red);
+		final int g = Float.floatToRawIntBits(green);
+		final int b = Float.floatToRawIntBits(blue);
+		final int a = Float.floatToRawIntBits(alpha);
+		if (filter(clearColorR == r && clearColorG == g && clearColorB == b && clearColorA == a)) {
+			return;
+		}
+		clearColorR = r;
+		clearColorG = g;
+		clearColorB = b;
+		clearColorA = a;
+		gl.glClearColor(red, green, blue, alpha);
+	}
+
+	@Override
+	public void glUniform1i(int location, int x) {
+		if (sameUniform(location, UNIFORM_1I, x, 0, 0, 0)) {
+			return;
+		}
+		gl.glUniform1i(location, x);
+	}
+
+	@Override
+	public void glUniform2i(int location, int x, int y) {
+		if (sameUniform(location, UNIFORM_2I, x, y, 0, 0)) {
+			return;
+		}
+		gl.glUniform2i(location, x, y);
+	}
+
+	@Override
+	public void glUniform3i(int location, int x, int y, int z) {
+		if (sameUniform(location, UNIFORM_3I, x, y, z, 0)) {
+			return;
+		}
+		gl.glUniform3i(location, x, y, z);
+	}
+
+	@Override
+	public void glUniform4i(int location, int x, int y, int z, int w) {
+		if (sameUniform(location, UNIFORM_4I, x, y, z, w)) {
+			return;
+		}
+		gl.glUniform4i(location, x, y, z, w);
+	}
+
+	@Override
+	public void glUniform1f(int location, float x) {
+		if (sameUniform(location, UNIFORM_1F, x, 0f, 0f, 0f)) {
+			return;
+		}
+		gl.glUniform1f(location, x);
+	}
+
+	@Override
+	public void glUniform2f(int location, float x, float y) {
+		if (sameUniform(location, UNIFORM_2F, x, y, 0f, 0f)) {
+			return;
+		}
+		gl.glUniform2f(location, x, y);
+	}
+
+	@Override
+	public void glUniform3f(int location, float x, float y, float z) {
+		if (sameUniform(location, UNIFORM_3F, x, y, z, 0f)) {
+			return;
+		}
+		gl.glUniform3f(location, x, y, z);
+	}
+
+	@Override
+	public void glUniform4f(int location, float x, float y, float z, float w) {
+		if (sameUniform(location, UNIFORM_4F, x, y, z, w)) {
+			return;
+		}
+		gl.glUniform4f(location, x, y, z, w);
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+		if (sameMatrix(location, transpose ? UNIFORM_MAT3_T : UNIFORM_MAT3, count, null, 0, value)) {
+			return;
+		}
+		gl.glUniformMatrix3fv(location, count, transpose, value);
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+		if (sameMatrix(location, transpose ? UNIFORM_MAT3_T : UNIFORM_MAT3, count, value, offset, null)) {
+			return;
+		}
+		gl.glUniformMatrix3fv(location, count, transpose, value, offset);
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+		if (sameMatrix(location, transpose ? UNIFORM_MAT4_T : UNIFORM_MAT4, count, null, 0, value)) {
+			return;
+		}
+		gl.glUniformMatrix4fv(location, count, transpose, value);
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+		if (sameMatrix(location, transpose ? UNIFORM_MAT4_T : UNIFORM_MAT4, count, value, offset, null)) {
+			return;
+		}
+		gl.glUniformMatrix4fv(location, count, transpose, value, offset);
+	}
+
+	@Override
+	public void glDeleteBuffer(int id) {
+		gl.glDeleteBuffer(id);
+	}
+
+	@Override
+	public void glDeleteBuffers(int n, int[] buffers, int offset) {
+		gl.glDeleteBuffers(n, buffers, offset);
+	}
+
+	@Override
+	public void glDeleteFramebuffer(int id) {
+		gl.glDeleteFramebuffer(id);
+	}
+
+	@Override
+	public void glDeleteFramebuffers(int n, int[] framebuffers, int offset) {
+		gl.glDeleteFramebuffers(n, framebuffers, offset);
+	}
+
+	@Override
+	public void glDeleteRenderbuffer(int id) {
+		gl.glDeleteRenderbuffer(id);
+	}
+
+	@Override
+	public void glDeleteRenderbuffers(int n, int[] renderbuffers, int offset) {
+		gl.glDeleteRenderbuffers(n, renderbuffers, offset);
+	}
+
+	@Override
+	public int glGenBuffer() {
+		return gl.glGenBuffer();
+	}
+
+	@Override
+	public void glGenBuffers(int n, int[] buffers, int offset) {
+		gl.glGenBuffers(n, buffers, offset);
+	}
+
+	@Override
+	public int glGenFramebuffer() {
+		return gl.glGenFramebuffer();
+	}
+
+	@Override
+	public void glGenFramebuffers(int n, int[] framebuffers, int offset) {
+		gl.glGenFramebuffers(n, framebuffers, offset);
+	}
+
+	@Override
+	public int glGenRenderbuffer() {
+		return gl.glGenRenderbuffer();
+	}
+
+	@Override
+	public void glGenRenderbuffers(int n, int[] renderbuffers, int offset) {
+		gl.glGenRenderbuffers(n, renderbuffers, offset);
+	}
+
+	@Override
+	public int glGenTexture() {
+		return gl.glGenTexture();
+	}
+
+	@Override
+	public void glGenTextures(int n, int[] textures, int offset) {
+		gl.glGenTextures(n, textures, offset);
+	}
+
+	@Override
+	public void glGetAttachedShaders(int program, int maxcount, int[] count, int countOffset, int[] shaders,
+			int shadersOffset) {
+		gl.glGetAttachedShaders(program, maxcount, count, countOffset, shaders, shadersOffset);
+	}
+
+	@Override
+	public void glGetBooleanv(int pname, byte[] params, int offset) {
+		gl.glGetBooleanv(pname, params, offset);
+	}
+
+	@Override
+	public void glGetBufferParameteriv(int target, int pname, int[] params, int offset) {
+		gl.glGetBufferParameteriv(target, pname, params, offset);
+	}
+
+	@Override
+	public void glGetFloatv(int pname, float[] params, int offset) {
+		gl.glGetFloatv(pname, params, offset);
+	}
+
+	@Override
+	public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, int[] params, int offset) {
+		gl.glGetFramebufferAttachmentParameteriv(target, attachment, pname, params, offset);
+	}
+
+	@Override
+	public void glGetProgramBinary(int program, int bufsize, int[] length, int lengthOffset, int[] binaryformat,
+			int binaryformatOffset, Buffer binary) {
+		gl.glGetProgramBinary(program, bufsize, length, lengthOffset, binaryformat, binaryformatOffset, binary);
+	}
+
+	@Override
+	public void glGetProgramInfoLog(int program, int bufsize, int[] length, int lengthOffset, byte[] infolog,
+			int infologOffset) {
+		gl.glGetProgramInfoLog(program, bufsize, length, lengthOffset, infolog, infologOffset);
+	}
+
+	@Override
+	public void glGetProgramiv(int program, int pname, int[] params, int offset) {
+		gl.glGetProgramiv(program, pname, params, offset);
+	}
+
+	@Override
+	public void glGetRenderbufferParameteriv(int target, int pname, int[] params, int offset) {
+		gl.glGetRenderbufferParameteriv(target, pname, params, offset);
+	}
+
+	@Override
+	public void glGetShaderInfoLog(int shader, int bufsize, int[] length, int lengthOffset, byte[] infolog,
+			int infologOffset) {
+		gl.glGetShaderInfoLog(shader, bufsize, length, lengthOffset, infolog, infologOffset);
+	}
+
+	@Override
+	public void glGetShaderiv(int shader, int pname, int[] params, int offset) {
+		gl.glGetShaderiv(shader, pname, params, offset);
+	}
+
+	@Override
+	public void glGetTexParameterfv(int target, int pname, float[] params, int offset) {
+		gl.glGetTexParameterfv(target, pname, params, offset);
+	}
+
+	@Override
+	public void glGetTexParameteriv(int target, int pname, int[] params, int offset) {
+		gl.glGetTexParameteriv(target, pname, params, offset);
+	}
+
+	@Override
+	public void glGetUniformfv(int program, int location, float[] params, int offset) {
+		gl.glGetUniformfv(program, location, params, offset);
+	}
+
+	@Override
+	public void glGetUniformiv(int program, int location, int[] params, int offset) {
+		gl.glGetUniformiv(program, location, params, offset);
+	}
+
+	@Override
+	public void glGetVertexAttribfv(int index, int pname, float[] params, int offset) {
+		gl.glGetVertexAttribfv(index, pname, params, offset);
+	}
+
+	@Override
+	public void glGetVertexAttribiv(int index, int pname, int[] params, int offset) {
+		gl.glGetVertexAttribiv(index, pname, params, offset);
+	}
+
+	@Override
+	public void glTexParameterfv(int target, int pname, float[] params, int offset) {
+		gl.glTexParameterfv(target, pname, params, offset);
+	}
+
+	@Override
+	public void glTexParameteriv(int target, int pname, int[] params, int offset) {
+		gl.glTexParameteriv(target, pname, params, offset);
+	}
+
+	@Override
+	public void glUniform1fv(int location, int count, float[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform1fv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform1iv(int location, int count, int[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform1iv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform2fv(int location, int count, float[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform2fv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform2iv(int location, int count, int[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform2iv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform3fv(int location, int count, float[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform3fv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform3iv(int location, int count, int[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform3iv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform4fv(int location, int count, float[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform4fv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniform4iv(int location, int count, int[] v, int offset) {
+		forgetUniform(location);
+		gl.glUniform4iv(location, count, v, offset);
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+		forgetUniform(location);
+		gl.glUniformMatrix2fv(location, count, transpose, value, offset);
+	}
+
+	@Override
+	public void glVertexAttrib1fv(int indx, float[] values, int offset) {
+		gl.glVertexAttrib1fv(indx, values, offset);
+	}
+
+	@Override
+	public void glVertexAttrib2fv(int indx, float[] values, int offset) {
+		gl.glVertexAttrib2fv(indx, values, offset);
+	}
+
+	@Override
+	public void glVertexAttrib3fv(int indx, float[] values, int offset) {
+		gl.glVertexAttrib3fv(indx, values, offset);
+	}
+
+	@Override
+	public void glVertexAttrib4fv(int indx, float[] values, int offset) {
+		gl.glVertexAttrib4fv(indx, values, offset);
+	}
+
+	@Override
+	public String getPlatformGLExtensions() {
+		return gl.getPlatformGLExtensions();
+	}
+
+	@Override
+	public boolean hasGLSL() {
+		return gl.hasGLSL();
+	}
+
+	@Override
+	public boolean isExtensionAvailable(String extension) {
+		return gl.isExtensionAvailable(extension);
+	}
+
+	@Override
+	public boolean isFunctionAvailable(String function) {
+		return gl.isFunctionAvailable(function);
+	}
+
+	@Override
+	public int getSwapInterval() {
+		return gl.getSwapInterval();
+	}
+
+	@Override
+	public void glAttachShader(int program, int shader) {
+		gl.glAttachShader(program, shader);
+	}
+
+	@Override
+	public void glBindAttribLocation(int program, int index, String name) {
+		gl.glBindAttribLocation(program, index, name);
+	}
+
+	@Override
+	public void glBindBuffer(int target, int buffer) {
+		gl.glBindBuffer(target, buffer);
+	}
+
+	@Override
+	public void glBindFramebuffer(int target, int framebuffer) {
+		gl.glBindFramebuffer(target, framebuffer);
+	}
+
+	@Override
+	public void glBindRenderbuffer(int target, int renderbuffer) {
+		gl.glBindRenderbuffer(target, renderbuffer);
+	}
+
+	@Override
+	public void glBlendColor(float red, float green, float blue, float alpha) {
+		gl.glBlendColor(red, green, blue, alpha);
+	}
+
+	@Override
+	public void glBufferData(int target, int size, Buffer data, int usage) {
+		gl.glBufferData(target, size, data, usage);
+	}
+
+	@Override
+	public void glBufferSubData(int target, int offset, int size, Buffer data) {
+		gl.glBufferSubData(target, offset, size, data);
+	}
+
+	@Override
+	public int glCheckFramebufferStatus(int target) {
+		return gl.glCheckFramebufferStatus(target);
+	}
+
+	@Override
+	public void glClear(int mask) {
+		gl.glClear(mask);
+	}
+
+	@Override
+	public void glClearDepth(double depth) {
+		gl.glClearDepth(depth);
+	}
+
+	@Override
+	public void glClearDepthf(float depth) {
+		gl.glClearDepthf(depth);
+	}
+
+	@Override
+	public void glClearStencil(int s) {
+		gl.glClearStencil(s);
+	}
+
+	@Override
+	public void glCompileShader(int shader) {
+		gl.glCompileShader(shader);
+	}
+
+	@Override
+	public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+			int imageSize, Buffer data) {
+		gl.glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+	}
+
+	@Override
+	public void glCompressedTexImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+		gl.glCompressedTexImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+	}
+
+	@Override
+	public void glCompressedTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			Buffer arg8) {
+		gl.glCompressedTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+	}
+
+	@Override
+	public void glCompressedTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8) {
+		gl.glCompressedTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height,
+			int format, int imageSize, Buffer data) {
+		gl.glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8) {
+		gl.glCompressedTexSubImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+	}
+
+	@Override
+	public void glCompressedTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8, int arg9, Buffer arg10) {
+		gl.glCompressedTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+	}
+
+	@Override
+	public void glCompressedTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6,
+			int arg7, int arg8, int arg9, int arg10) {
+		gl.glCompressedTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+	}
+
+	@Override
+	public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height,
+			int border) {
+		gl.glCopyTexImage2D(target, level, internalformat, x, y, width, height, border);
+	}
+
+	@Override
+	public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width,
+			int height) {
+		gl.glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+	}
+
+	@Override
+	public void glCopyTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8) {
+		gl.glCopyTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+	}
+
+	@Override
+	public int glCreateShader(int type) {
+		return gl.glCreateShader(type);
+	}
+
+	@Override
+	public void glCullFace(int mode) {
+		gl.glCullFace(mode);
+	}
+
+	@Override
+	public void glDeleteBuffers(int n, IntBuffer buffers) {
+		gl.glDeleteBuffers(n, buffers);
+	}
+
+	@Override
+	public void glDeleteFramebuffers(int n, IntBuffer framebuffers) {
+		gl.glDeleteFramebuffers(n, framebuffers);
+	}
+
+	@Override
+	public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers) {
+		gl.glDeleteRenderbuffers(n, renderbuffers);
+	}
+
+	@Override
+	public void glDeleteShader(int shader) {
+		gl.glDeleteShader(shader);
+	}
+
+	@Override
+	public void glDepthFunc(int func) {
+		gl.glDepthFunc(func);
+	}
+
+	@Override
+	public void glDepthRange(double zNear, double zFar) {
+		gl.glDepthRange(zNear, zFar);
+	}
+
+	@Override
+	public void glDepthRangef(float zNear, float zFar) {
+		gl.glDepthRangef(zNear, zFar);
+	}
+
+	@Override
+	public void glDetachShader(int program, int shader) {
+		gl.glDetachShader(program, shader);
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int index) {
+		gl.glDisableVertexAttribArray(index);
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int index) {
+		gl.glEnableVertexAttribArray(index);
+	}
+
+	@Override
+	public void glFinish() {
+		gl.glFinish();
+	}
+
+	@Override
+	public void glFlush() {
+		gl.glFlush();
+	}
+
+	@Override
+	public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+		gl.glFramebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer);
+	}
+
+	@Override
+	public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+		gl.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+	}
+
+	@Override
+	public void glFramebufferTexture3D(int target, int attachment, int textarget, int texture, int level, int zoffset) {
+		gl.glFramebufferTexture3D(target, attachment, textarget, texture, level, zoffset);
+	}
+
+	@Override
+	public void glFrontFace(int mode) {
+		gl.glFrontFace(mode);
+	}
+
+	@Override
+	public void glGenBuffers(int n, IntBuffer buffers) {
+		gl.glGenBuffers(n, buffers);
+	}
+
+	@Override
+	public void glGenerateMipmap(int target) {
+		gl.glGenerateMipmap(target);
+	}
+
+	@Override
+	public void glGenFramebuffers(int n, IntBuffer framebuffers) {
+		gl.glGenFramebuffers(n, framebuffers);
+	}
+
+	@Override
+	public void glGenRenderbuffers(int n, IntBuffer renderbuffers) {
+		gl.glGenRenderbuffers(n, renderbuffers);
+	}
+
+	@Override
+	public void glGenTextures(int n, IntBuffer textures) {
+		gl.glGenTextures(n, textures);
+	}
+
+	@Override
+	public void glGetActiveAttrib(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size,
+			int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+		gl.glGetActiveAttrib(program, index, bufsize, length, lengthOffset, size, sizeOffset, type, typeOffset, name,
+				nameOffset);
+	}
+
+	@Override
+	public void glGetActiveUniform(int program, int index, int bufsize, int[] length, int lengthOffset, int[] size,
+			int sizeOffset, int[] type, int typeOffset, byte[] name, int nameOffset) {
+		gl.glGetActiveUniform(program, index, bufsize, length, lengthOffset, size, sizeOffset, type, typeOffset, name,
+				nameOffset);
+	}
+
+	@Override
+	public void glGetAttachedShaders(int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+		gl.glGetAttachedShaders(program, maxcount, count, shaders);
+	}
+
+	@Override
+	public int glGetAttribLocation(int program, String name) {
+		return gl.glGetAttribLocation(program, name);
+	}
+
+	@Override
+	public boolean glGetBoolean(int pname) {
+		return gl.glGetBoolean(pname);
+	}
+
+	@Override
+	public void glGetBooleanv(int pname, ByteBuffer params) {
+		gl.glGetBooleanv(pname, params);
+	}
+
+	@Override
+	public int glGetBoundBuffer(int arg0) {
+		return gl.glGetBoundBuffer(arg0);
+	}
+
+	@Override
+	public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+		gl.glGetBufferParameteriv(target, pname, params);
+	}
+
+	@Override
+	public int glGetError() {
+		return gl.glGetError();
+	}
+
+	@Override
+	public float glGetFloat(int pname) {
+		return gl.glGetFloat(pname);
+	}
+
+	@Override
+	public void glGetFloatv(int pname, FloatBuffer params) {
+		gl.glGetFloatv(pname, params);
+	}
+
+	@Override
+	public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+		gl.glGetFramebufferAttachmentParameteriv(target, attachment, pname, params);
+	}
+
+	@Override
+	public int glGetInteger(int pname) {
+		return gl.glGetInteger(pname);
+	}
+
+	@Override
+	public void glGetProgramBinary(int arg0, int arg1, IntBuffer arg2, IntBuffer arg3, Buffer arg4) {
+		gl.glGetProgramBinary(arg0, arg1, arg2, arg3, arg4);
+	}
+
+	@Override
+	public void glGetProgramInfoLog(int program, int bufsize, IntBuffer length, ByteBuffer infolog) {
+		gl.glGetProgramInfoLog(program, bufsize, length, infolog);
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int program) {
+		return gl.glGetProgramInfoLog(program);
+	}
+
+	@Override
+	public void glGetProgramiv(int program, int pname, IntBuffer params) {
+		gl.glGetProgramiv(program, pname, params);
+	}
+
+	@Override
+	public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+		gl.glGetRenderbufferParameteriv(target, pname, params);
+	}
+
+	@Override
+	public void glGetShaderInfoLog(int shader, int bufsize, IntBuffer length, ByteBuffer infolog) {
+		gl.glGetShaderInfoLog(shader, bufsize, length, infolog);
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int shader) {
+		return gl.glGetShaderInfoLog(shader);
+	}
+
+	@Override
+	public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+		gl.glGetShaderiv(shader, pname, params);
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, int[] range, int rangeOffset,
+			int[] precision, int precisionOffset) {
+		gl.glGetShaderPrecisionFormat(shadertype, precisiontype, range, rangeOffset, precision, precisionOffset);
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+		gl.glGetShaderPrecisionFormat(shadertype, precisiontype, range, precision);
+	}
+
+	@Override
+	public void glGetShaderSource(int shader, int bufsize, int[] length, int lengthOffset, byte[] source,
+			int sourceOffset) {
+		gl.glGetShaderSource(shader, bufsize, length, lengthOffset, source, sourceOffset);
+	}
+
+	@Override
+	public void glGetShaderSource(int shader, int bufsize, IntBuffer length, ByteBuffer source) {
+		gl.glGetShaderSource(shader, bufsize, length, source);
+	}
+
+	@Override
+	public String glGetString(int name) {
+		return gl.glGetString(name);
+	}
+
+	@Override
+	public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+		gl.glGetTexParameterfv(target, pname, params);
+	}
+
+	@Override
+	public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+		gl.glGetTexParameteriv(target, pname, params);
+	}
+
+	@Override
+	public void glGetUniformfv(int program, int location, FloatBuffer params) {
+		gl.glGetUniformfv(program, location, params);
+	}
+
+	@Override
+	public void glGetUniformiv(int program, int location, IntBuffer params) {
+		gl.glGetUniformiv(program, location, params);
+	}
+
+	@Override
+	public int glGetUniformLocation(int program, String name) {
+		return gl.glGetUniformLocation(program, name);
+	}
+
+	@Override
+	public void glGetVertexAttribfv(int index, int pname, FloatBuffer params) {
+		gl.glGetVertexAttribfv(index, pname, params);
+	}
+
+	@Override
+	public void glGetVertexAttribiv(int index, int pname, IntBuffer params) {
+		gl.glGetVertexAttribiv(index, pname, params);
+	}
+
+	@Override
+	public void glHint(int target, int mode) {
+		gl.glHint(target, mode);
+	}
+
+	@Override
+	public boolean glIsBuffer(int buffer) {
+		return gl.glIsBuffer(buffer);
+	}
+
+	@Override
+	public boolean glIsEnabled(int cap) {
+		return gl.glIsEnabled(cap);
+	}
+
+	@Override
+	public boolean glIsFramebuffer(int framebuffer) {
+		return gl.glIsFramebuffer(framebuffer);
+	}
+
+	@Override
+	public boolean glIsProgram(int program) {
+		return gl.glIsProgram(program);
+	}
+
+	@Override
+	public boolean glIsRenderbuffer(int renderbuffer) {
+		return gl.glIsRenderbuffer(renderbuffer);
+	}
+
+	@Override
+	public boolean glIsShader(int shader) {
+		return gl.glIsShader(shader);
+	}
+
+	@Override
+	public boolean glIsTexture(int texture) {
+		return gl.glIsTexture(texture);
+	}
+
+	@Override
+	public boolean glIsVBOArrayEnabled() {
+		return gl.glIsVBOArrayEnabled();
+	}
+
+	@Override
+	public boolean glIsVBOElementEnabled() {
+		return gl.glIsVBOElementEnabled();
+	}
+
+	@Override
+	public void glLineWidth(float width) {
+		gl.glLineWidth(width);
+	}
+
+	@Override
+	public ByteBuffer glMapBuffer(int arg0, int arg1) {
+		return gl.glMapBuffer(arg0, arg1);
+	}
+
+	@Override
+	public void glPixelStorei(int pname, int param) {
+		gl.glPixelStorei(pname, param);
+	}
+
+	@Override
+	public void glPolygonOffset(float factor, float units) {
+		gl.glPolygonOffset(factor, units);
+	}
+
+	@Override
+	public void glProgramBinary(int arg0, int arg1, Buffer arg2, int arg3) {
+		gl.glProgramBinary(arg0, arg1, arg2, arg3);
+	}
+
+	@Override
+	public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+		gl.glReadPixels(x, y, width, height, format, type, pixels);
+	}
+
+	@Override
+	public void glReadPixels(int x, int y, int width, int height, int format, int type, int pixelsBufferOffset) {
+		gl.glReadPixels(x, y, width, height, format, type, pixelsBufferOffset);
+	}
+
+	@Override
+	public void glReleaseShaderCompiler() {
+		gl.glReleaseShaderCompiler();
+	}
+
+	@Override
+	public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+		gl.glRenderbufferStorage(target, internalformat, width, height);
+	}
+
+	@Override
+	public void glSampleCoverage(float value, boolean invert) {
+		gl.glSampleCoverage(value, invert);
+	}
+
+	@Override
+	public void glShaderBinary(int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+		gl.glShaderBinary(n, shaders, offset, binaryformat, binary, length);
+	}
+
+	@Override
+	public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+		gl.glShaderBinary(n, shaders, binaryformat, binary, length);
+	}
+
+	@Override
+	public void glShaderSource(int shader, int count, String[] strings, int[] length, int lengthOffset) {
+		gl.glShaderSource(shader, count, strings, length, lengthOffset);
+	}
+
+	@Override
+	public void glShaderSource(int shader, int count, String[] strings, IntBuffer length) {
+		gl.glShaderSource(shader, count, strings, length);
+	}
+
+	@Override
+	public void glShaderSource(int shader, String string) {
+		gl.glShaderSource(shader, string);
+	}
+
+	@Override
+	public void glStencilFunc(int func, int ref, int mask) {
+		gl.glStencilFunc(func, ref, mask);
+	}
+
+	@Override
+	public void glStencilFuncSeparate(int face, int func, int ref, int mask) {
+		gl.glStencilFuncSeparate(face, func, ref, mask);
+	}
+
+	@Override
+	public void glStencilMask(int mask) {
+		gl.glStencilMask(mask);
+	}
+
+	@Override
+	public void glStencilMaskSeparate(int face, int mask) {
+		gl.glStencilMaskSeparate(face, mask);
+	}
+
+	@Override
+	public void glStencilOp(int fail, int zfail, int zpass) {
+		gl.glStencilOp(fail, zfail, zpass);
+	}
+
+	@Override
+	public void glStencilOpSeparate(int face, int fail, int zfail, int zpass) {
+		gl.glStencilOpSeparate(face, fail, zfail, zpass);
+	}
+
+	@Override
+	public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format,
+			int type, Buffer pixels) {
+		gl.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+	}
+
+	@Override
+	public void glTexImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+		gl.glTexImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+	}
+
+	@Override
+	public void glTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8,
+			Buffer arg9) {
+		gl.glTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+	}
+
+	@Override
+	public void glTexImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8,
+			int arg9) {
+		gl.glTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+	}
+
+	@Override
+	public void glTexParameterf(int target, int pname, float param) {
+		gl.glTexParameterf(target, pname, param);
+	}
+
+	@Override
+	public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+		gl.glTexParameterfv(target, pname, params);
+	}
+
+	@Override
+	public void glTexParameteri(int target, int pname, int param) {
+		gl.glTexParameteri(target, pname, param);
+	}
+
+	@Override
+	public void glTexParameteriv(int target, int pname, IntBuffer params) {
+		gl.glTexParameteriv(target, pname, params);
+	}
+
+	@Override
+	public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format,
+			int type, Buffer pixels) {
+		gl.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+	}
+
+	@Override
+	public void glTexSubImage2D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8) {
+		gl.glTexSubImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+	}
+
+	@Override
+	public void glTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8, int arg9, Buffer arg10) {
+		gl.glTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+	}
+
+	@Override
+	public void glTexSubImage3D(int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7,
+			int arg8, int arg9, int arg10) {
+		gl.glTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+	}
+
+	@Override
+	public void glUniform1fv(int location, int count, FloatBuffer v) {
+		forgetUniform(location);
+		gl.glUniform1fv(location, count, v);
+	}
+
+	@Override
+	public void glUniform1iv(int location, int count, IntBuffer v) {
+		forgetUniform(location);
+		gl.glUniform1iv(location, count, v);
+	}
+
+	@Override
+	public void glUniform2fv(int location, int count, FloatBuffer v) {
+		forgetUniform(location);
+		gl.glUniform2fv(location, count, v);
+	}
+
+	@Override
+	public void glUniform2iv(int location, int count, IntBuffer v) {
+		forgetUniform(location);
+		gl.glUniform2iv(location, count, v);
+	}
+
+	@Override
+	public void glUniform3fv(int location, int count, FloatBuffer v) {
+		forgetUniform(location);
+		gl.glUniform3fv(location, count, v);
+	}
+
+	@Override
+	public void glUniform3iv(int location, int count, IntBuffer v) {
+		forgetUniform(location);
+		gl.glUniform3iv(location, count, v);
+	}
+
+	@Override
+	public void glUniform4fv(int location, int count, FloatBuffer v) {
+		forgetUniform(location);
+		gl.glUniform4fv(location, count, v);
+	}
+
+	@Override
+	public void glUniform4iv(int location, int count, IntBuffer v) {
+		forgetUniform(location);
+		gl.glUniform4iv(location, count, v);
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+		forgetUniform(location);
+		gl.glUniformMatrix2fv(location, count, transpose, value);
+	}
+
+	@Override
+	public boolean glUnmapBuffer(int arg0) {
+		return gl.glUnmapBuffer(arg0);
+	}
+
+	@Override
+	public void glValidateProgram(int program) {
+		gl.glValidateProgram(program);
+	}
+
+	@Override
+	public void glVertexAttrib1f(int indx, float x) {
+		gl.glVertexAttrib1f(indx, x);
+	}
+
+	@Override
+	public void glVertexAttrib1fv(int indx, FloatBuffer values) {
+		gl.glVertexAttrib1fv(indx, values);
+	}
+
+	@Override
+	public void glVertexAttrib2f(int indx, float x, float y) {
+		gl.glVertexAttrib2f(indx, x, y);
+	}
+
+	@Override
+	public void glVertexAttrib2fv(int indx, FloatBuffer values) {
+		gl.glVertexAttrib2fv(indx, values);
+	}
+
+	@Override
+	public void glVertexAttrib3f(int indx, float x, float y, float z) {
+		gl.glVertexAttrib3f(indx, x, y, z);
+	}
+
+	@Override
+	public void glVertexAttrib3fv(int indx, FloatBuffer values) {
+		gl.glVertexAttrib3fv(indx, values);
+	}
+
+	@Override
+	public void glVertexAttrib4f(int indx, float x, float y, float z, float w) {
+		gl.glVertexAttrib4f(indx, x, y, z, w);
+	}
+
+	@Override
+	public void glVertexAttrib4fv(int indx, FloatBuffer values) {
+		gl.glVertexAttrib4fv(indx, values);
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+		gl.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+		gl.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+	}
+
+	@Override
+	public int getGlslVersion() {
+		return gl.getGlslVersion();
+	}
+}
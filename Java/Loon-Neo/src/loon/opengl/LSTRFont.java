@@ -29,6 +29,7 @@ import loon.canvas.Canvas;
 import loon.canvas.Image;
 import loon.canvas.LColor;
 import loon.event.Updateable;
+import loon.font.GlyphAdvances;
 import loon.font.IFont;
 import loon.font.LFont;
 import loon.font.TextLayout;
@@ -1025,6 +1026,7 @@ public class LSTRFont implements IFont, LRelease {
 		isDrawing = false;
 		_initChars = false;
 		_initDraw = -1;
+		GlyphAdvances.remove(this);
 		_isClose = true;
 	}
 
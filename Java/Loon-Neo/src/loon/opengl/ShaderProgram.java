@@ -36,6 +36,7 @@ import loon.geom.Matrix4;
 import loon.geom.Vector2f;
 import loon.geom.Vector3f;
 import loon.utils.IntMap;
+import loon.utils.ObjectMap;
 import loon.utils.TArray;
 
 public class ShaderProgram implements LRelease {
@@ -66,6 +67,10 @@ public class ShaderProgram implements LRelease {
 
 	private String[] uniformNames;
 
+	private final ObjectMap<String, ShaderUniform> uniformHandles = new ObjectMap<String, ShaderUniform>();
+
+	int linkVersion;
+
 	private final IntMap<Integer> attributes = new IntMap<Integer>();
 
 	private final IntMap<Integer> attributeTypes = new IntMap<Integer>();
@@ -131,7 +136,7 @@ public class ShaderProgram implements LRelease {
 			isCompiled = false;
 			return;
 		}
-
+		linkVersion++;
 		isCompiled = true;
 	}
 
@@ -226,6 +231,21 @@ public class ShaderProgram implements LRelease {
 		return location;
 	}
 
+	/**
+	 * 获得指定名称的uniform句柄,频繁设置的uniform应持有此句柄,避免每次按名称查找
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public ShaderUniform getUniformHandle(String name) {
+		ShaderUniform uniform = uniformHandles.get(name);
+		if (uniform == null) {
+			uniform = new ShaderUniform(this, name);
+			uniformHandles.put(name, uniform);
+		}
+		return uniform;
+	}
+
 	public void setUniformi(String name, int value) {
 		GL20 gl = LSystem.base().graphics().gl;
 		checkManaged();
@@ -569,9 +589,14 @@ public class ShaderProgram implements LRelease {
 		gl.glEnableVertexAttribArray(location);
 	}
 
-	private void checkManaged() {
+	void checkManaged() {
 		if (invalidated) {
 			compileShaders(vertexShaderSource, fragmentShaderSource);
+			if (isCompiled) {
+				uniforms.clear();
+				attributes.clear();
+				fetchAttributesAndUniforms();
+			}
 			invalidated = false;
 		}
 	}
@@ -611,7 +636,7 @@ public class ShaderProgram implements LRelease {
 	}
 
 	private void fetchAttributesAndUniforms() {
-		GL20 gl = LSystem.base().graphics().gl;
+		GL20 gl = GLStateFilter.unwrap(LSystem.base().graphics().gl);
 
 		if (gl instanceof GLExt) {
 
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.opengl;
+
+import loon.canvas.LColor;
+import loon.geom.Matrix3;
+import loon.geom.Matrix4;
+import loon.geom.Vector2f;
+import loon.geom.Vector3f;
+
+/**
+ * 预先解析的着色器uniform,由ShaderProgram.getUniformHandle获得,设置数值时不再按名称查找location,
+ * 着色器重新编译后会自动重新解析.
+ */
+public final class ShaderUniform {
+
+	private final ShaderProgram program;
+
+	private final String name;
+
+	private int location = -1;
+
+	private int version = -1;
+
+	ShaderUniform(ShaderProgram program, String name) {
+		this.program = program;
+		this.name = name;
+	}
+
+	public ShaderProgram getProgram() {
+		return program;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLocation() {
+		program.checkManaged();
+		if (version != program.linkVersion) {
+			location = program.fetchUniformLocation(name, ShaderProgram.pedantic);
+			version = program.linkVersion;
+		}
+		return location;
+	}
+
+	public boolean exists() {
+		program.checkManaged();
+		if (version != program.linkVersion) {
+			location = program.fetchUniformLocation(name, false);
+			version = program.linkVersion;
+		}
+		return location != -1;
+	}
+
+	public ShaderUniform seti(int value) {
+		program.setUniformi(getLocation(), value);
+		return this;
+	}
+
+	public ShaderUniform seti(int value1, int value2) {
+		program.setUniformi(getLocation(), value1, value2);
+		return this;
+	}
+
+	public ShaderUniform seti(int value1, int value2, int value3) {
+		program.setUniformi(getLocation(), value1, value2, value3);
+		return this;
+	}
+
+	public ShaderUniform seti(int value1, int value2, int value3, int value4) {
+		program.setUniformi(getLocation(), value1, value2, value3, value4);
+		return this;
+	}
+
+	public ShaderUniform setf(float value) {
+		program.setUniformf(getLocation(), value);
+		return this;
+	}
+
+	public ShaderUniform setf(float value1, float value2) {
+		program.setUniformf(getLocation(), value1, value2);
+		return this;
+	}
+
+	public ShaderUniform setf(float value1, float value2, float value3) {
+		program.setUniformf(getLocation(), value1, value2, value3);
+		return this;
+	}
+
+	public ShaderUniform setf(float value1, float value2, float value3, float value4) {
+		program.setUniformf(getLocation(), value1, value2, value3, value4);
+		return this;
+	}
+
+	public ShaderUniform setf(LColor color) {
+		return setf(color.r, color.g, color.b, color.a);
+	}
+
+	public ShaderUniform setf(Vector2f v) {
+		return setf(v.x, v.y);
+	}
+
+	public ShaderUniform setf(Vector3f v) {
+		return setf(v.x, v.y, v.z);
+	}
+
+	public ShaderUniform setMatrix(Matrix4 matrix) {
+		program.setUniformMatrix(getLocation(), matrix, false);
+		return this;
+	}
+
+	public ShaderUniform setMatrix(Matrix4 matrix, boolean transpose) {
+		program.setUniformMatrix(getLocation(), matrix, transpose);
+		return this;
+	}
+
+	public ShaderUniform setMatrix(Matrix3 matrix) {
+		program.setUniformMatrix(getLocation(), matrix, false);
+		return this;
+	}
+
+	public ShaderUniform setMatrix(Matrix3 matrix, boolean transpose) {
+		program.setUniformMatrix(getLocation(), matrix, transpose);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return name + ":" + location;
+	}
+}
@@ -43,6 +43,10 @@ public class TrilateralBatch extends BaseBatch {
 
 	private ShaderProgram shader;
 
+	private ShaderProgram uniformShader;
+
+	private ShaderUniform projTransUniform, textureUniform;
+
 	private int maxSpritesInBatch = 0;
 
 	private boolean isLoaded;
@@ -109,8 +113,13 @@ public class TrilateralBatch extends BaseBatch {
 
 	private void setupMatrices() {
 		if (shader != null) {
-			shader.setUniformMatrix("u_projTrans", viewMatrix);
-			shader.setUniformi("u_texture", 0);
+			if (uniformShader != shader) {
+				uniformShader = shader;
+				projTransUniform = shader.getUniformHandle("u_projTrans");
+				textureUniform = shader.getUniformHandle("u_texture");
+			}
+			projTransUniform.setMatrix(viewMatrix);
+			textureUniform.seti(0);
 			_shader_source.setupShader(shader);
 		}
 	}
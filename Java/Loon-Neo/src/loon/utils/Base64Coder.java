@@ -257,12 +257,16 @@ public class Base64Coder {
 	}
 
 	public static byte[] decodeBase64(char[] data) {
+		return decodeBase64(data, 0, data.length);
+	}
+
+	public static byte[] decodeBase64(char[] data, int offset, int length) {
 		checking();
 
-		int size = data.length;
-		int temp = size;
+		int size = offset + length;
+		int temp = length;
 
-		for (int ix = 0; ix < data.length; ix++) {
+		for (int ix = offset; ix < size; ix++) {
 			if ((data[ix] > 255) || BASE64_ALPHABET[data[ix]] < 0) {
 				--temp;
 			}
@@ -281,7 +285,7 @@ public class Base64Coder {
 		int accum = 0;
 		int index = 0;
 
-		for (int ix = 0; ix < size; ix++) {
+		for (int ix = offset; ix < size; ix++) {
 			int value = (data[ix] > 255) ? -1 : BASE64_ALPHABET[data[ix]];
 
 			if (value >= 0) {
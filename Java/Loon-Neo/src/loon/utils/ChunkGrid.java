@@ -0,0 +1,368 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.utils;
+
+import loon.LSysException;
+
+/**
+ * 分块的稀疏二维网格基类,坐标可为任意整数(包括负数).
+ * 
+ * 网格被划分为边长2^n的数据块,数据块以开放寻址表按块坐标索引,只有被写入过的区域才会分配内存,并缓存最近访问的数据块,因此相邻格子的读写为O(1).
+ * 可通过{@link ChunkStore}在数据块被移出内存时保存,在再次访问时读回,以支持无限大的地图.
+ */
+public abstract class ChunkGrid<A> {
+
+	/**
+	 * 数据块的保存与读取接口
+	 */
+	public static interface ChunkStore<A> {
+
+		/**
+		 * 数据块被移出内存前调用
+		 */
+		void save(int chunkX, int chunkY, A data);
+
+		/**
+		 * 访问不在内存中的数据块时调用,向data中写入数据并返回true,不存在时返回false
+		 */
+		boolean load(int chunkX, int chunkY, A data);
+	}
+
+	public static interface ChunkVisitor<A> {
+
+		void visit(int chunkX, int chunkY, A data);
+	}
+
+	private final static float LOAD_FACTOR = 0.6f;
+
+	protected final int _chunkShift;
+
+	protected final int _chunkSize;
+
+	protected final int _chunkMask;
+
+	// 块坐标,第i个槽位的x,y分别位于[i*2]与[i*2+1]
+	private int[] _keys;
+
+	private Object[] _chunks;
+
+	private int _count;
+
+	private int _threshold;
+
+	// 按块坐标奇偶直接映射的最近访问缓存,相邻的2x2个数据块不会互相挤出
+	private final int[] _cacheKeys = new int[8];
+
+	private final Object[] _cacheChunks = new Object[4];
+
+	private ChunkStore<A> _store;
+
+	protected ChunkGrid(int chunkShift) {
+		if (chunkShift < 1 || chunkShift > 12) {
+			throw new LSysException("chunkShift must be in [1, 12]: " + chunkShift);
+		}
+		this._chunkShift = chunkShift;
+		this._chunkSize = 1 << chunkShift;
+		this._chunkMask = _chunkSize - 1;
+		this.allocate(16);
+	}
+
+	/**
+	 * 创建一个填充了默认值的数据块
+	 * 
+	 * @return
+	 */
+	protected abstract A newChunk();
+
+	/**
+	 * 数据块是否只包含默认值(可被回收)
+	 * 
+	 * @param data
+	 * @return
+	 */
+	protected abstract boolean isEmptyChunk(A data);
+
+	private void allocate(int capacity) {
+		_keys = new int[capacity << 1];
+		_chunks = new Object[capacity];
+		_threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private static int hash(int cx, int cy) {
+		int h = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+		return h ^ (h >>> 15);
+	}
+
+	private int indexOf(int cx, int cy) {
+		final Object[] chunks = _chunks;
+		final int mask = chunks.length - 1;
+		int idx = hash(cx, cy) & mask;
+		final int[] keys = _keys;
+		for (; chunks[idx] != null; idx = (idx + 1) & mask) {
+			if (keys[idx << 1] == cx && keys[(idx << 1) + 1] == cy) {
+				return idx;
+			}
+		}
+		return -1;
+	}
+
+	private void insert(int cx, int cy, Object data) {
+		if (_count >= _threshold) {
+			final int[] keys = _keys;
+			final Object[] chunks = _chunks;
+			allocate(chunks.length << 1);
+			for (int i = 0; i < chunks.length; i++) {
+				if (chunks[i] != null) {
+					place(keys[i << 1], keys[(i << 1) + 1], chunks[i]);
+				}
+			}
+		}
+		place(cx, cy, data);
+		_count++;
+	}
+
+	private void place(int cx, int cy, Object data) {
+		final int mask = _chunks.length - 1;
+		int idx = hash(cx, cy) & mask;
+		while (_chunks[idx] != null) {
+			idx = (idx + 1) & mask;
+		}
+		_keys[idx << 1] = cx;
+		_keys[(idx << 1) + 1] = cy;
+		_chunks[idx] = data;
+	}
+
+	/**
+	 * 删除指定位置的数据块,并后移探测链上的数据块以保持查找正确
+	 */
+	private void removeAt(int idx) {
+		final Object[] chunks = _chunks;
+		final int[] keys = _keys;
+		final int mask = chunks.length - 1;
+		chunks[idx] = null;
+		_count--;
+		int hole = idx;
+		for (int i = (idx + 1) & mask; chunks[i] != null; i = (i + 1) & mask) {
+			int home = hash(keys[i << 1], keys[(i << 1) + 1]) & mask;
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				keys[hole << 1] = keys[i << 1];
+				keys[(hole << 1) + 1] = keys[(i << 1) + 1];
+				chunks[hole] = chunks[i];
+				chunks[i] = null;
+				hole = i;
+			}
+		}
+		resetCache();
+	}
+
+	private void resetCache() {
+		for (int i = 0; i < _cacheChunks.length; i++) {
+			_cacheChunks[i] = null;
+		}
+	}
+
+	/**
+	 * 返回指定块坐标的数据块,不存在时按create创建,或由ChunkStore读回
+	 * 
+	 * @param cx
+	 * @param cy
+	 * @param create
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected final A chunkAt(int cx, int cy, boolean create) {
+		final int slot = (cx & 1) | ((cy & 1) << 1);
+		final Object cached = _cacheChunks[slot];
+		if (cached != null && _cacheKeys[slot << 1] == cx && _cacheKeys[(slot << 1) + 1] == cy) {
+			return (A) cached;
+		}
+		int idx = indexOf(cx, cy);
+		A data;
+		if (idx >= 0) {
+			data = (A) _chunks[idx];
+		} else {
+			if (!create && _store == null) {
+				return null;
+			}
+			data = newChunk();
+			boolean loaded = _store != null && _store.load(cx, cy, data);
+			if (!create && !loaded) {
+				return null;
+			}
+			insert(cx, cy, data);
+		}
+		_cacheKeys[slot << 1] = cx;
+		_cacheKeys[(slot << 1) + 1] = cy;
+		_cacheChunks[slot] = data;
+		return data;
+	}
+
+	/**
+	 * 格子坐标所在的块坐标
+	 * 
+	 * @param v
+	 * @return
+	 */
+	public int toChunk(int v) {
+		return v >> _chunkShift;
+	}
+
+	public int getChunkSize() {
+		return _chunkSize;
+	}
+
+	public int getChunkShift() {
+		return _chunkShift;
+	}
+
+	/**
+	 * 当前在内存中的数据块数量
+	 * 
+	 * @return
+	 */
+	public int getChunkCount() {
+		return _count;
+	}
+
+	public boolean hasChunk(int cx, int cy) {
+		return indexOf(cx, cy) >= 0;
+	}
+
+	public ChunkGrid<A> setChunkStore(ChunkStore<A> store) {
+		this._store = store;
+		return this;
+	}
+
+	public ChunkStore<A> getChunkStore() {
+		return _store;
+	}
+
+	/**
+	 * 将指定数据块保存(如果设置了ChunkStore)并移出内存
+	 * 
+	 * @param cx
+	 * @param cy
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean evict(int cx, int cy) {
+		int idx = indexOf(cx, cy);
+		if (idx < 0) {
+			return false;
+		}
+		if (_store != null) {
+			_store.save(cx, cy, (A) _chunks[idx]);
+		}
+		removeAt(idx);
+		return true;
+	}
+
+	/**
+	 * 移出与指定格子区域不相交的全部数据块,返回移出数量
+	 * 
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public int evictOutside(int x, int y, int width, int height) {
+		final int minX = toChunk(x), minY = toChunk(y);
+		final int maxX = toChunk(x + width - 1), maxY = toChunk(y + height - 1);
+		int evicted = 0;
+		for (int i = 0; i < _chunks.length;) {
+			final Object data = _chunks[i];
+			final int cx = _keys[i << 1], cy = _keys[(i << 1) + 1];
+			if (data != null && (cx < minX || cx > maxX || cy < minY || cy > maxY)) {
+				if (_store != null) {
+					_store.save(cx, cy, (A) data);
+				}
+				removeAt(i);
+				evicted++;
+				// 后移可能把未检查的数据块移到了当前位置
+				continue;
+			}
+			i++;
+		}
+		return evicted;
+	}
+
+	/**
+	 * 回收只包含默认值的数据块,返回回收数量
+	 * 
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public int compact() {
+		int removed = 0;
+		for (int i = 0; i < _chunks.length;) {
+			final Object data = _chunks[i];
+			if (data != null && isEmptyChunk((A) data)) {
+				removeAt(i);
+				removed++;
+				continue;
+			}
+			i++;
+		}
+		return removed;
+	}
+
+	/**
+	 * 遍历内存中的全部数据块(顺序不定)
+	 * 
+	 * @param visitor
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachChunk(ChunkVisitor<A> visitor) {
+		final Object[] chunks = _chunks;
+		for (int i = 0; i < chunks.length; i++) {
+			if (chunks[i] != null) {
+				visitor.visit(_keys[i << 1], _keys[(i << 1) + 1], (A) chunks[i]);
+			}
+		}
+	}
+
+	/**
+	 * 保存(如果设置了ChunkStore)并移出全部数据块
+	 */
+	@SuppressWarnings("unchecked")
+	public void evictAll() {
+		if (_store != null) {
+			for (int i = 0; i < _chunks.length; i++) {
+				if (_chunks[i] != null) {
+					_store.save(_keys[i << 1], _keys[(i << 1) + 1], (A) _chunks[i]);
+				}
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * 丢弃全部数据块(不保存)
+	 */
+	public void clear() {
+		allocate(16);
+		_count = 0;
+		resetCache();
+	}
+
+}
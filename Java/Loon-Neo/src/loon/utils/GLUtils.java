@@ -30,6 +30,7 @@ import loon.canvas.Image;
 import loon.canvas.LColor;
 import loon.canvas.Pixmap;
 import loon.opengl.GL20;
+import loon.opengl.GLStateFilter;
 
 public class GLUtils {
 	
@@ -55,7 +56,13 @@ public class GLUtils {
 
 	private static boolean enableTextures = false;
 
+	private static boolean writeAlpha = false;
+
 	public static void reset(final GL20 gl) {
+		if (gl instanceof GLStateFilter) {
+			((GLStateFilter) gl).invalidate();
+			gl.glActiveTexture(GL20.GL_TEXTURE0);
+		}
 		GLUtils.reload();
 	}
 
@@ -102,6 +109,26 @@ public class GLUtils {
 
 	private static int currentBlendMode = -1;
 
+	/**
+	 * 默认混合模式不写入alpha通道,渲染到纹理时需开启,以保留透明区域
+	 * 
+	 * @param gl
+	 * @param alpha
+	 */
+	public static final void setWriteAlpha(GL20 gl, boolean alpha) {
+		if (writeAlpha == alpha) {
+			return;
+		}
+		writeAlpha = alpha;
+		if (gl != null && currentBlendMode == LSystem.MODE_NORMAL) {
+			gl.glColorMask(true, true, true, alpha);
+		}
+	}
+
+	public static final boolean isWriteAlpha() {
+		return writeAlpha;
+	}
+
 	public static final int getBlendMode() {
 		return currentBlendMode;
 	}
@@ -116,7 +143,7 @@ public class GLUtils {
 		}
 		if (currentBlendMode == LSystem.MODE_NORMAL) {
 			GLUtils.enableBlend(gl);
-			gl.glColorMask(true, true, true, false);
+			gl.glColorMask(true, true, true, writeAlpha);
 			gl.glBlendFunc(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
 			return;
 		} else if (currentBlendMode == LSystem.MODE_SPEED) {
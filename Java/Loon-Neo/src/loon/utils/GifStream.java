@@ -0,0 +1,552 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.utils;
+
+import loon.canvas.Image;
+
+/**
+ * 流式的gif解码器,读取数据时只建立各帧的索引(不解码图像数据),之后按播放顺序逐帧解码LZW数据,依照各帧的disposal方式合成到一个重复使用的像素缓冲中,
+ * 不为每一帧单独创建Image.
+ * 
+ * 可选择将合成后的帧缓存为差异数据(只保存与前一帧相比变化的区域,并以游程编码压缩),循环播放时直接由缓存还原而不再解码.
+ */
+public class GifStream extends GifDecoder {
+
+	// 各帧图像描述符在数据中的位置,延迟,以及disposal|透明标记|透明色索引
+	private final IntArray _offsets = new IntArray();
+
+	private final IntArray _delays = new IntArray();
+
+	private final IntArray _infos = new IntArray();
+
+	private int[] _canvas;
+
+	private int[] _previous;
+
+	private int _next;
+
+	private int _current;
+
+	private int _lastX, _lastY, _lastW, _lastH, _lastClearColor;
+
+	private boolean _cacheDeltas;
+
+	private int[][] _deltas;
+
+	private int _deltaCount;
+
+	private int[] _before;
+
+	private int _deltaSize;
+
+	private long _lastDecodeTime;
+
+	public GifStream() {
+		this(false);
+	}
+
+	public GifStream(boolean cacheDeltas) {
+		this._cacheDeltas = cacheDeltas;
+	}
+
+	public GifStream(ArrayByte bytes, boolean cacheDeltas) {
+		this(cacheDeltas);
+		readStatus(bytes);
+	}
+
+	@Override
+	public int readStatus(ArrayByte is) {
+		init();
+		_offsets.clear();
+		_delays.clear();
+		_infos.clear();
+		_canvas = null;
+		_previous = null;
+		_before = null;
+		_deltas = null;
+		_deltaCount = 0;
+		_deltaSize = 0;
+		if (is == null) {
+			status = STATUS_OPEN_ERROR;
+			return status;
+		}
+		buffer = is;
+		readHeader();
+		if (!err()) {
+			readIndex();
+		}
+		frameCount = _offsets.length;
+		if (frameCount == 0) {
+			status = STATUS_FORMAT_ERROR;
+		} else {
+			_canvas = new int[width * height];
+			if (_cacheDeltas) {
+				_deltas = new int[frameCount][];
+			}
+		}
+		restart();
+		_current = -1;
+		_next = 0;
+		return status;
+	}
+
+	/**
+	 * 只读取帧的控制信息并跳过图像数据
+	 */
+	protected void readIndex() {
+		boolean done = false;
+		while (!(done || err())) {
+			int code = read();
+			switch (code) {
+			case 0x2C:
+				_offsets.add(buffer.position());
+				_delays.add(delay);
+				_infos.add(dispose | (transparency ? 8 : 0) | (transIndex << 4));
+				readShort();
+				readShort();
+				readShort();
+				readShort();
+				int packed = read();
+				if ((packed & 0x80) != 0) {
+					buffer.setPosition(buffer.position() + 3 * (2 << (packed & 7)));
+				}
+				read();
+				skip();
+				dispose = 0;
+				transparency = false;
+				delay = 0;
+				break;
+			case 0x21:
+				code = read();
+				switch (code) {
+				case 0xf9:
+					readGraphicControlExt();
+					break;
+				case 0xff:
+					readBlock();
+					String app = "";
+					for (int i = 0; i < 11; i++) {
+						app += (char) block[i];
+					}
+					if (app.equals("NETSCAPE2.0")) {
+						readNetscapeExt();
+					} else {
+						skip();
+					}
+					break;
+				default:
+					skip();
+				}
+				break;
+			case 0x3b:
+				done = true;
+				break;
+			case 0x00:
+				break;
+			default:
+				status = STATUS_FORMAT_ERROR;
+			}
+		}
+	}
+
+	private void restart() {
+		if (_canvas != null) {
+			for (int i = 0; i < _canvas.length; i++) {
+				_canvas[i] = 0;
+			}
+		}
+		lastDispose = 0;
+	}
+
+	/**
+	 * 解码下一帧(播放到末尾时回到第一帧),返回合成后的像素
+	 * 
+	 * @return
+	 */
+	public int[] nextFrame() {
+		if (frameCount == 0 || _canvas == null) {
+			return null;
+		}
+		final long start = TimeUtils.nanoTime();
+		final int idx = _next;
+		if (isCacheCompleted()) {
+			applyDelta(_deltas[idx]);
+		} else {
+			// 第一次播放时的首帧没有可对比的前一帧,不缓存
+			final boolean record = _cacheDeltas && _current != -1 && _deltas[idx] == null;
+			if (record) {
+				if (_before == null) {
+					_before = new int[_canvas.length];
+				}
+				System.arraycopy(_canvas, 0, _before, 0, _canvas.length);
+			}
+			if (idx == 0) {
+				restart();
+			}
+			decodeFrame(idx);
+			if (record) {
+				int[] delta = createDelta(_before, _canvas);
+				_deltas[idx] = delta;
+				_deltaSize += delta.length;
+				if (++_deltaCount == frameCount) {
+					_before = null;
+					_previous = null;
+				}
+			}
+		}
+		_current = idx;
+		_next = (idx + 1) % frameCount;
+		_lastDecodeTime = TimeUtils.nanoTime() - start;
+		return _canvas;
+	}
+
+	/**
+	 * 跳转到指定帧并返回合成后的像素
+	 * 
+	 * @param n
+	 * @return
+	 */
+	public int[] seek(int n) {
+		if (n < 0 || n >= frameCount || _canvas == null) {
+			return null;
+		}
+		if (n == _current) {
+			return _canvas;
+		}
+		if (n < _next && !isCacheCompleted()) {
+			_current = -1;
+			_next = 0;
+		}
+		int[] result = null;
+		do {
+			result = nextFrame();
+		} while (_current != n && result != null);
+		return result;
+	}
+
+	private void decodeFrame(int idx) {
+		// 处理前一帧的disposal
+		if (lastDispose == 2) {
+			int clear = _lastClearColor;
+			for (int y = _lastY, maxY = MathUtils.min(height, _lastY + _lastH); y < maxY; y++) {
+				for (int x = _lastX, maxX = MathUtils.min(width, _lastX + _lastW), k = y * width; x < maxX; x++) {
+					_canvas[k + x] = clear;
+				}
+			}
+		} else if (lastDispose == 3 && _previous != null) {
+			System.arraycopy(_previous, 0, _canvas, 0, _canvas.length);
+		}
+		buffer.setPosition(_offsets.get(idx));
+		final int info = _infos.get(idx);
+		dispose = info & 7;
+		transparency = (info & 8) != 0;
+		transIndex = info >> 4;
+		ix = readShort();
+		iy = readShort();
+		iw = readShort();
+		ih = readShort();
+		int packed = read();
+		lctFlag = (packed & 0x80) != 0;
+		interlace = (packed & 0x40) != 0;
+		lctSize = 2 << (packed & 7);
+		if (lctFlag) {
+			lct = readColorTable(lctSize);
+			act = lct;
+		} else {
+			act = gct;
+		}
+		if (act == null) {
+			status = STATUS_FORMAT_ERROR;
+			return;
+		}
+		if (dispose == 3) {
+			if (_previous == null) {
+				_previous = new int[_canvas.length];
+			}
+			System.arraycopy(_canvas, 0, _previous, 0, _canvas.length);
+		}
+		int save = 0;
+		if (transparency) {
+			save = act[transIndex];
+			act[transIndex] = 0;
+		}
+		decodeImageData();
+		composite();
+		if (transparency) {
+			act[transIndex] = save;
+		}
+		lastDispose = dispose;
+		_lastX = ix;
+		_lastY = iy;
+		_lastW = iw;
+		_lastH = ih;
+		_lastClearColor = (transparency || (!lctFlag && bgIndex == transIndex)) ? 0 : bgColor;
+		lct = null;
+	}
+
+	private void composite() {
+		int pass = 1;
+		int inc = 8;
+		int iline = 0;
+		for (int i = 0; i < ih; i++) {
+			int line = i;
+			if (interlace) {
+				if (iline >= ih) {
+					pass++;
+					switch (pass) {
+					case 2:
+						iline = 4;
+						break;
+					case 3:
+						iline = 2;
+						inc = 4;
+						break;
+					case 4:
+						iline = 1;
+						inc = 2;
+					}
+				}
+				line = iline;
+				iline += inc;
+			}
+			line += iy;
+			if (line < height) {
+				int k = line * width;
+				int dx = k + ix;
+				int dlim = dx + iw;
+				if ((k + width) < dlim) {
+					dlim = k + width;
+				}
+				int sx = i * iw;
+				while (dx < dlim) {
+					int c = act[((int) pixels[sx++]) & 0xff];
+					if (c != 0) {
+						_canvas[dx] = c;
+					}
+					dx++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 差异数据格式:变化区域x,y,w,h,之后为区域内像素的游程编码(数量,颜色)
+	 */
+	private int[] createDelta(int[] src, int[] dst) {
+		int minX = width, minY = height, maxX = -1, maxY = -1;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0, k = y * width; x < width; x++, k++) {
+				if (src[k] != dst[k]) {
+					if (x < minX) {
+						minX = x;
+					}
+					if (x > maxX) {
+						maxX = x;
+					}
+					if (y < minY) {
+						minY = y;
+					}
+					maxY = y;
+				}
+			}
+		}
+		if (maxX == -1) {
+			return new int[] { 0, 0, 0, 0 };
+		}
+		IntArray out = new IntArray();
+		out.add(minX);
+		out.add(minY);
+		out.add(maxX - minX + 1);
+		out.add(maxY - minY + 1);
+		int run = 0;
+		int color = 0;
+		for (int y = minY; y <= maxY; y++) {
+			for (int x = minX, k = y * width + minX; x <= maxX; x++, k++) {
+				int c = dst[k];
+				if (run > 0 && c == color) {
+					run++;
+				} else {
+					if (run > 0) {
+						out.add(run);
+						out.add(color);
+					}
+					color = c;
+					run = 1;
+				}
+			}
+		}
+		out.add(run);
+		out.add(color);
+		return out.toArray();
+	}
+
+	private void applyDelta(int[] delta) {
+		final int dx = delta[0];
+		final int dw = delta[2];
+		final int dh = delta[3];
+		if (dw == 0 || dh == 0) {
+			return;
+		}
+		int x = 0;
+		int y = delta[1];
+		for (int i = 4; i < delta.length; i += 2) {
+			final int color = delta[i + 1];
+			for (int run = delta[i]; run > 0; run--) {
+				_canvas[y * width + dx + x] = color;
+				if (++x == dw) {
+					x = 0;
+					y++;
+				}
+			}
+		}
+	}
+
+	@Override
+	public Image getFrame(int n) {
+		int[] result = seek(n);
+		if (result == null) {
+			return null;
+		}
+		Image image = Image.createImage(width, height);
+		image.setPixels(result, width, height);
+		return image;
+	}
+
+	@Override
+	public int getDelay(int n) {
+		if (n >= 0 && n < _delays.length) {
+			return _delays.get(n);
+		}
+		return -1;
+	}
+
+	/**
+	 * 返回当前合成完毕的像素(共用的缓冲,下次解码时会被改写)
+	 * 
+	 * @return
+	 */
+	public int[] getPixels() {
+		return _canvas;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getCurrentIndex() {
+		return _current;
+	}
+
+	public int getNextIndex() {
+		return _next;
+	}
+
+	public boolean isCacheDeltas() {
+		return _cacheDeltas;
+	}
+
+	/**
+	 * 设置是否缓存各帧的差异数据,关闭时释放已缓存的数据
+	 * 
+	 * @param cache
+	 */
+	public void setCacheDeltas(boolean cache) {
+		if (_cacheDeltas == cache) {
+			return;
+		}
+		this._cacheDeltas = cache;
+		this._deltas = (cache && frameCount > 0) ? new int[frameCount][] : null;
+		this._deltaCount = 0;
+		this._deltaSize = 0;
+		this._before = null;
+		if (!cache) {
+			// 由缓存还原时未保存disposal状态,需从首帧重新解码
+			this._current = -1;
+			this._next = 0;
+		}
+	}
+
+	/**
+	 * 所有帧的差异数据已缓存完毕(此后不再解码)
+	 * 
+	 * @return
+	 */
+	public boolean isCacheCompleted() {
+		return _cacheDeltas && frameCount > 0 && _deltaCount == frameCount;
+	}
+
+	/**
+	 * 差异缓存占用的字节数
+	 * 
+	 * @return
+	 */
+	public int getCacheSize() {
+		return _deltaSize * 4;
+	}
+
+	/**
+	 * 解码用缓冲及差异缓存占用的字节数(不包括gif源数据)
+	 * 
+	 * @return
+	 */
+	public int getMemorySize() {
+		int size = getCacheSize();
+		if (_canvas != null) {
+			size += _canvas.length * 4;
+		}
+		if (_previous != null) {
+			size += _previous.length * 4;
+		}
+		if (_before != null) {
+			size += _before.length * 4;
+		}
+		if (pixels != null) {
+			size += pixels.length;
+		}
+		return size;
+	}
+
+	/**
+	 * 最近一帧的解码(或由缓存还原)耗时,单位纳秒
+	 * 
+	 * @return
+	 */
+	public long getLastDecodeTime() {
+		return _lastDecodeTime;
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		_canvas = null;
+		_previous = null;
+		_before = null;
+		_deltas = null;
+		_deltaCount = 0;
+		_deltaSize = 0;
+		frameCount = 0;
+	}
+
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.utils;
+
+/**
+ * 以int数组分块存储的稀疏二维网格,未写入的格子返回默认值.
+ * 
+ * <pre>
+ * IntChunkGrid grid = new IntChunkGrid();
+ * grid.set(-100000, 250000, 1);
+ * int v = grid.get(-100000, 250000);
+ * </pre>
+ */
+public class IntChunkGrid extends ChunkGrid<int[]> {
+
+	public final static int DEFAULT_CHUNK_SHIFT = 4;
+
+	private int _defaultValue;
+
+	public IntChunkGrid() {
+		this(DEFAULT_CHUNK_SHIFT, 0);
+	}
+
+	public IntChunkGrid(int defaultValue) {
+		this(DEFAULT_CHUNK_SHIFT, defaultValue);
+	}
+
+	public IntChunkGrid(int chunkShift, int defaultValue) {
+		super(chunkShift);
+		this._defaultValue = defaultValue;
+	}
+
+	@Override
+	protected int[] newChunk() {
+		int[] data = new int[_chunkSize * _chunkSize];
+		if (_defaultValue != 0) {
+			for (int i = 0; i < data.length; i++) {
+				data[i] = _defaultValue;
+			}
+		}
+		return data;
+	}
+
+	@Override
+	protected boolean isEmptyChunk(int[] data) {
+		for (int i = 0; i < data.length; i++) {
+			if (data[i] != _defaultValue) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int getDefaultValue() {
+		return _defaultValue;
+	}
+
+	/**
+	 * 设置未写入格子的默认值,会清空现有数据
+	 * 
+	 * @param v
+	 * @return
+	 */
+	public IntChunkGrid setDefaultValue(int v) {
+		this._defaultValue = v;
+		clear();
+		return this;
+	}
+
+	public int get(int x, int y) {
+		final int[] data = chunkAt(x >> _chunkShift, y >> _chunkShift, false);
+		if (data == null) {
+			return _defaultValue;
+		}
+		return data[((y & _chunkMask) << _chunkShift) | (x & _chunkMask)];
+	}
+
+	public IntChunkGrid set(int x, int y, int v) {
+		final int[] data = chunkAt(x >> _chunkShift, y >> _chunkShift, v != _defaultValue);
+		if (data != null) {
+			data[((y & _chunkMask) << _chunkShift) | (x & _chunkMask)] = v;
+		}
+		return this;
+	}
+
+	/**
+	 * 读取一行中从(x,y)开始的length个格子到out
+	 * 
+	 * @param x
+	 * @param y
+	 * @param length
+	 * @param out
+	 * @param offset
+	 * @return
+	 */
+	public int[] getRow(int x, int y, int length, int[] out, int offset) {
+		final int cy = y >> _chunkShift;
+		final int row = (y & _chunkMask) << _chunkShift;
+		for (int end = x + length; x < end;) {
+			final int inner = x & _chunkMask;
+			final int span = MathUtils.min(_chunkSize - inner, end - x);
+			final int[] data = chunkAt(x >> _chunkShift, cy, false);
+			if (data == null) {
+				for (int i = 0; i < span; i++) {
+					out[offset + i] = _defaultValue;
+				}
+			} else {
+				System.arraycopy(data, row | inner, out, offset, span);
+			}
+			x += span;
+			offset += span;
+		}
+		return out;
+	}
+
+	/**
+	 * 将src中的length个值写入从(x,y)开始的一行
+	 * 
+	 * @param x
+	 * @param y
+	 * @param src
+	 * @param offset
+	 * @param length
+	 * @return
+	 */
+	public IntChunkGrid setRow(int x, int y, int[] src, int offset, int length) {
+		final int cy = y >> _chunkShift;
+		final int row = (y & _chunkMask) << _chunkShift;
+		for (int end = x + length; x < end;) {
+			final int inner = x & _chunkMask;
+			final int span = MathUtils.min(_chunkSize - inner, end - x);
+			int[] data = chunkAt(x >> _chunkShift, cy, false);
+			if (data == null && !isDefault(src, offset, span)) {
+				data = chunkAt(x >> _chunkShift, cy, true);
+			}
+			if (data != null) {
+				System.arraycopy(src, offset, data, row | inner, span);
+			}
+			x += span;
+			offset += span;
+		}
+		return this;
+	}
+
+	private boolean isDefault(int[] src, int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			if (src[offset + i] != _defaultValue) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 以指定值填充矩形区域
+	 * 
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 * @param v
+	 * @return
+	 */
+	public IntChunkGrid fill(int x, int y, int width, int height, int v) {
+		final boolean create = v != _defaultValue;
+		for (int j = y, endY = y + height; j < endY; j++) {
+			final int cy = j >> _chunkShift;
+			final int row = (j & _chunkMask) << _chunkShift;
+			for (int i = x, endX = x + width; i < endX;) {
+				final int inner = i & _chunkMask;
+				final int span = MathUtils.min(_chunkSize - inner, endX - i);
+				final int[] data = chunkAt(i >> _chunkShift, cy, create);
+				if (data != null) {
+					for (int k = row | inner, n = k + span; k < n; k++) {
+						data[k] = v;
+					}
+				}
+				i += span;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * 读取矩形区域,结果按[行][列]排列(与Field2D的地图数组相同)
+	 * 
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	public int[][] toArray(int x, int y, int width, int height) {
+		final int[][] result = new int[height][width];
+		for (int j = 0; j < height; j++) {
+			getRow(x, y + j, width, result[j], 0);
+		}
+		return result;
+	}
+
+	/**
+	 * 将[行][列]排列的数组写入以(x,y)为左上角的区域
+	 * 
+	 * @param x
+	 * @param y
+	 * @param arrays
+	 * @return
+	 */
+	public IntChunkGrid setArray(int x, int y, int[][] arrays) {
+		for (int j = 0; j < arrays.length; j++) {
+			setRow(x, y + j, arrays[j], 0, arrays[j].length);
+		}
+		return this;
+	}
+
+	public IntChunkGrid cpy() {
+		final IntChunkGrid grid = new IntChunkGrid(_chunkShift, _defaultValue);
+		forEachChunk(new ChunkVisitor<int[]>() {
+
+			@Override
+			public void visit(int chunkX, int chunkY, int[] data) {
+				System.arraycopy(data, 0, grid.chunkAt(chunkX, chunkY, true), 0, data.length);
+			}
+		});
+		grid.setChunkStore(getChunkStore());
+		return grid;
+	}
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.utils;
+
+/**
+ * 以对象数组分块存储的稀疏二维网格,未写入的格子返回null
+ */
+public class ObjectChunkGrid<T> extends ChunkGrid<Object[]> {
+
+	public final static int DEFAULT_CHUNK_SHIFT = 4;
+
+	public ObjectChunkGrid() {
+		this(DEFAULT_CHUNK_SHIFT);
+	}
+
+	public ObjectChunkGrid(int chunkShift) {
+		super(chunkShift);
+	}
+
+	@Override
+	protected Object[] newChunk() {
+		return new Object[_chunkSize * _chunkSize];
+	}
+
+	@Override
+	protected boolean isEmptyChunk(Object[] data) {
+		for (int i = 0; i < data.length; i++) {
+			if (data[i] != null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int x, int y) {
+		final Object[] data = chunkAt(x >> _chunkShift, y >> _chunkShift, false);
+		if (data == null) {
+			return null;
+		}
+		return (T) data[((y & _chunkMask) << _chunkShift) | (x & _chunkMask)];
+	}
+
+	public ObjectChunkGrid<T> set(int x, int y, T v) {
+		final Object[] data = chunkAt(x >> _chunkShift, y >> _chunkShift, v != null);
+		if (data != null) {
+			data[((y & _chunkMask) << _chunkShift) | (x & _chunkMask)] = v;
+		}
+		return this;
+	}
+
+	public T remove(int x, int y) {
+		final T old = get(x, y);
+		if (old != null) {
+			set(x, y, null);
+		}
+		return old;
+	}
+
+	/**
+	 * 读取一行中从(x,y)开始的length个格子到out
+	 * 
+	 * @param x
+	 * @param y
+	 * @param length
+	 * @param out
+	 * @param offset
+	 * @return
+	 */
+	public Object[] getRow(int x, int y, int length, Object[] out, int offset) {
+		final int cy = y >> _chunkShift;
+		final int row = (y & _chunkMask) << _chunkShift;
+		for (int end = x + length; x < end;) {
+			final int inner = x & _chunkMask;
+			final int span = MathUtils.min(_chunkSize - inner, end - x);
+			final Object[] data = chunkAt(x >> _chunkShift, cy, false);
+			if (data == null) {
+				for (int i = 0; i < span; i++) {
+					out[offset + i] = null;
+				}
+			} else {
+				System.arraycopy(data, row | inner, out, offset, span);
+			}
+			x += span;
+			offset += span;
+		}
+		return out;
+	}
+
+}
@@ -20,147 +20,53 @@
  */
 package loon.utils;
 
+/**
+ * 可向任意方向无限扩展的二维对象网格(坐标可为负数).
+ * 
+ * 数据存储于{@link ObjectChunkGrid},只有写入过的区域会分配内存,读写均为O(1),扩展范围时不需要重建树.
+ */
 public class QuadTree<T> {
 
-	private interface QuadTreeIFace<T> {
-
-		public void set(final int x, final int y, final T value);
-
-		public T get(final int x, final int y);
-	}
-
-	private static class Grid<T> implements QuadTreeIFace<T> {
-
-		private final TArray<T> values;
-
-		private final int dimension;
-
-		public Grid(final int dimension) {
-			this.dimension = dimension;
-			values = new TArray<T>(dimension * dimension);
-		}
-
-		@Override
-		public T get(int x, int y) {
-			if (x >= 0 && y >= 0 && x < dimension && y < dimension) {
-				return values.get(x * dimension + y);
-			}
-			return null;
-		}
-
-		@Override
-		public void set(int x, int y, T value) {
-			if (x >= 0 && y >= 0 && x < dimension && y < dimension) {
-				values.set(x * dimension + y, value);
-			}
-		}
-	}
-
-	private static class Quad<T> implements QuadTreeIFace<T> {
-
-		private final TArray<QuadTreeIFace<T>> quads;
-		private final int size;
-
-		protected Quad(int size) {
-			this.size = size;
-			quads = new TArray<QuadTreeIFace<T>>(size);
-		}
-
-		@Override
-		public T get(int x, int y) {
-			int quad = getIndex(x, y);
-			if (quads.get(quad) == null) {
-				return null;
-			}
-			int innerX;
-			int innerY;
-			if (quads.get(quad) instanceof Grid) {
-				innerX = x + ((x < 0) ? size : 0);
-				innerY = y + ((y < 0) ? size : 0);
-			} else {
-				innerX = x + ((x < 0) ? size : 0) - size / 2;
-				innerY = y + ((y < 0) ? size : 0) - size / 2;
-			}
-			return quads.get(quad).get(innerX, innerY);
-		}
-
-		@Override
-		public void set(final int x, final int y, final T value) {
-			int quad = getIndex(x, y);
-			if (quads.get(quad) == null) {
-				if (size <= CollectionUtils.INITIAL_CAPACITY) {
-					quads.set(quad, new Grid<T>(size));
-				} else {
-					quads.set(quad, new Quad<T>(size / 2));
-				}
-			}
-			int innerX;
-			int innerY;
-			if (quads.get(quad) instanceof Grid) {
-				innerX = x + ((x < 0) ? size : 0);
-				innerY = y + ((y < 0) ? size : 0);
-			} else {
-				innerX = x + ((x < 0) ? size : 0) - size / 2;
-				innerY = y + ((y < 0) ? size : 0) - size / 2;
-			}
-			quads.get(quad).set(innerX, innerY, value);
-		}
-
-		private static int getIndex(int signX, int signY) {
-			int quad = ((signX < 0) ? 1 : 0) + ((signY < 0) ? 2 : 0);
-			if (quad >= 0 && quad < 4) {
-				return quad;
-			}
-			return -1;
-		}
-
-		protected static <T> Quad<T> superQuad(Quad<T> oldQuad) {
-			Quad<T> superQuad = new Quad<T>(oldQuad.size * 2);
-			for (int i = 0; i < 4; i++) {
-				superQuad.quads.set(i, new Quad<T>(oldQuad.size));
-			}
-			((Quad<T>) superQuad.quads.get(getIndex(-1, -1))).quads.set(getIndex(+1, +1),
-					oldQuad.quads.get(getIndex(-1, -1)));
-			((Quad<T>) superQuad.quads.get(getIndex(-1, +1))).quads.set(getIndex(+1, -1),
-					oldQuad.quads.get(getIndex(-1, +1)));
-			((Quad<T>) superQuad.quads.get(getIndex(+1, -1))).quads.set(getIndex(-1, +1),
-					oldQuad.quads.get(getIndex(+1, -1)));
-			((Quad<T>) superQuad.quads.get(getIndex(+1, +1))).quads.set(getIndex(-1, -1),
-					oldQuad.quads.get(getIndex(+1, +1)));
-			return superQuad;
-		}
-	}
-
-	private Quad<T> root;
-	private int size;
+	private final ObjectChunkGrid<T> grid;
 
 	public QuadTree() {
 		this(CollectionUtils.INITIAL_CAPACITY);
 	}
 
+	/**
+	 * @param gridSize 数据块边长(取不小于它的2的幂)
+	 */
 	public QuadTree(int gridSize) {
-		this.size = gridSize;
-		root = new Quad<T>(size);
+		int shift = 1;
+		while ((1 << shift) < gridSize && shift < 12) {
+			shift++;
+		}
+		this.grid = new ObjectChunkGrid<T>(shift);
 	}
 
 	public QuadTree<T> set(int x, int y, T value) {
-		while (x >= size || y >= size || x < -size || y < -size) {
-			splitQuad();
-		}
-		root.set(x, y, value);
+		grid.set(x, y, value);
 		return this;
 	}
 
 	public T get(int x, int y) {
-		if (x >= size || y >= size || x < -size || y < -size) {
-			return null;
-		}
-		return root.get(x, y);
+		return grid.get(x, y);
+	}
+
+	public T remove(int x, int y) {
+		return grid.remove(x, y);
+	}
+
+	public void clear() {
+		grid.clear();
 	}
 
-	private void splitQuad() {
-		size = size * 2;
-		Quad<T> newRoot = Quad.superQuad(root);
-		root = newRoot;
+	/**
+	 * 返回底层的分块网格,可用于按行读取,回收与保存数据块
+	 * 
+	 * @return
+	 */
+	public ObjectChunkGrid<T> getGrid() {
+		return grid;
 	}
 }
@@ -0,0 +1,563 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.utils.cache;
+
+import loon.LSysException;
+import loon.event.QueryEvent;
+import loon.utils.Array;
+import loon.utils.MathUtils;
+import loon.utils.TArray;
+
+/**
+ * 可被多线程同时使用的Pool,结构为:
+ * 
+ * 1.按线程分条的本地缓存(Stripe),每个线程通过StripeSelector固定落在某一条上,通常无竞争
+ * 
+ * 2.一个共享的溢出栈,本地缓存满时成批移入一半,为空时成批取回,以减少对共享锁的争用
+ * 
+ * 默认的StripeSelector只有一条(与GWT等单线程平台兼容),支持多线程的平台可通过setDefaultStripeSelector按线程分条.
+ * 
+ * 另外提供obtain/hit/miss/free/drop计数,以及以帧(或任意范围)为单位的泄漏统计(beginScope/endScope).
+ * 
+ * @param <T>
+ */
+public abstract class ConcurrentPool<T> extends Pool<T> {
+
+	/**
+	 * 为当前线程选择缓存条
+	 */
+	public static interface StripeSelector {
+
+		/**
+		 * 建议的分条数量
+		 * 
+		 * @return
+		 */
+		public int stripes();
+
+		/**
+		 * 当前线程的分条索引(会被自动取模)
+		 * 
+		 * @return
+		 */
+		public int select();
+
+	}
+
+	public final static StripeSelector SINGLE = new StripeSelector() {
+
+		@Override
+		public int stripes() {
+			return 1;
+		}
+
+		@Override
+		public int select() {
+			return 0;
+		}
+	};
+
+	private static StripeSelector _defaultSelector = SINGLE;
+
+	public static void setDefaultStripeSelector(StripeSelector selector) {
+		_defaultSelector = (selector == null) ? SINGLE : selector;
+	}
+
+	public static StripeSelector getDefaultStripeSelector() {
+		return _defaultSelector;
+	}
+
+	private final static class Stripe {
+
+		Object[] items;
+
+		int size;
+
+		long obtained;
+
+		long hits;
+
+		long freed;
+
+		long dropped;
+
+		Stripe(int capacity) {
+			items = new Object[capacity];
+		}
+	}
+
+	private final StripeSelector _selector;
+
+	private final Stripe[] _stripes;
+
+	private final int _mask;
+
+	private final int _stripeCapacity;
+
+	private final int _sharedCapacity;
+
+	private final Object _sharedLock = new Object();
+
+	private Object[] _shared;
+
+	private int _sharedSize;
+
+	private final Object _scopeLock = new Object();
+
+	private long _scopeObtained;
+
+	private long _scopeFreed;
+
+	private boolean _inScope;
+
+	private long _leaked;
+
+	private int _softLimit = -1;
+
+	public ConcurrentPool() {
+		this(Integer.MAX_VALUE);
+	}
+
+	public ConcurrentPool(int max) {
+		this(max, 0);
+	}
+
+	/**
+	 * @param max
+	 *            最多缓存的对象数量
+	 * @param stripes
+	 *            分条数量,小于1时使用StripeSelector的建议值
+	 */
+	public ConcurrentPool(int max, int stripes) {
+		super(max);
+		if (max < 0) {
+			throw new LSysException("max cannot be < 0: " + max);
+		}
+		this._selector = _defaultSelector;
+		final int count = MathUtils.nextPowerOfTwo(MathUtils.max(1, stripes < 1 ? _selector.stripes() : stripes));
+		this._mask = count - 1;
+		this._stripeCapacity = MathUtils.clamp(max / (count * 2), 1, 64);
+		this._sharedCapacity = MathUtils.max(0, max - _stripeCapacity * count);
+		this._stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			_stripes[i] = new Stripe(_stripeCapacity);
+		}
+		this._shared = new Object[MathUtils.min(_sharedCapacity, 16)];
+	}
+
+	private Stripe stripe() {
+		return _stripes[_selector.select() & _mask];
+	}
+
+	@SuppressWarnings("unchecked")
+	private T take(Stripe s) {
+		if (s.size == 0) {
+			synchronized (_sharedLock) {
+				final int count = MathUtils.min(_sharedSize, MathUtils.max(1, _stripeCapacity / 2));
+				if (count == 0) {
+					return null;
+				}
+				_sharedSize -= count;
+				System.arraycopy(_shared, _sharedSize, s.items, 0, count);
+				for (int i = _sharedSize; i < _sharedSize + count; i++) {
+					_shared[i] = null;
+				}
+				s.size = count;
+			}
+		}
+		final T o = (T) s.items[--s.size];
+		s.items[s.size] = null;
+		return o;
+	}
+
+	private void put(Stripe s, T o) {
+		if (s.size == _stripeCapacity) {
+			// 本地缓存已满,将一半移入共享栈
+			final int count = MathUtils.max(1, _stripeCapacity / 2);
+			synchronized (_sharedLock) {
+				final int moved = MathUtils.min(count, _sharedCapacity - _sharedSize);
+				if (moved > 0) {
+					ensureShared(_sharedSize + moved);
+					System.arraycopy(s.items, s.size - moved, _shared, _sharedSize, moved);
+					_sharedSize += moved;
+					peak = MathUtils.max(peak, _sharedSize);
+				}
+				s.dropped += count - moved;
+			}
+			for (int i = s.size - count; i < s.size; i++) {
+				s.items[i] = null;
+			}
+			s.size -= count;
+		}
+		s.items[s.size++] = o;
+	}
+
+	private void ensureShared(int size) {
+		if (size > _shared.length) {
+			int len = _shared.length;
+			while (len < size) {
+				len = (len < _sharedCapacity / 2) ? MathUtils.max(16, len * 2) : _sharedCapacity;
+			}
+			Object[] items = new Object[len];
+			System.arraycopy(_shared, 0, items, 0, _sharedSize);
+			_shared = items;
+		}
+	}
+
+	@Override
+	public T obtain() {
+		final Stripe s = stripe();
+		T o;
+		synchronized (s) {
+			s.obtained++;
+			o = take(s);
+			if (o != null) {
+				s.hits++;
+				return o;
+			}
+		}
+		return newObject();
+	}
+
+	/**
+	 * 仅从缓存中提取对象,缓存为空时返回null
+	 */
+	@Override
+	public T pop() {
+		final Stripe s = stripe();
+		synchronized (s) {
+			return take(s);
+		}
+	}
+
+	@Override
+	public void free(T o) {
+		if (o == null) {
+			throw new LSysException("Object cannot be null.");
+		}
+		// 先重置再放回,避免其它线程取得重置中的对象
+		if (o instanceof Poolable) {
+			((Poolable) o).reset();
+		}
+		final Stripe s = stripe();
+		synchronized (s) {
+			s.freed++;
+			if (max > 0) {
+				put(s, o);
+			} else {
+				s.dropped++;
+			}
+		}
+	}
+
+	@Override
+	public void freeAll(TArray<T> objects) {
+		if (objects == null) {
+			throw new LSysException("Object cannot be null.");
+		}
+		for (int i = objects.size - 1; i > -1; i--) {
+			T o = objects.get(i);
+			if (o != null) {
+				free(o);
+			}
+		}
+	}
+
+	@Override
+	public void freeAll(Array<T> objects) {
+		if (objects == null) {
+			throw new LSysException("Object cannot be null.");
+		}
+		for (; objects.hashNext();) {
+			T o = objects.next();
+			if (o != null) {
+				free(o);
+			}
+		}
+		objects.stopNext();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public TArray<T> select(QueryEvent<T> event) {
+		TArray<T> result = new TArray<T>();
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				for (int j = s.size - 1; j > -1; j--) {
+					T v = (T) s.items[j];
+					if (event.hit(v)) {
+						result.add(v);
+					}
+				}
+			}
+		}
+		synchronized (_sharedLock) {
+			for (int i = _sharedSize - 1; i > -1; i--) {
+				T v = (T) _shared[i];
+				if (event.hit(v)) {
+					result.add(v);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void delete(QueryEvent<T> event) {
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				s.size = retain(s.items, s.size, event);
+			}
+		}
+		synchronized (_sharedLock) {
+			_sharedSize = retain(_shared, _sharedSize, event);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private int retain(Object[] items, int size, QueryEvent<T> event) {
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			T v = (T) items[i];
+			if (!event.hit(v)) {
+				items[n++] = v;
+			}
+		}
+		for (int i = n; i < size; i++) {
+			items[i] = null;
+		}
+		return n;
+	}
+
+	/**
+	 * 删除缓存中的对象,直到缓存数量不大于maxFree(优先删除共享栈中的对象)
+	 * 
+	 * @param maxFree
+	 */
+	@Override
+	public void trim(int maxFree) {
+		int excess = getFree() - MathUtils.max(0, maxFree);
+		if (excess <= 0) {
+			return;
+		}
+		synchronized (_sharedLock) {
+			final int count = MathUtils.min(excess, _sharedSize);
+			for (int i = _sharedSize - count; i < _sharedSize; i++) {
+				_shared[i] = null;
+			}
+			_sharedSize -= count;
+			excess -= count;
+			if (_sharedSize == 0 && _shared.length > 16) {
+				_shared = new Object[16];
+			}
+		}
+		for (int i = 0; i < _stripes.length && excess > 0; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				final int count = MathUtils.min(excess, s.size);
+				for (int j = s.size - count; j < s.size; j++) {
+					s.items[j] = null;
+				}
+				s.size -= count;
+				excess -= count;
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		trim(0);
+		peak = 0;
+	}
+
+	@Override
+	public int getFree() {
+		int count = 0;
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				count += s.size;
+			}
+		}
+		synchronized (_sharedLock) {
+			count += _sharedSize;
+		}
+		return count;
+	}
+
+	@Override
+	public int getPeak() {
+		peak = MathUtils.max(peak, getFree());
+		return peak;
+	}
+
+	/**
+	 * 开始一个统计范围(通常为一帧),在endScope时仍未释放的对象计为泄漏
+	 */
+	public void beginScope() {
+		final long obtained = getObtained();
+		final long freed = getFreed();
+		synchronized (_scopeLock) {
+			_scopeObtained = obtained;
+			_scopeFreed = freed;
+			_inScope = true;
+		}
+	}
+
+	/**
+	 * 结束统计范围,返回此范围内提取后未被释放的对象数量,若设置了软上限则同时收缩缓存
+	 * 
+	 * @return
+	 */
+	public int endScope() {
+		final long obtained = getObtained();
+		final long freed = getFreed();
+		int leaked = 0;
+		synchronized (_scopeLock) {
+			if (_inScope) {
+				final long outstanding = (obtained - _scopeObtained) - (freed - _scopeFreed);
+				if (outstanding > 0) {
+					leaked = (int) outstanding;
+					_leaked += outstanding;
+				}
+				_inScope = false;
+			}
+		}
+		if (_softLimit >= 0) {
+			trim(_softLimit);
+		}
+		return leaked;
+	}
+
+	public boolean isInScope() {
+		synchronized (_scopeLock) {
+			return _inScope;
+		}
+	}
+
+	/**
+	 * 软上限,大于等于0时每次endScope后将缓存收缩到此数量以下(比如内存紧张时设置),小于0时不收缩
+	 * 
+	 * @param limit
+	 */
+	public ConcurrentPool<T> setSoftLimit(int limit) {
+		this._softLimit = limit;
+		return this;
+	}
+
+	public int getSoftLimit() {
+		return _softLimit;
+	}
+
+	public long getObtained() {
+		long count = 0;
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				count += s.obtained;
+			}
+		}
+		return count;
+	}
+
+	public long getHits() {
+		long count = 0;
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				count += s.hits;
+			}
+		}
+		return count;
+	}
+
+	public long getMisses() {
+		return getObtained() - getHits();
+	}
+
+	public long getFreed() {
+		long count = 0;
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				count += s.freed;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 因缓存已满而未被保存的释放对象数量
+	 * 
+	 * @return
+	 */
+	public long getDropped() {
+		long count = 0;
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				count += s.dropped;
+			}
+		}
+		return count;
+	}
+
+	public long getLeaked() {
+		synchronized (_scopeLock) {
+			return _leaked;
+		}
+	}
+
+	public float getHitRate() {
+		final long obtained = getObtained();
+		return obtained == 0 ? 0f : (float) getHits() / obtained;
+	}
+
+	public void resetStats() {
+		for (int i = 0; i < _stripes.length; i++) {
+			final Stripe s = _stripes[i];
+			synchronized (s) {
+				s.obtained = 0;
+				s.hits = 0;
+				s.freed = 0;
+				s.dropped = 0;
+			}
+		}
+		synchronized (_scopeLock) {
+			_leaked = 0;
+			_inScope = false;
+		}
+	}
+
+	public int getStripes() {
+		return _stripes.length;
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentPool [stripes=" + _stripes.length + ", free=" + getFree() + ", obtained=" + getObtained()
+				+ ", hits=" + getHits() + ", misses=" + getMisses() + ", freed=" + getFreed() + ", dropped="
+				+ getDropped() + ", leaked=" + getLeaked() + "]";
+	}
+}
@@ -134,6 +134,17 @@ public abstract class Pool<T> {
 		peak = MathUtils.max(peak, freeObjects.size());
 	}
 
+	/**
+	 * 删除缓存中的对象,直到缓存数量不大于maxFree
+	 * 
+	 * @param maxFree
+	 */
+	public void trim(int maxFree) {
+		while (freeObjects.size() > MathUtils.max(0, maxFree)) {
+			freeObjects.pop();
+		}
+	}
+
 	public void clear() {
 		freeObjects.clear();
 		peak = 0;
@@ -23,7 +23,7 @@ package loon.utils.cache;
 import loon.utils.ObjectMap;
 
 /**
- * 用于同时存储多个简单缓存池Pool类
+ * 用于同时存储多个简单缓存池Pool类(线程安全,但其中的Pool是否线程安全取决于Pool本身,多线程时请使用ConcurrentPool)
  * 
  * @param <T>
  */
@@ -35,28 +35,39 @@ public class Pools<T> {
 		_inPoolDic = new ObjectMap<String, Pool<T>>();
 	}
 	
-	public Pools<T> recover(String sign, Pool<T> item) {
+	public synchronized Pools<T> recover(String sign, Pool<T> item) {
 		_inPoolDic.put(sign, item);
 		return this;
 	}
 
-	public Pool<T> getBySign(String sign) {
+	public synchronized Pool<T> getBySign(String sign) {
 		return _inPoolDic.get(sign);
 	}
 
-	public boolean clearBySign(String sign) {
+	public synchronized boolean clearBySign(String sign) {
 		return _inPoolDic.remove(sign) != null;
 	}
 
-	public void clear() {
+	public synchronized void clear() {
 		_inPoolDic.clear();
 	}
 
-	public int getFreeAll() {
+	public synchronized int getFreeAll() {
 		int count = 0;
 		for (Pool<T> p : _inPoolDic.values()) {
 			count += p.getFree();
 		}
 		return count;
 	}
+
+	/**
+	 * 收缩全部缓存池,使每个池中缓存的对象不多于maxFree(比如在内存紧张时调用)
+	 * 
+	 * @param maxFree
+	 */
+	public synchronized void trimAll(int maxFree) {
+		for (Pool<T> p : _inPoolDic.values()) {
+			p.trim(maxFree);
+		}
+	}
 }
@@ -20,16 +20,63 @@
  */
 package loon.utils.xml;
 
+import loon.utils.Base64Coder;
+
 public class XMLData {
 
 	private String text;
 
+	// 未生成字符串前,文本以解析缓冲区中的区间保存
+	private char[] buffer;
+
+	private int start, length;
+
 	@Override
 	public String toString() {
+		if (this.text == null && this.buffer != null) {
+			this.text = new String(buffer, start, length);
+			this.buffer = null;
+		}
 		return this.text;
 	}
 
 	public XMLData(String paramString) {
 		this.text = paramString;
 	}
+
+	XMLData(char[] buffer, int start, int length) {
+		this.buffer = buffer;
+		this.start = start;
+		this.length = length;
+	}
+
+	public int length() {
+		return buffer != null ? length : (text == null ? 0 : text.length());
+	}
+
+	/**
+	 * 将文本视为以逗号或空白分隔的无符号整数,直接解析到数组中
+	 * 
+	 * @return 写入的数量
+	 */
+	public int readInts(int[] out, int offset) {
+		if (buffer != null) {
+			return XMLPullParser.readInts(buffer, start, length, out, offset);
+		}
+		if (text == null) {
+			return 0;
+		}
+		final char[] chars = text.toCharArray();
+		return XMLPullParser.readInts(chars, 0, chars.length, out, offset);
+	}
+
+	/**
+	 * 将文本作为base64解码
+	 */
+	public byte[] readBase64() {
+		if (buffer != null) {
+			return Base64Coder.decodeBase64(buffer, start, length);
+		}
+		return Base64Coder.decodeBase64(text == null ? new char[0] : text.toCharArray());
+	}
 }
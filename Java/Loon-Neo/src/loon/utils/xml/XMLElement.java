@@ -43,11 +43,24 @@ public class XMLElement {
 	}
 
 	public XMLElement(String name) {
-		this.attributes = new ObjectMap<String, XMLAttribute>();
-		this.contents = new TArray<Object>();
 		this.name = name;
 	}
 
+	// 属性与子节点在首次使用时才创建,大量无子节点的元素(如TMX的tile)可以节省内存
+	private ObjectMap<String, XMLAttribute> attributeMap() {
+		if (attributes == null) {
+			attributes = new ObjectMap<String, XMLAttribute>();
+		}
+		return attributes;
+	}
+
+	private TArray<Object> contentList() {
+		if (contents == null) {
+			contents = new TArray<Object>();
+		}
+		return contents;
+	}
+
 	public byte[] readContentBinHex() {
 		byte[] buffer = new byte[0x1000];
 		readBinHex(buffer, 0, 0x1000);
@@ -89,60 +102,67 @@ public class XMLElement {
 	}
 
 	public XMLAttribute getAttribute(String name) {
-		if (!this.attributes.containsKey(name))
+		if (!hasAttribute(name))
 			throw new LSysException("Unknown attribute name '" + name + "' in element '" + this.name + "' !");
 		return this.attributes.get(name);
 	}
 
 	public String getAttribute(String name, String v) {
-		if (!this.attributes.containsKey(name)) {
+		if (!hasAttribute(name)) {
 			return v;
 		}
 		return (this.attributes.get(name)).getValue();
 	}
 
 	public int getIntAttribute(String name, int v) {
-		if (!this.attributes.containsKey(name)) {
+		if (!hasAttribute(name)) {
 			return v;
 		}
 		return (this.attributes.get(name)).getIntValue();
 	}
 
 	public float getFloatAttribute(String name, float v) {
-		if (!this.attributes.containsKey(name)) {
+		if (!hasAttribute(name)) {
 			return v;
 		}
 		return (this.attributes.get(name)).getFloatValue();
 	}
 
 	public double getDoubleAttribute(String name, double v) {
-		if (!this.attributes.containsKey(name)) {
+		if (!hasAttribute(name)) {
 			return v;
 		}
 		return (this.attributes.get(name)).getDoubleValue();
 	}
 
 	public boolean getBoolAttribute(String name, boolean v) {
-		if (!this.attributes.containsKey(name)) {
+		if (!hasAttribute(name)) {
 			return v;
 		}
 		return (this.attributes.get(name)).getBoolValue();
 	}
 
 	public ObjectMap<String, XMLAttribute> getAttributes() {
-		return this.attributes;
+		return attributeMap();
 	}
 
 	public boolean hasAttribute(String name) {
-		return this.attributes.containsKey(name);
+		return this.attributes != null && this.attributes.containsKey(name);
 	}
 
 	public Iterator<Object> elements() {
-		return this.contents.iterator();
+		return contentList().iterator();
+	}
+
+	/**
+	 * 子节点数量(包含文本,注释等)
+	 */
+	public int getContentCount() {
+		return contents == null ? 0 : contents.size;
 	}
 	
 	public TArray<XMLElement> list() {
-		TArray<XMLElement> lists = new TArray<XMLElement>(contents.size);
+		TArray<XMLElement> lists = new TArray<XMLElement>(getContentCount());
 		for (Iterator<?> e = elements(); e.hasNext();) {
 			Object o = e.next();
 			if (!(o instanceof XMLElement)) {
@@ -241,7 +261,39 @@ public class XMLElement {
 		return this.parent;
 	}
 
+	/**
+	 * 将文本内容视为以逗号或空白分隔的无符号整数(如TMX的csv图层),不生成中间字符串直接解析到数组中
+	 * 
+	 * @return 写入的数量
+	 */
+	public int readContentInts(int[] out, int offset) {
+		if (contents == null) {
+			return 0;
+		}
+		int count = 0;
+		for (int i = 0; i < contents.size; i++) {
+			final Object o = contents.get(i);
+			if (o instanceof XMLData) {
+				count += ((XMLData) o).readInts(out, offset + count);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 将文本内容作为base64解码,只有一段文本时直接在解析缓冲区上解码
+	 */
+	public byte[] readContentBase64() {
+		if (contents != null && contents.size == 1 && contents.get(0) instanceof XMLData) {
+			return ((XMLData) contents.get(0)).readBase64();
+		}
+		return Base64Coder.decodeBase64(getContents().toCharArray());
+	}
+
 	public String getContents() {
+		if (contents == null) {
+			return LSystem.EMPTY;
+		}
 		StringBuffer sbr = new StringBuffer(1024);
 		for (Iterator<?> e = elements(); e.hasNext();) {
 			sbr.append(e.next().toString());
@@ -251,18 +303,18 @@ public class XMLElement {
 
 	public XMLAttribute addAttribute(String name, int value) {
 		XMLAttribute attribute = new XMLAttribute(name, String.valueOf(value));
-		this.attributes.put(name, attribute);
+		attributeMap().put(name, attribute);
 		return attribute;
 	}
 
 	public XMLAttribute addAttribute(String name, String value) {
 		XMLAttribute attribute = new XMLAttribute(name, value);
-		this.attributes.put(name, attribute);
+		attributeMap().put(name, attribute);
 		return attribute;
 	}
 
 	public XMLElement addContents(Object o) {
-		this.contents.add(o);
+		contentList().add(o);
 		return this;
 	}
 
@@ -275,7 +327,7 @@ public class XMLElement {
 			builder.append('<');
 			builder.append(this.name);
 		}
-		for (String str2 : attributes.keys()) {
+		for (String str2 : attributeMap().keys()) {
 			builder.append(' ');
 			builder.append(str2);
 			builder.append(" = \"");
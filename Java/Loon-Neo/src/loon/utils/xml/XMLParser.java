@@ -21,8 +21,6 @@
 package loon.utils.xml;
 
 import loon.BaseIO;
-import loon.LSysException;
-import loon.LSystem;
 import loon.utils.TArray;
 
 public class XMLParser {
@@ -66,196 +64,90 @@ public class XMLParser {
 		}
 	}
 
-	private void newElement(String context, XMLListener l, int index) {
-		String o = LSystem.EMPTY;
-		int i;
-		String str1;
-		if (context.endsWith("/>")) {
-			i = 2;
-			str1 = context.substring(1, context.length() - 2);
-		} else if (context.startsWith("</")) {
-			i = 1;
-			str1 = context.substring(2, context.length() - 1);
-		} else {
-			i = 0;
-			str1 = context.substring(1, context.length() - 1);
-		}
-		try {
-			if (str1.indexOf(' ') < 0) {
-				o = str1;
-				switch (i) {
-				case OPEN_TAG:
-					pushElement(new XMLElement(o), index, l);
-					break;
-				case CLOSE_TAG:
-					if (this.topElement.getName().equals(o)) {
-						popElement(index, l);
-					} else {
-						throw new LSysException(
-								"Expected close of '" + this.topElement.getName() + "' instead of " + context);
-					}
-					break;
-				case OPEN_CLOSE_TAG:
-					pushElement(new XMLElement(o), index, l);
-					popElement(index, l);
-					break;
-				}
-			} else {
-				XMLElement el = null;
-				o = str1.substring(0, str1.indexOf(' '));
-				switch (i) {
-				case OPEN_TAG:
-					el = new XMLElement(o);
-					pushElement(el, index, l);
-					break;
-				case CLOSE_TAG:
-					throw new LSysException("Syntax Error: " + context);
-				case OPEN_CLOSE_TAG:
-					el = new XMLElement(o);
-					pushElement(el, index, l);
-					popElement(index, l);
-					break;
-				}
-				String str2 = str1.substring(str1.indexOf(' ') + 1);
-				int start = 0;
-				int end = 0;
-
-				StringBuffer sbr1 = new StringBuffer(128);
-				StringBuffer sbr2 = new StringBuffer(32);
-				for (int m = 0; m < str2.length(); m++) {
-
-					switch (str2.charAt(m)) {
-					case '"':
-
-						start = start != 0 ? 0 : 1;
-						break;
-					case ' ':
-						if ((end == 1) && (start == 1)) {
-							sbr1.append(str2.charAt(m));
-						} else if (sbr2.length() > 0) {
-							String key = sbr2.toString();
-							String value = sbr1.toString();
-							if (key.length() > 0) {
-								XMLAttribute a = el.addAttribute(key, value);
-								a.element = el;
-								if (l != null) {
-									l.addAttribute(index, a);
-								}
-							}
-							end = 0;
-							sbr1.delete(0, sbr1.length());
-							sbr2.delete(0, sbr2.length());
-						}
-						break;
-					case '=':
-
-						if (start == 0) {
-							end = 1;
-						}
-						break;
-					case '!':
-					case '#':
-					case '$':
-					case '%':
-					case '&':
-					case '\'':
-					case '(':
-					case ')':
-					case '*':
-					case '+':
-					case ',':
-					case '-':
-					case '.':
-					case '/':
-					case '0':
-					case '1':
-					case '2':
-					case '3':
-					case '4':
-					case '5':
-					case '6':
-					case '7':
-					case '8':
-					case '9':
-					case ':':
-					case ';':
-					case '<':
-					default:
-						if (end != 0) {
-							sbr1.append(str2.charAt(m));
-						} else {
-							sbr2.append(str2.charAt(m));
-						}
-					}
-
-				}
-				if (sbr1.length() > 0) {
-					String key = sbr2.toString();
-					String value = sbr1.toString();
-					XMLAttribute a = el.addAttribute(key, value);
-					a.element = el;
-					if (l != null) {
-						l.addAttribute(index, a);
-					}
-				}
+	private void newElement(XMLPullParser parser, XMLListener l, int index) {
+		final XMLElement el = new XMLElement(parser.getName());
+		pushElement(el, index, l);
+		for (int i = 0, size = parser.getAttributeCount(); i < size; i++) {
+			XMLAttribute a = el.addAttribute(parser.getAttributeName(i), parser.getAttributeValue(i));
+			a.element = el;
+			if (l != null) {
+				l.addAttribute(index, a);
 			}
-		} catch (Throwable e) {
-			throw new LSysException("Cannot parse element '" + context + "' - (" + e + ")", e);
+		}
+		if (parser.isEmptyElement()) {
+			parser.next();
+			popElement(index, l);
 		}
 	}
 
-	private void newData(String data, XMLListener l, int index) {
+	private void newData(XMLPullParser parser, XMLListener l, int index) {
 		if (this.topElement != null) {
-			XMLData xdata = new XMLData(data);
+			XMLData xdata = new XMLData(parser.getBuffer(), parser.getTextStart(), parser.getTextLength());
 			this.topElement.addContents(xdata);
 			if (l != null) {
 				l.addData(index, xdata);
 			}
 		} else if (this.rootElement == null) {
-			this.header.append(data);
+			appendHeader(parser);
 		}
 	}
 
-	private void newComment(String comment, XMLListener l, int index) {
+	private void newComment(XMLPullParser parser, XMLListener l, int index) {
 		if (this.topElement != null) {
-			XMLComment c = new XMLComment(comment.substring(4, comment.length() - 3));
+			XMLComment c = new XMLComment(parser.getText());
 			this.topElement.addContents(c);
 			if (l != null) {
 				l.addComment(index, c);
 			}
 		} else if (this.rootElement == null) {
-			this.header.append(comment);
+			appendHeader(parser);
 		}
 	}
 
-	private void newProcessing(String p, XMLListener l, int index) {
+	private void newProcessing(XMLPullParser parser, XMLListener l, int index) {
 		if (this.topElement != null) {
-			XMLProcessing xp = new XMLProcessing(p.substring(2, p.length() - 2));
+			XMLProcessing xp = new XMLProcessing(parser.getText());
 			this.topElement.addContents(xp);
 			if (l != null) {
 				l.addHeader(index, xp);
 			}
 		} else if (this.rootElement == null) {
-			this.header.append(p);
+			appendHeader(parser);
 		}
 	}
 
-	private XMLDocument parseText(String text, XMLListener l) {
+	private void appendHeader(XMLPullParser parser) {
+		this.header.append(parser.getBuffer(), parser.getTokenStart(), parser.getTokenEnd() - parser.getTokenStart());
+	}
+
+	private XMLDocument parseText(XMLPullParser parser, XMLListener l) {
 		int count = 0;
-		for (XMLTokenizer tokenizer = new XMLTokenizer(text); tokenizer.hasMoreElements();) {
-			String str = tokenizer.nextElement();
-			if ((str.startsWith("<?")) && (str.endsWith("?>"))) {
-				newProcessing(str, l, count);
-			} else if ((str.startsWith("<!--")) && (str.endsWith("-->"))) {
-				newComment(str, l, count);
-			} else if (str.charAt(0) == '<') {
-				newElement(str, l, count);
-			} else {
-				newData(str, l, count);
+		for (int event = parser.next(); event != XMLPullParser.END_DOCUMENT; event = parser.next()) {
+			switch (event) {
+			case XMLPullParser.START_ELEMENT:
+				newElement(parser, l, count);
+				break;
+			case XMLPullParser.END_ELEMENT:
+				popElement(count, l);
+				break;
+			case XMLPullParser.TEXT:
+			case XMLPullParser.CDATA:
+				newData(parser, l, count);
+				break;
+			case XMLPullParser.COMMENT:
+				newComment(parser, l, count);
+				break;
+			case XMLPullParser.PROCESSING:
+				newProcessing(parser, l, count);
+				break;
+			default:
+				if (this.rootElement == null) {
+					appendHeader(parser);
+				}
+				break;
 			}
 			count++;
 		}
-
 		return new XMLDocument(this.header.toString(), this.rootElement);
 	}
 
@@ -264,7 +156,7 @@ public class XMLParser {
 	}
 
 	public static XMLDocument parse(String file, XMLListener l) {
-		return new XMLParser().parseText(BaseIO.loadText(file), l);
+		return new XMLParser().parseText(new XMLPullParser(BaseIO.loadText(file)), l);
 	}
 
 	public static XMLDocument loadText(String context) {
@@ -272,7 +164,11 @@ public class XMLParser {
 	}
 
 	public static XMLDocument loadText(String context, XMLListener l) {
-		return new XMLParser().parseText(context, l);
+		return new XMLParser().parseText(new XMLPullParser(context), l);
+	}
+
+	public static XMLDocument loadText(char[] context, int offset, int length, XMLListener l) {
+		return new XMLParser().parseText(new XMLPullParser(context, offset, length), l);
 	}
 
 	public void dispose() {
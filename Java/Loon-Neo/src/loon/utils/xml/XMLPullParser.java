@@ -0,0 +1,571 @@
+/**
+ * Copyright 2008 - 2015 The Loon Game Engine Authors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * @project loon
+ * @author cping
+ * @email：javachenpeng@yahoo.com
+ * @version 0.5
+ */
+package loon.utils.xml;
+
+import loon.LSysException;
+import loon.LSystem;
+import loon.utils.Base64Coder;
+
+/**
+ * 拉取式(类似StAX)的XML解析器,直接在char[]上扫描,元素,属性与文本均以缓冲区中的偏移量表示,
+ * 只有在调用getName,getText等方法时才会生成字符串(较短的名称与属性值会被复用).
+ * 
+ * <pre>
+ * XMLPullParser parser = new XMLPullParser(text);
+ * for (int e = parser.next(); e != XMLPullParser.END_DOCUMENT; e = parser.next()) {
+ * 	if (e == XMLPullParser.START_ELEMENT &amp;&amp; parser.isName("data")) {
+ * 		...
+ * 	}
+ * }
+ * </pre>
+ */
+public class XMLPullParser {
+
+	public static final int START_DOCUMENT = 0;
+
+	public static final int START_ELEMENT = 1;
+
+	public static final int END_ELEMENT = 2;
+
+	public static final int TEXT = 3;
+
+	public static final int COMMENT = 4;
+
+	public static final int PROCESSING = 5;
+
+	public static final int CDATA = 6;
+
+	public static final int DOCTYPE = 7;
+
+	public static final int END_DOCUMENT = 8;
+
+	// 不超过此长度的名称与属性值会进入字符串缓存
+	private static final int CACHE_LENGTH = 16;
+
+	private static final int CACHE_SIZE = 512;
+
+	private final char[] buffer;
+
+	private final int limit;
+
+	private int pos;
+
+	private int eventType;
+
+	private int tokenStart, tokenEnd;
+
+	private int nameStart, nameLength;
+
+	private int textStart, textLength;
+
+	// 每个属性4个值:名称起点,名称长度,值起点,值长度
+	private int[] attributes = new int[32];
+
+	private int attributeCount;
+
+	private boolean emptyElement;
+
+	private boolean pendingEnd;
+
+	// 未闭合元素的名称位置,用于校验结束标签
+	private int[] openNames = new int[32];
+
+	private int depth;
+
+	private final String[] stringCache = new String[CACHE_SIZE];
+
+	public XMLPullParser(String text) {
+		this(text.toCharArray());
+	}
+
+	public XMLPullParser(char[] buffer) {
+		this(buffer, 0, buffer.length);
+	}
+
+	public XMLPullParser(char[] buffer, int offset, int length) {
+		this.buffer = buffer;
+		this.pos = offset;
+		this.limit = offset + length;
+		this.eventType = START_DOCUMENT;
+	}
+
+	/**
+	 * 读取下一个事件
+	 * 
+	 * @return 事件类型
+	 */
+	public int next() {
+		if (pendingEnd) {
+			pendingEnd = false;
+			emptyElement = false;
+			attributeCount = 0;
+			depth--;
+			return eventType = END_ELEMENT;
+		}
+		attributeCount = 0;
+		emptyElement = false;
+		if (pos >= limit) {
+			if (depth > 0) {
+				throw new LSysException("Unexpected end of document, '" + new String(buffer, openNames[(depth - 1) * 2],
+						openNames[(depth - 1) * 2 + 1]) + "' is not closed");
+			}
+			return eventType = END_DOCUMENT;
+		}
+		final char[] buf = buffer;
+		tokenStart = pos;
+		if (buf[pos] != '<') {
+			int i = pos;
+			while (i < limit && buf[i] != '<') {
+				i++;
+			}
+			textStart = pos;
+			textLength = i - pos;
+			pos = tokenEnd = i;
+			return eventType = TEXT;
+		}
+		if (pos + 1 >= limit) {
+			throw new LSysException("Tokenizer error: < without > at end of text");
+		}
+		final char c = buf[pos + 1];
+		if (c == '?') {
+			final int end = indexOf("?>", pos + 2);
+			textStart = pos + 2;
+			textLength = end - textStart;
+			pos = tokenEnd = end + 2;
+			return eventType = PROCESSING;
+		}
+		if (c == '!') {
+			if (startsWith("<!--", pos)) {
+				final int end = indexOf("-->", pos + 4);
+				textStart = pos + 4;
+				textLength = end - textStart;
+				pos = tokenEnd = end + 3;
+				return eventType = COMMENT;
+			}
+			if (startsWith("<![CDATA[", pos)) {
+				final int end = indexOf("]]>", pos + 9);
+				textStart = pos + 9;
+				textLength = end - textStart;
+				pos = tokenEnd = end + 3;
+				return eventType = CDATA;
+			}
+			int i = pos + 2;
+			int brackets = 0;
+			for (; i < limit; i++) {
+				final char ch = buf[i];
+				if (ch == '[') {
+					brackets++;
+				} else if (ch == ']') {
+					brackets--;
+				} else if (ch == '>' && brackets <= 0) {
+					break;
+				}
+			}
+			if (i >= limit) {
+				throw new LSysException("Tokenizer error: < without > at end of text");
+			}
+			textStart = pos + 2;
+			textLength = i - textStart;
+			pos = tokenEnd = i + 1;
+			return eventType = DOCTYPE;
+		}
+		if (c == '/') {
+			int i = pos + 2;
+			final int start = i;
+			while (i < limit && buf[i] != '>' && !isWhitespace(buf[i])) {
+				i++;
+			}
+			nameStart = start;
+			nameLength = i - start;
+			while (i < limit && buf[i] != '>') {
+				i++;
+			}
+			if (i >= limit) {
+				throw new LSysException("Tokenizer error: < without > at end of text");
+			}
+			pos = tokenEnd = i + 1;
+			if (depth == 0) {
+				throw new LSysException("Unexpected close tag " + getToken());
+			}
+			final int open = (depth - 1) * 2;
+			if (!regionEquals(openNames[open], openNames[open + 1], nameStart, nameLength)) {
+				throw new LSysException("Expected close of '" + new String(buf, openNames[open], openNames[open + 1])
+						+ "' instead of " + getToken());
+			}
+			depth--;
+			return eventType = END_ELEMENT;
+		}
+		return readStartElement();
+	}
+
+	private int readStartElement() {
+		final char[] buf = buffer;
+		int i = pos + 1;
+		final int start = i;
+		while (i < limit && buf[i] != '>' && buf[i] != '/' && !isWhitespace(buf[i])) {
+			i++;
+		}
+		nameStart = start;
+		nameLength = i - start;
+		for (;;) {
+			while (i < limit && isWhitespace(buf[i])) {
+				i++;
+			}
+			if (i >= limit) {
+				throw new LSysException("Tokenizer error: < without > at end of text");
+			}
+			final char ch = buf[i];
+			if (ch == '>') {
+				i++;
+				break;
+			}
+			if (ch == '/') {
+				if (i + 1 < limit && buf[i + 1] == '>') {
+					emptyElement = true;
+					i += 2;
+					break;
+				}
+				i++;
+				continue;
+			}
+			final int keyStart = i;
+			while (i < limit && buf[i] != '=' && buf[i] != '>' && buf[i] != '/' && !isWhitespace(buf[i])) {
+				i++;
+			}
+			final int keyLength = i - keyStart;
+			while (i < limit && isWhitespace(buf[i])) {
+				i++;
+			}
+			int valueStart = i, valueLength = 0;
+			if (i < limit && buf[i] == '=') {
+				i++;
+				while (i < limit && isWhitespace(buf[i])) {
+					i++;
+				}
+				if (i < limit && (buf[i] == '"' || buf[i] == '\'')) {
+					final char quote = buf[i++];
+					valueStart = i;
+					while (i < limit && buf[i] != quote) {
+						i++;
+					}
+					if (i >= limit) {
+						throw new LSysException("Tokenizer error: < without > at end of text");
+					}
+					valueLength = i - valueStart;
+					i++;
+				} else {
+					valueStart = i;
+					while (i < limit && buf[i] != '>' && !isWhitespace(buf[i])
+							&& !(buf[i] == '/' && i + 1 < limit && buf[i + 1] == '>')) {
+						i++;
+					}
+					valueLength = i - valueStart;
+				}
+			}
+			if (keyLength > 0) {
+				addAttribute(keyStart, keyLength, valueStart, valueLength);
+			}
+		}
+		pos = tokenEnd = i;
+		if (emptyElement) {
+			pendingEnd = true;
+		}
+		if (openNames.length < (depth + 1) * 2) {
+			final int[] newNames = new int[openNames.length * 2];
+			System.arraycopy(openNames, 0, newNames, 0, openNames.length);
+			openNames = newNames;
+		}
+		openNames[depth * 2] = nameStart;
+		openNames[depth * 2 + 1] = nameLength;
+		depth++;
+		return eventType = START_ELEMENT;
+	}
+
+	private void addAttribute(int keyStart, int keyLength, int valueStart, int valueLength) {
+		final int idx = attributeCount * 4;
+		if (idx + 4 > attributes.length) {
+			final int[] newAttributes = new int[attributes.length * 2];
+			System.arraycopy(attributes, 0, newAttributes, 0, attributes.length);
+			attributes = newAttributes;
+		}
+		attributes[idx] = keyStart;
+		attributes[idx + 1] = keyLength;
+		attributes[idx + 2] = valueStart;
+		attributes[idx + 3] = valueLength;
+		attributeCount++;
+	}
+
+	private int indexOf(String str, int from) {
+		final char first = str.charAt(0);
+		final int max = limit - str.length();
+		for (int i = from; i <= max; i++) {
+			if (buffer[i] == first && startsWith(str, i)) {
+				return i;
+			}
+		}
+		throw new LSysException("Tokenizer error: missing '" + str + "' at end of text");
+	}
+
+	private boolean startsWith(String str, int from) {
+		final int len = str.length();
+		if (from + len > limit) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (buffer[from + i] != str.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean regionEquals(int aStart, int aLength, int bStart, int bLength) {
+		if (aLength != bLength) {
+			return false;
+		}
+		for (int i = 0; i < aLength; i++) {
+			if (buffer[aStart + i] != buffer[bStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean regionEquals(int start, int length, String str) {
+		if (str == null || str.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (buffer[start + i] != str.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isWhitespace(char ch) {
+		return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t';
+	}
+
+	/**
+	 * 生成字符串,较短的内容会复用之前生成过的相同字符串
+	 */
+	private String toString(int start, int length) {
+		if (length == 0) {
+			return LSystem.EMPTY;
+		}
+		if (length > CACHE_LENGTH) {
+			return new String(buffer, start, length);
+		}
+		int hash = 0;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + buffer[start + i];
+		}
+		final int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+		final String cached = stringCache[slot];
+		if (regionEquals(start, length, cached)) {
+			return cached;
+		}
+		final String result = new String(buffer, start, length);
+		stringCache[slot] = result;
+		return result;
+	}
+
+	public int getEventType() {
+		return eventType;
+	}
+
+	public char[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * 当前元素的嵌套深度(开始标签之后计入)
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * 当前开始标签是否为自闭合标签(随后的END_ELEMENT由解析器补充)
+	 */
+	public boolean isEmptyElement() {
+		return emptyElement;
+	}
+
+	public int getNameStart() {
+		return nameStart;
+	}
+
+	public int getNameLength() {
+		return nameLength;
+	}
+
+	public String getName() {
+		return toString(nameStart, nameLength);
+	}
+
+	public boolean isName(String name) {
+		return regionEquals(nameStart, nameLength, name);
+	}
+
+	public int getAttributeCount() {
+		return attributeCount;
+	}
+
+	public int getAttributeNameStart(int index) {
+		return attributes[index * 4];
+	}
+
+	public int getAttributeNameLength(int index) {
+		return attributes[index * 4 + 1];
+	}
+
+	public int getAttributeValueStart(int index) {
+		return attributes[index * 4 + 2];
+	}
+
+	public int getAttributeValueLength(int index) {
+		return attributes[index * 4 + 3];
+	}
+
+	public String getAttributeName(int index) {
+		return toString(attributes[index * 4], attributes[index * 4 + 1]);
+	}
+
+	public String getAttributeValue(int index) {
+		return toString(attributes[index * 4 + 2], attributes[index * 4 + 3]);
+	}
+
+	public boolean isAttributeName(int index, String name) {
+		return regionEquals(attributes[index * 4], attributes[index * 4 + 1], name);
+	}
+
+	/**
+	 * 按名称查找当前开始标签的属性位置
+	 * 
+	 * @param name
+	 * @return 不存在时返回-1
+	 */
+	public int indexOfAttribute(String name) {
+		for (int i = 0; i < attributeCount; i++) {
+			if (isAttributeName(i, name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public String getAttributeValue(String name, String defaultValue) {
+		final int idx = indexOfAttribute(name);
+		return idx == -1 ? defaultValue : getAttributeValue(idx);
+	}
+
+	/**
+	 * TEXT,CDATA,COMMENT,PROCESSING,DOCTYPE事件的内容起点(不含标记符号)
+	 */
+	public int getTextStart() {
+		return textStart;
+	}
+
+	public int getTextLength() {
+		return textLength;
+	}
+
+	public String getText() {
+		return new String(buffer, textStart, textLength);
+	}
+
+	public boolean isWhitespace() {
+		for (int i = textStart, end = textStart + textLength; i < end; i++) {
+			if (!isWhitespace(buffer[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 当前事件在缓冲区中的完整范围(含标记符号)
+	 */
+	public int getTokenStart() {
+		return tokenStart;
+	}
+
+	public int getTokenEnd() {
+		return tokenEnd;
+	}
+
+	public String getToken() {
+		return new String(buffer, tokenStart, tokenEnd - tokenStart);
+	}
+
+	/**
+	 * 将当前文本内容视为以逗号或空白分隔的无符号整数(如TMX的csv图层),直接解析到数组中
+	 * 
+	 * @return 写入的数量
+	 */
+	public int readInts(int[] out, int offset) {
+		return readInts(buffer, textStart, textLength, out, offset);
+	}
+
+	/**
+	 * 将当前文本内容作为base64解码
+	 */
+	public byte[] readBase64() {
+		return Base64Coder.decodeBase64(buffer, textStart, textLength);
+	}
+
+	/**
+	 * 从字符区间中解析以逗号或空白分隔的无符号整数,超过out容量的部分被忽略
+	 * 
+	 * @return 写入的数量
+	 */
+	public static int readInts(char[] chars, int start, int length, int[] out, int offset) {
+		final int end = start + length;
+		int count = offset;
+		int i = start;
+		while (i < end && count < out.length) {
+			char ch = chars[i];
+			if (ch == ',' || isWhitespace(ch)) {
+				i++;
+				continue;
+			}
+			long value = 0;
+			final int numberStart = i;
+			while (i < end && (ch = chars[i]) >= '0' && ch <= '9') {
+				value = value * 10 + (ch - '0');
+				i++;
+			}
+			if (i == numberStart || (i < end && ch != ',' && !isWhitespace(ch)) || value > 0xFFFFFFFFL) {
+				int tokenEnd = i;
+				while (tokenEnd < end && chars[tokenEnd] != ',') {
+					tokenEnd++;
+				}
+				throw new LSysException("Not an unsigned integer: '"
+						+ new String(chars, numberStart, tokenEnd - numberStart).trim() + "'");
+			}
+			out[count++] = (int) value;
+		}
+		return count - offset;
+	}
+
+}
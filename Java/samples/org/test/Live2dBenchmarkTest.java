@@ -0,0 +1,123 @@
+package org.test;
+
+import loon.LSystem;
+import loon.Screen;
+import loon.canvas.LColor;
+import loon.event.GameTouch;
+import loon.live2d.framework.LAppLive2DManager;
+import loon.live2d.framework.LAppModel;
+import loon.live2d.framework.LAppModelGroup;
+import loon.opengl.GLEx;
+import loon.utils.TArray;
+import loon.utils.timer.LTimerContext;
+
+/**
+ * Live2D多模型更新耗时测试,依次以1,2,4,8,16个模型分别测量顺序与并行update的平均耗时.
+ * 并行更新使用UpdatePhases的默认执行者,JavaSE下需设置JavaSetting.workerThreads大于1才会真正并行
+ */
+public class Live2dBenchmarkTest extends Screen {
+
+	final static String MODEL_PATH = "assets/live2d/haru/haru.model.json";
+
+	final static int[] COUNTS = { 1, 2, 4, 8, 16 };
+
+	final static int FRAMES = 120;
+
+	private final TArray<String> results = new TArray<String>();
+
+	private LAppModelGroup group;
+
+	private int countIndex, frame;
+
+	private long totalNanos;
+
+	@Override
+	public void draw(GLEx g) {
+		if (isTransitionCompleted() && isOnLoadComplete()) {
+			if (countIndex < COUNTS.length) {
+				while (group.size() < COUNTS[countIndex]) {
+					LAppModel model = new LAppModel();
+					model.load(MODEL_PATH);
+					group.add(model);
+				}
+				group.update();
+				totalNanos += group.getLastUpdateNanos();
+				if (++frame == FRAMES) {
+					String result = "models:" + group.size() + (group.isParallel() ? " parallel " : " serial ")
+							+ (totalNanos / FRAMES / 1000) + "us";
+					results.add(result);
+					LSystem.debug(result);
+					frame = 0;
+					totalNanos = 0;
+					if (group.isParallel()) {
+						group.setParallel(false);
+						countIndex++;
+					} else {
+						group.setParallel(true);
+					}
+				}
+			}
+			group.draw(g);
+			for (int i = 0; i < results.size; i++) {
+				g.drawString(results.get(i), 10, 10 + i * 20, LColor.yellow);
+			}
+		}
+	}
+
+	@Override
+	public void onLoad() {
+		// 初始化Live2D运行环境
+		new LAppLive2DManager();
+		group = new LAppModelGroup(false);
+		add(MultiScreenTest.getBackButton(this, 0));
+	}
+
+	@Override
+	public void alter(LTimerContext timer) {
+
+	}
+
+	@Override
+	public void resize(int width, int height) {
+
+	}
+
+	@Override
+	public void touchDown(GameTouch e) {
+
+	}
+
+	@Override
+	public void touchUp(GameTouch e) {
+
+	}
+
+	@Override
+	public void touchMove(GameTouch e) {
+
+	}
+
+	@Override
+	public void touchDrag(GameTouch e) {
+
+	}
+
+	@Override
+	public void resume() {
+
+	}
+
+	@Override
+	public void pause() {
+
+	}
+
+	@Override
+	public void close() {
+		if (group != null) {
+			group.release();
+			group.close();
+		}
+	}
+
+}
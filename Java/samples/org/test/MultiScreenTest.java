@@ -153,7 +153,8 @@ public class MultiScreenTest extends Screen {
 	final String[] page1 = { "Screen", "Slider", "Alert", "Animation", "FrameLoop", "Script", "SText", "Light",
 			"Countdown", "AVG", "Layer", "LLK", "TextField", "SRPG", "PShadow", "Array2DMap", "Image", "Natural",
 			"MenuSelect", "CheckBox", "TextTree", "SLG", "I18N", "Buttle", "HexagonMap", "Label", "Grid", "Elements",
-			"QRCode", "Chop", "CachePool", "JSonView", "HtmlView", "CompNewLine", "CollWorld", "Gravity", "Jigsaw","Tetris" };
+			"QRCode", "Chop", "CachePool", "JSonView", "HtmlView", "CompNewLine", "CollWorld", "Gravity", "Jigsaw","Tetris",
+			"Live2dBench" };
 
 	static BMFont info_font;
 
@@ -268,6 +269,7 @@ public class MultiScreenTest extends Screen {
 			addScreen(page1[index++], new GravityTest());
 			addScreen(page1[index++], new JigsawTest());
 			addScreen(page1[index++], new TetrisTest());
+			addScreen(page1[index++], new Live2dBenchmarkTest());
 		}
 
 		// 默认按钮大小为100x25